@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.core.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.cdt.core.dom.parser.IScannerExtensionConfiguration;
+import org.eclipse.cdt.core.dom.parser.c.GCCParserExtensionConfiguration;
+import org.eclipse.cdt.core.dom.parser.c.GCCScannerExtensionConfiguration;
+import org.eclipse.cdt.core.dom.parser.cpp.GPPParserExtensionConfiguration;
+import org.eclipse.cdt.core.dom.parser.cpp.GPPScannerExtensionConfiguration;
+import org.eclipse.cdt.core.parser.FileContent;
+import org.eclipse.cdt.core.parser.IncludeFileContentProvider;
+import org.eclipse.cdt.core.parser.NullLogService;
+import org.eclipse.cdt.core.parser.ParserLanguage;
+import org.eclipse.cdt.core.parser.ParserMode;
+import org.eclipse.cdt.core.parser.ScannerInfo;
+import org.eclipse.cdt.internal.core.dom.parser.AbstractGNUSourceCodeParser;
+import org.eclipse.cdt.internal.core.dom.parser.c.GNUCSourceParser;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.GNUCPPSourceParser;
+import org.eclipse.cdt.internal.core.parser.scanner.CPreprocessor;
+
+/**
+ * The files the benchmarks are run on. They are written to resemble the headers of real-world
+ * code bases, which cannot be checked in for license reasons.
+ */
+public enum Corpus {
+	/** Templates in the style of a standard library: traits, containers, iterators and algorithms. */
+	STL_LIKE("stl_like.hpp", ParserLanguage.CPP),
+	/** Preprocessor and template metaprogramming in the style of boost. */
+	BOOST_LIKE("boost_like.hpp", ParserLanguage.CPP),
+	/** C code dominated by macros, like generated register maps and X-macro tables. */
+	C_MACRO_HEAVY("macro_heavy.h", ParserLanguage.C);
+
+	private final String fFileName;
+	private final ParserLanguage fLanguage;
+	private char[] fContent;
+
+	private Corpus(String fileName, ParserLanguage language) {
+		fFileName = fileName;
+		fLanguage = language;
+	}
+
+	public ParserLanguage getLanguage() {
+		return fLanguage;
+	}
+
+	/**
+	 * Returns the content of the file.
+	 */
+	public synchronized char[] getContent() throws IOException {
+		if (fContent == null) {
+			try (InputStream in = Corpus.class.getResourceAsStream("corpus/" + fFileName)) { //$NON-NLS-1$
+				if (in == null)
+					throw new IOException("Missing corpus file " + fFileName); //$NON-NLS-1$
+				fContent = new String(in.readAllBytes(), StandardCharsets.UTF_8).toCharArray();
+			}
+		}
+		return fContent;
+	}
+
+	/**
+	 * Creates a preprocessor for the file, as configured for the GNU compilers.
+	 */
+	public CPreprocessor createPreprocessor() throws IOException {
+		ScannerInfo scannerInfo = new ScannerInfo();
+		IScannerExtensionConfiguration configuration = fLanguage == ParserLanguage.CPP
+				? GPPScannerExtensionConfiguration.getInstance(scannerInfo)
+				: GCCScannerExtensionConfiguration.getInstance(scannerInfo);
+		return new CPreprocessor(FileContent.create(fFileName, getContent()), scannerInfo, fLanguage,
+				new NullLogService(), configuration, IncludeFileContentProvider.getEmptyFilesProvider());
+	}
+
+	/**
+	 * Creates a parser for the file.
+	 * @param ambiguityResolution whether the parser resolves the ambiguities of the AST.
+	 */
+	public AbstractGNUSourceCodeParser createParser(boolean ambiguityResolution) throws IOException {
+		CPreprocessor preprocessor = createPreprocessor();
+		NullLogService log = new NullLogService();
+		if (fLanguage == ParserLanguage.CPP) {
+			return new GNUCPPSourceParser(preprocessor, ParserMode.COMPLETE_PARSE, log,
+					new GPPParserExtensionConfiguration(), null) {
+				@Override
+				protected void resolveAmbiguities() {
+					if (ambiguityResolution) {
+						super.resolveAmbiguities();
+					}
+				}
+			};
+		}
+		return new GNUCSourceParser(preprocessor, ParserMode.COMPLETE_PARSE, log,
+				new GCCParserExtensionConfiguration(), null) {
+			@Override
+			protected void resolveAmbiguities() {
+				if (ambiguityResolution) {
+					super.resolveAmbiguities();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Parses the file, including the resolution of ambiguities.
+	 */
+	public IASTTranslationUnit parse() throws IOException {
+		return createParser(true).parse();
+	}
+}
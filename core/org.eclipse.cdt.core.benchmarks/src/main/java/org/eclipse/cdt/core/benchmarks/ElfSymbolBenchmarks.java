@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.core.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.cdt.utils.Addr32;
+import org.eclipse.cdt.utils.Addr64;
+import org.eclipse.cdt.utils.elf.Elf;
+import org.eclipse.cdt.utils.elf.Elf.Symbol;
+import org.eclipse.cdt.utils.elf.ElfHelper;
+import org.eclipse.cdt.utils.elf.ElfSymbolTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares reading the symbols of an ELF file with {@link Elf#loadSymbols()} and {@link ElfHelper}
+ * to the memory mapped {@link ElfSymbolTable}. Each benchmark opens the file, reads the symbols
+ * and looks up the symbols of a fixed set of addresses. By default the shared library of the
+ * running JVM is read, another file is passed with
+ * <pre>
+ * java -jar benchmarks.jar ElfSymbolBenchmarks -p file=/path/to/binary
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" }) //$NON-NLS-1$ //$NON-NLS-2$
+public class ElfSymbolBenchmarks {
+	private static final int LOOKUPS = 1000;
+
+	@Param({ "" })
+	public String file;
+
+	private long[] addresses;
+
+	@Setup
+	public void setUp() throws IOException {
+		if (file.isEmpty()) {
+			file = Paths.get(System.getProperty("java.home"), "lib", "server", "libjvm.so").toString(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
+		// Addresses spread over the range of the symbols.
+		try (Elf elf = new Elf(file)) {
+			ElfSymbolTable table = elf.mapSymbolTable();
+			if (table == null)
+				throw new IOException("No symbol table in " + file); //$NON-NLS-1$
+			int[] sorted = table.getAddressIndex();
+			long low = table.getValue(sorted[0]);
+			long high = table.getValue(sorted[sorted.length - 1]);
+			Random random = new Random(0);
+			addresses = new long[LOOKUPS];
+			for (int i = 0; i < LOOKUPS; i++) {
+				addresses[i] = low + (long) (random.nextDouble() * (high - low));
+			}
+		}
+	}
+
+	@Benchmark
+	public int elfLoadSymbols() throws IOException {
+		try (Elf elf = new Elf(file)) {
+			elf.loadSymbols();
+			boolean is64 = elf.getELFhdr().e_ident[Elf.ELFhdr.EI_CLASS] == Elf.ELFhdr.ELFCLASS64;
+			int found = 0;
+			for (long address : addresses) {
+				Symbol symbol = elf.getSymbol(is64 ? new Addr64(address) : new Addr32(address));
+				if (symbol != null && symbol.toString() != null)
+					found++;
+			}
+			return found;
+		}
+	}
+
+	@Benchmark
+	public int elfHelperLocalFunctions() throws IOException {
+		try (ElfHelper helper = new ElfHelper(file)) {
+			return helper.getLocalFunctions().length;
+		}
+	}
+
+	@Benchmark
+	public int mappedSymbolTable() throws IOException {
+		try (Elf elf = new Elf(file)) {
+			ElfSymbolTable table = elf.mapSymbolTable();
+			int found = 0;
+			for (long address : addresses) {
+				int index = table.findSymbol(address);
+				if (index >= 0 && table.getName(index) != null)
+					found++;
+			}
+			return found;
+		}
+	}
+
+	@Benchmark
+	public int mappedLocalFunctions() throws IOException {
+		try (Elf elf = new Elf(file)) {
+			ElfSymbolTable table = elf.mapSymbolTable();
+			int count = 0;
+			for (int i = 0; i < table.size(); i++) {
+				if (table.getType(i) == Symbol.STT_FUNC && table.getSectionIndex(i) != Symbol.SHN_UNDEF)
+					count++;
+			}
+			return count;
+		}
+	}
+}
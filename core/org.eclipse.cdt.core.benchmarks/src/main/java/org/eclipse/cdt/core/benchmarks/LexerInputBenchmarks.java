@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.core.benchmarks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.cdt.core.parser.IToken;
+import org.eclipse.cdt.internal.core.parser.scanner.AbstractCharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.FileCharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.ILexerLog;
+import org.eclipse.cdt.internal.core.parser.scanner.Lexer;
+import org.eclipse.cdt.internal.core.parser.scanner.Lexer.LexerOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of reading and lexing a large generated file, which is either decoded into chunks
+ * on the heap or memory-mapped. The file has 16MB, the throughput in MB/s is 16 times the
+ * reported operations per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LexerInputBenchmarks {
+	private static final int FILE_SIZE = 16 * 1024 * 1024;
+
+	@Param({ "true", "false" })
+	public boolean mapped;
+
+	private File fFile;
+
+	@Setup(Level.Trial)
+	public void createFile() throws Exception {
+		fFile = File.createTempFile("registers", ".h"); //$NON-NLS-1$ //$NON-NLS-2$
+		try (Writer out = Files.newBufferedWriter(fFile.toPath(), StandardCharsets.UTF_8)) {
+			long size = 0;
+			for (int i = 0; size < FILE_SIZE; i++) {
+				String line = "#define REG_" + i + "_OFFSET (0x" + Integer.toHexString(i * 4) + "U)\n"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				out.write(line);
+				size += line.length();
+			}
+		}
+		FileCharArray.setMappingThreshold(mapped ? 0 : Long.MAX_VALUE);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteFile() {
+		fFile.delete();
+	}
+
+	@Benchmark
+	public int readAndLex() throws Exception {
+		AbstractCharArray input;
+		try (FileInputStream in = new FileInputStream(fFile)) {
+			input = FileCharArray.create(fFile.getPath(), "UTF-8", in); //$NON-NLS-1$
+		}
+		Lexer lexer = new Lexer(input, new LexerOptions(), ILexerLog.NULL, null);
+		int count = 0;
+		while (lexer.nextToken().getType() != IToken.tEND_OF_INPUT) {
+			count++;
+		}
+		return count;
+	}
+}
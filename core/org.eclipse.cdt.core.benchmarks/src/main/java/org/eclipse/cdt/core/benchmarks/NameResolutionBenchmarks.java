@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.core.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.cdt.core.dom.ast.ASTVisitor;
+import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.cdt.internal.core.dom.parser.ParallelDeclarationProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of resolving the names of a file of the {@link Corpus} on multiple threads, each
+ * thread working on a partition of the declarations of its own copy of the AST. With a single
+ * thread, the names are resolved by the calling thread only, comparable to
+ * {@link ParserBenchmarks#resolveNames}. The time includes copying the AST.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class NameResolutionBenchmarks {
+	@Param
+	public Corpus corpus;
+
+	@Param({ "1", "2", "4" })
+	public int threads;
+
+	private ForkJoinPool fPool;
+
+	@Setup(Level.Trial)
+	public void createPool() {
+		fPool = threads > 1 ? new ForkJoinPool(threads - 1) : null;
+	}
+
+	@TearDown(Level.Trial)
+	public void shutdownPool() {
+		if (fPool != null)
+			fPool.shutdown();
+	}
+
+	/**
+	 * A freshly parsed AST for each invocation, because the names cache their bindings.
+	 */
+	@State(Scope.Thread)
+	public static class ParsedFile {
+		IASTTranslationUnit fAST;
+
+		@Setup(Level.Invocation)
+		public void parse(NameResolutionBenchmarks benchmarks) throws Exception {
+			fAST = benchmarks.corpus.parse();
+		}
+	}
+
+	@Benchmark
+	public int resolveNames(ParsedFile file) {
+		List<Integer> counts = ParallelDeclarationProcessor.process(file.fAST, fPool, threads, 1,
+				NameResolutionBenchmarks::resolvePartition);
+		int count = 0;
+		for (int c : counts) {
+			count += c;
+		}
+		return count;
+	}
+
+	private static int resolvePartition(IASTTranslationUnit ast, IASTDeclaration[] declarations) {
+		final int[] count = new int[1];
+		ASTVisitor visitor = new ASTVisitor() {
+			{
+				shouldVisitNames = true;
+			}
+
+			@Override
+			public int visit(IASTName name) {
+				if (name.resolveBinding() != null)
+					count[0]++;
+				return PROCESS_CONTINUE;
+			}
+		};
+		for (IASTDeclaration declaration : declarations) {
+			ParallelDeclarationProcessor.accept(declaration, visitor);
+		}
+		return count[0];
+	}
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.core.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.cdt.core.dom.ast.ASTVisitor;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.cdt.core.parser.EndOfFileException;
+import org.eclipse.cdt.core.parser.IToken;
+import org.eclipse.cdt.internal.core.parser.scanner.CPreprocessor;
+import org.eclipse.cdt.internal.core.parser.scanner.ILexerLog;
+import org.eclipse.cdt.internal.core.parser.scanner.Lexer;
+import org.eclipse.cdt.internal.core.parser.scanner.Lexer.LexerOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the stages of parsing a file of the {@link Corpus}. Each stage includes the ones
+ * before it, such that the cost of a stage is the difference to the previous one:
+ * <ul>
+ * <li>{@link #lex}: the lexer only, no macros are expanded
+ * <li>{@link #preprocess}: the preprocessor, including macro expansion
+ * <li>{@link #parse}: building the AST, without resolving ambiguities
+ * <li>{@link #parseAndResolveAmbiguities}: building the AST as the indexer and editor do
+ * </ul>
+ * {@link #resolveNames} measures the resolution of the bindings of all names of a parsed AST.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class ParserBenchmarks {
+	@Param
+	public Corpus corpus;
+
+	private char[] fContent;
+
+	@Setup(Level.Trial)
+	public void loadCorpus() throws Exception {
+		fContent = corpus.getContent();
+	}
+
+	@Benchmark
+	public int lex() throws Exception {
+		Lexer lexer = new Lexer(fContent, new LexerOptions(), ILexerLog.NULL, null);
+		int count = 0;
+		while (lexer.nextToken().getType() != IToken.tEND_OF_INPUT) {
+			count++;
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int preprocess() throws Exception {
+		CPreprocessor preprocessor = corpus.createPreprocessor();
+		int count = 0;
+		try {
+			while (true) {
+				preprocessor.nextToken();
+				count++;
+			}
+		} catch (EndOfFileException e) {
+			// The end of the file has been reached.
+		}
+		return count;
+	}
+
+	@Benchmark
+	public IASTTranslationUnit parse() throws Exception {
+		return corpus.createParser(false).parse();
+	}
+
+	@Benchmark
+	public IASTTranslationUnit parseAndResolveAmbiguities() throws Exception {
+		return corpus.createParser(true).parse();
+	}
+
+	/**
+	 * A freshly parsed AST for each invocation, because the names cache their bindings.
+	 */
+	@State(Scope.Thread)
+	public static class ParsedFile {
+		IASTTranslationUnit fAST;
+
+		@Setup(Level.Invocation)
+		public void parse(ParserBenchmarks benchmarks) throws Exception {
+			fAST = benchmarks.corpus.parse();
+		}
+	}
+
+	@Benchmark
+	public void resolveNames(ParsedFile file, final Blackhole blackhole) {
+		file.fAST.accept(new ASTVisitor() {
+			{
+				shouldVisitNames = true;
+			}
+
+			@Override
+			public int visit(IASTName name) {
+				blackhole.consume(name.resolveBinding());
+				return PROCESS_CONTINUE;
+			}
+		});
+	}
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.core.benchmarks;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.cdt.internal.core.pdom.db.LongObjectMap;
+import org.eclipse.cdt.internal.core.pdom.db.LongSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the boxed collections with the primitive maps used for caching database records while
+ * writing the index. The access pattern mimics a cache that is filled, queried and drained again.
+ * The allocations per operation are reported when running with the GC profiler:
+ * <pre>
+ * java -jar benchmarks.jar RecordMapBenchmarks -prof gc
+ * </pre>
+ * and are listed as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" }) //$NON-NLS-1$ //$NON-NLS-2$
+public class RecordMapBenchmarks {
+	/** Number of records, the database is mostly above the range of cached {@link Long}s. */
+	@Param({ "1000", "100000" })
+	public int records;
+
+	private static long record(int i) {
+		// Records are block aligned and start after the header of the database.
+		return 0x10000L + i * 8L;
+	}
+
+	@Benchmark
+	public int boxedMap() {
+		Map<Long, Object> map = new HashMap<>();
+		for (int i = 0; i < records; i++) {
+			map.put(record(i), this);
+		}
+		int hits = 0;
+		for (int i = 0; i < 2 * records; i++) {
+			if (map.get(record(i)) != null)
+				hits++;
+		}
+		for (int i = 0; i < records; i++) {
+			map.remove(record(i));
+		}
+		return hits;
+	}
+
+	@Benchmark
+	public int longObjectMap() {
+		LongObjectMap<Object> map = new LongObjectMap<>();
+		for (int i = 0; i < records; i++) {
+			map.put(record(i), this);
+		}
+		int hits = 0;
+		for (int i = 0; i < 2 * records; i++) {
+			if (map.get(record(i)) != null)
+				hits++;
+		}
+		for (int i = 0; i < records; i++) {
+			map.remove(record(i));
+		}
+		return hits;
+	}
+
+	@Benchmark
+	public int boxedSet() {
+		Set<Long> set = new HashSet<>();
+		int hits = 0;
+		for (int i = 0; i < records; i++) {
+			set.add(record(i));
+		}
+		for (int i = 0; i < 2 * records; i++) {
+			if (set.contains(record(i)))
+				hits++;
+		}
+		for (int i = 0; i < records; i++) {
+			set.remove(record(i));
+		}
+		return hits;
+	}
+
+	@Benchmark
+	public int longSet() {
+		LongSet set = new LongSet();
+		int hits = 0;
+		for (int i = 0; i < records; i++) {
+			set.add(record(i));
+		}
+		for (int i = 0; i < 2 * records; i++) {
+			if (set.contains(record(i)))
+				hits++;
+		}
+		for (int i = 0; i < records; i++) {
+			set.remove(record(i));
+		}
+		return hits;
+	}
+}
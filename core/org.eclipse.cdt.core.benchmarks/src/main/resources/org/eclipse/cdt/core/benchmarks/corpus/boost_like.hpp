@@ -0,0 +1,360 @@
+// Benchmark corpus: preprocessor and template metaprogramming in the style of boost.
+#ifndef BENCH_BOOST_LIKE_HPP
+#define BENCH_BOOST_LIKE_HPP
+
+// ---------------------------------------------------------------- preprocessor library
+
+#define BPP_CAT(a, b) BPP_CAT_I(a, b)
+#define BPP_CAT_I(a, b) a ## b
+#define BPP_STRINGIZE(x) BPP_STRINGIZE_I(x)
+#define BPP_STRINGIZE_I(x) #x
+#define BPP_EMPTY()
+#define BPP_COMMA() ,
+#define BPP_COMMA_IF(n) BPP_COMMA_IF_I(BPP_BOOL(n))
+#define BPP_COMMA_IF_I(b) BPP_COMMA_IF_II(b)
+#define BPP_COMMA_IF_II(b) BPP_COMMA_IF_ ## b()
+#define BPP_COMMA_IF_0()
+#define BPP_COMMA_IF_1() ,
+
+#define BPP_BOOL(n) BPP_BOOL_ ## n
+#define BPP_BOOL_0 0
+#define BPP_BOOL_1 1
+#define BPP_BOOL_2 1
+#define BPP_BOOL_3 1
+#define BPP_BOOL_4 1
+#define BPP_BOOL_5 1
+#define BPP_BOOL_6 1
+#define BPP_BOOL_7 1
+#define BPP_BOOL_8 1
+#define BPP_BOOL_9 1
+#define BPP_BOOL_10 1
+#define BPP_BOOL_11 1
+#define BPP_BOOL_12 1
+
+#define BPP_INC(n) BPP_INC_I(n)
+#define BPP_INC_I(n) BPP_INC_ ## n
+#define BPP_INC_0 1
+#define BPP_INC_1 2
+#define BPP_INC_2 3
+#define BPP_INC_3 4
+#define BPP_INC_4 5
+#define BPP_INC_5 6
+#define BPP_INC_6 7
+#define BPP_INC_7 8
+#define BPP_INC_8 9
+#define BPP_INC_9 10
+#define BPP_INC_10 11
+#define BPP_INC_11 12
+
+#define BPP_REPEAT(n, m, d) BPP_REPEAT_ ## n(m, d)
+#define BPP_REPEAT_0(m, d)
+#define BPP_REPEAT_1(m, d) m(0, d)
+#define BPP_REPEAT_2(m, d) BPP_REPEAT_1(m, d) m(1, d)
+#define BPP_REPEAT_3(m, d) BPP_REPEAT_2(m, d) m(2, d)
+#define BPP_REPEAT_4(m, d) BPP_REPEAT_3(m, d) m(3, d)
+#define BPP_REPEAT_5(m, d) BPP_REPEAT_4(m, d) m(4, d)
+#define BPP_REPEAT_6(m, d) BPP_REPEAT_5(m, d) m(5, d)
+#define BPP_REPEAT_7(m, d) BPP_REPEAT_6(m, d) m(6, d)
+#define BPP_REPEAT_8(m, d) BPP_REPEAT_7(m, d) m(7, d)
+#define BPP_REPEAT_9(m, d) BPP_REPEAT_8(m, d) m(8, d)
+#define BPP_REPEAT_10(m, d) BPP_REPEAT_9(m, d) m(9, d)
+#define BPP_REPEAT_11(m, d) BPP_REPEAT_10(m, d) m(10, d)
+#define BPP_REPEAT_12(m, d) BPP_REPEAT_11(m, d) m(11, d)
+
+// A second repetition construct, usable inside of BPP_REPEAT.
+#define BPP_REPEAT_B(n, m, d) BPP_REPEAT_B_ ## n(m, d)
+#define BPP_REPEAT_B_0(m, d)
+#define BPP_REPEAT_B_1(m, d) m(0, d)
+#define BPP_REPEAT_B_2(m, d) BPP_REPEAT_B_1(m, d) m(1, d)
+#define BPP_REPEAT_B_3(m, d) BPP_REPEAT_B_2(m, d) m(2, d)
+#define BPP_REPEAT_B_4(m, d) BPP_REPEAT_B_3(m, d) m(3, d)
+#define BPP_REPEAT_B_5(m, d) BPP_REPEAT_B_4(m, d) m(4, d)
+#define BPP_REPEAT_B_6(m, d) BPP_REPEAT_B_5(m, d) m(5, d)
+#define BPP_REPEAT_B_7(m, d) BPP_REPEAT_B_6(m, d) m(6, d)
+#define BPP_REPEAT_B_8(m, d) BPP_REPEAT_B_7(m, d) m(7, d)
+#define BPP_REPEAT_B_9(m, d) BPP_REPEAT_B_8(m, d) m(8, d)
+#define BPP_REPEAT_B_10(m, d) BPP_REPEAT_B_9(m, d) m(9, d)
+#define BPP_REPEAT_B_11(m, d) BPP_REPEAT_B_10(m, d) m(10, d)
+#define BPP_REPEAT_B_12(m, d) BPP_REPEAT_B_11(m, d) m(11, d)
+
+#define BPP_ENUM_PARAMS_M(n, p) BPP_COMMA_IF(n) p ## n
+#define BPP_ENUM_PARAMS(n, p) BPP_REPEAT_B(n, BPP_ENUM_PARAMS_M, p)
+#define BPP_ENUM_BINARY_M(n, d) BPP_COMMA_IF(n) BPP_ENUM_BINARY_T_ ## d(n)
+#define BPP_ENUM_BINARY_T_typed(n) T ## n a ## n
+#define BPP_ENUM_BINARY_T_forward(n) static_cast<T ## n &&>(a ## n)
+#define BPP_ENUM_BINARY(n, d) BPP_REPEAT_B(n, BPP_ENUM_BINARY_M, d)
+
+#define BPP_IIF(c, t, f) BPP_IIF_I(c, t, f)
+#define BPP_IIF_I(c, t, f) BPP_IIF_ ## c(t, f)
+#define BPP_IIF_0(t, f) f
+#define BPP_IIF_1(t, f) t
+#define BPP_IF(c, t, f) BPP_IIF(BPP_BOOL(c), t, f)
+
+#define BPP_SEQ_HEAD(seq) BPP_SEQ_HEAD_I(BPP_SEQ_HEAD_E seq)
+#define BPP_SEQ_HEAD_E(x) x, ~
+#define BPP_SEQ_HEAD_I(args) BPP_SEQ_HEAD_II(args)
+#define BPP_SEQ_HEAD_II(x, rest) x
+
+#define BOOST_STATIC_CONSTANT(type, assignment) static const type assignment
+#define BOOST_NOEXCEPT noexcept
+#define BOOST_FORCEINLINE inline __attribute__((always_inline))
+#define BOOST_STATIC_ASSERT(expr) static_assert(expr, #expr)
+#define BOOST_DEDUCED_TYPENAME typename
+
+#if defined(__GNUC__) && !defined(BOOST_NO_CXX11_VARIADIC_TEMPLATES)
+#  define BOOST_HAS_VARIADIC_TMPL 1
+#else
+#  define BOOST_HAS_VARIADIC_TMPL 0
+#endif
+
+inline void* operator new(decltype(sizeof(0)), void* p) noexcept {
+	return p;
+}
+
+namespace boostlike {
+
+// ---------------------------------------------------------------- mpl
+
+namespace mpl {
+
+template <bool C> struct bool_ {
+	BOOST_STATIC_CONSTANT(bool, value = C);
+	typedef bool_ type;
+};
+typedef bool_<true> true_;
+typedef bool_<false> false_;
+
+template <int N> struct int_ {
+	BOOST_STATIC_CONSTANT(int, value = N);
+	typedef int_ type;
+	typedef int_<N + 1> next;
+	typedef int_<N - 1> prior;
+};
+
+template <typename C, typename T, typename F> struct if_ { typedef T type; };
+template <typename T, typename F> struct if_<false_, T, F> { typedef F type; };
+
+template <typename... Ts> struct vector {};
+
+template <typename Seq> struct size;
+template <typename... Ts> struct size<vector<Ts...>> : int_<sizeof...(Ts)> {};
+
+template <typename Seq, typename T> struct push_back;
+template <typename... Ts, typename T> struct push_back<vector<Ts...>, T> { typedef vector<Ts..., T> type; };
+
+template <typename Seq, typename T> struct push_front;
+template <typename... Ts, typename T> struct push_front<vector<Ts...>, T> { typedef vector<T, Ts...> type; };
+
+template <typename Seq, int N> struct at;
+template <typename T, typename... Ts> struct at<vector<T, Ts...>, 0> { typedef T type; };
+template <typename T, typename... Ts, int N> struct at<vector<T, Ts...>, N> : at<vector<Ts...>, N - 1> {};
+
+template <typename Seq, template <typename> class F> struct transform;
+template <typename... Ts, template <typename> class F>
+struct transform<vector<Ts...>, F> { typedef vector<typename F<Ts>::type...> type; };
+
+template <typename Seq, typename T> struct contains;
+template <typename T> struct contains<vector<>, T> : false_ {};
+template <typename U, typename... Ts, typename T>
+struct contains<vector<U, Ts...>, T> : contains<vector<Ts...>, T> {};
+template <typename... Ts, typename T>
+struct contains<vector<T, Ts...>, T> : true_ {};
+
+template <typename Seq, typename State, template <typename, typename> class Op> struct fold;
+template <typename State, template <typename, typename> class Op>
+struct fold<vector<>, State, Op> { typedef State type; };
+template <typename T, typename... Ts, typename State, template <typename, typename> class Op>
+struct fold<vector<T, Ts...>, State, Op> : fold<vector<Ts...>, typename Op<State, T>::type, Op> {};
+
+} // namespace mpl
+
+// ---------------------------------------------------------------- type traits
+
+template <typename T> struct add_pointer { typedef T* type; };
+template <typename T> struct add_const { typedef const T type; };
+template <typename T> struct remove_pointer { typedef T type; };
+template <typename T> struct remove_pointer<T*> { typedef T type; };
+
+template <typename T> struct is_void : mpl::false_ {};
+template <> struct is_void<void> : mpl::true_ {};
+
+template <typename A, typename B> struct larger {
+	typedef typename mpl::if_<mpl::bool_<(sizeof(A) > sizeof(B))>, A, B>::type type;
+};
+
+// Function traits for up to 11 arguments, generated by the preprocessor.
+template <typename F> struct function_traits;
+
+#define BOOSTLIKE_ARG_TYPEDEF(n, d) typedef T ## n BPP_CAT(BPP_CAT(arg, BPP_INC(n)), _type);
+#define BOOSTLIKE_FUNCTION_TRAITS(n, d) \
+	template <typename R BPP_COMMA_IF(n) BPP_ENUM_PARAMS(n, typename T)> \
+	struct function_traits<R(BPP_ENUM_PARAMS(n, T))> { \
+		BOOST_STATIC_CONSTANT(int, arity = n); \
+		typedef R result_type; \
+		BPP_REPEAT_B(n, BOOSTLIKE_ARG_TYPEDEF, ~) \
+	};
+BPP_REPEAT(12, BOOSTLIKE_FUNCTION_TRAITS, ~)
+#undef BOOSTLIKE_FUNCTION_TRAITS
+
+// ---------------------------------------------------------------- tuple
+
+template <typename... Ts> class tuple;
+template <> class tuple<> {};
+
+template <typename T, typename... Ts>
+class tuple<T, Ts...> : private tuple<Ts...> {
+	T head_;
+
+public:
+	typedef tuple<Ts...> tail_type;
+
+	tuple() : tail_type(), head_() {}
+	tuple(const T& head, const Ts&... tail) : tail_type(tail...), head_(head) {}
+
+	T& head() BOOST_NOEXCEPT { return head_; }
+	const T& head() const BOOST_NOEXCEPT { return head_; }
+	tail_type& tail() BOOST_NOEXCEPT { return *this; }
+	const tail_type& tail() const BOOST_NOEXCEPT { return *this; }
+};
+
+template <int N, typename Tuple> struct tuple_element;
+template <typename T, typename... Ts> struct tuple_element<0, tuple<T, Ts...>> { typedef T type; };
+template <int N, typename T, typename... Ts>
+struct tuple_element<N, tuple<T, Ts...>> : tuple_element<N - 1, tuple<Ts...>> {};
+
+template <int N> struct get_impl {
+	template <typename T, typename... Ts>
+	static typename tuple_element<N, tuple<T, Ts...>>::type& get(tuple<T, Ts...>& t) {
+		return get_impl<N - 1>::get(t.tail());
+	}
+};
+template <> struct get_impl<0> {
+	template <typename T, typename... Ts>
+	static T& get(tuple<T, Ts...>& t) { return t.head(); }
+};
+
+template <int N, typename... Ts>
+typename tuple_element<N, tuple<Ts...>>::type& get(tuple<Ts...>& t) {
+	return get_impl<N>::get(t);
+}
+
+template <typename... Ts>
+tuple<Ts...> make_tuple(const Ts&... values) {
+	return tuple<Ts...>(values...);
+}
+
+// ---------------------------------------------------------------- bind-like overloads
+
+// Overloads of a factory for up to 11 arguments, as generated in boost before variadic templates.
+#define BOOSTLIKE_MAKE_SHARED(n, d) \
+	template <typename R BPP_COMMA_IF(n) BPP_ENUM_PARAMS(n, typename T)> \
+	BOOST_FORCEINLINE R* make_object(BPP_ENUM_BINARY(n, typed)) { \
+		return new R(BPP_ENUM_PARAMS(n, a)); \
+	}
+BPP_REPEAT(12, BOOSTLIKE_MAKE_SHARED, ~)
+#undef BOOSTLIKE_MAKE_SHARED
+
+// ---------------------------------------------------------------- variant-like visitation
+
+template <typename... Ts> struct max_size;
+template <> struct max_size<> : mpl::int_<0> {};
+template <typename T, typename... Ts>
+struct max_size<T, Ts...> : mpl::int_<(sizeof(T) > max_size<Ts...>::value ? sizeof(T) : max_size<Ts...>::value)> {};
+
+template <typename T, typename... Ts> struct index_of;
+template <typename T, typename... Ts> struct index_of<T, T, Ts...> : mpl::int_<0> {};
+template <typename T, typename U, typename... Ts>
+struct index_of<T, U, Ts...> : mpl::int_<1 + index_of<T, Ts...>::value> {};
+
+template <typename... Ts>
+class variant {
+	alignas(8) char storage_[max_size<Ts...>::value];
+	int which_;
+
+public:
+	template <typename T>
+	variant(const T& value) : which_(index_of<T, Ts...>::value) {
+		new (storage_) T(value);
+	}
+
+	int which() const { return which_; }
+
+	template <typename T>
+	T* get_if() {
+		return which_ == index_of<T, Ts...>::value ? reinterpret_cast<T*>(storage_) : 0;
+	}
+};
+
+struct static_visitor_base {};
+
+template <typename R>
+struct static_visitor : static_visitor_base {
+	typedef R result_type;
+};
+
+// ---------------------------------------------------------------- enable_if dispatch
+
+template <bool B, typename T = void> struct enable_if_c { typedef T type; };
+template <typename T> struct enable_if_c<false, T> {};
+template <typename Cond, typename T = void> struct enable_if : enable_if_c<Cond::value, T> {};
+template <typename Cond, typename T = void> struct disable_if : enable_if_c<!Cond::value, T> {};
+
+template <typename T>
+typename enable_if<is_void<T>, int>::type describe() { return 0; }
+template <typename T>
+typename disable_if<is_void<T>, int>::type describe() { return sizeof(T); }
+
+} // namespace boostlike
+
+// ---------------------------------------------------------------- uses
+
+namespace app {
+
+using namespace boostlike;
+
+typedef mpl::vector<char, short, int, long> integers;
+typedef mpl::push_back<integers, long long>::type more_integers;
+typedef mpl::transform<more_integers, add_pointer>::type pointers;
+typedef mpl::fold<more_integers, char, larger>::type largest;
+
+BOOST_STATIC_ASSERT(mpl::size<more_integers>::value == 5);
+BOOST_STATIC_ASSERT((mpl::contains<pointers, int*>::value));
+BOOST_STATIC_ASSERT(sizeof(largest) == sizeof(long long));
+BOOST_STATIC_ASSERT(function_traits<int(char, double)>::arity == 2);
+
+struct Point {
+	Point(int x, int y) : x(x), y(y) {}
+	int x, y;
+};
+
+struct Shape {
+	Shape(Point* a, Point* b, int color, const char* name) : a(a), b(b), color(color), name(name) {}
+	Point* a;
+	Point* b;
+	int color;
+	const char* name;
+};
+
+typedef variant<int, double, Point*> value;
+
+struct printer : static_visitor<int> {
+	int operator()(int i) const { return i; }
+	int operator()(double d) const { return static_cast<int>(d); }
+	int operator()(Point* p) const { return p->x + p->y; }
+};
+
+int use() {
+	Point* p = make_object<Point>(1, 2);
+	Shape* s = make_object<Shape>(p, p, 3, BPP_STRINGIZE(BPP_CAT(sha, pe)));
+	tuple<int, double, Point*> t = make_tuple(1, 2.0, p);
+	value v(p);
+	function_traits<int(char, short, long)>::arg2_type second = 0;
+	int total = get<0>(t) + static_cast<int>(get<1>(t)) + get<2>(t)->x + describe<void>() + describe<long>();
+	if (Point** q = v.get_if<Point*>())
+		total += printer()(*q);
+	return total + s->color + second + BPP_IF(3, 1, 0);
+}
+
+} // namespace app
+
+#endif // BENCH_BOOST_LIKE_HPP
@@ -0,0 +1,411 @@
+/* Benchmark corpus: C code dominated by macros, as in generated register maps and drivers. */
+#ifndef BENCH_MACRO_HEAVY_H
+#define BENCH_MACRO_HEAVY_H
+
+typedef unsigned char uint8_t;
+typedef unsigned short uint16_t;
+typedef unsigned int uint32_t;
+typedef unsigned long long uint64_t;
+typedef unsigned long uintptr_t;
+
+#define __IO volatile
+#define __I volatile const
+#define __STATIC_INLINE static inline
+
+#define BIT(n) (1U << (n))
+#define GENMASK(h, l) (((~0U) << (l)) & (~0U >> (31 - (h))))
+#define FIELD_PREP(mask, val) (((uint32_t)(val) << __builtin_ctz(mask)) & (mask))
+#define FIELD_GET(mask, reg) (((reg) & (mask)) >> __builtin_ctz(mask))
+#define ARRAY_SIZE(a) (sizeof(a) / sizeof((a)[0]))
+#define MIN(a, b) ((a) < (b) ? (a) : (b))
+#define MAX(a, b) ((a) > (b) ? (a) : (b))
+#define CLAMP(v, lo, hi) MIN(MAX(v, lo), hi)
+#define UNUSED(x) ((void)(x))
+#define CONCAT_(a, b) a##b
+#define CONCAT(a, b) CONCAT_(a, b)
+#define STR_(x) #x
+#define STR(x) STR_(x)
+
+#if defined(__GNUC__)
+#define LIKELY(x) __builtin_expect(!!(x), 1)
+#define UNLIKELY(x) __builtin_expect(!!(x), 0)
+#define PACKED __attribute__((packed))
+#define ALIGNED(n) __attribute__((aligned(n)))
+#else
+#define LIKELY(x) (x)
+#define UNLIKELY(x) (x)
+#define PACKED
+#define ALIGNED(n)
+#endif
+
+#ifndef CONFIG_NUM_UARTS
+#define CONFIG_NUM_UARTS 4
+#endif
+#ifndef CONFIG_NUM_TIMERS
+#define CONFIG_NUM_TIMERS 8
+#endif
+#if CONFIG_NUM_UARTS > 2 && defined(__GNUC__)
+#define HAVE_EXTRA_UARTS 1
+#else
+#define HAVE_EXTRA_UARTS 0
+#endif
+
+/* ------------------------------------------------------------ memory map */
+
+#define PERIPH_BASE 0x40000000UL
+#define APB1_BASE (PERIPH_BASE + 0x00000000UL)
+#define APB2_BASE (PERIPH_BASE + 0x00010000UL)
+#define AHB1_BASE (PERIPH_BASE + 0x00020000UL)
+
+#define UART0_BASE (APB1_BASE + 0x4400UL)
+#define UART1_BASE (APB1_BASE + 0x4800UL)
+#define UART2_BASE (APB1_BASE + 0x4C00UL)
+#define UART3_BASE (APB1_BASE + 0x5000UL)
+#define TIMER_BASE(n) (APB2_BASE + 0x0400UL * (n))
+#define GPIO_BASE(port) (AHB1_BASE + 0x0400UL * ((port) - 'A'))
+#define DMA_BASE (AHB1_BASE + 0x6000UL)
+
+/* ------------------------------------------------------------ registers via X-macros */
+
+/* name, offset, reset value, access */
+#define UART_REGISTERS(X) \
+	X(SR, 0x00, 0x000000C0, RW) \
+	X(DR, 0x04, 0x00000000, RW) \
+	X(BRR, 0x08, 0x00000000, RW) \
+	X(CR1, 0x0C, 0x00000000, RW) \
+	X(CR2, 0x10, 0x00000000, RW) \
+	X(CR3, 0x14, 0x00000000, RW) \
+	X(GTPR, 0x18, 0x00000000, RW)
+
+#define TIMER_REGISTERS(X) \
+	X(CR1, 0x00, 0x0000, RW) \
+	X(CR2, 0x04, 0x0000, RW) \
+	X(SMCR, 0x08, 0x0000, RW) \
+	X(DIER, 0x0C, 0x0000, RW) \
+	X(SR, 0x10, 0x0000, RW) \
+	X(EGR, 0x14, 0x0000, WO) \
+	X(CCMR1, 0x18, 0x0000, RW) \
+	X(CCMR2, 0x1C, 0x0000, RW) \
+	X(CCER, 0x20, 0x0000, RW) \
+	X(CNT, 0x24, 0x0000, RW) \
+	X(PSC, 0x28, 0x0000, RW) \
+	X(ARR, 0x2C, 0xFFFF, RW) \
+	X(CCR1, 0x34, 0x0000, RW) \
+	X(CCR2, 0x38, 0x0000, RW) \
+	X(CCR3, 0x3C, 0x0000, RW) \
+	X(CCR4, 0x40, 0x0000, RW)
+
+#define GPIO_REGISTERS(X) \
+	X(MODER, 0x00, 0x00000000, RW) \
+	X(OTYPER, 0x04, 0x00000000, RW) \
+	X(OSPEEDR, 0x08, 0x00000000, RW) \
+	X(PUPDR, 0x0C, 0x00000000, RW) \
+	X(IDR, 0x10, 0x00000000, RO) \
+	X(ODR, 0x14, 0x00000000, RW) \
+	X(BSRR, 0x18, 0x00000000, WO) \
+	X(LCKR, 0x1C, 0x00000000, RW) \
+	X(AFRL, 0x20, 0x00000000, RW) \
+	X(AFRH, 0x24, 0x00000000, RW)
+
+#define ACCESS_RW __IO
+#define ACCESS_RO __I
+#define ACCESS_WO __IO
+
+#define DECLARE_FIELD(name, offset, reset, access) CONCAT(ACCESS_, access) uint32_t name;
+#define DECLARE_OFFSET(periph, name, offset, reset, access) periph##_##name##_OFFSET = offset,
+#define UART_OFFSET(name, offset, reset, access) DECLARE_OFFSET(UART, name, offset, reset, access)
+#define TIMER_OFFSET(name, offset, reset, access) DECLARE_OFFSET(TIMER, name, offset, reset, access)
+#define GPIO_OFFSET(name, offset, reset, access) DECLARE_OFFSET(GPIO, name, offset, reset, access)
+#define RESET_VALUE(name, offset, reset, access) { offset, reset, STR(name) },
+
+typedef struct {
+	UART_REGISTERS(DECLARE_FIELD)
+} uart_regs_t;
+
+typedef struct {
+	uint32_t CR1, CR2, SMCR, DIER, SR, EGR, CCMR1, CCMR2, CCER, CNT, PSC, ARR;
+	uint32_t reserved0;
+	uint32_t CCR1, CCR2, CCR3, CCR4;
+} timer_regs_t;
+
+typedef struct {
+	GPIO_REGISTERS(DECLARE_FIELD)
+} gpio_regs_t;
+
+enum uart_offsets { UART_REGISTERS(UART_OFFSET) UART_OFFSET_COUNT };
+enum timer_offsets { TIMER_REGISTERS(TIMER_OFFSET) TIMER_OFFSET_COUNT };
+enum gpio_offsets { GPIO_REGISTERS(GPIO_OFFSET) GPIO_OFFSET_COUNT };
+
+struct reset_value {
+	uint32_t offset;
+	uint32_t value;
+	const char *name;
+};
+
+static const struct reset_value uart_reset_values[] = { UART_REGISTERS(RESET_VALUE) };
+static const struct reset_value timer_reset_values[] = { TIMER_REGISTERS(RESET_VALUE) };
+static const struct reset_value gpio_reset_values[] = { GPIO_REGISTERS(RESET_VALUE) };
+
+#define UART0 ((uart_regs_t *)UART0_BASE)
+#define UART1 ((uart_regs_t *)UART1_BASE)
+#define UART2 ((uart_regs_t *)UART2_BASE)
+#define UART3 ((uart_regs_t *)UART3_BASE)
+#define TIMER(n) ((timer_regs_t *)TIMER_BASE(n))
+#define GPIO(port) ((gpio_regs_t *)GPIO_BASE(port))
+
+/* ------------------------------------------------------------ bit fields */
+
+#define UART_SR_PE BIT(0)
+#define UART_SR_FE BIT(1)
+#define UART_SR_NF BIT(2)
+#define UART_SR_ORE BIT(3)
+#define UART_SR_IDLE BIT(4)
+#define UART_SR_RXNE BIT(5)
+#define UART_SR_TC BIT(6)
+#define UART_SR_TXE BIT(7)
+#define UART_SR_ERRORS (UART_SR_PE | UART_SR_FE | UART_SR_NF | UART_SR_ORE)
+
+#define UART_CR1_SBK BIT(0)
+#define UART_CR1_RWU BIT(1)
+#define UART_CR1_RE BIT(2)
+#define UART_CR1_TE BIT(3)
+#define UART_CR1_IDLEIE BIT(4)
+#define UART_CR1_RXNEIE BIT(5)
+#define UART_CR1_TCIE BIT(6)
+#define UART_CR1_TXEIE BIT(7)
+#define UART_CR1_PS BIT(9)
+#define UART_CR1_PCE BIT(10)
+#define UART_CR1_M BIT(12)
+#define UART_CR1_UE BIT(13)
+#define UART_CR2_STOP GENMASK(13, 12)
+#define UART_BRR_FRACTION GENMASK(3, 0)
+#define UART_BRR_MANTISSA GENMASK(15, 4)
+
+#define TIMER_CR1_CEN BIT(0)
+#define TIMER_CR1_UDIS BIT(1)
+#define TIMER_CR1_URS BIT(2)
+#define TIMER_CR1_OPM BIT(3)
+#define TIMER_CR1_DIR BIT(4)
+#define TIMER_CR1_CMS GENMASK(6, 5)
+#define TIMER_CR1_ARPE BIT(7)
+#define TIMER_CR1_CKD GENMASK(9, 8)
+#define TIMER_DIER_UIE BIT(0)
+#define TIMER_SR_UIF BIT(0)
+#define TIMER_CCMR_OCM(ch) (GENMASK(6, 4) << (((ch) & 1) * 8))
+#define TIMER_CCER_CCE(ch) BIT((ch) * 4)
+
+#define GPIO_MODE_INPUT 0x0U
+#define GPIO_MODE_OUTPUT 0x1U
+#define GPIO_MODE_AF 0x2U
+#define GPIO_MODE_ANALOG 0x3U
+#define GPIO_MODER_MASK(pin) (0x3U << ((pin) * 2))
+#define GPIO_MODER_SET(pin, mode) (((mode) & 0x3U) << ((pin) * 2))
+#define GPIO_AFR_MASK(pin) (0xFU << (((pin) & 7) * 4))
+#define GPIO_AFR_SET(pin, af) (((af) & 0xFU) << (((pin) & 7) * 4))
+
+/* ------------------------------------------------------------ accessors */
+
+#define REG_READ(reg) (*(volatile uint32_t *)&(reg))
+#define REG_WRITE(reg, val) (*(volatile uint32_t *)&(reg) = (uint32_t)(val))
+#define REG_SET(reg, bits) REG_WRITE(reg, REG_READ(reg) | (bits))
+#define REG_CLEAR(reg, bits) REG_WRITE(reg, REG_READ(reg) & ~(bits))
+#define REG_MODIFY(reg, clear, set) REG_WRITE(reg, (REG_READ(reg) & ~(clear)) | (set))
+#define REG_FIELD_SET(reg, mask, val) REG_MODIFY(reg, mask, FIELD_PREP(mask, val))
+#define REG_WAIT(reg, bits) do { } while ((REG_READ(reg) & (bits)) != (bits))
+
+#define DEFINE_UART_INSTANCE(n) \
+	__STATIC_INLINE void uart##n##_enable(void) { REG_SET(UART##n->CR1, UART_CR1_UE | UART_CR1_TE | UART_CR1_RE); } \
+	__STATIC_INLINE void uart##n##_disable(void) { REG_CLEAR(UART##n->CR1, UART_CR1_UE); } \
+	__STATIC_INLINE int uart##n##_tx_ready(void) { return (REG_READ(UART##n->SR) & UART_SR_TXE) != 0; } \
+	__STATIC_INLINE void uart##n##_putc(char c) { REG_WAIT(UART##n->SR, UART_SR_TXE); REG_WRITE(UART##n->DR, c); }
+
+DEFINE_UART_INSTANCE(0)
+DEFINE_UART_INSTANCE(1)
+#if HAVE_EXTRA_UARTS
+DEFINE_UART_INSTANCE(2)
+DEFINE_UART_INSTANCE(3)
+#endif
+
+#define DEFINE_TIMER_INSTANCE(n) \
+	__STATIC_INLINE void timer##n##_start(uint32_t prescaler, uint32_t period) { \
+		REG_WRITE(TIMER(n)->PSC, prescaler); \
+		REG_WRITE(TIMER(n)->ARR, period); \
+		REG_SET(TIMER(n)->DIER, TIMER_DIER_UIE); \
+		REG_SET(TIMER(n)->CR1, TIMER_CR1_CEN | TIMER_CR1_ARPE); \
+	} \
+	__STATIC_INLINE void timer##n##_stop(void) { REG_CLEAR(TIMER(n)->CR1, TIMER_CR1_CEN); } \
+	__STATIC_INLINE uint32_t timer##n##_count(void) { return REG_READ(TIMER(n)->CNT); }
+
+DEFINE_TIMER_INSTANCE(0)
+DEFINE_TIMER_INSTANCE(1)
+DEFINE_TIMER_INSTANCE(2)
+DEFINE_TIMER_INSTANCE(3)
+#if CONFIG_NUM_TIMERS > 4
+DEFINE_TIMER_INSTANCE(4)
+DEFINE_TIMER_INSTANCE(5)
+DEFINE_TIMER_INSTANCE(6)
+DEFINE_TIMER_INSTANCE(7)
+#endif
+
+/* ------------------------------------------------------------ pin table */
+
+#define PIN(port, pin) ((((port) - 'A') << 4) | (pin))
+#define PIN_PORT(p) ('A' + ((p) >> 4))
+#define PIN_NUMBER(p) ((p) & 0xF)
+
+#define BOARD_PINS(X) \
+	X(LED_RED, 'B', 14, GPIO_MODE_OUTPUT, 0) \
+	X(LED_GREEN, 'B', 0, GPIO_MODE_OUTPUT, 0) \
+	X(LED_BLUE, 'B', 7, GPIO_MODE_OUTPUT, 0) \
+	X(BUTTON, 'C', 13, GPIO_MODE_INPUT, 0) \
+	X(UART0_TX, 'A', 9, GPIO_MODE_AF, 7) \
+	X(UART0_RX, 'A', 10, GPIO_MODE_AF, 7) \
+	X(UART1_TX, 'D', 5, GPIO_MODE_AF, 7) \
+	X(UART1_RX, 'D', 6, GPIO_MODE_AF, 7) \
+	X(SPI_SCK, 'A', 5, GPIO_MODE_AF, 5) \
+	X(SPI_MISO, 'A', 6, GPIO_MODE_AF, 5) \
+	X(SPI_MOSI, 'A', 7, GPIO_MODE_AF, 5) \
+	X(ADC_IN0, 'A', 0, GPIO_MODE_ANALOG, 0)
+
+#define PIN_ENUM(name, port, pin, mode, af) PIN_##name = PIN(port, pin),
+#define PIN_CONFIG(name, port, pin, mode, af) { PIN(port, pin), mode, af, STR(name) },
+
+enum board_pin { BOARD_PINS(PIN_ENUM) BOARD_PIN_NONE = 0xFF };
+
+struct pin_config {
+	uint8_t pin;
+	uint8_t mode;
+	uint8_t af;
+	const char *name;
+} PACKED;
+
+static const struct pin_config board_pin_configs[] = { BOARD_PINS(PIN_CONFIG) };
+
+__STATIC_INLINE void gpio_configure(const struct pin_config *config) {
+	gpio_regs_t *gpio = GPIO(PIN_PORT(config->pin));
+	uint32_t pin = PIN_NUMBER(config->pin);
+	REG_MODIFY(gpio->MODER, GPIO_MODER_MASK(pin), GPIO_MODER_SET(pin, config->mode));
+	if (config->mode == GPIO_MODE_AF) {
+		if (pin < 8)
+			REG_MODIFY(gpio->AFRL, GPIO_AFR_MASK(pin), GPIO_AFR_SET(pin, config->af));
+		else
+			REG_MODIFY(gpio->AFRH, GPIO_AFR_MASK(pin), GPIO_AFR_SET(pin, config->af));
+	}
+}
+
+__STATIC_INLINE void gpio_write(enum board_pin p, int value) {
+	gpio_regs_t *gpio = GPIO(PIN_PORT(p));
+	REG_WRITE(gpio->BSRR, value ? BIT(PIN_NUMBER(p)) : BIT(PIN_NUMBER(p) + 16));
+}
+
+__STATIC_INLINE int gpio_read(enum board_pin p) {
+	return (REG_READ(GPIO(PIN_PORT(p))->IDR) & BIT(PIN_NUMBER(p))) != 0;
+}
+
+/* ------------------------------------------------------------ logging */
+
+#define LOG_LEVEL_ERROR 1
+#define LOG_LEVEL_WARN 2
+#define LOG_LEVEL_INFO 3
+#define LOG_LEVEL_DEBUG 4
+#ifndef LOG_LEVEL
+#define LOG_LEVEL LOG_LEVEL_INFO
+#endif
+
+int log_printf(const char *fmt, ...);
+
+#define LOG_AT(level, tag, fmt, ...) \
+	do { \
+		if ((level) <= LOG_LEVEL) \
+			log_printf("[" tag "] %s:%d: " fmt "\n", __FILE__, __LINE__, ##__VA_ARGS__); \
+	} while (0)
+#define LOG_ERROR(fmt, ...) LOG_AT(LOG_LEVEL_ERROR, "E", fmt, ##__VA_ARGS__)
+#define LOG_WARN(fmt, ...) LOG_AT(LOG_LEVEL_WARN, "W", fmt, ##__VA_ARGS__)
+#define LOG_INFO(fmt, ...) LOG_AT(LOG_LEVEL_INFO, "I", fmt, ##__VA_ARGS__)
+#define LOG_DEBUG(fmt, ...) LOG_AT(LOG_LEVEL_DEBUG, "D", fmt, ##__VA_ARGS__)
+
+/* ------------------------------------------------------------ driver */
+
+struct uart_driver {
+	uart_regs_t *regs;
+	uint32_t baud;
+	uint32_t errors;
+	uint8_t rx_buffer[64] ALIGNED(4);
+	uint32_t rx_head, rx_tail;
+};
+
+#define UART_DRIVER_INIT(n, rate) { .regs = UART##n, .baud = (rate), .errors = 0, .rx_head = 0, .rx_tail = 0 }
+
+static struct uart_driver uart_drivers[] = {
+	UART_DRIVER_INIT(0, 115200),
+	UART_DRIVER_INIT(1, 9600),
+#if HAVE_EXTRA_UARTS
+	UART_DRIVER_INIT(2, 115200),
+	UART_DRIVER_INIT(3, 57600),
+#endif
+};
+
+__STATIC_INLINE uint32_t uart_brr(uint32_t clock, uint32_t baud) {
+	uint32_t div = (clock * 25U) / (4U * baud);
+	uint32_t mantissa = div / 100U;
+	uint32_t fraction = CLAMP(((div - mantissa * 100U) * 16U + 50U) / 100U, 0U, 15U);
+	return FIELD_PREP(UART_BRR_MANTISSA, mantissa) | FIELD_PREP(UART_BRR_FRACTION, fraction);
+}
+
+static void uart_init(struct uart_driver *drv, uint32_t clock) {
+	REG_CLEAR(drv->regs->CR1, UART_CR1_UE);
+	REG_WRITE(drv->regs->BRR, uart_brr(clock, drv->baud));
+	REG_FIELD_SET(drv->regs->CR2, UART_CR2_STOP, 0);
+	REG_SET(drv->regs->CR1, UART_CR1_TE | UART_CR1_RE | UART_CR1_RXNEIE | UART_CR1_UE);
+	LOG_INFO("uart %p at %u baud", (void *)drv->regs, (unsigned)drv->baud);
+}
+
+static void uart_irq(struct uart_driver *drv) {
+	uint32_t sr = REG_READ(drv->regs->SR);
+	if (UNLIKELY(sr & UART_SR_ERRORS)) {
+		drv->errors++;
+		LOG_WARN("uart error 0x%x", (unsigned)sr);
+		(void)REG_READ(drv->regs->DR);
+		return;
+	}
+	if (LIKELY(sr & UART_SR_RXNE)) {
+		uint32_t next = (drv->rx_head + 1) % ARRAY_SIZE(drv->rx_buffer);
+		uint8_t c = (uint8_t)REG_READ(drv->regs->DR);
+		if (next != drv->rx_tail) {
+			drv->rx_buffer[drv->rx_head] = c;
+			drv->rx_head = next;
+		}
+	}
+}
+
+static int check_reset_values(const struct reset_value *values, uint32_t count, uintptr_t base) {
+	int mismatches = 0;
+	uint32_t i;
+	for (i = 0; i < count; i++) {
+		uint32_t actual = *(volatile uint32_t *)(base + values[i].offset);
+		if (actual != values[i].value) {
+			LOG_ERROR("%s: 0x%x != 0x%x", values[i].name, (unsigned)actual, (unsigned)values[i].value);
+			mismatches++;
+		}
+	}
+	return mismatches;
+}
+
+void board_init(uint32_t clock) {
+	uint32_t i;
+	for (i = 0; i < ARRAY_SIZE(board_pin_configs); i++)
+		gpio_configure(&board_pin_configs[i]);
+	for (i = 0; i < ARRAY_SIZE(uart_drivers); i++)
+		uart_init(&uart_drivers[i], clock);
+	check_reset_values(uart_reset_values, ARRAY_SIZE(uart_reset_values), UART0_BASE);
+	check_reset_values(timer_reset_values, ARRAY_SIZE(timer_reset_values), TIMER_BASE(0));
+	check_reset_values(gpio_reset_values, ARRAY_SIZE(gpio_reset_values), GPIO_BASE('A'));
+	timer0_start(CONCAT(1, 000) - 1, 1000);
+	gpio_write(PIN_LED_GREEN, 1);
+	uart0_enable();
+	uart0_putc(gpio_read(PIN_BUTTON) ? '1' : '0');
+	uart_irq(&uart_drivers[0]);
+	LOG_DEBUG("board " STR(CONFIG_NUM_UARTS) " uarts, %u timers", (unsigned)CONFIG_NUM_TIMERS);
+}
+
+#endif /* BENCH_MACRO_HEAVY_H */
@@ -0,0 +1,658 @@
+// Benchmark corpus: templates in the style of a standard library implementation.
+#ifndef BENCH_STL_LIKE_HPP
+#define BENCH_STL_LIKE_HPP
+
+typedef unsigned long size_t;
+typedef long ptrdiff_t;
+
+inline void* operator new(size_t, void* p) noexcept {
+	return p;
+}
+
+namespace bench {
+
+// ---------------------------------------------------------------- type traits
+
+template <typename T, T v>
+struct integral_constant {
+	static constexpr T value = v;
+	typedef T value_type;
+	typedef integral_constant type;
+	constexpr operator value_type() const noexcept { return value; }
+	constexpr value_type operator()() const noexcept { return value; }
+};
+
+typedef integral_constant<bool, true> true_type;
+typedef integral_constant<bool, false> false_type;
+
+template <bool B, typename T = void> struct enable_if {};
+template <typename T> struct enable_if<true, T> { typedef T type; };
+template <bool B, typename T = void> using enable_if_t = typename enable_if<B, T>::type;
+
+template <bool B, typename T, typename F> struct conditional { typedef T type; };
+template <typename T, typename F> struct conditional<false, T, F> { typedef F type; };
+template <bool B, typename T, typename F> using conditional_t = typename conditional<B, T, F>::type;
+
+template <typename T, typename U> struct is_same : false_type {};
+template <typename T> struct is_same<T, T> : true_type {};
+
+template <typename T> struct remove_const { typedef T type; };
+template <typename T> struct remove_const<const T> { typedef T type; };
+template <typename T> struct remove_volatile { typedef T type; };
+template <typename T> struct remove_volatile<volatile T> { typedef T type; };
+template <typename T> struct remove_cv {
+	typedef typename remove_volatile<typename remove_const<T>::type>::type type;
+};
+template <typename T> struct remove_reference { typedef T type; };
+template <typename T> struct remove_reference<T&> { typedef T type; };
+template <typename T> struct remove_reference<T&&> { typedef T type; };
+template <typename T> using remove_reference_t = typename remove_reference<T>::type;
+
+template <typename T> struct is_lvalue_reference : false_type {};
+template <typename T> struct is_lvalue_reference<T&> : true_type {};
+template <typename T> struct is_pointer_helper : false_type {};
+template <typename T> struct is_pointer_helper<T*> : true_type {};
+template <typename T> struct is_pointer : is_pointer_helper<typename remove_cv<T>::type> {};
+
+template <typename T> struct is_integral_helper : false_type {};
+template <> struct is_integral_helper<bool> : true_type {};
+template <> struct is_integral_helper<char> : true_type {};
+template <> struct is_integral_helper<short> : true_type {};
+template <> struct is_integral_helper<int> : true_type {};
+template <> struct is_integral_helper<long> : true_type {};
+template <> struct is_integral_helper<unsigned int> : true_type {};
+template <> struct is_integral_helper<unsigned long> : true_type {};
+template <typename T> struct is_integral : is_integral_helper<typename remove_cv<T>::type> {};
+
+template <typename T> struct add_rvalue_reference { typedef T&& type; };
+template <typename T> typename add_rvalue_reference<T>::type declval() noexcept;
+
+template <typename...> using void_t = void;
+
+template <typename T, typename = void> struct has_value_type : false_type {};
+template <typename T> struct has_value_type<T, void_t<typename T::value_type>> : true_type {};
+
+// ---------------------------------------------------------------- utility
+
+template <typename T>
+constexpr remove_reference_t<T>&& move(T&& t) noexcept {
+	return static_cast<remove_reference_t<T>&&>(t);
+}
+
+template <typename T>
+constexpr T&& forward(remove_reference_t<T>& t) noexcept {
+	return static_cast<T&&>(t);
+}
+
+template <typename T>
+void swap(T& a, T& b) {
+	T tmp = move(a);
+	a = move(b);
+	b = move(tmp);
+}
+
+template <typename T1, typename T2>
+struct pair {
+	typedef T1 first_type;
+	typedef T2 second_type;
+	T1 first;
+	T2 second;
+
+	constexpr pair() : first(), second() {}
+	pair(const T1& a, const T2& b) : first(a), second(b) {}
+	template <typename U1, typename U2>
+	pair(U1&& a, U2&& b) : first(forward<U1>(a)), second(forward<U2>(b)) {}
+	template <typename U1, typename U2>
+	pair(const pair<U1, U2>& other) : first(other.first), second(other.second) {}
+
+	void swap(pair& other) {
+		bench::swap(first, other.first);
+		bench::swap(second, other.second);
+	}
+};
+
+template <typename T1, typename T2>
+pair<T1, T2> make_pair(T1 a, T2 b) {
+	return pair<T1, T2>(a, b);
+}
+
+template <typename T1, typename T2>
+bool operator==(const pair<T1, T2>& a, const pair<T1, T2>& b) {
+	return a.first == b.first && a.second == b.second;
+}
+
+template <typename T1, typename T2>
+bool operator<(const pair<T1, T2>& a, const pair<T1, T2>& b) {
+	return a.first < b.first || (!(b.first < a.first) && a.second < b.second);
+}
+
+template <typename T> struct less {
+	bool operator()(const T& a, const T& b) const { return a < b; }
+};
+
+// ---------------------------------------------------------------- iterators
+
+struct input_iterator_tag {};
+struct forward_iterator_tag : input_iterator_tag {};
+struct bidirectional_iterator_tag : forward_iterator_tag {};
+struct random_access_iterator_tag : bidirectional_iterator_tag {};
+
+template <typename It>
+struct iterator_traits {
+	typedef typename It::iterator_category iterator_category;
+	typedef typename It::value_type value_type;
+	typedef typename It::difference_type difference_type;
+	typedef typename It::pointer pointer;
+	typedef typename It::reference reference;
+};
+
+template <typename T>
+struct iterator_traits<T*> {
+	typedef random_access_iterator_tag iterator_category;
+	typedef T value_type;
+	typedef ptrdiff_t difference_type;
+	typedef T* pointer;
+	typedef T& reference;
+};
+
+template <typename It>
+class reverse_iterator {
+	It current;
+public:
+	typedef typename iterator_traits<It>::value_type value_type;
+	typedef typename iterator_traits<It>::reference reference;
+	typedef typename iterator_traits<It>::difference_type difference_type;
+
+	reverse_iterator() : current() {}
+	explicit reverse_iterator(It it) : current(it) {}
+	It base() const { return current; }
+	reference operator*() const { It tmp = current; return *--tmp; }
+	reverse_iterator& operator++() { --current; return *this; }
+	reverse_iterator operator++(int) { reverse_iterator tmp = *this; --current; return tmp; }
+	reverse_iterator& operator--() { ++current; return *this; }
+	bool operator==(const reverse_iterator& other) const { return current == other.current; }
+	bool operator!=(const reverse_iterator& other) const { return current != other.current; }
+};
+
+template <typename It>
+typename iterator_traits<It>::difference_type distance_impl(It first, It last, input_iterator_tag) {
+	typename iterator_traits<It>::difference_type n = 0;
+	for (; first != last; ++first)
+		++n;
+	return n;
+}
+
+template <typename It>
+typename iterator_traits<It>::difference_type distance_impl(It first, It last, random_access_iterator_tag) {
+	return last - first;
+}
+
+template <typename It>
+typename iterator_traits<It>::difference_type distance(It first, It last) {
+	return distance_impl(first, last, typename iterator_traits<It>::iterator_category());
+}
+
+// ---------------------------------------------------------------- allocator
+
+template <typename T>
+class allocator {
+public:
+	typedef T value_type;
+	typedef T* pointer;
+	typedef const T* const_pointer;
+	typedef size_t size_type;
+
+	template <typename U> struct rebind { typedef allocator<U> other; };
+
+	allocator() noexcept {}
+	template <typename U> allocator(const allocator<U>&) noexcept {}
+
+	pointer allocate(size_type n) { return static_cast<pointer>(::operator new(n * sizeof(T))); }
+	void deallocate(pointer p, size_type) { ::operator delete(p); }
+	template <typename... Args>
+	void construct(pointer p, Args&&... args) { new (p) T(forward<Args>(args)...); }
+	void destroy(pointer p) { p->~T(); }
+};
+
+template <typename Alloc>
+struct allocator_traits {
+	typedef Alloc allocator_type;
+	typedef typename Alloc::value_type value_type;
+	typedef typename Alloc::pointer pointer;
+	typedef typename Alloc::size_type size_type;
+	template <typename U> using rebind_alloc = typename Alloc::template rebind<U>::other;
+
+	static pointer allocate(Alloc& a, size_type n) { return a.allocate(n); }
+	static void deallocate(Alloc& a, pointer p, size_type n) { a.deallocate(p, n); }
+	template <typename T, typename... Args>
+	static void construct(Alloc& a, T* p, Args&&... args) { a.construct(p, forward<Args>(args)...); }
+	template <typename T>
+	static void destroy(Alloc& a, T* p) { a.destroy(p); }
+};
+
+// ---------------------------------------------------------------- vector
+
+template <typename T, typename Alloc = allocator<T>>
+class vector {
+public:
+	typedef T value_type;
+	typedef Alloc allocator_type;
+	typedef size_t size_type;
+	typedef ptrdiff_t difference_type;
+	typedef T& reference;
+	typedef const T& const_reference;
+	typedef T* iterator;
+	typedef const T* const_iterator;
+	typedef bench::reverse_iterator<iterator> reverse_iterator;
+	typedef allocator_traits<Alloc> alloc_traits;
+
+private:
+	Alloc alloc_;
+	T* begin_;
+	T* end_;
+	T* cap_;
+
+	void grow(size_type n) {
+		size_type old_size = size();
+		T* data = alloc_traits::allocate(alloc_, n);
+		for (size_type i = 0; i < old_size; ++i) {
+			alloc_traits::construct(alloc_, data + i, move(begin_[i]));
+			alloc_traits::destroy(alloc_, begin_ + i);
+		}
+		if (begin_)
+			alloc_traits::deallocate(alloc_, begin_, capacity());
+		begin_ = data;
+		end_ = data + old_size;
+		cap_ = data + n;
+	}
+
+public:
+	vector() : alloc_(), begin_(nullptr), end_(nullptr), cap_(nullptr) {}
+	explicit vector(size_type n, const T& value = T()) : vector() {
+		reserve(n);
+		for (size_type i = 0; i < n; ++i)
+			push_back(value);
+	}
+	vector(const vector& other) : vector() {
+		reserve(other.size());
+		for (const_iterator it = other.begin(); it != other.end(); ++it)
+			push_back(*it);
+	}
+	vector(vector&& other) noexcept : alloc_(move(other.alloc_)), begin_(other.begin_), end_(other.end_),
+			cap_(other.cap_) {
+		other.begin_ = other.end_ = other.cap_ = nullptr;
+	}
+	~vector() {
+		clear();
+		if (begin_)
+			alloc_traits::deallocate(alloc_, begin_, capacity());
+	}
+
+	vector& operator=(vector other) {
+		swap(other);
+		return *this;
+	}
+
+	iterator begin() noexcept { return begin_; }
+	iterator end() noexcept { return end_; }
+	const_iterator begin() const noexcept { return begin_; }
+	const_iterator end() const noexcept { return end_; }
+	reverse_iterator rbegin() { return reverse_iterator(end()); }
+	reverse_iterator rend() { return reverse_iterator(begin()); }
+
+	size_type size() const noexcept { return static_cast<size_type>(end_ - begin_); }
+	size_type capacity() const noexcept { return static_cast<size_type>(cap_ - begin_); }
+	bool empty() const noexcept { return begin_ == end_; }
+
+	reference operator[](size_type i) { return begin_[i]; }
+	const_reference operator[](size_type i) const { return begin_[i]; }
+	reference front() { return *begin_; }
+	reference back() { return *(end_ - 1); }
+	T* data() noexcept { return begin_; }
+
+	void reserve(size_type n) {
+		if (n > capacity())
+			grow(n);
+	}
+
+	void push_back(const T& value) {
+		if (end_ == cap_)
+			grow(empty() ? 8 : 2 * capacity());
+		alloc_traits::construct(alloc_, end_++, value);
+	}
+
+	void push_back(T&& value) {
+		if (end_ == cap_)
+			grow(empty() ? 8 : 2 * capacity());
+		alloc_traits::construct(alloc_, end_++, move(value));
+	}
+
+	template <typename... Args>
+	reference emplace_back(Args&&... args) {
+		if (end_ == cap_)
+			grow(empty() ? 8 : 2 * capacity());
+		alloc_traits::construct(alloc_, end_, forward<Args>(args)...);
+		return *end_++;
+	}
+
+	void pop_back() { alloc_traits::destroy(alloc_, --end_); }
+
+	void clear() noexcept {
+		while (end_ != begin_)
+			alloc_traits::destroy(alloc_, --end_);
+	}
+
+	void swap(vector& other) noexcept {
+		bench::swap(begin_, other.begin_);
+		bench::swap(end_, other.end_);
+		bench::swap(cap_, other.cap_);
+	}
+};
+
+// ---------------------------------------------------------------- string
+
+template <typename CharT>
+struct char_traits {
+	typedef CharT char_type;
+	static size_t length(const char_type* s) {
+		size_t n = 0;
+		while (s[n])
+			++n;
+		return n;
+	}
+	static int compare(const char_type* a, const char_type* b, size_t n) {
+		for (size_t i = 0; i < n; ++i) {
+			if (a[i] < b[i])
+				return -1;
+			if (b[i] < a[i])
+				return 1;
+		}
+		return 0;
+	}
+};
+
+template <typename CharT, typename Traits = char_traits<CharT>, typename Alloc = allocator<CharT>>
+class basic_string {
+	vector<CharT, Alloc> chars_;
+
+public:
+	typedef CharT value_type;
+	typedef size_t size_type;
+	static const size_type npos = static_cast<size_type>(-1);
+
+	basic_string() {}
+	basic_string(const CharT* s) { append(s, Traits::length(s)); }
+	basic_string(const CharT* s, size_type n) { append(s, n); }
+
+	size_type size() const { return chars_.size(); }
+	const CharT* data() const { return chars_.begin(); }
+
+	basic_string& append(const CharT* s, size_type n) {
+		for (size_type i = 0; i < n; ++i)
+			chars_.push_back(s[i]);
+		return *this;
+	}
+
+	basic_string& operator+=(const basic_string& other) { return append(other.data(), other.size()); }
+
+	int compare(const basic_string& other) const {
+		size_type n = size() < other.size() ? size() : other.size();
+		int result = Traits::compare(data(), other.data(), n);
+		return result != 0 ? result : (size() < other.size() ? -1 : size() > other.size() ? 1 : 0);
+	}
+
+	size_type find(CharT c, size_type pos = 0) const {
+		for (size_type i = pos; i < size(); ++i) {
+			if (chars_[i] == c)
+				return i;
+		}
+		return npos;
+	}
+};
+
+template <typename CharT, typename Traits, typename Alloc>
+bool operator<(const basic_string<CharT, Traits, Alloc>& a, const basic_string<CharT, Traits, Alloc>& b) {
+	return a.compare(b) < 0;
+}
+
+template <typename CharT, typename Traits, typename Alloc>
+bool operator==(const basic_string<CharT, Traits, Alloc>& a, const basic_string<CharT, Traits, Alloc>& b) {
+	return a.compare(b) == 0;
+}
+
+typedef basic_string<char> string;
+typedef basic_string<wchar_t> wstring;
+
+// ---------------------------------------------------------------- map
+
+template <typename Key, typename T, typename Compare = less<Key>,
+		typename Alloc = allocator<pair<const Key, T>>>
+class map {
+public:
+	typedef Key key_type;
+	typedef T mapped_type;
+	typedef pair<const Key, T> value_type;
+
+private:
+	struct node {
+		value_type value;
+		node* left;
+		node* right;
+		node* parent;
+		bool red;
+		template <typename... Args>
+		node(Args&&... args) : value(forward<Args>(args)...), left(nullptr), right(nullptr), parent(nullptr),
+				red(true) {}
+	};
+	typedef typename allocator_traits<Alloc>::template rebind_alloc<node> node_allocator;
+
+	node* root_;
+	size_t size_;
+	Compare comp_;
+	node_allocator alloc_;
+
+	node* find_node(const Key& key) const {
+		node* n = root_;
+		while (n) {
+			if (comp_(key, n->value.first))
+				n = n->left;
+			else if (comp_(n->value.first, key))
+				n = n->right;
+			else
+				return n;
+		}
+		return nullptr;
+	}
+
+public:
+	class iterator {
+		node* n_;
+	public:
+		typedef bidirectional_iterator_tag iterator_category;
+		typedef map::value_type value_type;
+		typedef ptrdiff_t difference_type;
+		typedef value_type* pointer;
+		typedef value_type& reference;
+
+		explicit iterator(node* n = nullptr) : n_(n) {}
+		reference operator*() const { return n_->value; }
+		pointer operator->() const { return &n_->value; }
+		iterator& operator++() {
+			if (n_->right) {
+				n_ = n_->right;
+				while (n_->left)
+					n_ = n_->left;
+			} else {
+				node* p = n_->parent;
+				while (p && n_ == p->right) {
+					n_ = p;
+					p = p->parent;
+				}
+				n_ = p;
+			}
+			return *this;
+		}
+		bool operator==(const iterator& other) const { return n_ == other.n_; }
+		bool operator!=(const iterator& other) const { return n_ != other.n_; }
+	};
+
+	map() : root_(nullptr), size_(0) {}
+
+	size_t size() const { return size_; }
+	iterator end() const { return iterator(); }
+	iterator find(const Key& key) const { return iterator(find_node(key)); }
+
+	pair<iterator, bool> insert(const value_type& value) {
+		node** link = &root_;
+		node* parent = nullptr;
+		while (*link) {
+			parent = *link;
+			if (comp_(value.first, parent->value.first))
+				link = &parent->left;
+			else if (comp_(parent->value.first, value.first))
+				link = &parent->right;
+			else
+				return pair<iterator, bool>(iterator(parent), false);
+		}
+		node* n = alloc_.allocate(1);
+		alloc_.construct(n, value);
+		n->parent = parent;
+		*link = n;
+		++size_;
+		return pair<iterator, bool>(iterator(n), true);
+	}
+
+	T& operator[](const Key& key) {
+		iterator it = find(key);
+		if (it == end())
+			it = insert(value_type(key, T())).first;
+		return it->second;
+	}
+};
+
+// ---------------------------------------------------------------- algorithms
+
+template <typename It, typename Pred>
+It find_if(It first, It last, Pred pred) {
+	for (; first != last; ++first) {
+		if (pred(*first))
+			return first;
+	}
+	return last;
+}
+
+template <typename It, typename T>
+It find(It first, It last, const T& value) {
+	for (; first != last; ++first) {
+		if (*first == value)
+			return first;
+	}
+	return last;
+}
+
+template <typename It, typename T, typename Op>
+T accumulate(It first, It last, T init, Op op) {
+	for (; first != last; ++first)
+		init = op(init, *first);
+	return init;
+}
+
+template <typename It, typename Compare>
+void insertion_sort(It first, It last, Compare comp) {
+	if (first == last)
+		return;
+	for (It i = first + 1; i != last; ++i) {
+		typename iterator_traits<It>::value_type value = move(*i);
+		It j = i;
+		for (; j != first && comp(value, *(j - 1)); --j)
+			*j = move(*(j - 1));
+		*j = move(value);
+	}
+}
+
+template <typename It>
+void sort(It first, It last) {
+	insertion_sort(first, last, less<typename iterator_traits<It>::value_type>());
+}
+
+template <typename It, typename OutIt, typename Op>
+OutIt transform(It first, It last, OutIt out, Op op) {
+	for (; first != last; ++first, ++out)
+		*out = op(*first);
+	return out;
+}
+
+template <typename T, typename = enable_if_t<is_integral<T>::value>>
+T gcd(T a, T b) {
+	while (b != 0) {
+		T t = a % b;
+		a = b;
+		b = t;
+	}
+	return a;
+}
+
+} // namespace bench
+
+// ---------------------------------------------------------------- uses
+
+struct Employee {
+	bench::string name;
+	int id;
+	double salary;
+	bool operator<(const Employee& other) const { return id < other.id; }
+	bool operator==(const Employee& other) const { return id == other.id; }
+};
+
+typedef bench::vector<Employee> EmployeeList;
+typedef bench::map<bench::string, bench::vector<int>> Index;
+
+int sumIds(const EmployeeList& list) {
+	return bench::accumulate(list.begin(), list.end(), 0, [](int sum, const Employee& e) { return sum + e.id; });
+}
+
+const Employee* findByName(const EmployeeList& list, const bench::string& name) {
+	EmployeeList::const_iterator it = bench::find_if(list.begin(), list.end(),
+			[&name](const Employee& e) { return e.name == name; });
+	return it != list.end() ? &*it : nullptr;
+}
+
+void buildIndex(const EmployeeList& list, Index& index) {
+	for (EmployeeList::const_iterator it = list.begin(); it != list.end(); ++it) {
+		index[it->name].push_back(it->id);
+	}
+}
+
+long total(bench::vector<bench::pair<int, long>>& values) {
+	bench::sort(values.begin(), values.end());
+	long result = 0;
+	for (auto& value : values)
+		result += value.first * value.second + bench::gcd(value.second, 12L);
+	return result;
+}
+
+template <typename Container>
+typename Container::value_type sumAll(const Container& c) {
+	typename Container::value_type result = typename Container::value_type();
+	for (typename Container::const_iterator it = c.begin(); it != c.end(); ++it)
+		result = result + *it;
+	return result;
+}
+
+int main() {
+	EmployeeList employees;
+	employees.push_back(Employee{ "alice", 1, 100.0 });
+	employees.emplace_back(Employee{ "bob", 2, 90.0 });
+	bench::sort(employees.begin(), employees.end());
+	Index index;
+	buildIndex(employees, index);
+	bench::vector<int> ids(10, 1);
+	bench::vector<bench::pair<int, long>> pairs;
+	pairs.push_back(bench::make_pair(1, 2L));
+	static_assert(bench::is_same<bench::remove_reference_t<int&&>, int>::value, "remove_reference");
+	static_assert(bench::has_value_type<EmployeeList>::value, "value_type");
+	const Employee* bob = findByName(employees, "bob");
+	return sumIds(employees) + sumAll(ids) + static_cast<int>(total(pairs)) + (bob ? bob->id : 0);
+}
+
+#endif // BENCH_STL_LIKE_HPP
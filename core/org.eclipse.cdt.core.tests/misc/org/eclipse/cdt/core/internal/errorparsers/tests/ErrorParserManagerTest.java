@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2016 QNX Software Systems and others.
+ * Copyright (c) 2008, 2020 QNX Software Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,7 +17,11 @@ package org.eclipse.cdt.core.internal.errorparsers.tests;
 import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.ErrorParserManager;
@@ -26,11 +30,15 @@ import org.eclipse.cdt.core.IErrorParser2;
 import org.eclipse.cdt.core.IMarkerGenerator;
 import org.eclipse.cdt.core.ProblemMarkerInfo;
 import org.eclipse.cdt.core.dom.IPDOMManager;
+import org.eclipse.cdt.core.model.ICModelMarker;
 import org.eclipse.cdt.core.model.ICProject;
+import org.eclipse.cdt.core.resources.ACBuilder;
 import org.eclipse.cdt.core.testplugin.CProjectHelper;
 import org.eclipse.cdt.core.testplugin.CTestPlugin;
+import org.eclipse.cdt.internal.core.ProblemMarkerStatistics;
 import org.eclipse.core.internal.registry.ExtensionRegistry;
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceDescription;
@@ -39,6 +47,7 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.ContributorFactoryOSGi;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IContributor;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
@@ -187,6 +196,112 @@ public class ErrorParserManagerTest extends TestCase {
 		assertEquals(22, errorList.size());
 	}
 
+	public void testOutputInOneChunk() throws IOException {
+		byte[] output = Files.readAllBytes(CTestPlugin.getDefault()
+				.getFileInPlugin(new Path("resources/errortests/output-1")).toPath());
+		for (String line : new String(output).split("\n")) {
+			output(line + "\n");
+		}
+		end();
+		List<String> expected = describe(errorList);
+		assertEquals(22, expected.size());
+
+		// The lines of a large chunk are matched in parallel, the markers must not change.
+		errorList.clear();
+		epManager = new ErrorParserManager(cProject.getProject(), markerGenerator,
+				new String[] { "org.eclipse.cdt.core.CWDLocator", "org.eclipse.cdt.core.GCCErrorParser",
+						"org.eclipse.cdt.core.GASErrorParser", "org.eclipse.cdt.core.GLDErrorParser",
+						"org.eclipse.cdt.core.VCErrorParser", "org.eclipse.cdt.core.GmakeErrorParser", });
+		epManager.write(output, 0, output.length);
+		end();
+		assertEquals(expected, describe(errorList));
+	}
+
+	public void testColoredOutputInOneChunk() throws IOException {
+		StringBuilder buf = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			buf.append("\u001b[01m\u001b[Kfile").append(i).append(".cpp:").append(i + 1)
+					.append(":5:\u001b[m\u001b[K \u001b[01;35m\u001b[Kwarning: \u001b[m\u001b[Kunused variable\n");
+			buf.append("  int x").append(i).append(";\n");
+		}
+		output(buf.toString());
+		end();
+		assertEquals(100, errorList.size());
+		for (int i = 0; i < 100; i++) {
+			ProblemMarkerInfo problemMarkerInfo = errorList.get(i);
+			assertEquals("unused variable", problemMarkerInfo.description);
+			assertEquals(new Path("file" + i + ".cpp"), problemMarkerInfo.externalPath);
+			assertEquals(i + 1, problemMarkerInfo.lineNumber);
+		}
+	}
+
+	private static class TestBuilder extends ACBuilder {
+		TestBuilder(IProject project) {
+			setCurrentProject(project);
+		}
+
+		@Override
+		protected IProject[] build(int kind, Map<String, String> args, IProgressMonitor monitor) {
+			return null;
+		}
+	}
+
+	public void testBatchedMarkers() throws CoreException, IOException {
+		IProject project = cProject.getProject();
+		epManager = new ErrorParserManager(project, new TestBuilder(project),
+				new String[] { "org.eclipse.cdt.core.GCCErrorParser" });
+		ProblemMarkerStatistics statistics = ProblemMarkerStatistics.getInstance();
+		long markers = statistics.getMarkerCount();
+		long duplicates = statistics.getDuplicateCount();
+
+		for (int i = 0; i < 300; i++) {
+			output("file" + i % 100 + ".cpp:" + (i % 100 + 1) + ": warning: unused variable\n");
+		}
+		end();
+		IMarker[] created = project.findMarkers(ICModelMarker.C_MODEL_PROBLEM_MARKER, true, IResource.DEPTH_INFINITE);
+		assertEquals(100, created.length);
+		assertEquals(100, statistics.getMarkerCount() - markers);
+		assertEquals(200, statistics.getDuplicateCount() - duplicates);
+	}
+
+	public void testBatchedMarkersAfterReopening() throws CoreException, IOException {
+		IProject project = cProject.getProject();
+		ACBuilder builder = new TestBuilder(project) {
+			@Override
+			public void addMarker(ProblemMarkerInfo problemMarkerInfo) {
+				errorList.add(problemMarkerInfo);
+			}
+		};
+		epManager = new ErrorParserManager(project, builder, new String[] { "org.eclipse.cdt.core.GCCErrorParser" });
+		ProblemMarkerStatistics statistics = ProblemMarkerStatistics.getInstance();
+		for (int round = 0; round < 2; round++) {
+			errorList.clear();
+			long flushes = statistics.getFlushCount();
+			OutputStream out = epManager.getOutputStream();
+			// Alternate between files, the markers are created in the order they are reported.
+			for (int i = 0; i < 10; i++) {
+				String line = "file" + i % 2 + ".cpp:" + (i + 1) + ": warning: unused variable\n";
+				out.write(line.getBytes());
+			}
+			out.close();
+			assertTrue(statistics.getFlushCount() > flushes);
+			assertEquals(10, errorList.size());
+			for (int i = 0; i < 10; i++) {
+				assertEquals(new Path("file" + i % 2 + ".cpp"), errorList.get(i).externalPath);
+				assertEquals(i + 1, errorList.get(i).lineNumber);
+			}
+		}
+	}
+
+	private static List<String> describe(List<ProblemMarkerInfo> markers) {
+		List<String> result = new ArrayList<>();
+		for (ProblemMarkerInfo marker : markers) {
+			result.add(marker.file + ":" + marker.externalPath + ":" + marker.lineNumber + ":" + marker.severity + ":"
+					+ marker.description);
+		}
+		return result;
+	}
+
 	private String addErrorParserExtension(String shortId, Class cl) {
 		String ext = "<plugin><extension id=\"" + shortId + "\" name=\"" + shortId
 				+ "\" point=\"org.eclipse.cdt.core.ErrorParser\">" + "<errorparser class=\"" + cl.getName() + "\"/>"
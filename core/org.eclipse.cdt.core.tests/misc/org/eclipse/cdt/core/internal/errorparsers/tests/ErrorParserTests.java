@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2010 QNX Software Systems
+ * Copyright (c) 2005, 2020 QNX Software Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -31,6 +31,7 @@ public class ErrorParserTests {
 		suite.addTest(ErrorParserFileMatchingTest.suite());
 		suite.addTest(ErrorParserEfsFileMatchingTest.suite());
 		suite.addTest(RegexErrorParserTests.suite());
+		suite.addTest(RegexPatternMatcherTests.suite());
 		return suite;
 	}
 
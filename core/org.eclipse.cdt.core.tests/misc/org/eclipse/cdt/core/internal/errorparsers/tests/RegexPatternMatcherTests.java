@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.core.internal.errorparsers.tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import org.eclipse.cdt.core.ErrorParserManager;
+import org.eclipse.cdt.core.IMarkerGenerator;
+import org.eclipse.cdt.core.errorparsers.RegexErrorParser;
+import org.eclipse.cdt.core.errorparsers.RegexErrorPattern;
+import org.eclipse.cdt.internal.errorparsers.RegexPatternMatcher;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the matching of build output against the patterns of a regular expression error
+ * parser, with {@link RegexPatternMatcher}.
+ */
+public class RegexPatternMatcherTests extends TestCase {
+	private static final String ERROR = "(.*):(\\d+): error: (.*)";
+	private static final String WARNING = "(.*):(\\d+): warning: (.*)";
+
+	public static TestSuite suite() {
+		return new TestSuite(RegexPatternMatcherTests.class);
+	}
+
+	private static RegexErrorPattern pattern(String regex, boolean eat) {
+		return new RegexErrorPattern(regex, "$1", "$2", "$3", null, IMarkerGenerator.SEVERITY_ERROR_RESOURCE, eat);
+	}
+
+	public void testLiteralsRuleOutPatterns() throws Exception {
+		RegexPatternMatcher matcher = new RegexPatternMatcher(
+				new RegexErrorPattern[] { pattern(ERROR, true), pattern(WARNING, true) });
+		RegexPatternMatcher.Result result = matcher.match("a.c:12: warning: unused variable");
+		assertTrue(result.isExamined(0));
+		assertNull(result.getMatcher(0));
+		assertTrue(result.isExamined(1));
+		Matcher m = result.getMatcher(1);
+		assertNotNull(m);
+		assertEquals("a.c", m.group(1));
+		assertEquals("12", m.group(2));
+
+		result = matcher.match("make: Nothing to be done for 'all'.");
+		assertNull(result.getMatcher(0));
+		assertNull(result.getMatcher(1));
+	}
+
+	public void testEscapedCharacterCodes() throws Exception {
+		RegexPatternMatcher matcher = new RegexPatternMatcher(
+				new RegexErrorPattern[] { pattern("\\x41BC:(\\d+): (.*)", true) });
+		assertNotNull(matcher.match("ABC:1: text").getMatcher(0));
+	}
+
+	public void testCaseInsensitivePattern() throws Exception {
+		RegexPatternMatcher matcher = new RegexPatternMatcher(
+				new RegexErrorPattern[] { pattern("(?i)(.*):(\\d+): error: (.*)", true) });
+		assertNotNull(matcher.match("a.c:1: ERROR: bad").getMatcher(0));
+	}
+
+	public void testStopsAtFirstConsumingMatch() throws Exception {
+		RegexPatternMatcher matcher = new RegexPatternMatcher(
+				new RegexErrorPattern[] { pattern(ERROR, true), pattern("(.*): error: (.*)", true) });
+		RegexPatternMatcher.Result result = matcher.match("a.c:1: error: bad");
+		assertNotNull(result.getMatcher(0));
+		assertFalse(result.isExamined(1));
+	}
+
+	public void testContinuesAfterNonConsumingMatch() throws Exception {
+		RegexPatternMatcher matcher = new RegexPatternMatcher(
+				new RegexErrorPattern[] { pattern(ERROR, false), pattern("(.*): error: (.*)", true) });
+		RegexPatternMatcher.Result result = matcher.match("a.c:1: error: bad");
+		assertNotNull(result.getMatcher(0));
+		assertTrue(result.isExamined(1));
+		assertNotNull(result.getMatcher(1));
+	}
+
+	public void testOverriddenProcessLineIsNotExamined() throws Exception {
+		RegexErrorPattern custom = new RegexErrorPattern(ERROR, "$1", "$2", "$3", null,
+				IMarkerGenerator.SEVERITY_ERROR_RESOURCE, true) {
+			@Override
+			public boolean processLine(String line, ErrorParserManager eoParser) {
+				return false;
+			}
+		};
+		RegexPatternMatcher matcher = new RegexPatternMatcher(
+				new RegexErrorPattern[] { custom, pattern(ERROR, true) });
+		RegexPatternMatcher.Result result = matcher.match("a.c:1: error: bad");
+		assertFalse(result.isExamined(0));
+		assertNotNull(result.getMatcher(1));
+	}
+
+	public void testManyPatterns() throws Exception {
+		List<RegexErrorPattern> patterns = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			patterns.add(pattern("(.*):(\\d+): error" + i + ": (.*)", true));
+		}
+		RegexPatternMatcher matcher = new RegexPatternMatcher(patterns.toArray(new RegexErrorPattern[0]));
+		RegexPatternMatcher.Result result = matcher.match("a.c:1: error99: bad");
+		for (int i = 0; i < 99; i++) {
+			assertNull(result.getMatcher(i));
+		}
+		assertNotNull(result.getMatcher(99));
+	}
+
+	public void testIsFor() throws Exception {
+		RegexErrorPattern error = pattern(ERROR, true);
+		List<RegexErrorPattern> patterns = Arrays.asList(error);
+		RegexPatternMatcher matcher = new RegexPatternMatcher(new RegexErrorPattern[] { error });
+		assertTrue(matcher.isFor(patterns));
+		assertFalse(matcher.isFor(Arrays.asList(pattern(ERROR, true))));
+		error.setEatProcessedLine(false);
+		assertFalse(matcher.isFor(patterns));
+		error.setEatProcessedLine(true);
+		error.setPattern(WARNING);
+		assertFalse(matcher.isFor(patterns));
+	}
+
+	public void testPreparedMatches() throws Exception {
+		RegexErrorParser parser = new RegexErrorParser("id", "name");
+		parser.addPattern(pattern(ERROR, true));
+		List<RegexErrorPattern> patterns = Arrays.asList(parser.getPatterns());
+		RegexPatternMatcher matcher = new RegexPatternMatcher(parser.getPatterns());
+		String line = "a.c:1: error: bad";
+		RegexPatternMatcher.Result result = matcher.match(line);
+		RegexPatternMatcher.setPreparedMatches(line, new RegexErrorParser[] { parser },
+				new RegexPatternMatcher[] { matcher }, new RegexPatternMatcher.Result[] { result });
+		try {
+			assertSame(result, RegexPatternMatcher.getPreparedMatches(parser, line, patterns));
+			assertNull(RegexPatternMatcher.getPreparedMatches(parser, new String(line), patterns));
+			assertNull(RegexPatternMatcher.getPreparedMatches(new RegexErrorParser(), line, patterns));
+		} finally {
+			RegexPatternMatcher.clearPreparedMatches();
+		}
+		assertNull(RegexPatternMatcher.getPreparedMatches(parser, line, patterns));
+	}
+}
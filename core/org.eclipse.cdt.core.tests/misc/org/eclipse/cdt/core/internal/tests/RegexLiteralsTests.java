@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.core.internal.tests;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import org.eclipse.cdt.internal.core.RegexLiterals;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the literals that {@link RegexLiterals} extracts from regular expressions.
+ */
+public class RegexLiteralsTests extends TestCase {
+
+	public static TestSuite suite() {
+		return new TestSuite(RegexLiteralsTests.class);
+	}
+
+	private static void assertLiterals(String regex, int flags, String... expected) {
+		String[] literals = RegexLiterals.getRequiredLiterals(Pattern.compile(regex, flags));
+		assertEquals(regex, Arrays.asList(expected), Arrays.asList(literals));
+	}
+
+	private static void assertLiterals(String regex, String... expected) {
+		assertLiterals(regex, 0, expected);
+	}
+
+	public void testPlainText() throws Exception {
+		assertLiterals("abc", "abc");
+		assertLiterals("a.b", Pattern.LITERAL, "a.b");
+		assertLiterals("^(.*):(\\d+): error: (.*)$", ":", ": error: ");
+	}
+
+	public void testEscapedCharacters() throws Exception {
+		assertLiterals("ab\\.c", "ab.c");
+		assertLiterals("a\\(b\\)", "a(b)");
+		assertLiterals("\\Qa.b\\E", "a.b");
+		assertLiterals("x\\Qa.b", "xa.b");
+	}
+
+	public void testEscapesWithOperands() throws Exception {
+		assertLiterals("\\x41BC", "BC");
+		assertLiterals("\\x{41}BC", "BC");
+		assertLiterals("\\u0041BC", "BC");
+		assertLiterals("\\0101BC", "BC");
+		assertLiterals("\\07BC", "BC");
+		assertLiterals("\\cABC", "BC");
+		assertLiterals("(?<n>a)\\k<n>BC", "BC");
+		assertLiterals("\\p{Alpha}BC", "BC");
+		assertLiterals("\\pLBC", "BC");
+		assertLiterals("(a)\\1BC", "BC");
+	}
+
+	public void testEscapesInterruptLiterals() throws Exception {
+		assertLiterals("a\\db", "a", "b");
+		assertLiterals("\\bfoo\\b", "foo");
+		assertLiterals("a\\tb", "a", "b");
+	}
+
+	public void testCharacterClasses() throws Exception {
+		assertLiterals("[abc]def", "def");
+		assertLiterals("ab[^c]d", "ab", "d");
+		assertLiterals("[]a]x", "x");
+		assertLiterals("[a[b]]x", "x");
+		assertLiterals("[\\]x]y", "y");
+	}
+
+	public void testQuantifiers() throws Exception {
+		assertLiterals("abc?d", "ab", "d");
+		assertLiterals("abc*d", "ab", "d");
+		assertLiterals("ab+c", "ab", "c");
+		assertLiterals("a{2}b", "b");
+		assertLiterals("ab\\.?c", "ab", "c");
+		assertLiterals("\\Qab\\E?c", "a", "c");
+		assertLiterals("a(bc)?d", "a", "d");
+	}
+
+	public void testAlternatives() throws Exception {
+		assertLiterals("a|b");
+		assertLiterals("ab(c|d)ef", "ab", "ef");
+		assertLiterals("(a|b)cd", "cd");
+	}
+
+	public void testCaseInsensitive() throws Exception {
+		assertLiterals("abc", Pattern.CASE_INSENSITIVE, "abc");
+		assertLiterals("(?i)abc", "abc");
+		assertTrue(RegexLiterals.isCaseInsensitive(Pattern.compile("abc", Pattern.CASE_INSENSITIVE)));
+		assertTrue(RegexLiterals.isCaseInsensitive(Pattern.compile("a(?i)bc")));
+		assertFalse(RegexLiterals.isCaseInsensitive(Pattern.compile("abc")));
+	}
+
+	public void testUnsupportedFlags() throws Exception {
+		assertLiterals("a b", Pattern.COMMENTS);
+		assertLiterals("(?x)a b");
+	}
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.utils.debug.dwarf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.eclipse.cdt.utils.elf.Elf;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests for the index of the line tables of a binary, the expected addresses are the ones listed
+ * by {@code readelf --debug-dump=decodedline}.
+ */
+@RunWith(Parameterized.class)
+public class DwarfLineIndexTest {
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> elfArchitectures() {
+		return Arrays.asList(new Object[][] {
+				{ "BE32", "resources/elf/unit_test/simple-be32.elf", 0x100004fcL, 0x1000052cL, 0x10000554L },
+				{ "BE64", "resources/elf/unit_test/simple-be64.elf", 0x100005acL, 0x100005e8L, 0x10000618L },
+				{ "LE32", "resources/elf/unit_test/simple-le32.elf", 0x080483deL, 0x080483e8L, 0x080483f4L },
+				{ "LE64", "resources/elf/unit_test/simple-le64.elf", 0x004004ddL, 0x004004e8L, 0x004004f4L }, });
+	}
+
+	private final String arch;
+	private final String path;
+	private final long line3Address;
+	private final long line8Address;
+	private final long endAddress;
+	private Elf elf;
+
+	public DwarfLineIndexTest(String arch, String path, long line3Address, long line8Address, long endAddress) {
+		this.arch = arch;
+		this.path = path;
+		this.line3Address = line3Address;
+		this.line8Address = line8Address;
+		this.endAddress = endAddress;
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		elf = new Elf(path);
+	}
+
+	@After
+	public void tearDown() {
+		elf.dispose();
+	}
+
+	private DwarfLineIndex getLineIndex() {
+		DwarfReader reader = (DwarfReader) elf.getSymbolReader();
+		assertNotNull(arch, reader);
+		DwarfLineIndex index = reader.getLineIndex();
+		assertNotNull(arch, index);
+		assertSame(arch, index, reader.getLineIndex());
+		return index;
+	}
+
+	private void checkLines(DwarfLineIndex index) {
+		assertEquals(arch, 3, index.getLine(line3Address));
+		assertEquals(arch, 3, index.getLine(line3Address + 1));
+		assertEquals(arch, 8, index.getLine(line8Address));
+		assertTrue(arch, index.getFile(line8Address).endsWith("simple.c"));
+		assertEquals(arch, 0, index.getLine(endAddress));
+		assertNull(arch, index.getFile(endAddress));
+		assertEquals(arch, 0, index.getLine(line3Address - 0x100));
+	}
+
+	@Test
+	public void testLookupByAddress() {
+		checkLines(getLineIndex());
+	}
+
+	@Test
+	public void testLookupByFile() {
+		DwarfLineIndex index = getLineIndex();
+		String[] files = index.getFiles();
+		assertEquals(arch, 1, files.length);
+		String[] compileUnits = index.getCompileUnits(files[0]);
+		assertEquals(arch, 1, compileUnits.length);
+		assertTrue(arch, compileUnits[0].endsWith("simple.c"));
+		assertEquals(arch, 0, index.getCompileUnits("unknown.c").length);
+	}
+
+	@Test
+	public void testWriteAndRead() throws IOException {
+		DwarfLineIndex index = getLineIndex();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		index.write(new DataOutputStream(bytes));
+		DwarfLineIndex copy = DwarfLineIndex
+				.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(arch, index.getRowCount(), copy.getRowCount());
+		assertArrayEquals(arch, index.getFiles(), copy.getFiles());
+		assertArrayEquals(arch, index.getCompileUnits(index.getFiles()[0]),
+				copy.getCompileUnits(copy.getFiles()[0]));
+		checkLines(copy);
+	}
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.utils.elf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.cdt.utils.elf.Elf.Symbol;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Compares the memory mapped symbol table with the symbols loaded by {@link Elf#loadSymbols()}.
+ */
+@RunWith(Parameterized.class)
+public class ElfSymbolTableTest {
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> elfArchitectures() {
+		return Arrays.asList(new Object[][] { { "BE32", "resources/elf/unit_test/simple-be32.elf", "0x10000518" },
+				{ "BE64", "resources/elf/unit_test/simple-be64.elf", "0x000000001001fea0" },
+				{ "LE32", "resources/elf/unit_test/simple-le32.elf", "0x080483e5" },
+				{ "LE64", "resources/elf/unit_test/simple-le64.elf", "0x00000000004004e4" }, });
+	}
+
+	private final String arch;
+	private final String path;
+	private final String mainAddress;
+	private Elf elf;
+
+	public ElfSymbolTableTest(String arch, String path, String mainAddress) {
+		this.arch = arch;
+		this.path = path;
+		this.mainAddress = mainAddress;
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		elf = new Elf(path);
+	}
+
+	@After
+	public void tearDown() {
+		elf.dispose();
+	}
+
+	@Test
+	public void testSymbolsMatchLoadedSymbols() throws IOException {
+		elf.loadSymbols();
+		Symbol[] loaded = elf.getSymbols();
+		ElfSymbolTable table = elf.mapSymbolTable();
+		assertNotNull(arch, table);
+
+		List<Symbol> mapped = new ArrayList<>();
+		for (Symbol symbol : table) {
+			if (symbol.st_info != 0)
+				mapped.add(symbol);
+		}
+		assertEquals(arch, loaded.length, mapped.size());
+		int[] addressIndex = table.getAddressIndex();
+		assertEquals(arch, loaded.length, addressIndex.length);
+		for (int i = 0; i < loaded.length; i++) {
+			Symbol symbol = table.getSymbol(addressIndex[i]);
+			assertEquals(arch, loaded[i].st_value, symbol.st_value);
+			assertEquals(arch, loaded[i].st_size, symbol.st_size);
+			assertEquals(arch, loaded[i].st_info, symbol.st_info);
+			assertEquals(arch, loaded[i].st_shndx, symbol.st_shndx);
+		}
+		List<String> loadedNames = new ArrayList<>();
+		for (Symbol symbol : loaded) {
+			loadedNames.add(symbol.toString());
+		}
+		for (Symbol symbol : mapped) {
+			assertTrue(arch + ": " + symbol, loadedNames.contains(symbol.toString()));
+		}
+	}
+
+	@Test
+	public void testFindSymbol() throws IOException {
+		ElfSymbolTable table = elf.mapSymbolTable();
+		int main = -1;
+		for (int i = 0; i < table.size(); i++) {
+			if (table.getName(i).equals("main")) {
+				main = i;
+				break;
+			}
+		}
+		assertTrue(arch, main > 0);
+		assertEquals(arch, mainAddress, table.getSymbol(main).st_value.toHexAddressString());
+		assertEquals(arch, Symbol.STT_FUNC, table.getType(main));
+
+		long address = table.getValue(main);
+		assertEquals(arch, address, table.getValue(table.findSymbol(address)));
+		assertEquals(arch, address, table.getValue(table.findSymbol(address + 1)));
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2016 IBM Corporation and others.
+ * Copyright (c) 2004, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -29,11 +29,14 @@ import static org.junit.Assert.assertNotEquals;
 
 import java.io.BufferedReader;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 
 import org.eclipse.cdt.core.dom.IName;
 import org.eclipse.cdt.core.dom.ast.ASTTypeUtil;
+import org.eclipse.cdt.core.dom.ast.ASTVisitor;
 import org.eclipse.cdt.core.dom.ast.EScopeKind;
 import org.eclipse.cdt.core.dom.ast.IASTArrayDeclarator;
 import org.eclipse.cdt.core.dom.ast.IASTAttribute;
@@ -143,10 +146,17 @@ import org.eclipse.cdt.core.dom.ast.cpp.ICPPReferenceType;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPUsingDeclaration;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPVariable;
 import org.eclipse.cdt.core.dom.ast.cpp.SemanticQueries;
+import org.eclipse.cdt.core.dom.ast.gnu.cpp.GPPLanguage;
+import org.eclipse.cdt.core.model.ILanguage;
+import org.eclipse.cdt.core.parser.FileContent;
 import org.eclipse.cdt.core.parser.IProblem;
+import org.eclipse.cdt.core.parser.IncludeFileContentProvider;
+import org.eclipse.cdt.core.parser.NullLogService;
 import org.eclipse.cdt.core.parser.ParserLanguage;
+import org.eclipse.cdt.core.parser.ScannerInfo;
 import org.eclipse.cdt.core.parser.util.AttributeUtil;
 import org.eclipse.cdt.core.parser.util.CharArrayUtils;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPASTDeferredFunctionBody;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPASTNameBase;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPBasicType;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPClassInstance;
@@ -13574,4 +13584,72 @@ public class AST2CPPTests extends AST2CPPTestBase {
 	public void testExplicitSpecPointerType_562697() throws Exception {
 		parseAndCheckBindings();
 	}
+
+	//	int waldo;
+	//	int f() { return waldo; }
+	public void testLeanASTSharesNameImages() throws Exception {
+		String code = getAboveComment();
+		IASTTranslationUnit tu = GPPLanguage.getDefault().getASTTranslationUnit(
+				FileContent.create(TEST_CODE, code.toCharArray()), new ScannerInfo(),
+				IncludeFileContentProvider.getEmptyFilesProvider(), null, ILanguage.OPTION_LEAN_AST,
+				new NullLogService());
+		NameCollector collector = new NameCollector();
+		tu.accept(collector);
+		IASTName declaration = collector.getName(0);
+		IASTName reference = collector.getName(2);
+		assertEquals("waldo", declaration.toString());
+		assertEquals("waldo", reference.toString());
+		assertSame(declaration.toCharArray(), reference.toCharArray());
+		assertSame(declaration.resolveBinding(), reference.resolveBinding());
+	}
+
+	private static List<String> resolveNames(IASTTranslationUnit tu) {
+		NameCollector collector = new NameCollector();
+		tu.accept(collector);
+		List<String> result = new ArrayList<>();
+		for (IASTName name : collector.nameList) {
+			IBinding binding = name.resolveBinding();
+			assertFalse(name.toString(), binding instanceof IProblemBinding);
+			result.add(name + ":" + binding.getClass().getSimpleName());
+		}
+		return result;
+	}
+
+	//	struct A {
+	//	  int m;
+	//	  int get() { return m; }
+	//	};
+	//	auto f(A a) { return a.get(); }
+	//	int g() {
+	//	  A a;
+	//	  auto x = f(a);
+	//	  return x;
+	//	}
+	public void testDeferredFunctionBodies() throws Exception {
+		String code = getAboveComment();
+		IASTTranslationUnit tu = GPPLanguage.getDefault().getASTTranslationUnit(
+				FileContent.create(TEST_CODE, code.toCharArray()), new ScannerInfo(),
+				IncludeFileContentProvider.getEmptyFilesProvider(), null, ILanguage.OPTION_DEFER_FUNCTION_BODIES,
+				new NullLogService());
+		CPPASTDeferredFunctionBody body = (CPPASTDeferredFunctionBody) ((IASTFunctionDefinition) tu
+				.getDeclarations()[2]).getBody();
+		assertFalse(body.isParsed());
+
+		// A visitor skipping the body does not parse it.
+		tu.accept(new ASTVisitor() {
+			{
+				shouldVisitStatements = true;
+			}
+
+			@Override
+			public int visit(IASTStatement statement) {
+				return PROCESS_SKIP;
+			}
+		});
+		assertFalse(body.isParsed());
+
+		assertEquals(resolveNames(parse(code, CPP)), resolveNames(tu));
+		assertTrue(body.isParsed());
+		assertTrue(body.getStatements()[0].isFrozen());
+	}
 }
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.core.parser.tests.ast2;
+
+import static org.eclipse.cdt.core.parser.ParserLanguage.CPP;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.cdt.core.dom.ast.ASTVisitor;
+import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.cdt.core.dom.ast.IBinding;
+import org.eclipse.cdt.internal.core.dom.parser.ParallelDeclarationProcessor;
+
+import junit.framework.TestSuite;
+
+/**
+ * Tests for processing the declarations of a translation unit in partitions on multiple threads.
+ */
+public class ParallelDeclarationProcessorTests extends AST2TestBase {
+	private ForkJoinPool fPool;
+
+	public ParallelDeclarationProcessorTests() {
+	}
+
+	public ParallelDeclarationProcessorTests(String name) {
+		super(name);
+	}
+
+	public static TestSuite suite() {
+		return suite(ParallelDeclarationProcessorTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fPool = new ForkJoinPool(2);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fPool.shutdown();
+		super.tearDown();
+	}
+
+	private static List<String> resolve(IASTTranslationUnit ast, IASTDeclaration[] declarations) {
+		final List<String> result = new ArrayList<>();
+		ASTVisitor visitor = new ASTVisitor() {
+			{
+				shouldVisitNames = true;
+			}
+
+			@Override
+			public int visit(IASTName name) {
+				IBinding binding = name.resolveBinding();
+				result.add(name + ":" + binding.getClass().getSimpleName()); //$NON-NLS-1$
+				return PROCESS_CONTINUE;
+			}
+		};
+		for (IASTDeclaration declaration : declarations) {
+			ParallelDeclarationProcessor.accept(declaration, visitor);
+		}
+		return result;
+	}
+
+	private List<String> resolve(String code, ForkJoinPool pool, int expectedPartitions) throws Exception {
+		IASTTranslationUnit ast = parse(code, CPP);
+		List<List<String>> partitions = ParallelDeclarationProcessor.process(ast, pool, 3, 1,
+				ParallelDeclarationProcessorTests::resolve);
+		assertEquals(expectedPartitions, partitions.size());
+		List<String> result = new ArrayList<>();
+		for (List<String> partition : partitions) {
+			result.addAll(partition);
+		}
+		return result;
+	}
+
+	//	struct A { int m; };
+	//	namespace ns {
+	//	  int f(A a) { return a.m; }
+	//	  extern "C" {
+	//	    int g(int);
+	//	  }
+	//	}
+	//	int h() { return ns::f(A()) + ns::g(1); }
+	//	template<typename T> T t(T a) { return a; }
+	//	int i = t(h());
+	public void testNamesResolveAsInTranslationUnit() throws Exception {
+		String code = getAboveComment();
+		List<String> expected = resolve(code, null, 1);
+		assertFalse(expected.isEmpty());
+		for (String name : expected) {
+			assertFalse(name, name.endsWith(":ProblemBinding")); //$NON-NLS-1$
+		}
+		assertEquals(expected, resolve(code, fPool, 3));
+	}
+
+	//	int a;
+	public void testSingleDeclaration() throws Exception {
+		assertEquals(resolve(getAboveComment(), null, 1), resolve(getAboveComment(), fPool, 1));
+	}
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.core.parser.tests.scanner;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.eclipse.cdt.core.parser.IToken;
+import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.parser.scanner.AbstractCharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.FileCharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.ILexerLog;
+import org.eclipse.cdt.internal.core.parser.scanner.Lexer;
+import org.eclipse.cdt.internal.core.parser.scanner.Lexer.LexerOptions;
+import org.eclipse.cdt.internal.core.parser.scanner.MappedCharArray;
+
+import junit.framework.TestSuite;
+
+/**
+ * Benchmark comparing the throughput of the lexer on large files that are memory-mapped
+ * against files that are decoded into chunks on the heap. Too expensive to run as part of
+ * normal testing, but should be run after changes to {@link FileCharArray} or
+ * {@link MappedCharArray}.
+ */
+public class FileCharArrayExpensiveTests extends BaseTestCase {
+	private static final int FILE_SIZE = 32 * 1024 * 1024;
+	private static final int ROUNDS = 5;
+
+	public static TestSuite suite() {
+		return suite(FileCharArrayExpensiveTests.class);
+	}
+
+	private File fFile;
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fFile != null) {
+			fFile.delete();
+		}
+		FileCharArray.setMappingThreshold(Long.MAX_VALUE);
+		super.tearDown();
+	}
+
+	/**
+	 * Creates a file resembling a generated register map.
+	 */
+	private void createFile() throws IOException {
+		fFile = File.createTempFile("registers", ".h");
+		try (Writer out = Files.newBufferedWriter(fFile.toPath(), StandardCharsets.UTF_8)) {
+			long size = 0;
+			for (int i = 0; size < FILE_SIZE; i++) {
+				String line = "#define REG_" + i + "_OFFSET (0x" + Integer.toHexString(i * 4)
+						+ "U) /* register " + i + " */\nstatic const unsigned int reg_" + i + "_mask = " + (i * 31)
+						+ "; // mask\n";
+				out.write(line);
+				size += line.length();
+			}
+		}
+	}
+
+	private AbstractCharArray open() throws IOException {
+		try (FileInputStream in = new FileInputStream(fFile)) {
+			return FileCharArray.create(fFile.getPath(), "UTF-8", in);
+		}
+	}
+
+	private static int lex(AbstractCharArray input) throws Exception {
+		Lexer lexer = new Lexer(input, new LexerOptions(), ILexerLog.NULL, null);
+		int count = 0;
+		while (lexer.nextToken().getType() != IToken.tEND_OF_INPUT) {
+			count++;
+		}
+		return count;
+	}
+
+	public void testBenchmarkLexerThroughput() throws Exception {
+		createFile();
+		final double megabytes = fFile.length() / (1024.0 * 1024.0);
+		int expectedTokens = -1;
+		for (int round = 0; round < ROUNDS; round++) {
+			for (boolean mapped : new boolean[] { false, true }) {
+				FileCharArray.setMappingThreshold(mapped ? 0 : Long.MAX_VALUE);
+				System.gc();
+				final long heapBefore = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+				final long start = System.nanoTime();
+				AbstractCharArray input = open();
+				assertEquals(mapped, input instanceof MappedCharArray);
+				int tokens = lex(input);
+				final long time = System.nanoTime() - start;
+				final long heapAfter = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+				if (expectedTokens < 0) {
+					expectedTokens = tokens;
+				}
+				assertEquals(expectedTokens, tokens);
+				System.out.println((mapped ? "mapped " : "decoded") + " round " + round + ": "
+						+ String.format("%.1f MB/s", megabytes / (time / 1e9)) + ", heap growth "
+						+ (heapAfter - heapBefore) / 1024 + "KB");
+			}
+		}
+	}
+}
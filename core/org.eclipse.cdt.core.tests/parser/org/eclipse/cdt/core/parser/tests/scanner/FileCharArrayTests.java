@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010 Wind River Systems, Inc. and others.
+ * Copyright (c) 2010, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,8 +22,10 @@ import java.io.OutputStream;
 
 import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
 import org.eclipse.cdt.internal.core.parser.scanner.AbstractCharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.CharArray;
 import org.eclipse.cdt.internal.core.parser.scanner.FileCharArray;
 import org.eclipse.cdt.internal.core.parser.scanner.LazyCharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.MappedCharArray;
 
 import junit.framework.TestSuite;
 
@@ -66,6 +68,51 @@ public class FileCharArrayTests extends BaseTestCase {
 		testFile(false, LazyCharArray.CHUNK_SIZE * 3 + 1);
 	}
 
+	public void testMappedFile() throws IOException {
+		final int charSize = LazyCharArray.CHUNK_SIZE * 3 + 1;
+		createFile(true, charSize);
+		// Mapping is disabled by default.
+		AbstractCharArray lazy = create(fFile, "utf-8");
+		assertFalse(lazy instanceof MappedCharArray);
+		FileCharArray.setMappingThreshold(LazyCharArray.CHUNK_SIZE);
+		try {
+			AbstractCharArray mapped = create(fFile, "utf-8");
+			assertTrue(mapped instanceof MappedCharArray);
+			assertEquals(charSize, mapped.tryGetLength());
+			checkContent(mapped, 0, charSize);
+			assertEquals(lazy.getContentsHash(), mapped.getContentsHash());
+			assertTrue(create(fFile, "iso-8859-1") instanceof MappedCharArray);
+			assertFalse(create(fFile, "utf-16") instanceof MappedCharArray);
+
+			// Files with multi-byte characters are decoded.
+			fFile.delete();
+			createFile(false, charSize);
+			assertTrue(create(fFile, "utf-8") instanceof LazyCharArray);
+			assertTrue(create(fFile, "iso-8859-1") instanceof MappedCharArray);
+		} finally {
+			FileCharArray.setMappingThreshold(Long.MAX_VALUE);
+		}
+	}
+
+	public void testMappedFileWithByteOrderMark() throws IOException {
+		fFile = File.createTempFile("data", ".txt");
+		try (OutputStream out = new FileOutputStream(fFile)) {
+			out.write(new byte[] { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'i', 'n', 't' });
+		}
+		AbstractCharArray charArray;
+		try (FileInputStream in = new FileInputStream(fFile)) {
+			charArray = MappedCharArray.create(in.getChannel(), "UTF-8");
+		}
+		assertEquals("int", charArray.toString());
+		assertEquals(new CharArray("int").getContentsHash(), charArray.getContentsHash());
+	}
+
+	private AbstractCharArray create(File file, String charSet) throws IOException {
+		try (FileInputStream in = new FileInputStream(file)) {
+			return FileCharArray.create(file.getPath(), charSet, in);
+		}
+	}
+
 	private void testFile(boolean aligned, int charSize) throws IOException {
 		createFile(aligned, charSize);
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2016 Wind River Systems, Inc. and others.
+ * Copyright (c) 2007, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,11 +14,16 @@
  *******************************************************************************/
 package org.eclipse.cdt.core.parser.tests.scanner;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.cdt.core.parser.IGCCToken;
 import org.eclipse.cdt.core.parser.IProblem;
 import org.eclipse.cdt.core.parser.IToken;
 import org.eclipse.cdt.core.parser.tests.ast2.TestLexerLog;
 import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.parser.scanner.LexedTokensCache;
 import org.eclipse.cdt.internal.core.parser.scanner.Lexer;
 import org.eclipse.cdt.internal.core.parser.scanner.Lexer.LexerOptions;
 import org.eclipse.cdt.internal.core.parser.scanner.Token;
@@ -861,4 +866,52 @@ public class LexerTests extends BaseTestCase {
 		token(IToken.tPOUND);
 		eof();
 	}
+
+	private List<String> lexWithCache(String input, LexedTokensCache cache) throws Exception {
+		fLog.clear();
+		fLog.setInput(input);
+		Lexer lexer = new Lexer(input.toCharArray(), DEFAULT_OPTIONS, fLog, null);
+		lexer.setTokenCache(cache);
+		List<String> result = new ArrayList<>();
+		for (Token t = lexer.nextToken(); t.getType() != IToken.tEND_OF_INPUT; t = lexer.nextToken()) {
+			result.add(t.getType() + " " + t.getOffset() + "-" + t.getEndOffset() + " " + t.getImage());
+		}
+		while (fLog.getCommentCount() > 0) {
+			result.add(fLog.removeFirstComment());
+		}
+		while (fLog.getProblemCount() > 0) {
+			result.add(fLog.removeFirstProblem());
+		}
+		return result;
+	}
+
+	public void testTokenCache() throws Exception {
+		String input = "#define A(x) x /* block */\n" + "int a\\\nb = <% 1 %>; // line\n" + "char c = 'ab\n"
+				+ "??=if ??/\n1\n" + "\"str\\\ning\" %:%: ";
+		List<String> expected = lexWithCache(input, null);
+
+		File dir = File.createTempFile("tokenCache", null);
+		assertTrue(dir.delete());
+		try {
+			LexedTokensCache cache = new LexedTokensCache(dir, 1024 * 1024);
+			assertEquals(expected, lexWithCache(input, cache));
+			assertEquals(0, cache.getHits());
+			assertEquals(expected, lexWithCache(input, cache));
+			assertEquals(1, cache.getHits());
+
+			// A different input is not confused with the cached one.
+			assertEquals(lexWithCache(input + " ", null), lexWithCache(input + " ", cache));
+			assertEquals(1, cache.getHits());
+
+			// The tokens are read back from disk.
+			cache = new LexedTokensCache(dir, 1024 * 1024);
+			assertEquals(expected, lexWithCache(input, cache));
+			assertEquals(1, cache.getHits());
+		} finally {
+			for (File file : dir.listFiles()) {
+				file.delete();
+			}
+			dir.delete();
+		}
+	}
 }
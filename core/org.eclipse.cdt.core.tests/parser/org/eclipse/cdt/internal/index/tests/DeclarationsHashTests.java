@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.index.tests;
+
+import static org.eclipse.cdt.core.parser.ParserLanguage.CPP;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.eclipse.cdt.core.dom.ast.IASTPreprocessorIncludeStatement;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.cdt.core.parser.tests.ast2.AST2TestBase;
+import org.eclipse.cdt.internal.core.pdom.DeclarationsHasher;
+
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the hash of the declarations a file provides to its includers.
+ */
+public class DeclarationsHashTests extends AST2TestBase {
+
+	public DeclarationsHashTests() {
+	}
+
+	public DeclarationsHashTests(String name) {
+		super(name);
+	}
+
+	public static TestSuite suite() {
+		return suite(DeclarationsHashTests.class);
+	}
+
+	private long hash(String code) throws Exception {
+		IASTTranslationUnit tu = parse(code, CPP);
+		Set<IASTPreprocessorIncludeStatement> files = Collections.singleton(null);
+		Long hash = DeclarationsHasher.computeHashes(tu, files).get(null);
+		assertNotNull(hash);
+		return hash;
+	}
+
+	public void testFunctionBodiesAreIgnored() throws Exception {
+		long hash = hash("int f(int a) { return a; }\nstruct S { void m() {} };");
+		assertEquals(hash, hash("int f(int a) {\n\treturn a + 1;\n}\nstruct S { void m() { f(0); } };"));
+		assertEquals(hash, hash("int  f(int a)\n{ return -a; }   struct S {\n void m() {}\n};"));
+	}
+
+	public void testDeclarationsAreHashed() throws Exception {
+		long hash = hash("int f(int a) { return a; }");
+		assertFalse(hash == hash("int f(long a) { return a; }"));
+		assertFalse(hash == hash("int f(int a);"));
+		assertFalse(hash == hash("int f(int a) { return a; }\nint g;"));
+		assertFalse(hash == hash("#define X 1\nint f(int a) { return a; }"));
+	}
+
+	public void testBodiesVisibleToIncluders() throws Exception {
+		assertFalse(hash("template<typename T> T f(T a) { return a; }") == hash(
+				"template<typename T> T f(T a) { return a + 1; }"));
+		assertFalse(hash("constexpr int f() { return 1; }") == hash("constexpr int f() { return 2; }"));
+		assertFalse(hash("auto f() { return 1; }") == hash("auto f() { return 1L; }"));
+	}
+}
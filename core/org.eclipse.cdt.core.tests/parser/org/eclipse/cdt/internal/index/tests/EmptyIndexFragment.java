@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2012 Symbian Software Ltd. and others.
+ * Copyright (c) 2007, 2020 Symbian Software Ltd. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,6 +16,7 @@
  *******************************************************************************/
 package org.eclipse.cdt.internal.index.tests;
 
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 import org.eclipse.cdt.core.dom.ast.IASTName;
@@ -78,6 +79,11 @@ public class EmptyIndexFragment implements IIndexFragment {
 		return IIndexFragmentBinding.EMPTY_INDEX_BINDING_ARRAY;
 	}
 
+	@Override
+	public void visitTypeBindings(char[] prefix, IndexFilter filter, Predicate<IIndexFragmentBinding> visitor,
+			IProgressMonitor monitor) throws CoreException {
+	}
+
 	@Override
 	public IIndexFragmentBinding[] findBindingsForContentAssist(char[] prefix, boolean filescope, IndexFilter filter,
 			IProgressMonitor monitor) throws CoreException {
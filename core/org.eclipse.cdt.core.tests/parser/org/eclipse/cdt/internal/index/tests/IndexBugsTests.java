@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2016 Wind River Systems, Inc. and others.
+ * Copyright (c) 2006, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,11 +21,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.eclipse.cdt.core.CCorePlugin;
+import org.eclipse.cdt.core.browser.AllTypesCache;
+import org.eclipse.cdt.core.browser.ITypeInfo;
+import org.eclipse.cdt.core.browser.ITypeSearchScope;
+import org.eclipse.cdt.core.browser.TypeSearchScope;
 import org.eclipse.cdt.core.dom.ILinkage;
 import org.eclipse.cdt.core.dom.IName;
 import org.eclipse.cdt.core.dom.IPDOMManager;
@@ -73,6 +78,7 @@ import org.eclipse.cdt.core.index.IIndexManager;
 import org.eclipse.cdt.core.index.IIndexName;
 import org.eclipse.cdt.core.index.IndexFilter;
 import org.eclipse.cdt.core.index.IndexLocationFactory;
+import org.eclipse.cdt.core.index.IndexTextSearch;
 import org.eclipse.cdt.core.model.CModelException;
 import org.eclipse.cdt.core.model.CoreModel;
 import org.eclipse.cdt.core.model.ICElement;
@@ -1085,6 +1091,99 @@ public class IndexBugsTests extends BaseTestCase {
 		}
 	}
 
+	// class a {};
+	// class A {};
+	// void ab();
+	// typedef int ac;
+	// namespace aa {
+	//   class a {
+	//     enum AE {};
+	//   };
+	// };
+	// union b {};
+	public void testFindTypesWithPrefix() throws Exception {
+		waitForIndexer();
+		String content = getContentsForTest(1)[0];
+
+		IFile file = TestSourceReader.createFile(fCProject.getProject(), "testFTWP.cpp", content);
+		TestSourceReader.waitUntilFileIsIndexed(fIndex, file, INDEXER_TIMEOUT_SEC * 1000);
+
+		ITypeSearchScope scope = new TypeSearchScope(fCProject);
+		ITypeInfo[] types = AllTypesCache.getTypes(scope, ITypeInfo.KNOWN_TYPES, new char[] { 'a' }, 100, null);
+		Set<String> names = new HashSet<>();
+		for (ITypeInfo type : types) {
+			names.add(type.getQualifiedTypeName().getFullyQualifiedName());
+		}
+		assertEquals(names.toString(), 6, types.length);
+		assertTrue(names.contains("aa::a::AE"));
+		assertTrue(names.contains("ac"));
+		assertFalse(names.contains("ab"));
+
+		types = AllTypesCache.getTypes(scope, new int[] { ICElement.C_CLASS }, new char[] { 'a' }, 100, null);
+		assertEquals(3, types.length);
+
+		types = AllTypesCache.getTypes(scope, ITypeInfo.KNOWN_TYPES, new char[] { 'a' }, 2, null);
+		assertEquals(2, types.length);
+
+		types = AllTypesCache.getTypes(scope, ITypeInfo.KNOWN_TYPES, new char[0], 100, null);
+		assertEquals(7, types.length);
+	}
+
+	public void testSearchText() throws Exception {
+		waitForIndexer();
+		IFile file1 = TestSourceReader.createFile(fCProject.getProject(), "testText1.cpp", "int findMeInText1 = 0;\n");
+		IFile file2 = TestSourceReader.createFile(fCProject.getProject(), "testText2.cpp", "int otherValue = 1;\n");
+		TestSourceReader.waitUntilFileIsIndexed(fIndex, file1, INDEXER_TIMEOUT_SEC * 1000);
+		TestSourceReader.waitUntilFileIsIndexed(fIndex, file2, INDEXER_TIMEOUT_SEC * 1000);
+
+		fIndex.acquireReadLock();
+		try {
+			IIndexFile[] files = fIndex.findFilesContainingText(new String[] { "findMeInText" }, null);
+			assertEquals(1, files.length);
+			assertEquals(file1.getLocationURI(), files[0].getLocation().getURI());
+			files = fIndex.findFilesContainingText(new String[] { "in" }, null);
+			assertEquals(2, files.length);
+		} finally {
+			fIndex.releaseReadLock();
+		}
+
+		List<IndexTextSearch.Match> matches = IndexTextSearch.search(fIndex, "FINDME", false, null);
+		assertEquals(1, matches.size());
+		assertEquals(file1.getLocationURI(), matches.get(0).getLocation().getURI());
+		assertEquals(4, matches.get(0).getOffset());
+		assertEquals(6, matches.get(0).getLength());
+
+		assertEquals(0, IndexTextSearch.search(fIndex, "FINDME", true, null).size());
+
+		matches = IndexTextSearch.search(fIndex, Pattern.compile("find\\w+Text\\d"), null);
+		assertEquals(1, matches.size());
+		assertEquals(13, matches.get(0).getLength());
+
+		matches = IndexTextSearch.search(fIndex, Pattern.compile("int (find|other)"), null);
+		assertEquals(2, matches.size());
+	}
+
+	public void testSearchTextInLargeFile() throws Exception {
+		waitForIndexer();
+		// Names with most of the trigrams of digits and lower case letters.
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			content.append("int v").append(Integer.toString(i * 7919 % 1000003, 36)).append(" = 0;\n");
+		}
+		IFile file = TestSourceReader.createFile(fCProject.getProject(), "testLargeText.cpp", content.toString());
+		TestSourceReader.waitUntilFileIsIndexed(fIndex, file, INDEXER_TIMEOUT_SEC * 1000);
+
+		fIndex.acquireReadLock();
+		try {
+			IIndexFile[] files = fIndex.findFilesContainingText(new String[] { "int v0 = 0;" }, null);
+			assertEquals(1, files.length);
+			files = fIndex.findFilesContainingText(new String[] { "x_y_z_w" }, null);
+			assertEquals(0, files.length);
+		} finally {
+			fIndex.releaseReadLock();
+		}
+	}
+
 	// class a { class b { class c { void f(); }; }; };
 	public void testFilterFindBindingsFQCharArray() throws Exception {
 		waitForIndexer();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2016 Wind River Systems, Inc. and others.
+ * Copyright (c) 2006, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -42,6 +42,8 @@ public class IndexTests extends TestSuite {
 		suite.addTest(IndexProviderManagerTest.suite());
 		suite.addTest(IndexMultiVariantHeaderTest.suite());
 		suite.addTest(IndexMultiFileTest.suite());
+		suite.addTest(DeclarationsHashTests.suite());
+		suite.addTest(ParallelParsingIndexTest.suite());
 
 		// C++14 index test suites
 		suite.addTestSuite(ReturnTypeDeductionIndexTests.class);
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.index.tests;
+
+import org.eclipse.cdt.core.CCorePlugin;
+import org.eclipse.cdt.core.dom.IPDOMManager;
+import org.eclipse.cdt.core.dom.ast.IArrayType;
+import org.eclipse.cdt.core.dom.ast.IBinding;
+import org.eclipse.cdt.core.dom.ast.IType;
+import org.eclipse.cdt.core.dom.ast.IVariable;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateInstance;
+import org.eclipse.cdt.core.index.IIndex;
+import org.eclipse.cdt.core.index.IIndexName;
+import org.eclipse.cdt.core.index.IndexFilter;
+import org.eclipse.cdt.core.model.ICProject;
+import org.eclipse.cdt.core.testplugin.CProjectHelper;
+import org.eclipse.cdt.core.testplugin.util.TestSourceReader;
+import org.eclipse.cdt.internal.core.pdom.indexer.IndexerPreferences;
+import org.eclipse.core.runtime.Path;
+
+import junit.framework.TestSuite;
+
+/**
+ * Tests indexing with more than one parser thread.
+ */
+public class ParallelParsingIndexTest extends IndexTestBase {
+	private static final int SOURCES = 24;
+
+	public static TestSuite suite() {
+		return suite(ParallelParsingIndexTest.class);
+	}
+
+	private ICProject fProject;
+	private IIndex fIndex;
+
+	public ParallelParsingIndexTest(String name) {
+		super(name);
+	}
+
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		fProject = CProjectHelper.createCCProject("__parallelParsingTest__", "bin", IPDOMManager.ID_NO_INDEXER);
+		IndexerPreferences.set(fProject.getProject(), IndexerPreferences.KEY_PARSER_THREADS, "4");
+		TestSourceReader.createFile(fProject.getProject(), new Path("header.h"),
+				"template<typename T> struct A { T t; };\n"
+						+ "template<typename T> int g(A<T> a) { return sizeof(a.t); }\n" + "enum { e = 1 };\n");
+		for (int i = 1; i <= SOURCES; i++) {
+			TestSourceReader.createFile(fProject.getProject(), new Path("source" + i + ".cpp"),
+					"#include \"header.h\"\n" + "A<int> a" + i + ";\n" + "A<char[" + i + "]> b" + i + ";\n" + "int f"
+							+ i + "() { return g(a" + i + ") + g(b" + i + ") + e; }\n");
+		}
+		CCorePlugin.getIndexManager().setIndexerId(fProject, IPDOMManager.ID_FAST_INDEXER);
+		waitForIndexer(fProject);
+		fIndex = CCorePlugin.getIndexManager().getIndex(fProject);
+	}
+
+	@Override
+	public void tearDown() throws Exception {
+		if (fProject != null) {
+			CProjectHelper.delete(fProject);
+		}
+		super.tearDown();
+	}
+
+	private IBinding findBinding(String name) throws Exception {
+		IBinding[] bindings = fIndex.findBindings(name.toCharArray(), IndexFilter.ALL_DECLARED, npm());
+		assertEquals(name, 1, bindings.length);
+		return bindings[0];
+	}
+
+	public void testAllSourcesIndexed() throws Exception {
+		fIndex.acquireReadLock();
+		try {
+			for (int i = 1; i <= SOURCES; i++) {
+				IIndexName[] defs = fIndex.findDefinitions(findBinding("f" + i));
+				assertEquals(1, defs.length);
+				assertTrue(defs[0].getFile().getLocation().getURI().getPath().endsWith("/source" + i + ".cpp"));
+			}
+			IIndexName[] refs = fIndex.findReferences(findBinding("g"));
+			assertEquals(2 * SOURCES, refs.length);
+		} finally {
+			fIndex.releaseReadLock();
+		}
+	}
+
+	public void testTemplateInstancesOfSourcesNotMixed() throws Exception {
+		fIndex.acquireReadLock();
+		try {
+			for (int i = 1; i <= SOURCES; i++) {
+				IType type = ((IVariable) findBinding("b" + i)).getType();
+				assertInstance(type, ICPPTemplateInstance.class);
+				IType arg = ((ICPPTemplateInstance) type).getTemplateArguments()[0].getTypeValue();
+				assertInstance(arg, IArrayType.class);
+				assertEquals(i, ((IArrayType) arg).getSize().numberValue().intValue());
+			}
+		} finally {
+			fIndex.releaseReadLock();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 Symbian Software Systems and others.
+ * Copyright (c) 2007, 2020 Symbian Software Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -40,7 +40,9 @@ import org.eclipse.cdt.core.index.IndexFilter;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.CPPBasicType;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.ClassTypeHelper;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.ICPPDeferredClassInstance;
+import org.eclipse.cdt.internal.core.dom.parser.cpp.ICPPInstanceCache;
 import org.eclipse.cdt.internal.core.index.IIndexFragmentBinding;
+import org.eclipse.cdt.internal.core.pdom.dom.cpp.PDOMInstanceCache;
 
 import junit.framework.Test;
 
@@ -123,6 +125,31 @@ public class CPPClassTemplateTests extends PDOMInlineCodeTestBase {
 		assertEquals(0, ct.getPartialSpecializations().length);
 	}
 
+	//	template<typename T>
+	//	class Foo {};
+	//
+	//	class A {};
+	//
+	//	Foo<A> a;
+	public void testInstancesAreKeptAcrossReadLocks() throws Exception {
+		IIndexFragmentBinding[] b = pdom.findBindings(new char[][] { "Foo".toCharArray() }, IndexFilter.ALL_DECLARED,
+				npm());
+		assertEquals(1, b.length);
+		assertInstance(b[0], ICPPClassTemplate.class);
+		ICPPInstanceCache template = (ICPPInstanceCache) b[0];
+		ICPPTemplateInstance[] instances = template.getAllInstances();
+		assertEquals(1, instances.length);
+		ICPPTemplateArgument[] args = instances[0].getTemplateArguments();
+
+		// Releasing the lock clears the results cached for ASTs, the instances from the index are kept.
+		pdom.releaseReadLock();
+		pdom.acquireReadLock();
+		PDOMInstanceCache.resetCounters();
+		assertSame(instances[0], template.getInstance(args));
+		assertEquals(1, PDOMInstanceCache.getHitCount());
+		assertEquals(0, PDOMInstanceCache.getMissCount());
+	}
+
 	// template<class C=char> /* typename and class are equivalent in template parameter context */
 	// class D {
 	// public:
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.tests;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.eclipse.cdt.core.parser.IExtendedScannerInfo;
+import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.pdom.export.CompilationDatabase;
+
+import junit.framework.Test;
+
+/**
+ * Tests for reading the compile commands of a compilation database.
+ */
+public class CompilationDatabaseTests extends BaseTestCase {
+
+	public static Test suite() {
+		return suite(CompilationDatabaseTests.class);
+	}
+
+	private static void assertSplit(String command, String... expected) {
+		assertEquals(Arrays.asList(expected), CompilationDatabase.splitCommandLine(command));
+	}
+
+	public void testQuotes() {
+		assertSplit("g++  -I 'a b' -DX=\"1 2\" a.c", "g++", "-I", "a b", "-DX=1 2", "a.c");
+		assertSplit("g++ -DS='\"s\"' \"\" a.c", "g++", "-DS=\"s\"", "", "a.c");
+	}
+
+	public void testEscapes() {
+		assertSplit("g++ -DS=\\\"s\\\" a\\ b.c", "g++", "-DS=\"s\"", "a b.c");
+		// Within double quotes a backslash before white space is kept.
+		assertSplit("g++ \"a\\ b.c\"", "g++", "a\\ b.c");
+		assertSplit("g++ \"-DS=\\\"\\\\\\\"\" \\'", "g++", "-DS=\"\\\"", "'");
+		// A backslash before any other character is kept.
+		assertSplit("cl.exe /IC:\\include C:\\src\\a.c", "cl.exe", "/IC:\\include", "C:\\src\\a.c");
+		assertSplit("cl.exe \"C:\\Program Files\\a.c\"", "cl.exe", "C:\\Program Files\\a.c");
+		assertSplit("g++ C:\\\\src\\\\a.c", "g++", "C:\\src\\a.c");
+	}
+
+	public void testIncludeOptions() throws Exception {
+		File dir = Files.createTempDirectory("compdb").toFile();
+		File json = new File(dir, "compile_commands.json");
+		try {
+			String directory = dir.getAbsolutePath().replace("\\", "\\\\");
+			Files.write(json.toPath(),
+					("[{ \"directory\": \"" + directory + "\", \"file\": \"a.cpp\", \"command\": "
+							+ "\"g++ -Iinc1 -I inc2 -isysteminc3 -isystem inc4 -iquoteinc5 -include a.h -c a.cpp\" }]")
+									.getBytes(StandardCharsets.UTF_8));
+			CompilationDatabase database = CompilationDatabase.read(json);
+			String path = new File(dir, "a.cpp").getCanonicalPath();
+			assertEquals(Arrays.asList(path), database.getSourceFiles());
+
+			IExtendedScannerInfo info = (IExtendedScannerInfo) database.getScannerInformation(path);
+			String[] includePaths = info.getIncludePaths();
+			assertEquals(4, includePaths.length);
+			for (int i = 0; i < includePaths.length; i++) {
+				assertEquals(new File(dir, "inc" + (i + 1)).getCanonicalPath(), includePaths[i]);
+			}
+			assertEquals(Arrays.asList(new File(dir, "inc5").getCanonicalPath()),
+					Arrays.asList(info.getLocalIncludePath()));
+			assertEquals(Arrays.asList(new File(dir, "a.h").getCanonicalPath()), Arrays.asList(info.getIncludeFiles()));
+		} finally {
+			json.delete();
+			dir.delete();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2014 Symbian Software Systems and others.
+ * Copyright (c) 2007, 2020 Symbian Software Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,8 @@ package org.eclipse.cdt.internal.pdom.tests;
 import java.io.File;
 import java.net.URI;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.HashMap;
@@ -41,6 +43,7 @@ import org.eclipse.cdt.core.model.LanguageManager;
 import org.eclipse.cdt.core.testplugin.CProjectHelper;
 import org.eclipse.cdt.core.testplugin.CTestPlugin;
 import org.eclipse.cdt.internal.core.index.IIndexFragment;
+import org.eclipse.cdt.internal.core.index.IndexFileLocation;
 import org.eclipse.cdt.internal.core.pdom.WritablePDOM;
 import org.eclipse.cdt.internal.core.pdom.export.GeneratePDOMApplication;
 import org.eclipse.core.runtime.CoreException;
@@ -231,6 +234,37 @@ public class GeneratePDOMApplicationTest extends PDOMTestBase {
 		}
 	}
 
+	public void testCompilationDatabase() throws Exception {
+		URL url = FileLocator.find(CTestPlugin.getDefault().getBundle(), new Path(LOC_TSTPRJ1), null);
+		File baseDir = new File(FileLocator.toFileURL(url).getFile());
+		File compilationDatabase = nonExistentTempFile("compile_commands", ".json");
+		String directory = baseDir.getAbsolutePath().replace("\\", "\\\\");
+		String json = "[{ \"directory\": \"" + directory + "\", \"file\": \"this.cpp\", "
+				+ "\"command\": \"g++ -DNDEBUG -I 'a/b/c/d e' -c this.cpp\" }]";
+		Files.write(compilationDatabase.toPath(), json.getBytes(StandardCharsets.UTF_8));
+		try {
+			doGenerate(new String[] { GeneratePDOMApplication.OPT_TARGET, target.getAbsolutePath(),
+					GeneratePDOMApplication.OPT_COMPILATION_DATABASE, compilationDatabase.getAbsolutePath(),
+					GeneratePDOMApplication.OPT_BASE, baseDir.getAbsolutePath(), GeneratePDOMApplication.OPT_THREADS,
+					"2", ExternalExportProjectProvider.OPT_FRAGMENT_ID, "generate.pdom.tests.id." + getName() });
+		} finally {
+			compilationDatabase.delete();
+		}
+		assertTrue(target.exists());
+
+		WritablePDOM wpdom = new WritablePDOM(target, new URIRelativeLocationConverter(BASEURI),
+				LanguageManager.getInstance().getPDOMLinkageFactoryMappings());
+		verifyProject1Content(wpdom);
+		wpdom.acquireReadLock();
+		try {
+			assertEquals("generate.pdom.tests.id." + getName(), wpdom.getProperty(IIndexFragment.PROPERTY_FRAGMENT_ID));
+			// The locations are relative to the base directory.
+			assertEquals(1, wpdom.getFiles(new IndexFileLocation(BASEURI.resolve("this.cpp"), null)).length);
+		} finally {
+			wpdom.releaseReadLock();
+		}
+	}
+
 	public void verifyProject1Content(WritablePDOM wpdom) throws Exception {
 		wpdom.acquireReadLock();
 		try {
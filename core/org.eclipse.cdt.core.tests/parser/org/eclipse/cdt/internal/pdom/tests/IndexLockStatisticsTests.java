@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.tests;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.eclipse.cdt.core.index.URIRelativeLocationConverter;
+import org.eclipse.cdt.core.model.LanguageManager;
+import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.StatisticsMBean;
+import org.eclipse.cdt.internal.core.pdom.IndexLockStatistics;
+import org.eclipse.cdt.internal.core.pdom.IndexLockStatistics.CallSite;
+import org.eclipse.cdt.internal.core.pdom.IndexLockStatistics.LockHolder;
+import org.eclipse.cdt.internal.core.pdom.PDOM;
+import org.eclipse.cdt.internal.core.pdom.WritablePDOM;
+
+import junit.framework.Test;
+
+/**
+ * Tests for the statistics on the locks of the index, taking locks on a PDOM of its own. Other
+ * indexes may be locked at the same time, the counters are checked for their increase.
+ */
+public class IndexLockStatisticsTests extends BaseTestCase {
+	private static final long WAIT_MILLIS = 200;
+	private static final String WRITER = "IndexLockStatisticsTests writer";
+
+	private File fPDOMFile;
+	private PDOM fPDOM;
+	private IndexLockStatistics fStatistics;
+
+	public static Test suite() {
+		return suite(IndexLockStatisticsTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fPDOMFile = File.createTempFile(getClass().getSimpleName(), null);
+		fPDOM = new WritablePDOM(fPDOMFile, new URIRelativeLocationConverter(fPDOMFile.getParentFile().toURI()),
+				LanguageManager.getInstance().getPDOMLinkageFactoryMappings());
+		fStatistics = IndexLockStatistics.getInstance();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fPDOM.acquireWriteLock(null);
+		try {
+			fPDOM.close();
+		} finally {
+			fPDOM.releaseWriteLock();
+		}
+		fPDOMFile.delete();
+		super.tearDown();
+	}
+
+	private CallSite findCallSite() {
+		for (CallSite site : fStatistics.getCallSites(Integer.MAX_VALUE)) {
+			if (site.getLocation().contains(IndexLockStatisticsTests.class.getName() + '.'))
+				return site;
+		}
+		return null;
+	}
+
+	private LockHolder findHolder(String threadName) {
+		for (LockHolder holder : fStatistics.getHolders()) {
+			if (holder.getThreadName().equals(threadName))
+				return holder;
+		}
+		return null;
+	}
+
+	public void testLockCounts() throws Exception {
+		long reads = fStatistics.getReadLockCount();
+		long writes = fStatistics.getWriteLockCount();
+		fPDOM.acquireReadLock();
+		fPDOM.acquireReadLock();
+		fPDOM.releaseReadLock();
+		fPDOM.releaseReadLock();
+		fPDOM.acquireWriteLock(null);
+		fPDOM.releaseWriteLock();
+		assertTrue(fStatistics.getReadLockCount() - reads >= 2);
+		assertTrue(fStatistics.getWriteLockCount() - writes >= 1);
+	}
+
+	public void testHoldTimes() throws Exception {
+		fStatistics.reset();
+		fPDOM.acquireReadLock();
+		Thread.sleep(WAIT_MILLIS);
+		fPDOM.releaseReadLock();
+		assertTrue(fStatistics.getMaxReadLockHoldTime() >= WAIT_MILLIS);
+		assertTrue(fStatistics.getReadLockHoldTime() >= WAIT_MILLIS);
+
+		fPDOM.acquireWriteLock(null);
+		Thread.sleep(WAIT_MILLIS);
+		fPDOM.releaseWriteLock();
+		assertTrue(fStatistics.getMaxWriteLockHoldTime() >= WAIT_MILLIS);
+		assertTrue(fStatistics.getWriteLockHoldTime() >= WAIT_MILLIS);
+	}
+
+	public void testWaitTimesAndCallSites() throws Exception {
+		fStatistics.reset();
+		Thread reader = new Thread(() -> {
+			try {
+				fPDOM.acquireReadLock();
+				fPDOM.releaseReadLock();
+			} catch (InterruptedException e) {
+			}
+		});
+		fPDOM.acquireWriteLock(null);
+		try {
+			reader.start();
+			long end = System.currentTimeMillis() + INDEXER_TIMEOUT_MILLISEC;
+			while (fStatistics.getWaitingReaders() == 0) {
+				assertTrue(System.currentTimeMillis() < end);
+				Thread.sleep(10);
+			}
+			Thread.sleep(WAIT_MILLIS);
+		} finally {
+			fPDOM.releaseWriteLock();
+		}
+		reader.join();
+
+		assertEquals(0, fStatistics.getWaitingReaders());
+		assertTrue(fStatistics.getMaxReadLockWaitTime() >= WAIT_MILLIS);
+		assertTrue(fStatistics.getReadLockWaitTime() >= WAIT_MILLIS);
+		CallSite site = findCallSite();
+		assertNotNull(site);
+		assertEquals(1, site.getCount());
+		assertTrue(site.getWaitTime() >= WAIT_MILLIS);
+	}
+
+	public void testHolders() throws Exception {
+		String name = Thread.currentThread().getName();
+		fPDOM.acquireReadLock();
+		try {
+			LockHolder holder = findHolder(name);
+			assertNotNull(holder);
+			assertEquals(1, holder.getReadLocks());
+			assertEquals(0, holder.getWriteLocks());
+		} finally {
+			fPDOM.releaseReadLock();
+		}
+		assertNull(findHolder(name));
+
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread writer = new Thread(() -> {
+			try {
+				fPDOM.acquireWriteLock(null);
+				try {
+					locked.countDown();
+					release.await();
+				} finally {
+					fPDOM.releaseWriteLock();
+				}
+			} catch (InterruptedException e) {
+			}
+		}, WRITER);
+		writer.start();
+		try {
+			assertTrue(locked.await(INDEXER_TIMEOUT_SEC, TimeUnit.SECONDS));
+			LockHolder holder = findHolder(WRITER);
+			assertNotNull(holder);
+			assertEquals(0, holder.getReadLocks());
+			assertEquals(1, holder.getWriteLocks());
+			// The location of the writer is the test waiting for the latch.
+			assertTrue(holder.getLocation(),
+					holder.getLocation().contains(IndexLockStatisticsTests.class.getName() + '.'));
+		} finally {
+			release.countDown();
+			writer.join();
+		}
+		assertNull(findHolder(WRITER));
+	}
+
+	public void testUnregister() throws Exception {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(IndexLockStatistics.OBJECT_NAME);
+		List<Throwable> errors = new ArrayList<>();
+		StatisticsMBean.registerAll(errors::add, fStatistics);
+		try {
+			assertTrue(server.isRegistered(name));
+			assertTrue(server.getAttribute(name, "ReadLockCount") instanceof Long);
+
+			StatisticsMBean.unregisterAll(errors::add, fStatistics);
+			assertFalse(server.isRegistered(name));
+			assertTrue(server.queryNames(new ObjectName(IndexLockStatistics.OBJECT_NAME + ",*"), null).isEmpty());
+			// Removing the statistics again does nothing.
+			StatisticsMBean.unregisterAll(errors::add, fStatistics);
+			assertEquals(errors.toString(), 0, errors.size());
+		} finally {
+			// The statistics are registered while the plug-in is active.
+			StatisticsMBean.registerAll(errors::add, fStatistics);
+		}
+	}
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.tests;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.pdom.db.LongObjectMap;
+import org.eclipse.cdt.internal.core.pdom.db.LongSet;
+
+import junit.framework.Test;
+
+/**
+ * Tests for the primitive maps keyed by records.
+ */
+public class LongMapTests extends BaseTestCase {
+
+	public static Test suite() {
+		return suite(LongMapTests.class);
+	}
+
+	public void testMapBasics() {
+		LongObjectMap<String> map = new LongObjectMap<>();
+		assertTrue(map.isEmpty());
+		assertNull(map.put(8, "a"));
+		assertNull(map.put(16, "b"));
+		assertEquals("a", map.put(8, "c"));
+		assertEquals(2, map.size());
+		assertEquals("c", map.get(8));
+		assertEquals("b", map.get(16));
+		assertNull(map.get(24));
+		assertFalse(map.containsKey(24));
+
+		assertEquals("c", map.remove(8));
+		assertNull(map.remove(8));
+		assertEquals(1, map.size());
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertNull(map.get(16));
+	}
+
+	public void testZeroKey() {
+		LongObjectMap<String> map = new LongObjectMap<>();
+		assertFalse(map.containsKey(0));
+		assertNull(map.put(0, "zero"));
+		assertTrue(map.containsKey(0));
+		assertEquals("zero", map.get(0));
+		assertEquals(1, map.size());
+		assertEquals("zero", map.remove(0));
+		assertTrue(map.isEmpty());
+
+		LongSet set = new LongSet();
+		assertFalse(set.contains(0));
+		assertTrue(set.add(0));
+		assertFalse(set.add(0));
+		assertTrue(set.contains(0));
+		assertTrue(set.remove(0));
+		assertTrue(set.isEmpty());
+	}
+
+	public void testAgainstHashMap() {
+		Random random = new Random(4711);
+		LongObjectMap<Long> map = new LongObjectMap<>();
+		LongSet set = new LongSet();
+		Map<Long, Long> expected = new HashMap<>();
+		for (int i = 0; i < 100000; i++) {
+			// Aligned keys in a small range, to exercise collisions and removals within probe sequences.
+			long key = random.nextInt(4096) * 8L;
+			switch (random.nextInt(3)) {
+			case 0:
+				Long value = random.nextLong();
+				assertEquals(!expected.containsKey(key), set.add(key));
+				assertEquals(expected.put(key, value), map.put(key, value));
+				break;
+			case 1:
+				assertEquals(expected.containsKey(key), set.remove(key));
+				assertEquals(expected.remove(key), map.remove(key));
+				break;
+			default:
+				assertEquals(expected.get(key), map.get(key));
+				assertEquals(expected.containsKey(key), set.contains(key));
+				break;
+			}
+			assertEquals(expected.size(), map.size());
+			assertEquals(expected.size(), set.size());
+		}
+		for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+			assertEquals(entry.getValue(), map.get(entry.getKey()));
+			assertTrue(set.contains(entry.getKey()));
+		}
+	}
+}
@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.tests;
+
+import java.util.Random;
+
+import org.eclipse.cdt.internal.core.pdom.db.ChunkCache;
+import org.eclipse.cdt.internal.core.pdom.db.Database;
+
+import junit.framework.Test;
+
+/**
+ * Benchmarks comparing memory-mapped read-only databases against databases that copy chunks
+ * into the heap. Too expensive to run as part of normal testing, but should be run after
+ * changes to {@link Database} or its chunk cache.
+ */
+public class MappedDatabaseExpensiveTests extends MappedDatabaseTests {
+	private static final int RECORDS = 2000000;
+	private static final int LOOKUPS = 1000000;
+	private static final int ROUNDS = 5;
+
+	public static Test suite() {
+		return suite(MappedDatabaseExpensiveTests.class);
+	}
+
+	public void testBenchmarkBTreeLookupsAndScans() throws Exception {
+		populate(RECORDS);
+		// A cache that is smaller than the database forces chunks to be re-read.
+		final long cacheSize = dbFile.length() / 4;
+		for (int round = 0; round < ROUNDS; round++) {
+			for (boolean mapped : new boolean[] { false, true }) {
+				Database db = open(mapped, new ChunkCache(cacheSize));
+				try {
+					Random random = new Random(round);
+					long start = System.nanoTime();
+					for (int i = 0; i < LOOKUPS; i++) {
+						assertTrue(find(db, random.nextInt(RECORDS)) != 0);
+					}
+					long lookupTime = System.nanoTime() - start;
+
+					start = System.nanoTime();
+					assertEquals(RECORDS, scan(db).size());
+					long scanTime = System.nanoTime() - start;
+
+					System.out.println((mapped ? "mapped" : "copied") + " round " + round + ": " + LOOKUPS
+							+ " lookups " + lookupTime / 1000000 + "ms, full scan " + scanTime / 1000000 + "ms, misses "
+							+ db.getCacheMisses());
+				} finally {
+					db.setExclusiveLock();
+					db.close();
+				}
+			}
+		}
+	}
+}
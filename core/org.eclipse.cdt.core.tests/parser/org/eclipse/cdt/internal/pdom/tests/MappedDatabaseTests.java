@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.pdom.tests;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.cdt.core.testplugin.util.BaseTestCase;
+import org.eclipse.cdt.internal.core.pdom.db.BTree;
+import org.eclipse.cdt.internal.core.pdom.db.ChunkCache;
+import org.eclipse.cdt.internal.core.pdom.db.Database;
+import org.eclipse.cdt.internal.core.pdom.db.IBTreeComparator;
+import org.eclipse.cdt.internal.core.pdom.db.IBTreeVisitor;
+import org.eclipse.core.runtime.CoreException;
+
+import junit.framework.Test;
+
+/**
+ * Tests for read-only databases that are memory-mapped or read chunk by chunk, and for
+ * readers sharing the chunk cache concurrently.
+ */
+public class MappedDatabaseTests extends BaseTestCase {
+	protected static final int BTREE_ROOT = Database.DATA_AREA;
+	protected File dbFile;
+
+	public static Test suite() {
+		return suite(MappedDatabaseTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		dbFile = File.createTempFile("pdommapped", "db");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (!dbFile.delete()) {
+			dbFile.deleteOnExit();
+		}
+		super.tearDown();
+	}
+
+	/**
+	 * Creates a database with a B-tree of records, each holding its key and a string.
+	 */
+	protected void populate(int count) throws CoreException {
+		Database db = new Database(dbFile, new ChunkCache(), 0, false);
+		db.setExclusiveLock();
+		BTree btree = new BTree(db, BTREE_ROOT, createComparator(db));
+		for (int i = 0; i < count; i++) {
+			long record = db.malloc(8);
+			db.putInt(record, i);
+			db.putRecPtr(record + 4, db.newString("name" + i).getRecord());
+			btree.insert(record);
+		}
+		db.close();
+	}
+
+	protected Database open(boolean memoryMapped, ChunkCache cache) throws CoreException {
+		Database db = new Database(dbFile, cache, 0, true, memoryMapped);
+		db.setLocked(true);
+		return db;
+	}
+
+	protected static IBTreeComparator createComparator(final Database db) {
+		return (record1, record2) -> Integer.compare(db.getInt(record1), db.getInt(record2));
+	}
+
+	protected static long find(Database db, final int key) throws CoreException {
+		final long[] result = { 0 };
+		new BTree(db, BTREE_ROOT, createComparator(db)).accept(new IBTreeVisitor() {
+			@Override
+			public int compare(long record) throws CoreException {
+				return Integer.compare(db.getInt(record), key);
+			}
+
+			@Override
+			public boolean visit(long record) throws CoreException {
+				result[0] = record;
+				return false;
+			}
+		});
+		return result[0];
+	}
+
+	protected static List<String> scan(final Database db) throws CoreException {
+		final List<String> result = new ArrayList<>();
+		new BTree(db, BTREE_ROOT, createComparator(db)).accept(new IBTreeVisitor() {
+			@Override
+			public int compare(long record) throws CoreException {
+				return 0;
+			}
+
+			@Override
+			public boolean visit(long record) throws CoreException {
+				result.add(db.getString(db.getRecPtr(record + 4)).getString());
+				return true;
+			}
+		});
+		return result;
+	}
+
+	public void testMappingIsLimitedToReadOnlyDatabases() throws Exception {
+		populate(1);
+		Database db = new Database(dbFile, new ChunkCache(), 0, false, true);
+		db.setExclusiveLock();
+		try {
+			assertFalse(db.isMemoryMapped());
+		} finally {
+			db.close();
+		}
+		db = open(true, new ChunkCache());
+		assertTrue(db.isMemoryMapped());
+		db.setExclusiveLock();
+		db.close();
+	}
+
+	public void testMappedLookupsMatchCopiedChunks() throws Exception {
+		final int count = 20000;
+		populate(count);
+		// Use a tiny cache to exercise eviction of mapped chunks.
+		Database mapped = open(true, new ChunkCache(Database.CHUNK_SIZE * 4));
+		Database copied = open(false, new ChunkCache());
+		try {
+			for (int i = 0; i < count; i += 7) {
+				long record = find(mapped, i);
+				assertTrue(record != 0);
+				assertEquals(find(copied, i), record);
+				assertEquals("name" + i, mapped.getString(mapped.getRecPtr(record + 4)).getString());
+			}
+			assertEquals(0, find(mapped, count));
+			assertEquals(scan(copied), scan(mapped));
+		} finally {
+			mapped.setExclusiveLock();
+			mapped.close();
+			copied.setExclusiveLock();
+			copied.close();
+		}
+	}
+
+	public void testConcurrentReadersShareCache() throws Exception {
+		final int count = 20000;
+		populate(count);
+		ChunkCache cache = new ChunkCache(Database.CHUNK_SIZE * 16);
+		for (boolean memoryMapped : new boolean[] { false, true }) {
+			final Database db = open(memoryMapped, cache);
+			final AtomicReference<Throwable> failure = new AtomicReference<>();
+			Thread[] readers = new Thread[4];
+			for (int t = 0; t < readers.length; t++) {
+				final Random random = new Random(t);
+				readers[t] = new Thread(() -> {
+					try {
+						for (int i = 0; i < 5000; i++) {
+							int key = random.nextInt(count);
+							long record = find(db, key);
+							if (record == 0 || !db.getString(db.getRecPtr(record + 4)).getString().equals("name" + key))
+								throw new AssertionError("Wrong record for " + key);
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				});
+				readers[t].start();
+			}
+			for (Thread reader : readers) {
+				reader.join();
+			}
+			db.setExclusiveLock();
+			db.close();
+			if (failure.get() != null)
+				throw new AssertionError(failure.get());
+		}
+		assertTrue(cache.getLockFreeHits() > 0);
+		assertTrue(cache.getLockAcquisitions() > 0);
+	}
+}
@@ -22,6 +22,7 @@ import org.eclipse.cdt.core.envvar.IEnvironmentVariableManagerTests;
 import org.eclipse.cdt.core.internal.efsextension.tests.EFSExtensionTests;
 import org.eclipse.cdt.core.internal.errorparsers.tests.ErrorParserTests;
 import org.eclipse.cdt.core.internal.tests.PositionTrackerTests;
+import org.eclipse.cdt.core.internal.tests.RegexLiteralsTests;
 import org.eclipse.cdt.core.internal.tests.ResourceLookupTests;
 import org.eclipse.cdt.core.internal.tests.StringBuilderTest;
 import org.eclipse.cdt.core.language.AllLanguageTests;
@@ -42,7 +43,9 @@ import org.eclipse.cdt.utils.FindProgramLocationTest;
 import org.eclipse.cdt.utils.StorableCdtVariablesTest;
 import org.eclipse.cdt.utils.UNCPathConverterTest;
 import org.eclipse.cdt.utils.WeakHashSetTest;
+import org.eclipse.cdt.utils.debug.dwarf.DwarfLineIndexTest;
 import org.eclipse.cdt.utils.elf.ElfParserTest;
+import org.eclipse.cdt.utils.elf.ElfSymbolTableTest;
 import org.eclipse.cdt.utils.elf.ElfTest;
 
 import junit.framework.JUnit4TestAdapter;
@@ -86,6 +89,7 @@ public class AutomatedIntegrationSuite extends TestSuite {
 		suite.addTest(ElementDeltaTests.suite());
 		suite.addTest(WorkingCopyTests.suite());
 		suite.addTest(PositionTrackerTests.suite());
+		suite.addTest(RegexLiteralsTests.suite());
 		suite.addTest(ResourceLookupTests.suite());
 		suite.addTest(StringBuilderTest.suite());
 		suite.addTest(AllLanguageTests.suite());
@@ -101,6 +105,8 @@ public class AutomatedIntegrationSuite extends TestSuite {
 		suite.addTest(TestScopeOfBuildConfigResourceChangesPreference.suite());
 		suite.addTest(ElfParserTest.suite());
 		suite.addTest(new JUnit4TestAdapter(ElfTest.class));
+		suite.addTest(new JUnit4TestAdapter(ElfSymbolTableTest.class));
+		suite.addTest(new JUnit4TestAdapter(DwarfLineIndexTest.class));
 
 		// Add in PDOM tests
 		suite.addTest(PDOMTests.suite());
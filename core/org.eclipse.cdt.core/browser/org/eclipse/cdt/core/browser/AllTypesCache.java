@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2012 QNX Software Systems and others.
+ * Copyright (c) 2004, 2020 QNX Software Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,7 +15,11 @@
  *******************************************************************************/
 package org.eclipse.cdt.core.browser;
 
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.dom.ast.IBinding;
@@ -26,7 +30,9 @@ import org.eclipse.cdt.core.index.IndexFilter;
 import org.eclipse.cdt.core.model.CoreModel;
 import org.eclipse.cdt.core.model.ICElement;
 import org.eclipse.cdt.core.model.ICProject;
+import org.eclipse.cdt.core.parser.util.CharArrayUtils;
 import org.eclipse.cdt.internal.core.browser.IndexModelUtil;
+import org.eclipse.cdt.internal.core.index.CIndex;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -52,43 +58,57 @@ public class AllTypesCache {
 
 	private static ITypeInfo[] getTypes(ICProject[] projects, final int[] kinds, IProgressMonitor monitor)
 			throws CoreException {
-		IIndex index = CCorePlugin.getIndexManager().getIndex(projects,
+		long start = System.currentTimeMillis();
+
+		final List<ITypeInfo> result = new ArrayList<>();
+		visitTypes(projects, kinds, CharArrayUtils.EMPTY_CHAR_ARRAY, info -> result.add(info), monitor);
+
+		if (DEBUG) {
+			System.out.println("Index search took " + (System.currentTimeMillis() - start)); //$NON-NLS-1$
+		}
+
+		return result.toArray(new ITypeInfo[result.size()]);
+	}
+
+	/**
+	 * Looks up the types in the index of types maintained by the indexer and passes them to the
+	 * requestor while the index is locked for reading. Types known to multiple projects are passed
+	 * only once.
+	 */
+	private static void visitTypes(ICProject[] projects, final int[] kinds, char[] prefix,
+			final Predicate<ITypeInfo> requestor, IProgressMonitor monitor) throws CoreException {
+		final IIndex index = CCorePlugin.getIndexManager().getIndex(projects,
 				IIndexManager.ADD_EXTENSION_FRAGMENTS_NAVIGATION);
 
 		try {
 			index.acquireReadLock();
 		} catch (InterruptedException e) {
 			Thread.currentThread().interrupt();
-			return new ITypeInfo[0];
+			return;
 		}
 
 		try {
-			long start = System.currentTimeMillis();
-
-			IIndexBinding[] all = index.findBindings(Pattern.compile(".*"), false, new IndexFilter() { //$NON-NLS-1$
+			IndexFilter filter = new IndexFilter() {
 				@Override
 				public boolean acceptBinding(IBinding binding) throws CoreException {
 					return IndexFilter.ALL_DECLARED_OR_IMPLICIT.acceptBinding(binding)
 							&& IndexModelUtil.bindingHasCElementType(binding, kinds);
 				}
-			}, monitor);
-
-			if (DEBUG) {
-				System.out.println("Index search took " + (System.currentTimeMillis() - start)); //$NON-NLS-1$
-				start = System.currentTimeMillis();
-			}
-
-			ITypeInfo[] result = new ITypeInfo[all.length];
-			for (int i = 0; i < all.length; i++) {
-				result[i] = IndexTypeInfo.create(index, all[i]);
-			}
-
-			if (DEBUG) {
-				System.out.println("Wrapping as ITypeInfo took " + (System.currentTimeMillis() - start)); //$NON-NLS-1$
-				start = System.currentTimeMillis();
+			};
+			final Set<ITypeInfo> visited = new HashSet<>();
+			Predicate<IIndexBinding> visitor = binding -> {
+				ITypeInfo info = IndexTypeInfo.create(index, binding);
+				return !visited.add(info) || requestor.test(info);
+			};
+
+			if (index instanceof CIndex) {
+				((CIndex) index).visitTypeBindings(prefix, filter, visitor, monitor);
+			} else {
+				for (IIndexBinding binding : index.findBindingsForPrefix(prefix, false, filter, monitor)) {
+					if (!visitor.test(binding))
+						break;
+				}
 			}
-
-			return result;
 		} finally {
 			index.releaseReadLock();
 		}
@@ -130,6 +150,55 @@ public class AllTypesCache {
 		}
 	}
 
+	/**
+	 * Passes the types in the given scope with names starting with the given prefix to the requestor,
+	 * as they are found. The types are looked up in an index of types maintained by the indexer, such
+	 * that the search neither looks at other bindings nor collects all types up front. The requestor
+	 * is called while the index is locked for reading, it should return promptly.
+	 *
+	 * @param scope The search scope
+	 * @param kinds Array containing CElement types: C_NAMESPACE, C_CLASS,
+	 *              C_UNION, C_ENUMERATION, C_TYPEDEF
+	 * @param prefix The prefix of the names of the types, case is ignored. An empty
+	 *              prefix matches all types.
+	 * @param requestor Receives the types, returns <code>false</code> to end the search.
+	 * @param monitor The progress monitor, may be <code>null</code>
+	 * @since 7.0
+	 */
+	public static void findTypes(ITypeSearchScope scope, int[] kinds, char[] prefix, Predicate<ITypeInfo> requestor,
+			IProgressMonitor monitor) {
+		try {
+			visitTypes(scope.getEnclosingProjects(), kinds, prefix, requestor, monitor);
+		} catch (CoreException e) {
+			CCorePlugin.log(e);
+		}
+	}
+
+	/**
+	 * Returns the first types in the given scope with names starting with the given prefix. Useful
+	 * for showing a first page of types quickly, without searching for all of them.
+	 *
+	 * @param scope The search scope
+	 * @param kinds Array containing CElement types: C_NAMESPACE, C_CLASS,
+	 *              C_UNION, C_ENUMERATION, C_TYPEDEF
+	 * @param prefix The prefix of the names of the types, case is ignored. An empty
+	 *              prefix matches all types.
+	 * @param maxCount The maximum number of types to return.
+	 * @param monitor The progress monitor, may be <code>null</code>
+	 * @since 7.0
+	 */
+	public static ITypeInfo[] getTypes(ITypeSearchScope scope, int[] kinds, char[] prefix, final int maxCount,
+			IProgressMonitor monitor) {
+		final List<ITypeInfo> result = new ArrayList<>();
+		if (maxCount > 0) {
+			findTypes(scope, kinds, prefix, info -> {
+				result.add(info);
+				return result.size() < maxCount;
+			}, monitor);
+		}
+		return result.toArray(new ITypeInfo[result.size()]);
+	}
+
 	/**
 	 * Returns all namespaces in the given scope.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 QNX Software Systems and others.
+ * Copyright (c) 2005, 2020 QNX Software Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -84,6 +84,27 @@ public interface ILanguage extends IAdaptable {
 	 */
 	public final static int OPTION_PARSE_INACTIVE_CODE = 0x20;
 
+	/**
+	 * Option for {@link #getASTTranslationUnit(FileContent, IScannerInfo, IncludeFileContentProvider, IIndex, int, IParserLogService)}
+	 * Performance optimization for ASTs that are used for indexing only. Implies
+	 * {@link #OPTION_NO_IMAGE_LOCATIONS} and {@link #OPTION_SKIP_TRIVIAL_EXPRESSIONS_IN_AGGREGATE_INITIALIZERS}.
+	 * In addition the parser uses the same character array for all names with the same identifier,
+	 * clients must not modify the arrays returned by {@link IASTName#toCharArray()}.
+	 *
+	 * @since 7.0
+	 */
+	public final static int OPTION_LEAN_AST = 0x40;
+
+	/**
+	 * Option for {@link #getASTTranslationUnit(FileContent, IScannerInfo, IncludeFileContentProvider, IIndex, int, IParserLogService)}
+	 * Instructs the parser to skip the bodies of functions and to parse them when they are first accessed
+	 * or visited. Reduces the time needed to create an AST of which only a part of the function bodies is
+	 * used. Supported by the C++ parser, ignored by other parsers.
+	 *
+	 * @since 7.0
+	 */
+	public final static int OPTION_DEFER_FUNCTION_BODIES = 0x80;
+
 	/**
 	 * Return the language id for this language.
 	 * This is to differentiate languages from each other.
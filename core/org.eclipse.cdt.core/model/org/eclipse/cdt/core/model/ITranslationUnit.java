@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 QNX Software Systems and others.
+ * Copyright (c) 2000, 2020 QNX Software Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -117,6 +117,16 @@ public interface ITranslationUnit extends ICElement, IParent, IOpenable, ISource
 	 */
 	public final static int AST_PARSE_INACTIVE_CODE = 0x80;
 
+	/**
+	 * Style constant for {@link #getAST(IIndex, int)}.
+	 * Instructs the parser to skip function bodies and to parse them when they are first accessed
+	 * or visited. The AST behaves like one created without this flag, except for the time it takes
+	 * to access the statements of a function body for the first time.
+	 *
+	 * @since 7.0
+	 */
+	public final static int AST_DEFER_FUNCTION_BODIES = 0x100;
+
 	/**
 	 * Creates and returns an include declaration in this translation unit
 	 * with the given name.
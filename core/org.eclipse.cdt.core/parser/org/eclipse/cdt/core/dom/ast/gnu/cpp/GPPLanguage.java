@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 QNX Software Systems and others.
+ * Copyright (c) 2005, 2020 QNX Software Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -129,6 +129,12 @@ public class GPPLanguage extends AbstractCLikeLanguage {
 				parser.setMaximumTrivialExpressionsInAggregateInitializers(maximumTrivialExpressions);
 			}
 		}
+		if ((options & OPTION_LEAN_AST) != 0) {
+			parser.setShareNameImages(true);
+		}
+		if ((options & OPTION_DEFER_FUNCTION_BODIES) != 0) {
+			parser.setDeferFunctionBodies(true);
+		}
 		return parser;
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2014 Wind River Systems, Inc. and others.
+ * Copyright (c) 2006, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -460,6 +460,22 @@ public interface IIndex {
 	 */
 	public IIndexFile[] getAllFiles() throws CoreException;
 
+	/**
+	 * Returns the files of this index that may contain all of the given strings. The indexer
+	 * stores a summary of the text of each file it parses, files that cannot contain the strings
+	 * are left out without reading them. The result may contain files that do not contain the
+	 * strings, it contains all files of the index that do. Case is ignored, strings shorter than
+	 * three characters do not rule out any file. If a file is parsed in two linkages or in multiple
+	 * fragments, only one of the files will be returned.
+	 * <p>
+	 * See {@link IndexTextSearch} for searching the text of the files of the index.
+	 *
+	 * @param strings the strings the text of the files has to contain.
+	 * @param monitor to report progress, may be {@code null}.
+	 * @since 7.0
+	 */
+	public IIndexFile[] findFilesContainingText(String[] strings, IProgressMonitor monitor) throws CoreException;
+
 	/**
 	 * Returns an array of files that were indexed with I/O errors.
 	 * @noreference This method is not intended to be referenced by clients.
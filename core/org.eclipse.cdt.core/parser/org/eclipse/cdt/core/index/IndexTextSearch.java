@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.core.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.cdt.core.parser.FileContent;
+import org.eclipse.cdt.internal.core.RegexLiterals;
+import org.eclipse.cdt.internal.core.parser.scanner.AbstractCharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContent;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+
+/**
+ * Searches the text of the files of an index for a string or a regular expression. The files that
+ * cannot contain a match are ruled out with {@link IIndex#findFilesContainingText}, only the
+ * remaining files are read.
+ *
+ * @noinstantiate This class is not intended to be instantiated by clients.
+ * @since 7.0
+ */
+public final class IndexTextSearch {
+	/**
+	 * A match of a search.
+	 */
+	public static final class Match {
+		private final IIndexFileLocation fLocation;
+		private final int fOffset;
+		private final int fLength;
+
+		Match(IIndexFileLocation location, int offset, int length) {
+			fLocation = location;
+			fOffset = offset;
+			fLength = length;
+		}
+
+		/**
+		 * Returns the location of the file containing the match.
+		 */
+		public IIndexFileLocation getLocation() {
+			return fLocation;
+		}
+
+		/**
+		 * Returns the offset of the match in the file, in characters.
+		 */
+		public int getOffset() {
+			return fOffset;
+		}
+
+		/**
+		 * Returns the length of the match, in characters.
+		 */
+		public int getLength() {
+			return fLength;
+		}
+
+		@Override
+		public String toString() {
+			return fLocation.getURI() + "[" + fOffset + "," + fLength + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+	}
+
+	private IndexTextSearch() {
+	}
+
+	/**
+	 * Searches the files of the index for occurrences of the given string.
+	 *
+	 * @param index the index, must not be locked by the calling thread.
+	 * @param text the string to search for.
+	 * @param caseSensitive whether the case of the string has to match.
+	 * @param monitor to report progress and to cancel the search, may be {@code null}.
+	 * @return the matches, ordered by file and offset.
+	 */
+	public static List<Match> search(IIndex index, String text, boolean caseSensitive, IProgressMonitor monitor)
+			throws CoreException, InterruptedException {
+		int flags = Pattern.LITERAL;
+		if (!caseSensitive)
+			flags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+		return search(index, Pattern.compile(text, flags), monitor);
+	}
+
+	/**
+	 * Searches the files of the index for matches of the given regular expression. The literal
+	 * parts of the expression that every match has to contain are used to rule out files, an
+	 * expression without such parts has to be matched against every file of the index.
+	 *
+	 * @param index the index, must not be locked by the calling thread.
+	 * @param pattern the regular expression to search for.
+	 * @param monitor to report progress and to cancel the search, may be {@code null}.
+	 * @return the matches, ordered by file and offset.
+	 */
+	public static List<Match> search(IIndex index, Pattern pattern, IProgressMonitor monitor)
+			throws CoreException, InterruptedException {
+		SubMonitor progress = SubMonitor.convert(monitor, 10);
+		IIndexFileLocation[] locations;
+		index.acquireReadLock();
+		try {
+			IIndexFile[] files = index.findFilesContainingText(RegexLiterals.getRequiredLiterals(pattern),
+					progress.split(1));
+			locations = new IIndexFileLocation[files.length];
+			for (int i = 0; i < files.length; i++) {
+				locations[i] = files[i].getLocation();
+			}
+		} finally {
+			index.releaseReadLock();
+		}
+		Arrays.sort(locations, Comparator.comparing(location -> location.getURI().toString()));
+
+		// The files are read without holding a lock on the index.
+		List<Match> result = new ArrayList<>();
+		SubMonitor loopProgress = progress.split(9).setWorkRemaining(locations.length);
+		for (IIndexFileLocation location : locations) {
+			loopProgress.split(1);
+			FileContent content = FileContent.create(location);
+			if (content instanceof InternalFileContent) {
+				AbstractCharArray source = ((InternalFileContent) content).getSource();
+				if (source != null && !source.hasError()) {
+					Matcher matcher = pattern.matcher(source.subSequence(0, source.getLength()));
+					while (matcher.find()) {
+						result.add(new Match(location, matcher.start(), matcher.end() - matcher.start()));
+					}
+				}
+			}
+		}
+		return result;
+	}
+}
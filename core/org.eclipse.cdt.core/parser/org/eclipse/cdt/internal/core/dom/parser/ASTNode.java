@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,7 @@
  *******************************************************************************/
 package org.eclipse.cdt.internal.core.dom.parser;
 
+import org.eclipse.cdt.core.dom.ast.ASTGenericVisitor;
 import org.eclipse.cdt.core.dom.ast.ASTNodeProperty;
 import org.eclipse.cdt.core.dom.ast.ASTVisitor;
 import org.eclipse.cdt.core.dom.ast.ExpansionOverlapsBoundaryException;
@@ -76,6 +77,19 @@ public abstract class ASTNode implements IASTNode {
 		frozen = true;
 	}
 
+	/**
+	 * Makes the given node and all of its descendants immutable.
+	 */
+	protected static void freezeSubtree(IASTNode node) {
+		node.accept(new ASTGenericVisitor(true) {
+			@Override
+			protected int genericVisit(IASTNode n) {
+				((ASTNode) n).setIsFrozen();
+				return PROCESS_CONTINUE;
+			}
+		});
+	}
+
 	public void setInactive() {
 		assertNotFrozen();
 		active = false;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2016 Wind River Systems, Inc. and others.
+ * Copyright (c) 2008, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,7 +24,6 @@ import java.util.concurrent.TimeUnit;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.dom.IName;
-import org.eclipse.cdt.core.dom.ast.ASTGenericVisitor;
 import org.eclipse.cdt.core.dom.ast.ASTVisitor;
 import org.eclipse.cdt.core.dom.ast.IASTComment;
 import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
@@ -93,6 +92,8 @@ public abstract class ASTTranslationUnit extends ASTNode implements IASTTranslat
 	private boolean fBasedOnIncompleteIndex;
 	private boolean fNodesOmitted;
 	private IBuiltinBindingsProvider fBuiltinBindingsProvider;
+	/** Copies made while set are initialized with {@link #initializeAsCopyOf}. */
+	private boolean fCopyingForResolution;
 
 	// Caches
 	private final ThreadLocal<WeakHashMap<IType, String>> fUnnormalizedTypeStringCache = new ThreadLocal<WeakHashMap<IType, String>>() {
@@ -462,7 +463,8 @@ public abstract class ASTTranslationUnit extends ASTNode implements IASTTranslat
 		ASTTranslationUnit target = copy;
 		target.fIsHeader = fIsHeader;
 		target.fNodeFactory = fNodeFactory;
-		target.setLocationResolver(fLocationResolver);
+		if (!fCopyingForResolution)
+			target.setLocationResolver(fLocationResolver);
 		target.fForContentAssist = fForContentAssist;
 		target.fOriginatingTranslationUnit = fOriginatingTranslationUnit;
 		target.fNodesOmitted = fNodesOmitted;
@@ -474,15 +476,37 @@ public abstract class ASTTranslationUnit extends ASTNode implements IASTTranslat
 		return super.copy(copy, style);
 	}
 
+	/**
+	 * Marks the copies made from now on as copies for {@link #initializeAsCopyOf}. These do not
+	 * become the root node of the location resolver of this translation unit, such that they can
+	 * be made concurrently. Has to be called by the thread owning this translation unit, before
+	 * and after making the copies.
+	 */
+	public void setCopyingForResolution(boolean value) {
+		fCopyingForResolution = value;
+	}
+
+	/**
+	 * Prepares this translation unit, a copy of the given one, for resolving names the same way
+	 * as in the original translation unit. The copy shares the file sets and the location resolver
+	 * of the original, which must not be modified while the copy is in use, and gets its own
+	 * built-in bindings. Has to be called by the thread owning the original translation unit.
+	 */
+	public void initializeAsCopyOf(ASTTranslationUnit original) {
+		fLocationResolver = original.fLocationResolver;
+		fIndexFileSet = original.fIndexFileSet;
+		fASTFileSet = original.fASTFileSet;
+		fSignificantMacros = original.fSignificantMacros;
+		fPragmaOnceSemantics = original.fPragmaOnceSemantics;
+		fBasedOnIncompleteIndex = original.fBasedOnIncompleteIndex;
+		if (original.fBuiltinBindingsProvider != null) {
+			setupBuiltinBindings(original.fBuiltinBindingsProvider);
+		}
+	}
+
 	@Override
 	public final void freeze() {
-		accept(new ASTGenericVisitor(true) {
-			@Override
-			protected int genericVisit(IASTNode node) {
-				((ASTNode) node).setIsFrozen();
-				return PROCESS_CONTINUE;
-			}
-		});
+		freezeSubtree(this);
 
 		if (IndexFileSet.sDEBUG && fIndexFileSet != null && fASTFileSet != null) {
 			long t = ((IndexFileSet) fIndexFileSet).getTimingContainsDeclarationNanos()
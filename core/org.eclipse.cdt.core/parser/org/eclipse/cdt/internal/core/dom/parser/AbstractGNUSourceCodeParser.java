@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -99,6 +99,7 @@ import org.eclipse.cdt.core.parser.IToken;
 import org.eclipse.cdt.core.parser.OffsetLimitReachedException;
 import org.eclipse.cdt.core.parser.ParseError;
 import org.eclipse.cdt.core.parser.ParserMode;
+import org.eclipse.cdt.core.parser.util.CharArrayObjectMap;
 import org.eclipse.cdt.core.parser.util.CharArrayUtils;
 import org.eclipse.cdt.internal.core.parser.scanner.ILocationResolver;
 
@@ -208,6 +209,7 @@ public abstract class AbstractGNUSourceCodeParser implements ISourceCodeParser {
 
 	protected boolean functionCallCanBeLValue;
 	protected int maximumTrivialExpressionsInAggregateInitializers = Integer.MAX_VALUE;
+	private CharArrayObjectMap<char[]> nameImages;
 
 	/**
 	 *  Marks the beginning of the current declaration. It is important to clear the mark whenever we
@@ -253,6 +255,29 @@ public abstract class AbstractGNUSourceCodeParser implements ISourceCodeParser {
 		maximumTrivialExpressionsInAggregateInitializers = limit;
 	}
 
+	/**
+	 * Instructs the parser to use a single character array for all names with the same identifier,
+	 * rather than a copy for every occurrence of the identifier.
+	 */
+	public void setShareNameImages(boolean share) {
+		nameImages = share ? new CharArrayObjectMap<char[]>(1024) : null;
+	}
+
+	/**
+	 * Returns the image of the given token to be used for a name.
+	 * @see #setShareNameImages(boolean)
+	 */
+	protected char[] getNameImage(IToken token) {
+		char[] image = token.getCharImage();
+		if (nameImages != null) {
+			char[] shared = nameImages.get(image);
+			if (shared != null)
+				return shared;
+			nameImages.put(image, image);
+		}
+		return image;
+	}
+
 	private AbstractParserLogService wrapLogService(IParserLogService logService) {
 		if (logService instanceof AbstractParserLogService) {
 			return (AbstractParserLogService) logService;
@@ -747,6 +772,41 @@ public abstract class AbstractGNUSourceCodeParser implements ISourceCodeParser {
 		return result;
 	}
 
+	/**
+	 * Skips over a compound statement in active code, unless it contains the boundary of a code branch.
+	 *
+	 * @return the closing brace of the compound statement, or {@code null} if it contains a boundary
+	 *     of a code branch or is not terminated. The input is then reset to the opening brace.
+	 */
+	protected IToken skipOverActiveCompoundStatement() throws BacktrackException, EndOfFileException {
+		final IToken mark = mark();
+		consume(IToken.tLBRACE);
+		int depth = 1;
+		try {
+			while (true) {
+				switch (lookaheadToken(1, false).getType()) {
+				case IToken.tINACTIVE_CODE_START:
+				case IToken.tINACTIVE_CODE_SEPARATOR:
+				case IToken.tINACTIVE_CODE_END:
+				case IToken.tEOC:
+					backup(mark);
+					return null;
+				case IToken.tLBRACE:
+					++depth;
+					break;
+				case IToken.tRBRACE:
+					if (--depth == 0)
+						return consume();
+					break;
+				}
+				consume();
+			}
+		} catch (EndOfFileException e) {
+			backup(mark);
+			return null;
+		}
+	}
+
 	protected IASTProblemDeclaration skipProblemDeclaration(int offset) {
 		return skipProblemDeclaration(offset, null);
 	}
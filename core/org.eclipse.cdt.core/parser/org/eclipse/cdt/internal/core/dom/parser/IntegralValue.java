@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2014 Wind River Systems, Inc. and others.
+ * Copyright (c) 2008, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,7 @@
 package org.eclipse.cdt.internal.core.dom.parser;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.cdt.core.dom.ast.IASTBinaryExpression;
 import org.eclipse.cdt.core.dom.ast.IASTExpression.ValueCategory;
@@ -61,7 +62,7 @@ public class IntegralValue implements IValue {
 			new IntegralValue(new char[] { '4' }), new IntegralValue(new char[] { '5' }),
 			new IntegralValue(new char[] { '6' }), new IntegralValue(new char[] { '7' }) };
 
-	private static int sUnique = 0;
+	private static final AtomicInteger sUnique = new AtomicInteger();
 
 	private final char[] fFixedValue;
 
@@ -224,7 +225,7 @@ public class IntegralValue implements IValue {
 	public static IValue unique() {
 		StringBuilder buf = new StringBuilder(10);
 		buf.append(UNIQUE_CHAR);
-		buf.append(++sUnique);
+		buf.append(sUnique.incrementAndGet());
 		return new IntegralValue(CharArrayUtils.extractChars(buf));
 	}
 
@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.dom.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.eclipse.cdt.core.dom.ast.ASTVisitor;
+import org.eclipse.cdt.core.dom.ast.IASTAttributeSpecifier;
+import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
+import org.eclipse.cdt.core.dom.ast.IASTName;
+import org.eclipse.cdt.core.dom.ast.IASTNode.CopyStyle;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTLinkageSpecification;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTNamespaceDefinition;
+import org.eclipse.cdt.core.dom.parser.cpp.ICPPASTAttributeSpecifier;
+import org.eclipse.cdt.internal.core.parser.scanner.ILocationResolver;
+
+/**
+ * Processes the declarations at namespace scope of a translation unit on multiple threads.
+ * <p>
+ * ASTs are not thread safe. The declarations are split into partitions of consecutive declarations,
+ * the first partition is processed on the translation unit itself by the calling thread, every
+ * other partition is processed by a task of the pool on its own copy of the translation unit.
+ * A copy is used by a single task only and bindings resolved in a copy belong to that copy. When
+ * {@link #process} returns all tasks have completed, the calling thread may then use the copies.
+ * <p>
+ * A copy contains all declarations of the translation unit, such that names resolve the same way
+ * as in the translation unit. The work shared by the partitions, e.g. resolving the declarations
+ * a function body refers to, is repeated for every copy.
+ */
+public final class ParallelDeclarationProcessor {
+	public interface IPartitionProcessor<T> {
+		/**
+		 * Processes a partition of the declarations of the translation unit. The definitions of
+		 * namespaces and linkage specifications in the partition stand for themselves, without
+		 * their members, the members are part of the partitions, too. Use {@link #accept} to
+		 * visit the declarations.
+		 *
+		 * @param ast the translation unit or a copy of it, used for this partition only.
+		 * @param declarations the declarations of the partition, in the order of the translation unit.
+		 */
+		T process(IASTTranslationUnit ast, IASTDeclaration[] declarations);
+	}
+
+	private ParallelDeclarationProcessor() {
+	}
+
+	/**
+	 * Processes the active declarations of the translation unit in partitions.
+	 *
+	 * @param ast the translation unit, owned by the calling thread.
+	 * @param pool the pool running the partitions but the first, or {@code null} to process
+	 *     everything as a single partition on the calling thread.
+	 * @param maxPartitions the maximum number of partitions to create.
+	 * @param minPartitionLength the minimum length of the declarations of a partition.
+	 * @return the results of the partitions, in the order of their declarations.
+	 */
+	public static <T> List<T> process(IASTTranslationUnit ast, ForkJoinPool pool, int maxPartitions,
+			int minPartitionLength, IPartitionProcessor<T> processor) {
+		IASTDeclaration[] declarations = collectDeclarations(ast);
+		int[] bounds = null;
+		if (pool != null && ast instanceof ASTTranslationUnit) {
+			bounds = computePartitions(declarations, maxPartitions, minPartitionLength);
+		}
+		List<T> results = new ArrayList<>();
+		if (bounds == null || bounds.length <= 2) {
+			results.add(processor.process(ast, declarations));
+			return results;
+		}
+
+		final int partitionCount = bounds.length - 1;
+		ASTTranslationUnit[] copies;
+		try {
+			copies = createCopies((ASTTranslationUnit) ast, partitionCount - 1, pool);
+		} catch (UnsupportedOperationException e) {
+			// The translation unit contains nodes that cannot be copied.
+			results.add(processor.process(ast, declarations));
+			return results;
+		}
+
+		List<ForkJoinTask<T>> tasks = new ArrayList<>(partitionCount - 1);
+		for (int i = 1; i < partitionCount; i++) {
+			final ASTTranslationUnit copy = copies[i - 1];
+			final IASTDeclaration[] partition = Arrays.copyOfRange(collectDeclarations(copy), bounds[i],
+					bounds[i + 1]);
+			tasks.add(pool.submit(() -> processor.process(copy, partition)));
+		}
+
+		Throwable failure = null;
+		try {
+			results.add(processor.process(ast, Arrays.copyOfRange(declarations, bounds[0], bounds[1])));
+		} catch (RuntimeException | Error e) {
+			failure = e;
+		}
+		// Wait for all tasks, even after a failure, the copies may depend on state owned by the caller.
+		for (ForkJoinTask<T> task : tasks) {
+			try {
+				T result = task.join();
+				if (failure == null)
+					results.add(result);
+			} catch (RuntimeException | Error e) {
+				if (failure == null)
+					failure = e;
+			}
+		}
+		if (failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		if (failure instanceof Error)
+			throw (Error) failure;
+		return results;
+	}
+
+	/**
+	 * Visits a declaration of a partition. The definition of a namespace or of a linkage specification
+	 * is visited without its members.
+	 *
+	 * @return {@code false} if the visitor aborted the traversal.
+	 */
+	public static boolean accept(IASTDeclaration declaration, ASTVisitor visitor) {
+		if (declaration instanceof ICPPASTNamespaceDefinition) {
+			ICPPASTNamespaceDefinition namespace = (ICPPASTNamespaceDefinition) declaration;
+			if (visitor.shouldVisitNamespaces) {
+				switch (visitor.visit(namespace)) {
+				case ASTVisitor.PROCESS_ABORT:
+					return false;
+				case ASTVisitor.PROCESS_SKIP:
+					return true;
+				default:
+					break;
+				}
+			}
+			// Same order as the traversal of the namespace definition itself.
+			IASTAttributeSpecifier[] specifiers = namespace.getAttributeSpecifiers();
+			for (IASTAttributeSpecifier specifier : specifiers) {
+				if (specifier instanceof ICPPASTAttributeSpecifier && !specifier.accept(visitor))
+					return false;
+			}
+			IASTName name = namespace.getName();
+			if (name != null && !name.accept(visitor))
+				return false;
+			for (IASTAttributeSpecifier specifier : specifiers) {
+				if (!(specifier instanceof ICPPASTAttributeSpecifier) && !specifier.accept(visitor))
+					return false;
+			}
+			return !visitor.shouldVisitNamespaces || visitor.leave(namespace) != ASTVisitor.PROCESS_ABORT;
+		}
+		if (declaration instanceof ICPPASTLinkageSpecification) {
+			if (visitor.shouldVisitDeclarations) {
+				switch (visitor.visit(declaration)) {
+				case ASTVisitor.PROCESS_ABORT:
+					return false;
+				case ASTVisitor.PROCESS_SKIP:
+					return true;
+				default:
+					break;
+				}
+				return visitor.leave(declaration) != ASTVisitor.PROCESS_ABORT;
+			}
+			return true;
+		}
+		return declaration.accept(visitor);
+	}
+
+	/**
+	 * Returns the active declarations at namespace scope, each namespace definition and linkage
+	 * specification is followed by its members.
+	 */
+	private static IASTDeclaration[] collectDeclarations(IASTTranslationUnit ast) {
+		List<IASTDeclaration> result = new ArrayList<>();
+		collectDeclarations(ast.getDeclarations(), result);
+		return result.toArray(new IASTDeclaration[result.size()]);
+	}
+
+	private static void collectDeclarations(IASTDeclaration[] declarations, List<IASTDeclaration> result) {
+		for (IASTDeclaration declaration : declarations) {
+			result.add(declaration);
+			if (declaration instanceof ICPPASTNamespaceDefinition) {
+				collectDeclarations(((ICPPASTNamespaceDefinition) declaration).getDeclarations(), result);
+			} else if (declaration instanceof ICPPASTLinkageSpecification) {
+				collectDeclarations(((ICPPASTLinkageSpecification) declaration).getDeclarations(), result);
+			}
+		}
+	}
+
+	/**
+	 * Splits the declarations into partitions of about the same length.
+	 *
+	 * @return the indices of the first declaration of each partition, followed by the number of
+	 *     declarations.
+	 */
+	private static int[] computePartitions(IASTDeclaration[] declarations, int maxPartitions,
+			int minPartitionLength) {
+		long totalLength = 0;
+		for (IASTDeclaration declaration : declarations) {
+			totalLength += getOwnLength(declaration);
+		}
+		int count = (int) Math.min(maxPartitions, totalLength / Math.max(minPartitionLength, 1));
+		count = Math.max(1, Math.min(count, declarations.length));
+
+		int[] bounds = new int[count + 1];
+		int partition = 1;
+		long length = 0;
+		for (int i = 0; i < declarations.length && partition < count; i++) {
+			length += getOwnLength(declarations[i]);
+			if (length * count >= totalLength * partition) {
+				bounds[partition++] = i + 1;
+			}
+		}
+		while (partition <= count) {
+			bounds[partition++] = declarations.length;
+		}
+		return bounds;
+	}
+
+	/**
+	 * Returns the length of the declaration, not counting the members of namespaces and linkage
+	 * specifications, which are separate declarations of the partitions.
+	 */
+	private static int getOwnLength(IASTDeclaration declaration) {
+		if (declaration instanceof ICPPASTNamespaceDefinition
+				|| declaration instanceof ICPPASTLinkageSpecification) {
+			return 0;
+		}
+		return ((ASTNode) declaration).getLength();
+	}
+
+	private static ASTTranslationUnit[] createCopies(ASTTranslationUnit ast, int count, ForkJoinPool pool) {
+		ASTTranslationUnit[] copies = new ASTTranslationUnit[count];
+		// The copies share the location map, build its lazily computed map of file contexts up front.
+		ILocationResolver resolver = ast.getAdapter(ILocationResolver.class);
+		if (resolver != null)
+			resolver.getSequenceNumberForFileOffset(resolver.getTranslationUnitPath(), 0);
+		ast.setCopyingForResolution(true);
+		try {
+			// The first copy initializes what the AST computes lazily, further copies only read the AST.
+			copies[0] = copy(ast);
+			List<ForkJoinTask<ASTTranslationUnit>> tasks = new ArrayList<>(count - 1);
+			for (int i = 1; i < count; i++) {
+				tasks.add(pool.submit(() -> copy(ast)));
+			}
+			RuntimeException failure = null;
+			for (int i = 1; i < count; i++) {
+				try {
+					copies[i] = tasks.get(i - 1).join();
+				} catch (RuntimeException e) {
+					if (failure == null)
+						failure = e;
+				}
+			}
+			if (failure != null)
+				throw failure;
+		} finally {
+			ast.setCopyingForResolution(false);
+		}
+
+		for (ASTTranslationUnit copy : copies) {
+			copy.initializeAsCopyOf(ast);
+		}
+		return copies;
+	}
+
+	private static ASTTranslationUnit copy(ASTTranslationUnit ast) {
+		return (ASTTranslationUnit) ast.copy(CopyStyle.withoutLocations);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -66,6 +66,26 @@ public class CPPASTCompoundStatement extends CPPASTAttributeOwner
 		}
 	}
 
+	/**
+	 * Adds statements to a compound statement that may already be frozen. Used for function bodies
+	 * that are parsed after the rest of the translation unit.
+	 */
+	final void addDeferredStatements(IASTStatement[] statements) {
+		for (IASTStatement statement : statements) {
+			this.statements = ArrayUtil.append(this.statements, statement);
+			statement.setParent(this);
+			statement.setPropertyInParent(NESTED_STATEMENT);
+		}
+	}
+
+	/**
+	 * Returns the statements visited by {@link #accept(ASTVisitor)}, the array may contain
+	 * trailing {@code null}s.
+	 */
+	IASTStatement[] getStatementsToVisit() {
+		return statements;
+	}
+
 	@Override
 	public IScope getScope() {
 		if (scope == null)
@@ -97,7 +117,7 @@ public class CPPASTCompoundStatement extends CPPASTAttributeOwner
 
 		if (!acceptByAttributeSpecifiers(action))
 			return false;
-		for (IASTStatement statement : statements) {
+		for (IASTStatement statement : getStatementsToVisit()) {
 			if (statement == null)
 				break;
 			if (!statement.accept(action))
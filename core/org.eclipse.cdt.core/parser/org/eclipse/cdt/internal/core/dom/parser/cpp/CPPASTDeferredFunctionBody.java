@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.dom.parser.cpp;
+
+import org.eclipse.cdt.core.dom.ast.IASTImplicitDestructorName;
+import org.eclipse.cdt.core.dom.ast.IASTStatement;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.cdt.core.dom.ast.IScope;
+import org.eclipse.cdt.core.parser.IToken;
+
+/**
+ * The body of a function definition that is parsed when it is first needed. Until then the node
+ * keeps the tokens of the body.
+ * <p>
+ * The body is parsed when its statements or its scope are requested, or when it is traversed by
+ * a visitor after the parse of the translation unit is complete. A visitor that skips the body
+ * does not cause it to be parsed.
+ */
+public class CPPASTDeferredFunctionBody extends CPPASTCompoundStatement {
+	private final DeferredFunctionBodyParser fParser;
+	private final char[] fClassName;
+	private IToken fTokens;
+
+	CPPASTDeferredFunctionBody(DeferredFunctionBodyParser parser, IToken tokens, char[] className) {
+		fParser = parser;
+		fTokens = tokens;
+		fClassName = className;
+	}
+
+	/**
+	 * Returns whether the body was parsed already.
+	 */
+	public boolean isParsed() {
+		synchronized (fParser) {
+			return fTokens == null;
+		}
+	}
+
+	private void parseBody() {
+		// Parsing a body may require other bodies of the translation unit, use a single lock for all of them.
+		synchronized (fParser) {
+			if (fTokens == null)
+				return;
+			IASTTranslationUnit tu = getTranslationUnit();
+			if (!(tu instanceof CPPASTTranslationUnit))
+				return;
+
+			IToken tokens = fTokens;
+			fTokens = null;
+			CPPASTTranslationUnit cppTU = (CPPASTTranslationUnit) tu;
+			addDeferredStatements(fParser.parse(tokens, getOffset() + getLength(), fClassName, cppTU));
+			cppTU.resolveAmbiguities(this);
+			if (isFrozen()) {
+				// Ambiguity resolution may have replaced statements.
+				for (IASTStatement statement : super.getStatements()) {
+					freezeSubtree(statement);
+				}
+			}
+		}
+	}
+
+	@Override
+	public IASTStatement[] getStatements() {
+		parseBody();
+		return super.getStatements();
+	}
+
+	@Override
+	IASTStatement[] getStatementsToVisit() {
+		// The traversals of the parser and the one freezing the AST leave the body alone.
+		if (fParser.isParseComplete())
+			parseBody();
+		return super.getStatementsToVisit();
+	}
+
+	@Override
+	public IScope getScope() {
+		parseBody();
+		return super.getScope();
+	}
+
+	@Override
+	public IASTImplicitDestructorName[] getImplicitDestructorNames() {
+		parseBody();
+		return super.getImplicitDestructorNames();
+	}
+
+	@Override
+	public ICPPExecution getExecution() {
+		parseBody();
+		return super.getExecution();
+	}
+}
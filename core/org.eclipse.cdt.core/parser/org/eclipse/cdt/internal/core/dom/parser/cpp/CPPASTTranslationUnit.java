@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -250,6 +250,21 @@ public class CPPASTTranslationUnit extends ASTTranslationUnit implements ICPPAST
 		fAmbiguityResolver = null;
 	}
 
+	/**
+	 * Resolves the ambiguities of a node that was added to the translation unit after the ambiguities
+	 * of the translation unit were resolved, e.g. a function body that is parsed on demand.
+	 */
+	public void resolveAmbiguities(IASTNode node) {
+		CPPASTAmbiguityResolver outer = fAmbiguityResolver;
+		fAmbiguityResolver = new CPPASTAmbiguityResolver();
+		try {
+			node.accept(fAmbiguityResolver);
+			node.accept(new ProblemBindingClearer());
+		} finally {
+			fAmbiguityResolver = outer;
+		}
+	}
+
 	@Override
 	protected IType createType(IASTTypeId typeid) {
 		return CPPVisitor.createType(typeid);
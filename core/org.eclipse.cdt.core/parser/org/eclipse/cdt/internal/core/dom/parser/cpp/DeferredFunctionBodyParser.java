@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.dom.parser.cpp;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.eclipse.cdt.core.dom.ast.IASTStatement;
+import org.eclipse.cdt.core.dom.ast.IMacroBinding;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTTranslationUnit;
+import org.eclipse.cdt.core.dom.parser.cpp.ICPPParserExtensionConfiguration;
+import org.eclipse.cdt.core.parser.EndOfFileException;
+import org.eclipse.cdt.core.parser.IParserLogService;
+import org.eclipse.cdt.core.parser.IScanner;
+import org.eclipse.cdt.core.parser.IToken;
+import org.eclipse.cdt.core.parser.IncludeExportPatterns;
+import org.eclipse.cdt.core.parser.ParserMode;
+import org.eclipse.cdt.internal.core.parser.scanner.ILocationResolver;
+
+/**
+ * Parses the bodies of function definitions that were skipped by the parser of a translation unit,
+ * when they are needed. Shared by the deferred function bodies of a translation unit.
+ */
+final class DeferredFunctionBodyParser {
+	private final ICPPParserExtensionConfiguration fConfig;
+	private final IParserLogService fLog;
+	private final char[] fAdditionalNumericLiteralSuffixes;
+	private final int fMaximumTrivialExpressionsInAggregateInitializers;
+	private volatile boolean fParseComplete;
+
+	DeferredFunctionBodyParser(ICPPParserExtensionConfiguration config, IParserLogService log,
+			char[] additionalNumericLiteralSuffixes, int maximumTrivialExpressionsInAggregateInitializers) {
+		fConfig = config;
+		fLog = log;
+		fAdditionalNumericLiteralSuffixes = additionalNumericLiteralSuffixes;
+		fMaximumTrivialExpressionsInAggregateInitializers = maximumTrivialExpressionsInAggregateInitializers;
+	}
+
+	/**
+	 * Called when the translation unit is parsed, its ambiguities are resolved and it is frozen.
+	 * From then on traversals of the AST parse the deferred bodies.
+	 */
+	void setParseComplete() {
+		fParseComplete = true;
+	}
+
+	boolean isParseComplete() {
+		return fParseComplete;
+	}
+
+	/**
+	 * Parses the statements of a function body.
+	 *
+	 * @param tokens the tokens of the body, from the opening to the closing brace.
+	 * @param endOffset the end offset of the body.
+	 * @param className the name of the class the function is defined in, or {@code null}.
+	 * @param tu the translation unit the body belongs to.
+	 */
+	IASTStatement[] parse(IToken tokens, int endOffset, char[] className, ICPPASTTranslationUnit tu) {
+		GNUCPPSourceParser parser = new GNUCPPSourceParser(
+				new ExhaustedScanner(endOffset, fAdditionalNumericLiteralSuffixes), ParserMode.COMPLETE_PARSE,
+				fLog, fConfig, tu.getIndex());
+		parser.setMaximumTrivialExpressionsInAggregateInitializers(fMaximumTrivialExpressionsInAggregateInitializers);
+		return parser.parseDeferredFunctionBody(tokens, className, tu);
+	}
+
+	/**
+	 * The scanner of the parser of a function body. The tokens of the body are handed to the parser
+	 * directly, the scanner just reports the end of the input.
+	 */
+	private static final class ExhaustedScanner implements IScanner {
+		private final int fEndOffset;
+		private final char[] fAdditionalNumericLiteralSuffixes;
+
+		ExhaustedScanner(int endOffset, char[] additionalNumericLiteralSuffixes) {
+			fEndOffset = endOffset;
+			fAdditionalNumericLiteralSuffixes = additionalNumericLiteralSuffixes;
+		}
+
+		@Override
+		public Map<String, IMacroBinding> getMacroDefinitions() {
+			return Collections.emptyMap();
+		}
+
+		@Override
+		public IToken nextToken() throws EndOfFileException {
+			throw new EndOfFileException(fEndOffset);
+		}
+
+		@Override
+		public boolean isOnTopContext() {
+			return true;
+		}
+
+		@Override
+		public void cancel() {
+		}
+
+		@Override
+		public ILocationResolver getLocationResolver() {
+			return null;
+		}
+
+		@Override
+		public void setContentAssistMode(int offset) {
+		}
+
+		@Override
+		public void setSplitShiftROperator(boolean val) {
+		}
+
+		@Override
+		public void setComputeImageLocations(boolean val) {
+		}
+
+		@Override
+		public void setTrackIncludeExport(IncludeExportPatterns patterns) {
+		}
+
+		@Override
+		public void setProcessInactiveCode(boolean val) {
+		}
+
+		@Override
+		public void skipInactiveCode() {
+		}
+
+		@Override
+		public int getCodeBranchNesting() {
+			return 0;
+		}
+
+		@Override
+		public char[] getAdditionalNumericLiteralSuffixes() {
+			return fAdditionalNumericLiteralSuffixes;
+		}
+	}
+}
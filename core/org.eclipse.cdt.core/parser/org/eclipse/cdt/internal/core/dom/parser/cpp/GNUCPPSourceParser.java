@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2002, 2019 IBM Corporation and others.
+ * Copyright (c) 2002, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -64,6 +64,7 @@ import org.eclipse.cdt.core.dom.ast.IASTPointer;
 import org.eclipse.cdt.core.dom.ast.IASTPointerOperator;
 import org.eclipse.cdt.core.dom.ast.IASTProblem;
 import org.eclipse.cdt.core.dom.ast.IASTProblemDeclaration;
+import org.eclipse.cdt.core.dom.ast.IASTProblemStatement;
 import org.eclipse.cdt.core.dom.ast.IASTProblemTypeId;
 import org.eclipse.cdt.core.dom.ast.IASTSimpleDeclSpecifier;
 import org.eclipse.cdt.core.dom.ast.IASTSimpleDeclaration;
@@ -185,6 +186,7 @@ import org.eclipse.cdt.internal.core.dom.parser.IASTAmbiguousStatement;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.NameOrTemplateIDVariants.BranchPoint;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.NameOrTemplateIDVariants.Variant;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.CPPVisitor;
+import org.eclipse.cdt.internal.core.parser.scanner.Token;
 
 /**
  * This is our implementation of the IParser interface, serving as a parser for
@@ -209,6 +211,7 @@ public class GNUCPPSourceParser extends AbstractGNUSourceCodeParser {
 	private final boolean supportGCCStyleDesignators;
 
 	private final IIndex index;
+	private final ICPPParserExtensionConfiguration config;
 	protected ICPPASTTranslationUnit translationUnit;
 
 	private int functionBodyCount;
@@ -217,6 +220,8 @@ public class GNUCPPSourceParser extends AbstractGNUSourceCodeParser {
 	private char[] additionalNumericalSuffixes;
 
 	private TemplateIdStrategy fTemplateParameterListStrategy;
+	private boolean deferFunctionBodies;
+	private DeferredFunctionBodyParser deferredFunctionBodyParser;
 
 	private Map<String, ContextSensitiveTokenType> fContextSensitiveTokens;
 
@@ -241,11 +246,29 @@ public class GNUCPPSourceParser extends AbstractGNUSourceCodeParser {
 		supportAutoTypeSpecifier = true;
 		supportUserDefinedLiterals = config.supportUserDefinedLiterals();
 		this.index = index;
+		this.config = config;
 		scanner.setSplitShiftROperator(true);
 		fContextSensitiveTokens = createContextSensitiveTokenMap(config);
 		additionalNumericalSuffixes = scanner.getAdditionalNumericLiteralSuffixes();
 	}
 
+	/**
+	 * Instructs the parser to skip the bodies of function definitions in active code and to parse
+	 * them when they are needed, see {@link CPPASTDeferredFunctionBody}. Has an effect for a complete
+	 * parse, only.
+	 */
+	public void setDeferFunctionBodies(boolean value) {
+		deferFunctionBodies = value;
+	}
+
+	@Override
+	public IASTTranslationUnit parse() {
+		IASTTranslationUnit ast = super.parse();
+		if (deferredFunctionBodyParser != null)
+			deferredFunctionBodyParser.setParseComplete();
+		return ast;
+	}
+
 	@Override
 	protected ICPPNodeFactory getNodeFactory() {
 		return (ICPPNodeFactory) super.getNodeFactory();
@@ -446,9 +469,9 @@ public class GNUCPPSourceParser extends AbstractGNUSourceCodeParser {
 		IASTName name;
 		if (destructorOffset < 0) {
 			if (keywordTemplate) {
-				name = getNodeFactory().newTemplateName(nt.getCharImage());
+				name = getNodeFactory().newTemplateName(getNameImage(nt));
 			} else {
-				name = getNodeFactory().newName(nt.getCharImage());
+				name = getNodeFactory().newName(getNameImage(nt));
 			}
 			setRange(name, nt.getOffset(), nt.getEndOffset());
 		} else {
@@ -5617,6 +5640,71 @@ public class GNUCPPSourceParser extends AbstractGNUSourceCodeParser {
 		return result;
 	}
 
+	@Override
+	protected IASTStatement handleFunctionBody() throws BacktrackException, EndOfFileException {
+		if (deferFunctionBodies && mode == ParserMode.COMPLETE_PARSE && functionBodyCount == 0 && isActiveCode()
+				&& LT(1) == IToken.tLBRACE) {
+			final IToken first = LA(1);
+			final IToken last = skipOverActiveCompoundStatement();
+			if (last != null) {
+				declarationMark = null;
+				if (deferredFunctionBodyParser == null) {
+					deferredFunctionBodyParser = new DeferredFunctionBodyParser(config, log,
+							additionalNumericalSuffixes, maximumTrivialExpressionsInAggregateInitializers);
+				}
+				CPPASTDeferredFunctionBody body = new CPPASTDeferredFunctionBody(deferredFunctionBodyParser,
+						copyTokens(first, last), currentClassName);
+				return setRange(body, first.getOffset(), last.getEndOffset());
+			}
+		}
+		return super.handleFunctionBody();
+	}
+
+	/**
+	 * Copies the tokens from first to last, such that a deferred function body does not keep
+	 * the tokens of the rest of the translation unit.
+	 */
+	private static IToken copyTokens(IToken first, IToken last) {
+		final Token head = ((Token) first).clone();
+		Token tail = head;
+		for (IToken t = first; t != last;) {
+			t = t.getNext();
+			Token copy = ((Token) t).clone();
+			tail.setNext(copy);
+			tail = copy;
+		}
+		tail.setNext(null);
+		return head;
+	}
+
+	/**
+	 * Parses the statements of a function body that was skipped by the parser of the translation unit.
+	 */
+	IASTStatement[] parseDeferredFunctionBody(IToken tokens, char[] className, ICPPASTTranslationUnit tu) {
+		translationUnit = tu;
+		currentClassName = className;
+		nextToken = tokens;
+		try {
+			return functionBody().getStatements();
+		} catch (BacktrackException e) {
+			IASTStatement[] statements = IASTStatement.EMPTY_STATEMENT_ARRAY;
+			if (e.getNodeBeforeProblem() instanceof IASTCompoundStatement) {
+				statements = ((IASTCompoundStatement) e.getNodeBeforeProblem()).getStatements();
+			}
+			IASTProblem problem = e.getProblem();
+			if (problem != null) {
+				IASTProblemStatement problemStatement = getNodeFactory().newProblemStatement(problem);
+				((ASTNode) problemStatement).setOffsetAndLength((ASTNode) problem);
+				statements = ArrayUtil.append(statements, problemStatement);
+			}
+			return ArrayUtil.trim(statements);
+		} catch (EndOfFileException e) {
+			return IASTStatement.EMPTY_STATEMENT_ARRAY;
+		} finally {
+			translationUnit = null;
+		}
+	}
+
 	@Override
 	protected IASTCompoundStatement functionBody() throws EndOfFileException, BacktrackException {
 		++functionBodyCount;
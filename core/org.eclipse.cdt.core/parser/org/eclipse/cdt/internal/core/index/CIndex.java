@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 Wind River Systems, Inc. and others.
+ * Copyright (c) 2006, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,6 +27,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 import org.eclipse.cdt.core.CCorePlugin;
@@ -54,6 +55,7 @@ import org.eclipse.cdt.internal.core.index.composite.cpp.CPPCompositesFactory;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubMonitor;
 
 public class CIndex implements IIndex {
@@ -65,7 +67,8 @@ public class CIndex implements IIndex {
 
 	private final IIndexFragment[] fFragments;
 	private int fReadLock;
-	private ICompositesFactory cppCF, cCF, fCF;
+	// Created up front, such that threads sharing the index use the same factories.
+	private final ICompositesFactory cppCF, cCF, fCF;
 
 	/**
 	 * Creates an index consisting of one or more fragments.
@@ -75,6 +78,9 @@ public class CIndex implements IIndex {
 	 */
 	public CIndex(IIndexFragment[] fragments) {
 		fFragments = fragments;
+		cppCF = new CPPCompositesFactory(this);
+		cCF = new CCompositesFactory(this);
+		fCF = new CCompositesFactory(this);
 	}
 
 	@Override
@@ -547,21 +553,12 @@ public class CIndex implements IIndex {
 	private ICompositesFactory getCompositesFactory(int linkageID) {
 		switch (linkageID) {
 		case ILinkage.CPP_LINKAGE_ID:
-			if (cppCF == null) {
-				cppCF = new CPPCompositesFactory(this);
-			}
 			return cppCF;
 
 		case ILinkage.C_LINKAGE_ID:
-			if (cCF == null) {
-				cCF = new CCompositesFactory(this);
-			}
 			return cCF;
 
 		case ILinkage.FORTRAN_LINKAGE_ID:
-			if (fCF == null) {
-				fCF = new CCompositesFactory(this);
-			}
 			// This is a placeholder - it will throw CompositingNotImplementedError
 			// if non-empty (non-c) results are returned by a fragment
 			return fCF;
@@ -613,6 +610,39 @@ public class CIndex implements IIndex {
 		}
 	}
 
+	/**
+	 * Passes the bindings of types and namespaces with the given prefix, accepted by the given filter,
+	 * to the visitor, see {@link IIndexFragment#visitTypeBindings}. The bindings are visited one fragment
+	 * after the other, such that an entity defined in multiple fragments is visited for each of them.
+	 * @param visitor returns <code>false</code> to end the visit
+	 * @param monitor to report progress, may be <code>null</code>
+	 */
+	public void visitTypeBindings(char[] prefix, IndexFilter filter, final Predicate<IIndexBinding> visitor,
+			IProgressMonitor monitor) throws CoreException {
+		if (SPECIALCASE_SINGLES && fFragments.length == 1) {
+			fFragments[0].visitTypeBindings(prefix, filter, visitor::test, monitor);
+			return;
+		}
+		final boolean[] stopped = { false };
+		for (IIndexFragment fragment : fFragments) {
+			try {
+				fragment.visitTypeBindings(prefix, filter, binding -> {
+					IIndexBinding composite = getCompositesFactory(binding.getLinkage().getLinkageID())
+							.getCompositeBinding(binding);
+					if (!visitor.test(composite)) {
+						stopped[0] = true;
+						return false;
+					}
+					return true;
+				}, monitor);
+			} catch (CoreException e) {
+				CCorePlugin.log(e);
+			}
+			if (stopped[0])
+				return;
+		}
+	}
+
 	@Override
 	public IIndexBinding[] findBindingsForContentAssist(char[] prefix, boolean filescope, IndexFilter filter,
 			IProgressMonitor monitor) throws CoreException {
@@ -764,6 +794,23 @@ public class CIndex implements IIndex {
 		return result.values().toArray(new IIndexFile[result.size()]);
 	}
 
+	@Override
+	public IIndexFile[] findFilesContainingText(String[] strings, IProgressMonitor monitor) throws CoreException {
+		int[] trigramHashes = TrigramFilter.getTrigramHashes(strings);
+		HashMap<IIndexFileLocation, IIndexFile> result = new HashMap<>();
+		for (IIndexFragment fragment : fFragments) {
+			for (IIndexFragmentFile file : fragment.getAllFiles()) {
+				if (monitor != null && monitor.isCanceled())
+					throw new OperationCanceledException();
+				if (file.hasContent() && !result.containsKey(file.getLocation())
+						&& file.mayContainText(trigramHashes)) {
+					result.put(file.getLocation(), file);
+				}
+			}
+		}
+		return result.values().toArray(new IIndexFile[result.size()]);
+	}
+
 	@Override
 	public IIndexFile[] getDefectiveFiles() throws CoreException {
 		HashMap<IIndexFileLocation, IIndexFile> result = new HashMap<>();
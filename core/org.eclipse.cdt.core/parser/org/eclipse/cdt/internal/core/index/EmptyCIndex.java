@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2012 Wind River Systems, Inc. and others.
+ * Copyright (c) 2006, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -190,6 +190,11 @@ final public class EmptyCIndex implements IIndex {
 		return IIndexFile.EMPTY_FILE_ARRAY;
 	}
 
+	@Override
+	public IIndexFile[] findFilesContainingText(String[] strings, IProgressMonitor monitor) {
+		return IIndexFile.EMPTY_FILE_ARRAY;
+	}
+
 	@Override
 	public IIndexFile[] getDefectiveFiles() {
 		return IIndexFile.EMPTY_FILE_ARRAY;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2014 Wind River Systems, Inc. and others.
+ * Copyright (c) 2006, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,7 @@
  *******************************************************************************/
 package org.eclipse.cdt.internal.core.index;
 
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 import org.eclipse.cdt.core.dom.ast.IASTName;
@@ -261,6 +262,17 @@ public interface IIndexFragment {
 	IIndexFragmentBinding[] findBindingsForPrefix(char[] prefix, boolean filescope, IndexFilter filter,
 			IProgressMonitor monitor) throws CoreException;
 
+	/**
+	 * Passes the bindings of types and namespaces with the given prefix, accepted by the given filter,
+	 * to the visitor. Case is ignored when matching the prefix. The bindings are looked up in an index
+	 * of types, other bindings are not looked at. The bindings of a linkage are visited in the order
+	 * of their names.
+	 * @param visitor returns <code>false</code> to end the visit
+	 * @param monitor to report progress, may be <code>null</code>
+	 */
+	void visitTypeBindings(char[] prefix, IndexFilter filter, Predicate<IIndexFragmentBinding> visitor,
+			IProgressMonitor monitor) throws CoreException;
+
 	/**
 	 * Returns all bindings that would be a valid completion for the given text.
 	 * @param monitor to report progress, may be <code>null</code>
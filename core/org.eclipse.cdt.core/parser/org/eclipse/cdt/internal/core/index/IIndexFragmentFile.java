@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2014 Wind River Systems, Inc. and others.
+ * Copyright (c) 2006, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -41,6 +41,31 @@ public interface IIndexFragmentFile extends IIndexFile {
 	 */
 	void setContentsHash(long hash) throws CoreException;
 
+	/**
+	 * Returns the hash of the declarations the file provides to its includers, which leaves
+	 * out the bodies of functions.
+	 * @return the hash or {@code 0} if it is unknown.
+	 */
+	long getDeclarationsHash() throws CoreException;
+
+	/**
+	 * Sets the hash of the declarations the file provides to its includers.
+	 */
+	void setDeclarationsHash(long hash) throws CoreException;
+
+	/**
+	 * Sets the {@link TrigramFilter} of the text of the file.
+	 * @param filter the filter or {@code null} if the text of the file is unknown.
+	 */
+	void setTextFilter(byte[] filter) throws CoreException;
+
+	/**
+	 * Returns whether the text of the file may contain all trigrams with the given hashes, see
+	 * {@link TrigramFilter#getTrigramHashes(String[])}. Returns {@code true} if the text of the
+	 * file is unknown.
+	 */
+	boolean mayContainText(int[] trigramHashes) throws CoreException;
+
 	/**
 	 * Returns the hash-code computed by combining the file size and the file encoding.
 	 * @return a hash-code or {@code 0} if it is unknown.
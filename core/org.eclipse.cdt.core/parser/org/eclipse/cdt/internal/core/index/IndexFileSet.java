@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2015 Wind River Systems, Inc. and others.
+ * Copyright (c) 2008, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.dom.ast.IBinding;
@@ -29,6 +30,7 @@ import org.eclipse.cdt.core.index.IIndexFileSet;
 import org.eclipse.cdt.internal.core.pdom.PDOM;
 import org.eclipse.cdt.internal.core.pdom.PDOMFileSet;
 import org.eclipse.cdt.internal.core.pdom.db.Database;
+import org.eclipse.cdt.internal.core.pdom.db.LongSet;
 import org.eclipse.cdt.internal.core.pdom.dom.IRecordIterator;
 import org.eclipse.cdt.internal.core.pdom.dom.PDOMBinding;
 import org.eclipse.cdt.internal.core.pdom.dom.PDOMName;
@@ -41,7 +43,8 @@ public class IndexFileSet implements IIndexFileSet {
 
 	private IIndexFileSet fInverse;
 	private final HashMap<IIndexFragment, IIndexFragmentFileSet> fSubSets = new HashMap<>();
-	private final Map<IBinding, Boolean> fDeclarationContainmentCache = new HashMap<>();
+	// Concurrent, because the file set may be used by several threads resolving names.
+	private final Map<IBinding, Boolean> fDeclarationContainmentCache = new ConcurrentHashMap<>();
 	private long timingContainsDeclarationNanos;
 
 	public IndexFileSet() {
@@ -97,7 +100,7 @@ public class IndexFileSet implements IIndexFileSet {
 					PDOMFileSet pdomFileSet = (PDOMFileSet) fragmentFileSet;
 					Database db = pdom.getDB();
 					IRecordIterator nameIterator = pdom.getDeclarationsDefintitionsRecordIterator(binding);
-					Set<Long> visited = null;
+					LongSet visited = null;
 					long nameRecord;
 					while ((nameRecord = nameIterator.next()) != 0) {
 						if (visited != null && !visited.add(nameRecord)) {
@@ -117,7 +120,7 @@ public class IndexFileSet implements IIndexFileSet {
 						if (iterationCount >= 1000 && visited == null) {
 							// Iteration count is suspiciously high. Start keeping track of visited names
 							// to be able to detect a cycle.
-							visited = new HashSet<>();
+							visited = new LongSet();
 							visited.add(nameRecord);
 						}
 					}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.index;
+
+import java.util.Arrays;
+
+import org.eclipse.cdt.internal.core.parser.scanner.AbstractCharArray;
+
+/**
+ * A Bloom filter of the trigrams, i.e. the sequences of three characters, of a text. The indexer
+ * stores a filter with each file, such that the files that cannot contain a string are ruled out
+ * without reading them. A filter may accept strings that are not part of the text, it never rejects
+ * a string that is. Case is ignored.
+ * <p>
+ * The size of a filter is a power of two, between {@value #MIN_SIZE} and {@value #MAX_SIZE} bytes,
+ * with at least {@value #BITS_PER_TRIGRAM} bits for each distinct trigram of the text. Each trigram
+ * sets {@value #HASH_FUNCTIONS} bits.
+ */
+public final class TrigramFilter {
+	public static final int HASH_FUNCTIONS = 3;
+	private static final int BITS_PER_TRIGRAM = 8;
+	private static final int MIN_SIZE = 64;
+	private static final int MAX_SIZE = 64 * 1024;
+	private static final int BUFFER_SIZE = 4096;
+
+	private TrigramFilter() {
+	}
+
+	/**
+	 * Creates the filter for the given text.
+	 */
+	public static byte[] create(AbstractCharArray text) {
+		final int length = text.getLength();
+		int[] hashes = new int[Math.max(length - 2, 0)];
+		int n = 0;
+		char[] buffer = new char[BUFFER_SIZE];
+		int c1 = -1, c2 = -1;
+		for (int offset = 0; offset < length; offset += BUFFER_SIZE) {
+			int count = Math.min(BUFFER_SIZE, length - offset);
+			text.arraycopy(offset, buffer, 0, count);
+			for (int i = 0; i < count; i++) {
+				int c3 = Character.toLowerCase(buffer[i]);
+				if (c1 >= 0)
+					hashes[n++] = hash(c1, c2, c3);
+				c1 = c2;
+				c2 = c3;
+			}
+		}
+		int distinct = sortUnique(hashes, n);
+
+		int size = Integer.highestOneBit(Math.max(distinct * BITS_PER_TRIGRAM / 8, 1) * 2 - 1);
+		size = Math.max(MIN_SIZE, Math.min(MAX_SIZE, size));
+		byte[] filter = new byte[size];
+		for (int i = 0; i < distinct; i++) {
+			for (int function = 0; function < HASH_FUNCTIONS; function++) {
+				int bit = getBitIndex(hashes[i], function, size);
+				filter[bit >>> 3] |= 1 << (bit & 7);
+			}
+		}
+		return filter;
+	}
+
+	/**
+	 * Returns the sorted hashes of the trigrams of the given strings, without duplicates. Strings
+	 * shorter than three characters do not contribute any trigrams.
+	 */
+	public static int[] getTrigramHashes(String[] strings) {
+		int count = 0;
+		for (String string : strings) {
+			count += Math.max(string.length() - 2, 0);
+		}
+		int[] hashes = new int[count];
+		int n = 0;
+		for (String string : strings) {
+			for (int i = 2; i < string.length(); i++) {
+				hashes[n++] = hash(Character.toLowerCase(string.charAt(i - 2)),
+						Character.toLowerCase(string.charAt(i - 1)), Character.toLowerCase(string.charAt(i)));
+			}
+		}
+		int unique = sortUnique(hashes, n);
+		return unique == hashes.length ? hashes : Arrays.copyOf(hashes, unique);
+	}
+
+	/**
+	 * Returns the index of a bit for a trigram in a filter of the given size.
+	 *
+	 * @param hash the hash of the trigram, see {@link #getTrigramHashes(String[])}.
+	 * @param function the hash function, between 0 and {@link #HASH_FUNCTIONS} - 1.
+	 * @param size the size of the filter in bytes.
+	 */
+	public static int getBitIndex(int hash, int function, int size) {
+		// Double hashing, the second hash is derived from the first one with the finalizer of MurmurHash3.
+		int hash2 = (hash ^ (hash >>> 16)) * 0x85EBCA6B;
+		hash2 ^= hash2 >>> 13;
+		return (hash + function * hash2) >>> (Integer.numberOfLeadingZeros(size) - 2);
+	}
+
+	/**
+	 * Returns whether the text the filter was created for may contain the trigrams with the given
+	 * hashes.
+	 */
+	public static boolean mayContain(byte[] filter, int[] trigramHashes) {
+		for (int hash : trigramHashes) {
+			for (int function = 0; function < HASH_FUNCTIONS; function++) {
+				int bit = getBitIndex(hash, function, filter.length);
+				if ((filter[bit >>> 3] & (1 << (bit & 7))) == 0)
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Sorts the first {@code count} hashes and moves the distinct ones to the front.
+	 *
+	 * @return the number of distinct hashes.
+	 */
+	private static int sortUnique(int[] hashes, int count) {
+		Arrays.sort(hashes, 0, count);
+		int unique = 0;
+		for (int i = 0; i < count; i++) {
+			if (unique == 0 || hashes[unique - 1] != hashes[i])
+				hashes[unique++] = hashes[i];
+		}
+		return unique;
+	}
+
+	private static int hash(int c1, int c2, int c3) {
+		return (((c1 * 31) + c2) * 31 + c3) * 0x9E3779B1;
+	}
+}
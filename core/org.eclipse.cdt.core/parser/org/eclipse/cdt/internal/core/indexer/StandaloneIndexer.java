@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2014 Wind River Systems, Inc. and others.
+ * Copyright (c) 2007, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -152,6 +152,11 @@ public abstract class StandaloneIndexer {
 
 	protected int fUpdateOptions = UPDATE_ALL;
 
+	/**
+	 * The number of threads used for parsing source files.
+	 */
+	protected int fParserThreads = 1;
+
 	private IndexerProgress fProgress = null;
 	private volatile StandaloneIndexerTask fDelegate;
 
@@ -382,6 +387,21 @@ public abstract class StandaloneIndexer {
 		fUpdateOptions = options;
 	}
 
+	/**
+	 * Returns the number of threads used for parsing source files.
+	 */
+	public int getParserThreads() {
+		return fParserThreads;
+	}
+
+	/**
+	 * Sets the number of threads used for parsing source files. The index is still
+	 * written by a single thread.
+	 */
+	public void setParserThreads(int parserThreads) {
+		fParserThreads = Math.max(1, parserThreads);
+	}
+
 	/**
 	 * Clears the index and rebuild
 	 * @param tus - directories/files to be added to index
@@ -395,6 +415,7 @@ public abstract class StandaloneIndexer {
 			clearIndex();
 			fDelegate = createTask(getFilesAdded(tus), NO_TUS, NO_TUS);
 			fDelegate.setUpdateFlags(fUpdateOptions);
+			fDelegate.setParserThreads(fParserThreads);
 
 			if (fDelegate != null) {
 				fDelegate.run(monitor);
@@ -421,6 +442,7 @@ public abstract class StandaloneIndexer {
 		if (fDelegate != null) {
 			try {
 				fDelegate.setUpdateFlags(fUpdateOptions);
+				fDelegate.setParserThreads(fParserThreads);
 				fDelegate.run(monitor);
 			} catch (InterruptedException e) {
 			}
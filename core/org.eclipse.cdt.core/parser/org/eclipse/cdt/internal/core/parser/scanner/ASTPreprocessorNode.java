@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 Wind River Systems, Inc. and others.
+ * Copyright (c) 2007, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -312,6 +312,7 @@ class ASTInclusionStatement extends ASTPreprocessorNode implements IASTPreproces
 	private long fIncludedFileSize;
 	private long fIncludedFileReadTime;
 	private boolean fErrorInIncludedFile;
+	private AbstractCharArray fIncludedFileSource;
 
 	public ASTInclusionStatement(IASTTranslationUnit parent, int startNumber, int nameStartNumber, int nameEndNumber,
 			int endNumber, char[] headerName, String filePath, boolean userInclude, boolean active, boolean heuristic,
@@ -430,6 +431,18 @@ class ASTInclusionStatement extends ASTPreprocessorNode implements IASTPreproces
 		fIncludedFileReadTime = time;
 	}
 
+	/**
+	 * Returns the source of the included file, or {@code null} if the file was not parsed.
+	 */
+	public AbstractCharArray getIncludedFileSource() {
+		return fIncludedFileSource;
+	}
+
+	public void setIncludedFileSource(AbstractCharArray source) {
+		assert fNominationDelegate == null;
+		fIncludedFileSource = source;
+	}
+
 	@Override
 	public long getIncludedFileSize() {
 		if (fNominationDelegate != null) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -266,6 +266,7 @@ public class CPreprocessor implements ILexerLog, IScanner, IAdaptable {
 
 	// configuration
 	final private LexerOptions fLexOptions = new LexerOptions();
+	final private LexedTokensCache fLexedTokensCache = LexedTokensCache.getDefault();
 	final private char[] fAdditionalNumericLiteralSuffixes;
 	final private CharArrayIntMap fKeywords;
 	final private CharArrayIntMap fPPKeywords;
@@ -1760,8 +1761,9 @@ public class CPreprocessor implements ILexerLog, IScanner, IAdaptable {
 			if (source != null) {
 				ILocationCtx ctx = fLocationMap.pushInclusion(poundOffset, nameOffsets[0], nameOffsets[1],
 						condEndOffset, source, path, headerName, userInclude, isHeuristic, fi.isSource());
-				ScannerContext fctx = new ScannerContext(ctx, fCurrentContext,
-						new Lexer(source, fLexOptions, this, this));
+				Lexer lexer = new Lexer(source, fLexOptions, this, this);
+				lexer.setTokenCache(fLexedTokensCache);
+				ScannerContext fctx = new ScannerContext(ctx, fCurrentContext, lexer);
 				fctx.setFoundOnPath(fi.getFoundOnPath(), includeDirective);
 				detectIncludeGuard(path, source, fctx);
 				fCurrentContext = fctx;
@@ -1769,6 +1771,7 @@ public class CPreprocessor implements ILexerLog, IScanner, IAdaptable {
 				stmt.setIncludedFileTimestamp(fi.getTimestamp());
 				stmt.setIncludedFileSize(fi.getFileSize());
 				stmt.setIncludedFileContentsHash(source.getContentsHash());
+				stmt.setIncludedFileSource(source);
 				stmt.setIncludedFileReadTime(fi.getReadTime());
 				stmt.setErrorInIncludedFile(source.hasError());
 				if (!fCurrentContext.isPragmaOnce()) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2012 Wind River Systems, Inc. and others.
+ * Copyright (c) 2010, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -32,6 +32,21 @@ import org.eclipse.cdt.core.CCorePlugin;
  */
 public class FileCharArray extends LazyCharArray {
 	private static final String UTF8_CHARSET_NAME = "UTF-8"; //$NON-NLS-1$
+	/** Minimum size of memory-mapped files when mapping is enabled. */
+	public static final long DEFAULT_MAPPING_THRESHOLD = 1024 * 1024;
+	/**
+	 * Files of at least this size are memory-mapped if their encoding allows it. Mapping is off
+	 * by default, since mapped files are locked on Windows.
+	 */
+	private static volatile long sMappingThreshold = Long.MAX_VALUE;
+
+	/**
+	 * Sets the minimum size of files that are memory-mapped, {@link Long#MAX_VALUE} disables mapping.
+	 * Controlled by {@link org.eclipse.cdt.core.CCorePreferenceConstants#MEMORY_MAP_LARGE_FILES}.
+	 */
+	public static void setMappingThreshold(long threshold) {
+		sMappingThreshold = threshold;
+	}
 
 	public static AbstractCharArray create(String fileName, String charSet, InputStream in) throws IOException {
 		// No support for non-local files.
@@ -47,6 +62,11 @@ public class FileCharArray extends LazyCharArray {
 		if (lsize < CHUNK_SIZE) {
 			return decodeSmallFile(channel, (int) lsize, charSet);
 		}
+		if (lsize >= sMappingThreshold) {
+			AbstractCharArray mapped = MappedCharArray.create(channel, charSet);
+			if (mapped != null)
+				return mapped;
+		}
 
 		return new FileCharArray(fileName, charSet);
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2012 IBM Corporation and others.
+ * Copyright (c) 2004, 2020 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -187,4 +187,10 @@ public interface ILocationResolver {
 	 * Returns the lexer options that have been used by the preprocessor.
 	 */
 	LexerOptions getLexerOptions();
+
+	/**
+	 * Returns the source of the file included by the given statement, or <code>null</code> if
+	 * the file was not parsed as part of the translation unit.
+	 */
+	AbstractCharArray getIncludedFileSource(IASTPreprocessorIncludeStatement include);
 }
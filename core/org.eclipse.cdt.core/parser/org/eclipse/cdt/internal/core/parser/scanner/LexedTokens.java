@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.parser.scanner;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The preprocessor tokens and comments computed by the {@link Lexer} for a file. Allows to replay
+ * the tokens of a file that has been lexed before, rather than lexing it again.
+ * <p>
+ * The tokens are stored by the offset at which the lexer started to compute them, in increasing
+ * order. Tokens that caused a problem to be reported, or that were lexed inside of an include
+ * directive, are not stored. Instances are filled by a single lexer and are not modified
+ * once they have been published to the {@link LexedTokensCache}.
+ */
+final class LexedTokens {
+	/** Tokens of type {@link Token}. */
+	static final int FORM_PLAIN = -1;
+	/** Tokens of type {@link TokenForDigraph}. */
+	static final int FORM_DIGRAPH = -2;
+
+	// Per token: the offset the lexer started at, the kind, offset and end offset of the token,
+	// the image length or one of the FORM_ constants, and the end offset and value of the
+	// character the lexer prefetched after the token.
+	private static final int TOKEN_FIELDS = 7;
+	// Per comment: the index of the token it precedes, its offset and its end offset, which
+	// is negated for line comments.
+	private static final int COMMENT_FIELDS = 3;
+
+	private int[] fTokens;
+	private int fTokenCount;
+	private int[] fComments;
+	private int fCommentCount;
+	private int fCursor;
+
+	LexedTokens() {
+		fTokens = new int[TOKEN_FIELDS * 1024];
+		fComments = new int[COMMENT_FIELDS * 64];
+	}
+
+	private LexedTokens(int[] tokens, int[] comments) {
+		fTokens = tokens;
+		fTokenCount = tokens.length / TOKEN_FIELDS;
+		fComments = comments;
+		fCommentCount = comments.length / COMMENT_FIELDS;
+	}
+
+	/**
+	 * Returns whether a token computed starting at the given offset can be added.
+	 */
+	boolean canAdd(int fetchOffset) {
+		return fTokenCount == 0 || fetchOffset > fTokens[(fTokenCount - 1) * TOKEN_FIELDS];
+	}
+
+	void addToken(int fetchOffset, int kind, int offset, int endOffset, int form, int nextEndOffset, int nextChar) {
+		int i = fTokenCount * TOKEN_FIELDS;
+		if (i + TOKEN_FIELDS > fTokens.length) {
+			fTokens = Arrays.copyOf(fTokens, fTokens.length * 2);
+		}
+		fTokens[i] = fetchOffset;
+		fTokens[i + 1] = kind;
+		fTokens[i + 2] = offset;
+		fTokens[i + 3] = endOffset;
+		fTokens[i + 4] = form;
+		fTokens[i + 5] = nextEndOffset;
+		fTokens[i + 6] = nextChar;
+		fTokenCount++;
+	}
+
+	/**
+	 * Adds a comment preceding the token that is added next.
+	 */
+	void addComment(boolean isBlockComment, int offset, int endOffset) {
+		int i = fCommentCount * COMMENT_FIELDS;
+		if (i + COMMENT_FIELDS > fComments.length) {
+			fComments = Arrays.copyOf(fComments, fComments.length * 2);
+		}
+		fComments[i] = fTokenCount;
+		fComments[i + 1] = offset;
+		fComments[i + 2] = isBlockComment ? endOffset : -endOffset;
+		fCommentCount++;
+	}
+
+	int getCommentCount() {
+		return fCommentCount;
+	}
+
+	/**
+	 * Removes the comments added after the given count.
+	 */
+	void truncateComments(int commentCount) {
+		fCommentCount = commentCount;
+	}
+
+	/**
+	 * Releases the memory not needed for replaying the tokens.
+	 */
+	void trimToSize() {
+		fTokens = Arrays.copyOf(fTokens, fTokenCount * TOKEN_FIELDS);
+		fComments = Arrays.copyOf(fComments, fCommentCount * COMMENT_FIELDS);
+	}
+
+	/**
+	 * Returns the number of ints used by this object, for limiting the size of the cache.
+	 */
+	int getSize() {
+		return fTokens.length + fComments.length;
+	}
+
+	/**
+	 * Returns the index of the token computed starting at the given offset, or -1.
+	 */
+	int find(int fetchOffset) {
+		// Tokens are mostly requested in sequence.
+		int cursor = fCursor;
+		if (cursor < fTokenCount && fTokens[cursor * TOKEN_FIELDS] == fetchOffset) {
+			fCursor = cursor + 1;
+			return cursor;
+		}
+		int low = 0;
+		int high = fTokenCount - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int value = fTokens[mid * TOKEN_FIELDS];
+			if (value < fetchOffset) {
+				low = mid + 1;
+			} else if (value > fetchOffset) {
+				high = mid - 1;
+			} else {
+				fCursor = mid + 1;
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	int getKind(int token) {
+		return fTokens[token * TOKEN_FIELDS + 1];
+	}
+
+	int getOffset(int token) {
+		return fTokens[token * TOKEN_FIELDS + 2];
+	}
+
+	int getEndOffset(int token) {
+		return fTokens[token * TOKEN_FIELDS + 3];
+	}
+
+	int getForm(int token) {
+		return fTokens[token * TOKEN_FIELDS + 4];
+	}
+
+	int getNextEndOffset(int token) {
+		return fTokens[token * TOKEN_FIELDS + 5];
+	}
+
+	int getNextChar(int token) {
+		return fTokens[token * TOKEN_FIELDS + 6];
+	}
+
+	/**
+	 * Returns the index of the first comment preceding the given token, or the number of comments
+	 * if there is none.
+	 */
+	int findFirstComment(int token) {
+		int low = 0;
+		int high = fCommentCount;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (fComments[mid * COMMENT_FIELDS] < token) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	int getCommentToken(int comment) {
+		return fComments[comment * COMMENT_FIELDS];
+	}
+
+	int getCommentOffset(int comment) {
+		return fComments[comment * COMMENT_FIELDS + 1];
+	}
+
+	int getCommentEndOffset(int comment) {
+		return Math.abs(fComments[comment * COMMENT_FIELDS + 2]);
+	}
+
+	boolean isBlockComment(int comment) {
+		return fComments[comment * COMMENT_FIELDS + 2] >= 0;
+	}
+
+	/**
+	 * Creates a copy for use by another lexer, sharing the data.
+	 */
+	LexedTokens copy() {
+		return new LexedTokens(fTokens, fComments);
+	}
+
+	void write(DataOutput out) throws IOException {
+		out.writeInt(fTokenCount * TOKEN_FIELDS);
+		for (int i = 0; i < fTokenCount * TOKEN_FIELDS; i++) {
+			out.writeInt(fTokens[i]);
+		}
+		out.writeInt(fCommentCount * COMMENT_FIELDS);
+		for (int i = 0; i < fCommentCount * COMMENT_FIELDS; i++) {
+			out.writeInt(fComments[i]);
+		}
+	}
+
+	static LexedTokens read(DataInput in) throws IOException {
+		int[] tokens = readInts(in, TOKEN_FIELDS);
+		int[] comments = readInts(in, COMMENT_FIELDS);
+		return new LexedTokens(tokens, comments);
+	}
+
+	private static int[] readInts(DataInput in, int fields) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length % fields != 0)
+			throw new IOException("Invalid length " + length); //$NON-NLS-1$
+		int[] result = new int[length];
+		for (int i = 0; i < length; i++) {
+			result[i] = in.readInt();
+		}
+		return result;
+	}
+}
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.parser.scanner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.eclipse.cdt.internal.core.parser.scanner.Lexer.LexerOptions;
+
+/**
+ * A cache of the preprocessor tokens of files, shared between translation units and, when
+ * a directory is given, between sessions. Files are identified by the hash and the length
+ * of their contents, together with the options of the lexer.
+ * <p>
+ * The output of the lexer does not depend on the macros defined at the point of inclusion,
+ * such that a file needs to be stored only once, regardless of its significant macros.
+ */
+public final class LexedTokensCache {
+	/**
+	 * System property naming the directory of the persistent cache. The cache is not used, unless
+	 * the property is set.
+	 */
+	public static final String CACHE_DIRECTORY_PROPERTY = "org.eclipse.cdt.core.parser.tokenCache"; //$NON-NLS-1$
+	/** Maximum number of ints kept in memory, 32MB. */
+	private static final int DEFAULT_MAX_SIZE = 8 * 1024 * 1024;
+	private static final int MAGIC = 0x43445454; // CDTT
+	private static final int VERSION = 1;
+	private static final String FILE_SUFFIX = ".tokens"; //$NON-NLS-1$
+
+	private static final LexedTokensCache INSTANCE = createDefault();
+
+	private final File fDirectory;
+	private final int fMaxSize;
+	private final LinkedHashMap<String, LexedTokens> fTokens = new LinkedHashMap<>(16, 0.75f, true);
+	private int fSize;
+	private long fHits;
+	private long fMisses;
+
+	private static LexedTokensCache createDefault() {
+		String directory = System.getProperty(CACHE_DIRECTORY_PROPERTY);
+		if (directory == null || directory.isEmpty())
+			return null;
+		return new LexedTokensCache(new File(directory), DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Returns the shared cache, or {@code null} if caching of tokens is disabled.
+	 */
+	public static LexedTokensCache getDefault() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Creates a cache.
+	 * @param directory the directory for persisting the tokens, or {@code null}.
+	 * @param maxSize the maximum number of ints kept in memory.
+	 */
+	public LexedTokensCache(File directory, int maxSize) {
+		fDirectory = directory;
+		fMaxSize = maxSize;
+	}
+
+	/**
+	 * Returns the tokens of the given input, or {@code null} if they are not cached.
+	 */
+	LexedTokens get(AbstractCharArray input, LexerOptions options) {
+		String key = getKey(input, options);
+		synchronized (this) {
+			LexedTokens tokens = fTokens.get(key);
+			if (tokens != null) {
+				fHits++;
+				return tokens.copy();
+			}
+		}
+		LexedTokens tokens = load(key);
+		synchronized (this) {
+			if (tokens == null) {
+				fMisses++;
+				return null;
+			}
+			fHits++;
+			add(key, tokens);
+			return tokens.copy();
+		}
+	}
+
+	/**
+	 * Stores the tokens of the given input, which has been lexed completely.
+	 */
+	void put(AbstractCharArray input, LexerOptions options, LexedTokens tokens) {
+		tokens.trimToSize();
+		String key = getKey(input, options);
+		synchronized (this) {
+			if (fTokens.containsKey(key))
+				return;
+			add(key, tokens);
+		}
+		store(key, tokens);
+	}
+
+	private void add(String key, LexedTokens tokens) {
+		LexedTokens old = fTokens.put(key, tokens);
+		if (old != null) {
+			fSize -= old.getSize();
+		}
+		fSize += tokens.getSize();
+		for (Iterator<LexedTokens> it = fTokens.values().iterator(); fSize > fMaxSize && it.hasNext();) {
+			LexedTokens eldest = it.next();
+			if (eldest != tokens) {
+				fSize -= eldest.getSize();
+				it.remove();
+			}
+		}
+	}
+
+	private LexedTokens load(String key) {
+		if (fDirectory == null)
+			return null;
+		File file = new File(fDirectory, key + FILE_SUFFIX);
+		if (!file.isFile())
+			return null;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				return null;
+			return LexedTokens.read(in);
+		} catch (IOException e) {
+			// Treat a corrupt file like a missing one, it is overwritten later.
+			return null;
+		}
+	}
+
+	private void store(String key, LexedTokens tokens) {
+		if (fDirectory == null)
+			return;
+		File file = new File(fDirectory, key + FILE_SUFFIX);
+		if (file.exists())
+			return;
+		try {
+			fDirectory.mkdirs();
+			// Write to a temporary file first, other processes may read the cache concurrently.
+			File tmp = File.createTempFile(key, null, fDirectory);
+			try {
+				try (DataOutputStream out = new DataOutputStream(
+						new BufferedOutputStream(new FileOutputStream(tmp)))) {
+					out.writeInt(MAGIC);
+					out.writeInt(VERSION);
+					tokens.write(out);
+				}
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				tmp.delete();
+			}
+		} catch (IOException e) {
+			// The tokens are still cached in memory.
+		}
+	}
+
+	private static String getKey(AbstractCharArray input, LexerOptions options) {
+		int flags = 0;
+		if (options.fSupportDollarInIdentifiers)
+			flags |= 0x1;
+		if (options.fSupportAtSignInIdentifiers)
+			flags |= 0x2;
+		if (options.fSupportMinAndMax)
+			flags |= 0x4;
+		if (options.fSupportSlashPercentComments)
+			flags |= 0x8;
+		if (options.fSupportUTFLiterals)
+			flags |= 0x10;
+		if (options.fSupportRawStringLiterals)
+			flags |= 0x20;
+		if (options.fSupportUserDefinedLiterals)
+			flags |= 0x40;
+		if (options.fSupportDigitSeparators)
+			flags |= 0x80;
+		return Long.toHexString(input.getContentsHash()) + '-' + Integer.toHexString(input.getLength()) + '-'
+				+ Integer.toHexString(flags);
+	}
+
+	/**
+	 * Returns the number of lookups that found the tokens in memory or on disk.
+	 */
+	public synchronized long getHits() {
+		return fHits;
+	}
+
+	/**
+	 * Returns the number of lookups that did not find the tokens.
+	 */
+	public synchronized long getMisses() {
+		return fMisses;
+	}
+
+	/**
+	 * Removes all tokens kept in memory.
+	 */
+	public synchronized void clear() {
+		fTokens.clear();
+		fSize = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "LexedTokensCache: " + fTokens.size() + " files, " + fHits + " hits, " + fMisses + " misses"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 Wind River Systems, Inc. and others.
+ * Copyright (c) 2007, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -111,6 +111,12 @@ final public class Lexer implements ITokenSequence {
 	private Token fMarkToken;
 	private Token fMarkLastToken;
 
+	// Tokens replayed from the cache, or recorded for it.
+	private LexedTokensCache fTokenCache;
+	private LexedTokens fReplayTokens;
+	private LexedTokens fRecordTokens;
+	private boolean fProblemReported;
+
 	public Lexer(char[] input, LexerOptions options, ILexerLog log, Object source) {
 		this(new CharArray(input), 0, input.length, options, log, source);
 	}
@@ -149,6 +155,8 @@ final public class Lexer implements ITokenSequence {
 	 */
 	public void setContentAssistMode(int offset) {
 		fSupportContentAssist = true;
+		fTokenCache = null;
+		fReplayTokens = fRecordTokens = null;
 		if (isValidOffset(offset)) {
 			fLimit = offset;
 		}
@@ -157,6 +165,21 @@ final public class Lexer implements ITokenSequence {
 		nextCharPhase3();
 	}
 
+	/**
+	 * Replays the tokens of the input from the given cache, if it has them. Otherwise the tokens
+	 * are stored in the cache once the end of the input is reached. Must be called before the
+	 * first token is requested.
+	 */
+	public void setTokenCache(LexedTokensCache cache) {
+		if (cache == null || fSupportContentAssist || fStart != 0 || fInput.hasError())
+			return;
+		fTokenCache = cache;
+		fReplayTokens = cache.get(fInput, fOptions);
+		if (fReplayTokens == null) {
+			fRecordTokens = new LexedTokens();
+		}
+	}
+
 	public boolean isContentAssistMode() {
 		return fSupportContentAssist;
 	}
@@ -261,9 +284,72 @@ final public class Lexer implements ITokenSequence {
 	}
 
 	/**
-	 * Computes the next token.
+	 * Computes the next token, or replays it from the token cache.
 	 */
 	private Token fetchToken() throws OffsetLimitReachedException {
+		if (fTokenCache == null || fInsideIncludeDirective)
+			return lexToken();
+
+		final int start = fOffset;
+		if (fReplayTokens != null) {
+			final int idx = fReplayTokens.find(start);
+			if (idx >= 0)
+				return replayToken(fReplayTokens, idx);
+			return lexToken();
+		}
+
+		final LexedTokens recording = fRecordTokens;
+		if (recording == null || !recording.canAdd(start))
+			return lexToken();
+		final int commentCount = recording.getCommentCount();
+		fProblemReported = false;
+		final Token t = lexToken();
+		if (fProblemReported || fInsideIncludeDirective) {
+			recording.truncateComments(commentCount);
+		} else {
+			final int form;
+			if (t instanceof TokenWithImage) {
+				form = t.getCharImage().length;
+			} else if (t instanceof TokenForDigraph) {
+				form = LexedTokens.FORM_DIGRAPH;
+			} else {
+				form = LexedTokens.FORM_PLAIN;
+			}
+			recording.addToken(start, t.getType(), t.getOffset(), t.getEndOffset(), form, fEndOffset, fCharPhase3);
+		}
+		if (t.getType() == IToken.tEND_OF_INPUT) {
+			fRecordTokens = null;
+			fTokenCache.put(fInput, fOptions, recording);
+		}
+		return t;
+	}
+
+	private Token replayToken(LexedTokens tokens, int idx) {
+		final int commentCount = tokens.getCommentCount();
+		for (int i = tokens.findFirstComment(idx); i < commentCount && tokens.getCommentToken(i) == idx; i++) {
+			fLog.handleComment(tokens.isBlockComment(i), tokens.getCommentOffset(i), tokens.getCommentEndOffset(i),
+					fInput);
+		}
+		final int kind = tokens.getKind(idx);
+		final int offset = tokens.getOffset(idx);
+		fOffset = tokens.getEndOffset(idx);
+		fEndOffset = tokens.getNextEndOffset(idx);
+		fCharPhase3 = tokens.getNextChar(idx);
+		final int form = tokens.getForm(idx);
+		switch (form) {
+		case LexedTokens.FORM_PLAIN:
+			return newToken(kind, offset);
+		case LexedTokens.FORM_DIGRAPH:
+			return newDigraphToken(kind, offset);
+		default:
+			return newToken(kind, offset, form);
+		}
+	}
+
+	/**
+	 * Computes the next token.
+	 */
+	private Token lexToken() throws OffsetLimitReachedException {
 		while (true) {
 			final int start = fOffset;
 			final int c = fCharPhase3;
@@ -735,9 +821,17 @@ final public class Lexer implements ITokenSequence {
 	}
 
 	private void handleProblem(int problemID, char[] arg, int offset) {
+		fProblemReported = true;
 		fLog.handleProblem(problemID, arg, offset, fOffset);
 	}
 
+	private void handleComment(boolean isBlockComment, int offset, int endOffset) {
+		if (fRecordTokens != null) {
+			fRecordTokens.addComment(isBlockComment, offset, endOffset);
+		}
+		fLog.handleComment(isBlockComment, offset, endOffset, fInput);
+	}
+
 	private Token headerName(final int start, final boolean expectQuotes) throws OffsetLimitReachedException {
 		int length = 1;
 		boolean done = false;
@@ -775,14 +869,14 @@ final public class Lexer implements ITokenSequence {
 				fEndOffset = pos;
 				if (nextCharPhase3() == '/') {
 					nextCharPhase3();
-					fLog.handleComment(true, start, fOffset, fInput);
+					handleComment(true, start, fOffset);
 					return;
 				}
 			}
 		}
 		fCharPhase3 = END_OF_INPUT;
 		fOffset = fEndOffset = pos;
-		fLog.handleComment(true, start, pos, fInput);
+		handleComment(true, start, pos);
 	}
 
 	private void lineComment(final int start) {
@@ -791,7 +885,7 @@ final public class Lexer implements ITokenSequence {
 			switch (c) {
 			case END_OF_INPUT:
 			case '\n':
-				fLog.handleComment(false, start, fOffset, fInput);
+				handleComment(false, start, fOffset);
 				return;
 			}
 			c = nextCharPhase3();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2016 Wind River Systems, Inc. and others.
+ * Copyright (c) 2007, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -82,6 +82,13 @@ public class LocationMap implements ILocationResolver {
 		return fLexerOptions;
 	}
 
+	@Override
+	public AbstractCharArray getIncludedFileSource(IASTPreprocessorIncludeStatement include) {
+		if (include instanceof ASTInclusionStatement)
+			return ((ASTInclusionStatement) include).getIncludedFileSource();
+		return null;
+	}
+
 	public void registerPredefinedMacro(IMacroBinding macro) {
 		registerPredefinedMacro(macro, null, -1);
 	}
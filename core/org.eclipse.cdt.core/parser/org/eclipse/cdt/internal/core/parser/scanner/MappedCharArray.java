@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.parser.scanner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Implementation of char array for a memory-mapped file, in which every byte represents
+ * a character. The characters are decoded when they are accessed, such that the content
+ * of the file is not copied to the heap.
+ * <p>
+ * Used for files in ISO-8859-1, and for files in UTF-8 or US-ASCII that contain ASCII
+ * characters only, which is typical for large generated sources.
+ */
+public final class MappedCharArray extends AbstractCharArray {
+	private static final int HASH_CHUNK_SIZE = LazyCharArray.CHUNK_SIZE;
+
+	/**
+	 * Maps the file of the given channel, or returns {@code null} if its content cannot be
+	 * accessed byte by byte in the given character set.
+	 */
+	public static AbstractCharArray create(FileChannel channel, String charSet) throws IOException {
+		final long size = channel.size();
+		if (size > Integer.MAX_VALUE || !Charset.isSupported(charSet))
+			return null;
+
+		final Charset charset = Charset.forName(charSet);
+		final boolean isLatin1 = charset.equals(StandardCharsets.ISO_8859_1);
+		final boolean isUTF8 = charset.equals(StandardCharsets.UTF_8);
+		if (!isLatin1 && !isUTF8 && !charset.equals(StandardCharsets.US_ASCII))
+			return null;
+
+		ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		int start = 0;
+		if (isUTF8 && size >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB
+				&& buffer.get(2) == (byte) 0xBF) {
+			start = 3;
+		}
+		if (!isLatin1) {
+			// Multi-byte sequences and invalid bytes would shift the offsets of the characters.
+			for (int i = start; i < size; i++) {
+				if (buffer.get(i) < 0)
+					return null;
+			}
+		}
+		buffer.position(start);
+		return new MappedCharArray(buffer.slice());
+	}
+
+	private final ByteBuffer fBuffer;
+	private final int fLength;
+	private long fHash64;
+	private boolean fHashComputed;
+
+	private MappedCharArray(ByteBuffer buffer) {
+		fBuffer = buffer;
+		fLength = buffer.limit();
+	}
+
+	@Override
+	public int tryGetLength() {
+		return fLength;
+	}
+
+	@Override
+	public int getLength() {
+		return fLength;
+	}
+
+	@Override
+	public boolean isValidOffset(int offset) {
+		return offset < fLength;
+	}
+
+	@Override
+	public char get(int offset) {
+		return (char) (fBuffer.get(offset) & 0xFF);
+	}
+
+	@Override
+	public void arraycopy(int offset, char[] destination, int destinationPos, int length) {
+		for (int i = 0; i < length; i++) {
+			destination[destinationPos + i] = (char) (fBuffer.get(offset + i) & 0xFF);
+		}
+	}
+
+	@Override
+	public long getContentsHash() {
+		if (!fHashComputed) {
+			// Hash in chunks, the result is the same as for the other implementations.
+			StreamHasher hasher = new StreamHasher();
+			char[] chunk = new char[Math.min(HASH_CHUNK_SIZE, fLength)];
+			for (int offset = 0; offset < fLength; offset += chunk.length) {
+				if (fLength - offset < chunk.length) {
+					chunk = new char[fLength - offset];
+				}
+				arraycopy(offset, chunk, 0, chunk.length);
+				hasher.addChunk(chunk);
+			}
+			fHash64 = hasher.computeHash();
+			fHashComputed = true;
+		}
+		return fHash64;
+	}
+
+	@Override
+	public boolean hasError() {
+		return false;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2014 Wind River Systems, Inc. and others.
+ * Copyright (c) 2007, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -33,6 +33,11 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -46,6 +51,7 @@ import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
 import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit.IDependencyTree;
 import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit.IDependencyTree.IASTInclusionNode;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPUsingDirective;
+import org.eclipse.cdt.core.index.IIndex;
 import org.eclipse.cdt.core.index.IIndexFile;
 import org.eclipse.cdt.core.index.IIndexFileLocation;
 import org.eclipse.cdt.core.index.IIndexInclude;
@@ -76,11 +82,13 @@ import org.eclipse.cdt.internal.core.parser.ParserSettings2;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContentProvider;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContentProvider.DependsOnOutdatedFileException;
 import org.eclipse.cdt.internal.core.parser.util.LRUCache;
+import org.eclipse.cdt.internal.core.pdom.dom.cpp.PDOMInstanceCache;
 import org.eclipse.cdt.utils.EFSExtensionManager;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
@@ -312,6 +320,27 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		}
 	}
 
+	/**
+	 * The result of parsing a source file on one of the parser threads.
+	 */
+	private static class ParsedFile {
+		final LocationTask fLocationTask;
+		final IIndexFileLocation fLocation;
+		final AbstractLanguage fLanguage;
+		final IScannerInfo fScannerInfo;
+		FileContent fCodeReader;
+		IASTTranslationUnit fAST;
+		long fParsingTime;
+		Throwable fException;
+
+		ParsedFile(LocationTask locTask, IIndexFileLocation ifl, AbstractLanguage language, IScannerInfo scannerInfo) {
+			fLocationTask = locTask;
+			fLocation = ifl;
+			fLanguage = language;
+			fScannerInfo = scannerInfo;
+		}
+	}
+
 	protected enum MessageKind {
 		parsingFileTask, errorWhileParsing, tooManyIndexProblems
 	}
@@ -339,6 +368,19 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 	private long fIncludedFileSizeLimit;
 	private InternalFileContentProvider fCodeReaderFactory;
 	private int fSwallowOutOfMemoryError = 5;
+	private int fParserThreads = 1;
+	private boolean fUpdateIncludersOfChangedDeclarations;
+	/**
+	 * Files whose declarations have changed since they were last stored in the index, the files
+	 * including them are updated once the requested files have been indexed.
+	 */
+	private final Set<IIndexFileLocation> fFilesWithChangedDeclarations = new HashSet<>();
+	private final Set<IIndexFileLocation> fIncludersScheduledForUpdate = new HashSet<>();
+	/**
+	 * Set when a file that was already in the index has been replaced. Files parsed ahead of time
+	 * may refer to the replaced content and have to be parsed again.
+	 */
+	private boolean fReplacedIndexContent;
 	/**
 	 * A queue of urgent indexing tasks that contribute additional files to this task.
 	 * The files from the urgent tasks are indexed before all not yet processed files.
@@ -394,6 +436,23 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		fHeadersToIndexAllVersions = headers;
 	}
 
+	/**
+	 * Sets the number of threads used for parsing source files. With more than one thread, source
+	 * files are parsed ahead of time in parallel, while the results are still written to the index
+	 * one after another by the thread running the task.
+	 */
+	public void setParserThreads(int parserThreads) {
+		fParserThreads = Math.max(1, parserThreads);
+	}
+
+	/**
+	 * Sets whether the files including a file are updated when the declarations of the file change.
+	 * Changes that are limited to the bodies of functions do not cause an update of the includers.
+	 */
+	public void setUpdateIncludersOfChangedDeclarations(boolean update) {
+		fUpdateIncludersOfChangedDeclarations = update;
+	}
+
 	public void setPragmaPrivatePattern(Pattern pattern) {
 		fPragmaPrivatePattern = pattern;
 	}
@@ -539,7 +598,7 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 			}
 			fTodoTaskUpdater = createTodoTaskUpdater();
 
-			fASTOptions = ILanguage.OPTION_NO_IMAGE_LOCATIONS
+			fASTOptions = ILanguage.OPTION_LEAN_AST | ILanguage.OPTION_NO_IMAGE_LOCATIONS
 					| ILanguage.OPTION_SKIP_TRIVIAL_EXPRESSIONS_IN_AGGREGATE_INITIALIZERS;
 
 			if (getSkipReferences() == SKIP_ALL_REFERENCES) {
@@ -547,6 +606,7 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 			}
 
 			fIndex.resetCacheCounters();
+			PDOMInstanceCache.resetCounters();
 			fIndex.acquireReadLock();
 
 			try {
@@ -581,6 +641,10 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 							if (hasUrgentTasks())
 								break;
 						}
+						if (moreFiles == null && !hasUrgentTasks()) {
+							moreFiles = extractIncludersOfChangedDeclarations(indexFilesToRemove,
+									progress.split(1));
+						}
 						synchronized (this) {
 							if (fUrgentTasks.isEmpty()) {
 								if (moreFiles == null) {
@@ -628,6 +692,7 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 				fIndex.releaseReadLock();
 			}
 		} finally {
+			shutdownNameResolutionThreads();
 			synchronized (this) {
 				fTaskCompleted = true;
 			}
@@ -724,6 +789,46 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		}
 	}
 
+	/**
+	 * Requests the update of the files including the files whose declarations have changed.
+	 * @return the files to parse or {@code null} if there are none.
+	 */
+	private HashMap<Integer, List<IIndexFileLocation>> extractIncludersOfChangedDeclarations(
+			List<IIndexFragmentFile> filesToRemove, IProgressMonitor monitor) throws CoreException {
+		if (!fUpdateIncludersOfChangedDeclarations || fFilesWithChangedDeclarations.isEmpty())
+			return null;
+
+		List<Object> includers = new ArrayList<>();
+		fIncludersScheduledForUpdate.addAll(fFilesWithChangedDeclarations);
+		for (IIndexFileLocation location : fFilesWithChangedDeclarations) {
+			for (IIndexFragmentFile ifile : fIndex.getWritableFiles(location)) {
+				for (IIndexInclude include : fIndex.findIncludedBy(ifile, IIndex.DEPTH_INFINITE)) {
+					IIndexFileLocation includer = include.getIncludedByLocation();
+					if (fIncludersScheduledForUpdate.add(includer)) {
+						Object tu = fResolver.getInputFile(includer);
+						if (tu != null)
+							includers.add(tu);
+					}
+				}
+			}
+		}
+		fFilesWithChangedDeclarations.clear();
+		if (includers.isEmpty())
+			return null;
+
+		if (fShowActivity) {
+			trace("Indexer: updating " + includers.size() + " includers of changed declarations"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		HashMap<Integer, List<IIndexFileLocation>> files = new HashMap<>();
+		synchronized (this) {
+			fFilesToUpdate = includers.toArray();
+			fForceNumberFiles = fFilesToUpdate.length;
+			incrementRequestedFilesCount(fFilesToUpdate.length);
+		}
+		extractFiles(files, filesToRemove, monitor);
+		return files.isEmpty() ? null : files;
+	}
+
 	private void addPerLinkage(int linkageID, IIndexFileLocation ifl,
 			HashMap<Integer, List<IIndexFileLocation>> files) {
 		List<IIndexFileLocation> list = files.get(linkageID);
@@ -793,6 +898,18 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		return null;
 	}
 
+	@Override
+	protected boolean isTrackingDeclarationChanges() {
+		return fUpdateIncludersOfChangedDeclarations;
+	}
+
+	@Override
+	protected void reportDeclarationsChanged(FileInAST file) {
+		if (fUpdateIncludersOfChangedDeclarations) {
+			fFilesWithChangedDeclarations.add(file.fileContentKey.getLocation());
+		}
+	}
+
 	@Override
 	protected void reportFileWrittenToIndex(FileInAST file, IIndexFragmentFile ifile) throws CoreException {
 		final FileContentKey fck = file.fileContentKey;
@@ -809,6 +926,7 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 				if (v != null) {
 					wasCounted = v.fOutdated;
 					v.setUpdated();
+					fReplacedIndexContent = true;
 				} else {
 					// We have added a version, the request is fulfilled.
 					wasCounted = locTask.fCountedUnknownVersion;
@@ -897,12 +1015,17 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 				continue;
 
 			// First parse the required sources.
+			Set<LocationTask> parsedInParallel = new HashSet<>();
+			if (fParserThreads > 1) {
+				if (!parseRequiredSourcesInParallel(linkageID, map, filesAtPriority, parsedInParallel, progress))
+					return;
+			}
 			for (Iterator<IIndexFileLocation> it = filesAtPriority.iterator(); it.hasNext();) {
 				IIndexFileLocation ifl = it.next();
 				LocationTask locTask = map.find(ifl);
 				if (locTask == null || locTask.isCompleted()) {
 					it.remove();
-				} else if (locTask.fKind == UpdateKind.REQUIRED_SOURCE) {
+				} else if (locTask.fKind == UpdateKind.REQUIRED_SOURCE && !parsedInParallel.contains(locTask)) {
 					if (hasUrgentTasks())
 						return;
 					final Object tu = locTask.fTu;
@@ -979,6 +1102,105 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		}
 	}
 
+	/**
+	 * Parses the required sources among the given files on {@link #fParserThreads} threads and
+	 * writes the results to the index on the calling thread.
+	 * <p>
+	 * The sources are processed in batches. The threads parse a batch while the calling thread
+	 * holds its read lock on the index and waits, then the calling thread writes the batch to the
+	 * index, in the original order. This way the parser threads never read the index while it is
+	 * being modified. Sources that fail on a parser thread, or that were parsed before a file that
+	 * was already in the index got replaced, are parsed again on the calling thread.
+	 *
+	 * @param processed receives the tasks of the sources that have been processed.
+	 * @return {@code false} if an urgent task interrupted the processing.
+	 */
+	private boolean parseRequiredSourcesInParallel(int linkageID, LinkageTask map, List<IIndexFileLocation> files,
+			Set<LocationTask> processed, SubMonitor progress) throws CoreException, InterruptedException {
+		List<ParsedFile> sources = new ArrayList<>();
+		for (IIndexFileLocation ifl : files) {
+			LocationTask locTask = map.find(ifl);
+			if (locTask != null && !locTask.isCompleted() && locTask.fKind == UpdateKind.REQUIRED_SOURCE) {
+				final Object tu = locTask.fTu;
+				sources.add(new ParsedFile(locTask, ifl, getLanguage(tu, linkageID), getScannerInfo(linkageID, tu)));
+			}
+		}
+		if (sources.size() < 2)
+			return true;
+
+		final ThreadLocal<InternalFileContentProvider> contentProviders = ThreadLocal
+				.withInitial(() -> createFileContentProvider(linkageID));
+		final AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(fParserThreads, r -> {
+			Thread thread = new Thread(r, "Indexer Parser " + threadCount.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		fStatistics.fParserThreads = fParserThreads;
+		try {
+			final int batchSize = 2 * fParserThreads;
+			for (int start = 0; start < sources.size(); start += batchSize) {
+				if (hasUrgentTasks())
+					return false;
+				List<ParsedFile> batch = sources.subList(start, Math.min(start + batchSize, sources.size()));
+				List<Future<?>> futures = new ArrayList<>(batch.size());
+				long wallStart = System.currentTimeMillis();
+				for (ParsedFile parsed : batch) {
+					futures.add(executor.submit(() -> parseAhead(parsed, contentProviders.get())));
+				}
+				for (Future<?> future : futures) {
+					try {
+						future.get();
+					} catch (ExecutionException e) {
+						// parseAhead() records its exceptions.
+					}
+				}
+				fStatistics.fParallelParsingTime += System.currentTimeMillis() - wallStart;
+
+				fReplacedIndexContent = false;
+				for (ParsedFile parsed : batch) {
+					LocationTask locTask = parsed.fLocationTask;
+					if (locTask.isCompleted())
+						continue;
+					if (hasUrgentTasks())
+						return false;
+					final Object tu = locTask.fTu;
+					if (parsed.fException != null || fReplacedIndexContent) {
+						parseFile(tu, parsed.fLanguage, parsed.fLocation, parsed.fScannerInfo, null, progress.split(1));
+					} else {
+						fStatistics.fParsingTime += parsed.fParsingTime;
+						parseFile(tu, parsed.fLanguage, parsed.fLocation, parsed.fScannerInfo, null, parsed,
+								progress.split(1));
+					}
+					processed.add(locTask);
+					// Release the AST as early as possible.
+					parsed.fAST = null;
+					parsed.fCodeReader = null;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return true;
+	}
+
+	/**
+	 * Runs on a parser thread, covered by the read lock of the thread running the task.
+	 */
+	private void parseAhead(ParsedFile parsed, InternalFileContentProvider contentProvider) {
+		try {
+			long start = System.currentTimeMillis();
+			parsed.fCodeReader = fResolver.getCodeReader(parsed.fLocationTask.fTu);
+			parsed.fAST = createAST(parsed.fLanguage, parsed.fCodeReader, parsed.fScannerInfo, fASTOptions,
+					contentProvider, new NullProgressMonitor());
+			parsed.fParsingTime = System.currentTimeMillis() - start;
+		} catch (Throwable e) {
+			parsed.fException = e;
+			parsed.fAST = null;
+			parsed.fCodeReader = null;
+		}
+	}
+
 	private void parseVersionInContext(int linkageID, LinkageTask map, IIndexFileLocation ifl,
 			final FileVersionTask versionTask, Object tu, LinkedHashSet<IIndexFile> safeGuard, IProgressMonitor monitor)
 			throws CoreException, InterruptedException {
@@ -1086,6 +1308,15 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 	private DependsOnOutdatedFileException parseFile(Object tu, AbstractLanguage lang, IIndexFileLocation ifl,
 			IScannerInfo scanInfo, FileContext ctx, IProgressMonitor monitor)
 			throws CoreException, InterruptedException {
+		return parseFile(tu, lang, ifl, scanInfo, ctx, null, monitor);
+	}
+
+	/**
+	 * Parses the file unless it has been parsed ahead of time, and writes the result to the index.
+	 */
+	private DependsOnOutdatedFileException parseFile(Object tu, AbstractLanguage lang, IIndexFileLocation ifl,
+			IScannerInfo scanInfo, FileContext ctx, ParsedFile parsed, IProgressMonitor monitor)
+			throws CoreException, InterruptedException {
 		SubMonitor progress = SubMonitor.convert(monitor, 21);
 		boolean resultCacheCleared = false;
 		IPath path = getLabel(ifl);
@@ -1096,11 +1327,18 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 			}
 			progress.subTask(
 					getMessage(MessageKind.parsingFileTask, path.lastSegment(), path.removeLastSegments(1).toString()));
-			FileContent codeReader = fResolver.getCodeReader(tu);
-
 			long start = System.currentTimeMillis();
-			IASTTranslationUnit ast = createAST(lang, codeReader, scanInfo, fASTOptions, ctx, progress.split(10));
-			fStatistics.fParsingTime += System.currentTimeMillis() - start;
+			FileContent codeReader;
+			IASTTranslationUnit ast;
+			if (parsed != null) {
+				codeReader = parsed.fCodeReader;
+				ast = parsed.fAST;
+				progress.split(10);
+			} else {
+				codeReader = fResolver.getCodeReader(tu);
+				ast = createAST(lang, codeReader, scanInfo, fASTOptions, ctx, progress.split(10));
+				fStatistics.fParsingTime += System.currentTimeMillis() - start;
+			}
 			if (ast == null) {
 				++fStatistics.fTooManyTokensCount;
 			} else {
@@ -1213,6 +1451,24 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		if (codeReader == null) {
 			return null;
 		}
+		final IIndexFile[] ctx2header = ctx == null ? null : new IIndexFile[] { ctx.fContext, ctx.fOldFile };
+		if (fCodeReaderFactory == null) {
+			fCodeReaderFactory = createFileContentProvider(language.getLinkageID());
+		} else if (fIsFastIndexer) {
+			((IndexBasedFileContentProvider) fCodeReaderFactory).setLinkage(language.getLinkageID());
+		}
+		if (fIsFastIndexer) {
+			((IndexBasedFileContentProvider) fCodeReaderFactory).setContextToHeaderGap(ctx2header);
+		}
+		return createAST(language, codeReader, scanInfo, options, fCodeReaderFactory, monitor);
+	}
+
+	private final IASTTranslationUnit createAST(AbstractLanguage language, FileContent codeReader,
+			IScannerInfo scanInfo, int options, InternalFileContentProvider contentProvider, IProgressMonitor monitor)
+			throws CoreException {
+		if (codeReader == null) {
+			return null;
+		}
 		if (fTranslationUnitSizeLimit > 0
 				&& fResolver.getFileSize(codeReader.getFileLocation()) > fTranslationUnitSizeLimit) {
 			if (fShowActivity) {
@@ -1220,28 +1476,7 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 			}
 			return null;
 		}
-		final IIndexFile[] ctx2header = ctx == null ? null : new IIndexFile[] { ctx.fContext, ctx.fOldFile };
-		if (fCodeReaderFactory == null) {
-			InternalFileContentProvider fileContentProvider = createInternalFileContentProvider();
-			if (fIsFastIndexer) {
-				IndexBasedFileContentProvider ibfcp = new IndexBasedFileContentProvider(fIndex, fResolver,
-						language.getLinkageID(), fileContentProvider, this);
-				ibfcp.setContextToHeaderGap(ctx2header);
-				ibfcp.setFileSizeLimit(fIncludedFileSizeLimit);
-				ibfcp.setHeadersToIndexAllVersions(fHeadersToIndexAllVersions);
-				ibfcp.setIndexAllHeaderVersions(fIndexAllHeaderVersions);
-				fCodeReaderFactory = ibfcp;
-			} else {
-				fCodeReaderFactory = fileContentProvider;
-			}
-			fCodeReaderFactory.setIncludeResolutionHeuristics(createIncludeHeuristics());
-		} else if (fIsFastIndexer) {
-			final IndexBasedFileContentProvider ibfcp = (IndexBasedFileContentProvider) fCodeReaderFactory;
-			ibfcp.setContextToHeaderGap(ctx2header);
-			ibfcp.setLinkage(language.getLinkageID());
-		}
-
-		IASTTranslationUnit ast = language.getASTTranslationUnit(codeReader, scanInfo, fCodeReaderFactory, fIndex,
+		IASTTranslationUnit ast = language.getASTTranslationUnit(codeReader, scanInfo, contentProvider, fIndex,
 				options, getLogService());
 		if (monitor.isCanceled()) {
 			throw new OperationCanceledException();
@@ -1249,6 +1484,20 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 		return ast;
 	}
 
+	private InternalFileContentProvider createFileContentProvider(int linkageID) {
+		InternalFileContentProvider fileContentProvider = createInternalFileContentProvider();
+		if (fIsFastIndexer) {
+			IndexBasedFileContentProvider ibfcp = new IndexBasedFileContentProvider(fIndex, fResolver, linkageID,
+					fileContentProvider, this);
+			ibfcp.setFileSizeLimit(fIncludedFileSizeLimit);
+			ibfcp.setHeadersToIndexAllVersions(fHeadersToIndexAllVersions);
+			ibfcp.setIndexAllHeaderVersions(fIndexAllHeaderVersions);
+			fileContentProvider = ibfcp;
+		}
+		fileContentProvider.setIncludeResolutionHeuristics(createIncludeHeuristics());
+		return fileContentProvider;
+	}
+
 	private InternalFileContentProvider createInternalFileContentProvider() {
 		final IncludeFileContentProvider fileContentProvider = createReaderFactory();
 		if (fileContentProvider instanceof InternalFileContentProvider)
@@ -1444,12 +1693,15 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 					throw new DependsOnOutdatedFileException(request.fTu, task.fIndexFile);
 			}
 		}
-		IndexFileContent fc = fIndexContentCache.get(file);
-		if (fc == null) {
-			fc = new IndexFileContent(file);
-			fIndexContentCache.put(file, fc);
+		// The caches may be accessed by multiple parser threads.
+		synchronized (fIndexContentCache) {
+			IndexFileContent fc = fIndexContentCache.get(file);
+			if (fc == null) {
+				fc = new IndexFileContent(file);
+				fIndexContentCache.put(file, fc);
+			}
+			return fc;
 		}
-		return fc;
 	}
 
 	IIndexFragmentFile selectIndexFile(int linkageID, IIndexFileLocation ifl, ISignificantMacros sigMacros)
@@ -1499,6 +1751,13 @@ public abstract class AbstractIndexerTask extends PDOMWriter {
 	}
 
 	public IIndexFragmentFile[] getAvailableIndexFiles(int linkageID, IIndexFileLocation ifl) throws CoreException {
+		synchronized (fIndexFilesCache) {
+			return getAvailableIndexFilesUnsynchronized(linkageID, ifl);
+		}
+	}
+
+	private IIndexFragmentFile[] getAvailableIndexFilesUnsynchronized(int linkageID, IIndexFileLocation ifl)
+			throws CoreException {
 		IIndexFragmentFile[] files = fIndexFilesCache.get(ifl);
 		if (files == null) {
 			IIndexFragmentFile[] fragFiles = fIndex.getWritableFiles(linkageID, ifl);
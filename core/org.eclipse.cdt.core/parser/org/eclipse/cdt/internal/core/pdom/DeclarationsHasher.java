@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.pdom;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.cdt.core.dom.ast.ASTVisitor;
+import org.eclipse.cdt.core.dom.ast.IASTDeclSpecifier;
+import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
+import org.eclipse.cdt.core.dom.ast.IASTFileLocation;
+import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTNode;
+import org.eclipse.cdt.core.dom.ast.IASTPreprocessorIncludeStatement;
+import org.eclipse.cdt.core.dom.ast.IASTPreprocessorMacroDefinition;
+import org.eclipse.cdt.core.dom.ast.IASTPreprocessorStatement;
+import org.eclipse.cdt.core.dom.ast.IASTPreprocessorUndefStatement;
+import org.eclipse.cdt.core.dom.ast.IASTSimpleDeclSpecifier;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTDeclSpecifier;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTFunctionDefinition;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTNamespaceDefinition;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPASTTemplateDeclaration;
+import org.eclipse.cdt.core.parser.util.IntArray;
+import org.eclipse.cdt.internal.core.parser.scanner.ILocationResolver;
+import org.eclipse.cdt.internal.core.parser.scanner.StreamHasher;
+
+/**
+ * Computes a hash of what a file declares to the files including it. The hash covers the text of the
+ * declarations with the bodies of functions left out, the macro definitions and the include directives
+ * of the file. Changing the body of a function leaves the hash unchanged, unless the body is relevant
+ * to the includers as it is for templates, constexpr functions and functions with deduced return types.
+ * <p>
+ * Differences in white space are ignored, differences in comments are not.
+ */
+public final class DeclarationsHasher {
+	/** A declaration that is not nested in another declaration of the same file. */
+	private static class Root {
+		final IASTFileLocation fLocation;
+		/** Pairs of start and end offsets of the function bodies to leave out. */
+		final IntArray fCuts = new IntArray();
+
+		Root(IASTFileLocation location) {
+			fLocation = location;
+		}
+	}
+
+	private static class RootCollector extends ASTVisitor {
+		final Set<IASTPreprocessorIncludeStatement> fFiles;
+		final Map<IASTPreprocessorIncludeStatement, List<Root>> fRoots = new HashMap<>();
+		private final List<IASTPreprocessorIncludeStatement> fOwners = new ArrayList<>();
+		private final List<Root> fCurrentRoots = new ArrayList<>();
+
+		RootCollector(Set<IASTPreprocessorIncludeStatement> files) {
+			fFiles = files;
+			shouldVisitDeclarations = true;
+			shouldVisitNamespaces = true;
+		}
+
+		@Override
+		public int visit(IASTDeclaration declaration) {
+			return enter(declaration);
+		}
+
+		@Override
+		public int visit(ICPPASTNamespaceDefinition namespaceDefinition) {
+			return enter(namespaceDefinition);
+		}
+
+		@Override
+		public int leave(IASTDeclaration declaration) {
+			return leave();
+		}
+
+		@Override
+		public int leave(ICPPASTNamespaceDefinition namespaceDefinition) {
+			return leave();
+		}
+
+		private int enter(IASTNode node) {
+			final IASTFileLocation location = node.getFileLocation();
+			final int depth = fOwners.size();
+			IASTPreprocessorIncludeStatement owner = depth > 0 ? fOwners.get(depth - 1) : null;
+			Root root = depth > 0 ? fCurrentRoots.get(depth - 1) : null;
+			if (location != null) {
+				IASTPreprocessorIncludeStatement nodeOwner = location.getContextInclusionStatement();
+				if (root == null || nodeOwner != owner) {
+					owner = nodeOwner;
+					root = null;
+					if (fFiles.contains(owner)) {
+						root = new Root(location);
+						fRoots.computeIfAbsent(owner, k -> new ArrayList<>()).add(root);
+					}
+				}
+			}
+			if (node instanceof IASTFunctionDefinition) {
+				if (root != null) {
+					addBodyCut(root, (IASTFunctionDefinition) node, location);
+				}
+				return PROCESS_SKIP;
+			}
+			fOwners.add(owner);
+			fCurrentRoots.add(root);
+			return PROCESS_CONTINUE;
+		}
+
+		private int leave() {
+			final int depth = fOwners.size();
+			if (depth > 0) {
+				fOwners.remove(depth - 1);
+				fCurrentRoots.remove(depth - 1);
+			}
+			return PROCESS_CONTINUE;
+		}
+
+		private static void addBodyCut(Root root, IASTFunctionDefinition definition, IASTFileLocation location) {
+			if (location == null || definition.getBody() == null || isBodyVisibleToIncluders(definition))
+				return;
+			IASTFileLocation declaratorLocation = definition.getDeclarator().getFileLocation();
+			if (declaratorLocation == null
+					|| !declaratorLocation.getFileName().equals(root.fLocation.getFileName())) {
+				return;
+			}
+			// Everything after the declarator is implementation, including constructor chain initializers
+			// and handlers of function try blocks.
+			int start = declaratorLocation.getNodeOffset() + declaratorLocation.getNodeLength();
+			int end = location.getNodeOffset() + location.getNodeLength();
+			if (start < end) {
+				root.fCuts.add(start);
+				root.fCuts.add(end);
+			}
+		}
+
+		private static boolean isBodyVisibleToIncluders(IASTFunctionDefinition definition) {
+			if (definition instanceof ICPPASTFunctionDefinition) {
+				ICPPASTFunctionDefinition cppDefinition = (ICPPASTFunctionDefinition) definition;
+				if (cppDefinition.isDefaulted() || cppDefinition.isDeleted())
+					return true;
+			}
+			IASTDeclSpecifier declSpec = definition.getDeclSpecifier();
+			if (declSpec instanceof ICPPASTDeclSpecifier && ((ICPPASTDeclSpecifier) declSpec).isConstexpr())
+				return true;
+			if (declSpec instanceof IASTSimpleDeclSpecifier) {
+				int type = ((IASTSimpleDeclSpecifier) declSpec).getType();
+				if (type == IASTSimpleDeclSpecifier.t_auto || type == IASTSimpleDeclSpecifier.t_decltype_auto)
+					return true;
+			}
+			for (IASTNode node = definition.getParent(); node != null; node = node.getParent()) {
+				if (node instanceof ICPPASTTemplateDeclaration)
+					return true;
+			}
+			return false;
+		}
+	}
+
+	private final ILocationResolver fResolver;
+	private final StreamHasher fHasher = new StreamHasher();
+	private final char[] fBuffer = new char[1024];
+	private int fLength;
+	private boolean fAtSeparator = true;
+	private boolean fPendingSpace;
+
+	private DeclarationsHasher(ILocationResolver resolver) {
+		fResolver = resolver;
+	}
+
+	/**
+	 * Computes the hashes of the declarations for the given files of the AST.
+	 *
+	 * @param ast the AST to compute the hashes for
+	 * @param files the files to compute the hashes for, represented by the include statements,
+	 *     {@code null} represents the file of the translation unit
+	 * @return the hashes of the declarations of the files, keyed by the include statements
+	 */
+	public static Map<IASTPreprocessorIncludeStatement, Long> computeHashes(IASTTranslationUnit ast,
+			Set<IASTPreprocessorIncludeStatement> files) {
+		Map<IASTPreprocessorIncludeStatement, Long> result = new HashMap<>();
+		ILocationResolver resolver = ast.getAdapter(ILocationResolver.class);
+		if (resolver == null)
+			return result;
+
+		RootCollector collector = new RootCollector(files);
+		ast.accept(collector);
+
+		Map<IASTPreprocessorIncludeStatement, List<IASTFileLocation>> directives = new HashMap<>();
+		for (IASTPreprocessorStatement stmt : ast.getAllPreprocessorStatements()) {
+			if (stmt instanceof IASTPreprocessorIncludeStatement || stmt instanceof IASTPreprocessorMacroDefinition
+					|| stmt instanceof IASTPreprocessorUndefStatement) {
+				IASTFileLocation location = stmt.getFileLocation();
+				if (location != null && stmt.isActive()) {
+					IASTPreprocessorIncludeStatement owner = location.getContextInclusionStatement();
+					if (files.contains(owner)) {
+						directives.computeIfAbsent(owner, k -> new ArrayList<>()).add(location);
+					}
+				}
+			}
+		}
+
+		for (IASTPreprocessorIncludeStatement file : files) {
+			DeclarationsHasher hasher = new DeclarationsHasher(resolver);
+			List<Root> roots = collector.fRoots.get(file);
+			if (roots != null) {
+				for (Root root : roots) {
+					hasher.add(root);
+				}
+			}
+			hasher.addSeparator();
+			List<IASTFileLocation> locations = directives.get(file);
+			if (locations != null) {
+				for (IASTFileLocation location : locations) {
+					hasher.add(resolver.getUnpreprocessedSignature(location), 0, Integer.MAX_VALUE);
+					hasher.addSeparator();
+				}
+			}
+			result.put(file, hasher.computeHash());
+		}
+		return result;
+	}
+
+	private void add(Root root) {
+		char[] text = fResolver.getUnpreprocessedSignature(root.fLocation);
+		final int base = root.fLocation.getNodeOffset();
+		int pos = 0;
+		for (int i = 0; i < root.fCuts.size(); i += 2) {
+			int start = root.fCuts.get(i) - base;
+			if (start >= pos) {
+				add(text, pos, start);
+				// Keep the hash of an empty body apart from the one of a missing body.
+				addSeparator();
+				pos = root.fCuts.get(i + 1) - base;
+			}
+		}
+		add(text, pos, text.length);
+		addSeparator();
+	}
+
+	private void add(char[] text, int start, int end) {
+		end = Math.min(end, text.length);
+		for (int i = Math.max(start, 0); i < end; i++) {
+			char c = text[i];
+			if (Character.isWhitespace(c)) {
+				fPendingSpace = !fAtSeparator;
+			} else {
+				if (fPendingSpace) {
+					append(' ');
+					fPendingSpace = false;
+				}
+				append(c);
+				fAtSeparator = false;
+			}
+		}
+	}
+
+	private void addSeparator() {
+		fPendingSpace = false;
+		fAtSeparator = true;
+		append('\n');
+	}
+
+	private void append(char c) {
+		if (fLength == fBuffer.length) {
+			fHasher.addChunk(fBuffer);
+			fLength = 0;
+		}
+		fBuffer[fLength++] = c;
+	}
+
+	private long computeHash() {
+		if (fLength > 0) {
+			char[] rest = new char[fLength];
+			System.arraycopy(fBuffer, 0, rest, 0, fLength);
+			fHasher.addChunk(rest);
+		}
+		return fHasher.computeHash();
+	}
+}
@@ -0,0 +1,414 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.pdom;
+
+import java.lang.StackWalker.StackFrame;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.cdt.internal.core.StatisticsMBean;
+import org.eclipse.cdt.internal.core.index.CIndex;
+import org.eclipse.cdt.internal.core.index.WritableCIndex;
+
+/**
+ * Statistics on the read and write locks of all indexes. The statistics are always collected,
+ * the cost of a lock operation grows by a few reads of the clock and the update of a map entry
+ * for the calling thread. The stack of a caller is examined only when it had to wait for a lock,
+ * in order to attribute the time it was blocked to the call site.
+ * <p>
+ * A thread holding locks on several indexes at once is accounted for as a single holder.
+ */
+public final class IndexLockStatistics extends StatisticsMBean implements IndexLockStatisticsMXBean {
+	public static final String OBJECT_NAME = "org.eclipse.cdt.core:type=IndexLockStatistics"; //$NON-NLS-1$
+
+	/** Shorter waits are not attributed to call sites. */
+	private static final long CALL_SITE_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final int MAX_CALL_SITES = 500;
+	private static final int TOP_CALL_SITES = 20;
+	private static final String OTHER_CALL_SITES = "<other>"; //$NON-NLS-1$
+	private static final String UNKNOWN_CALL_SITE = "<unknown>"; //$NON-NLS-1$
+
+	/** Classes implementing the locks, they are skipped when looking for the call site. */
+	private static final Set<String> LOCK_CLASSES = new HashSet<>(Arrays.asList(IndexLockStatistics.class.getName(),
+			PDOM.class.getName(), WritablePDOM.class.getName(), PDOMProxy.class.getName(), CIndex.class.getName(),
+			WritableCIndex.class.getName(), YieldableIndexLock.class.getName()));
+
+	private static final IndexLockStatistics INSTANCE = new IndexLockStatistics();
+
+	public static IndexLockStatistics getInstance() {
+		return INSTANCE;
+	}
+
+	private static class Counter {
+		final LongAdder fCount = new LongAdder();
+		final LongAdder fTotal = new LongAdder();
+		final AtomicLong fMax = new AtomicLong();
+
+		void add(long nanos) {
+			fCount.increment();
+			fTotal.add(nanos);
+			long max = fMax.get();
+			while (nanos > max && !fMax.compareAndSet(max, nanos)) {
+				max = fMax.get();
+			}
+		}
+
+		void reset() {
+			fCount.reset();
+			fTotal.reset();
+			fMax.set(0);
+		}
+	}
+
+	/** The locks held by a thread, modified by the thread itself only. */
+	private static class ThreadState {
+		volatile int fReadLocks;
+		volatile int fWriteLocks;
+		volatile long fReadSince;
+		volatile long fWriteSince;
+	}
+
+	/**
+	 * A location in the code that had to wait for locks on the index.
+	 */
+	public static final class CallSite {
+		private final String fLocation;
+		private final LongAdder fCount = new LongAdder();
+		private final LongAdder fWaitTime = new LongAdder();
+
+		CallSite(String location) {
+			fLocation = location;
+		}
+
+		public String getLocation() {
+			return fLocation;
+		}
+
+		/**
+		 * Returns how often the call site waited for a lock.
+		 */
+		public long getCount() {
+			return fCount.sum();
+		}
+
+		/**
+		 * Returns the total time the call site waited for locks in milliseconds.
+		 */
+		public long getWaitTime() {
+			return toMillis(fWaitTime.sum());
+		}
+
+		@Override
+		public String toString() {
+			return fLocation + ": " + getWaitTime() + " ms in " + getCount() + " waits"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+	}
+
+	/**
+	 * A thread holding locks on the index at the time of the snapshot.
+	 */
+	public static final class LockHolder {
+		private final String fThreadName;
+		private final int fReadLocks;
+		private final int fWriteLocks;
+		private final long fHeldFor;
+		private final String fLocation;
+
+		LockHolder(String threadName, int readLocks, int writeLocks, long heldFor, String location) {
+			fThreadName = threadName;
+			fReadLocks = readLocks;
+			fWriteLocks = writeLocks;
+			fHeldFor = heldFor;
+			fLocation = location;
+		}
+
+		public String getThreadName() {
+			return fThreadName;
+		}
+
+		public int getReadLocks() {
+			return fReadLocks;
+		}
+
+		public int getWriteLocks() {
+			return fWriteLocks;
+		}
+
+		/**
+		 * Returns for how many milliseconds the thread has been holding locks.
+		 */
+		public long getHeldFor() {
+			return fHeldFor;
+		}
+
+		/**
+		 * Returns the location the thread was executing at the time of the snapshot.
+		 */
+		public String getLocation() {
+			return fLocation;
+		}
+
+		@Override
+		public String toString() {
+			return fThreadName + ": " + fReadLocks + " read locks, " + fWriteLocks + " write locks for " + fHeldFor //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ " ms at " + fLocation; //$NON-NLS-1$
+		}
+	}
+
+	private final Counter fReadWait = new Counter();
+	private final Counter fReadHold = new Counter();
+	private final Counter fWriteWait = new Counter();
+	private final Counter fWriteHold = new Counter();
+	private final LongAdder fYields = new LongAdder();
+	private final AtomicInteger fWaitingReaders = new AtomicInteger();
+	private final AtomicInteger fWaitingWriters = new AtomicInteger();
+	private final Map<Thread, ThreadState> fThreads = new ConcurrentHashMap<>();
+	private final Map<String, CallSite> fCallSites = new ConcurrentHashMap<>();
+
+	private IndexLockStatistics() {
+		super(OBJECT_NAME);
+	}
+
+	void waitStarted(boolean write) {
+		(write ? fWaitingWriters : fWaitingReaders).incrementAndGet();
+	}
+
+	void waitEnded(boolean write) {
+		(write ? fWaitingWriters : fWaitingReaders).decrementAndGet();
+	}
+
+	void readLockAcquired(long waitNanos) {
+		fReadWait.add(waitNanos);
+		addReadLocks(getThreadState(), 1);
+		if (waitNanos >= CALL_SITE_THRESHOLD)
+			recordCallSite(waitNanos);
+	}
+
+	void readLockReleased() {
+		ThreadState state = fThreads.get(Thread.currentThread());
+		// Read locks may have been acquired on behalf of another thread.
+		if (state != null) {
+			removeReadLocks(state, 1);
+			removeIfIdle(state);
+		}
+	}
+
+	void writeLockAcquired(long waitNanos, int givenUpReadLocks) {
+		fWriteWait.add(waitNanos);
+		ThreadState state = getThreadState();
+		removeReadLocks(state, givenUpReadLocks);
+		if (state.fWriteLocks++ == 0)
+			state.fWriteSince = System.nanoTime();
+		if (waitNanos >= CALL_SITE_THRESHOLD)
+			recordCallSite(waitNanos);
+	}
+
+	void writeLockReleased(int establishedReadLocks) {
+		ThreadState state = fThreads.get(Thread.currentThread());
+		if (state != null && state.fWriteLocks > 0) {
+			if (--state.fWriteLocks == 0)
+				fWriteHold.add(System.nanoTime() - state.fWriteSince);
+			addReadLocks(state, establishedReadLocks);
+			removeIfIdle(state);
+		}
+	}
+
+	void writeLockYielded() {
+		fYields.increment();
+	}
+
+	private ThreadState getThreadState() {
+		return fThreads.computeIfAbsent(Thread.currentThread(), t -> new ThreadState());
+	}
+
+	private void addReadLocks(ThreadState state, int count) {
+		if (count > 0) {
+			if (state.fReadLocks == 0)
+				state.fReadSince = System.nanoTime();
+			state.fReadLocks += count;
+		}
+	}
+
+	private void removeReadLocks(ThreadState state, int count) {
+		if (count > 0 && state.fReadLocks > 0) {
+			state.fReadLocks = Math.max(0, state.fReadLocks - count);
+			if (state.fReadLocks == 0)
+				fReadHold.add(System.nanoTime() - state.fReadSince);
+		}
+	}
+
+	private void removeIfIdle(ThreadState state) {
+		if (state.fReadLocks == 0 && state.fWriteLocks == 0)
+			fThreads.remove(Thread.currentThread());
+	}
+
+	private void recordCallSite(long waitNanos) {
+		String location = StackWalker.getInstance().walk(frames -> frames
+				.filter(frame -> !LOCK_CLASSES.contains(frame.getClassName())).findFirst()
+				.map(IndexLockStatistics::toLocation).orElse(UNKNOWN_CALL_SITE));
+		CallSite site = fCallSites.get(location);
+		if (site == null) {
+			if (fCallSites.size() >= MAX_CALL_SITES)
+				location = OTHER_CALL_SITES;
+			site = fCallSites.computeIfAbsent(location, CallSite::new);
+		}
+		site.fCount.increment();
+		site.fWaitTime.add(waitNanos);
+	}
+
+	private static String toLocation(StackFrame frame) {
+		return frame.getClassName() + '.' + frame.getMethodName() + '(' + frame.getFileName() + ':'
+				+ frame.getLineNumber() + ')';
+	}
+
+	private static String toLocation(StackTraceElement[] stack) {
+		for (StackTraceElement element : stack) {
+			String className = element.getClassName();
+			if (!LOCK_CLASSES.contains(className) && !className.startsWith("java.") //$NON-NLS-1$
+					&& !className.startsWith("jdk.")) //$NON-NLS-1$
+				return element.toString();
+		}
+		return UNKNOWN_CALL_SITE;
+	}
+
+	private static long toMillis(long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+
+	/**
+	 * Returns the call sites that waited longest for locks, longest first.
+	 */
+	public List<CallSite> getCallSites(int max) {
+		List<CallSite> result = new ArrayList<>(fCallSites.values());
+		result.sort((a, b) -> Long.compare(b.fWaitTime.sum(), a.fWaitTime.sum()));
+		return result.size() > max ? result.subList(0, max) : result;
+	}
+
+	/**
+	 * Returns the threads currently holding locks, longest holder first.
+	 */
+	public List<LockHolder> getHolders() {
+		final long now = System.nanoTime();
+		List<LockHolder> result = new ArrayList<>();
+		for (Map.Entry<Thread, ThreadState> entry : fThreads.entrySet()) {
+			Thread thread = entry.getKey();
+			ThreadState state = entry.getValue();
+			if (!thread.isAlive()) {
+				fThreads.remove(thread, state);
+				continue;
+			}
+			int readLocks = state.fReadLocks;
+			int writeLocks = state.fWriteLocks;
+			if (readLocks == 0 && writeLocks == 0)
+				continue;
+			long since = readLocks == 0 ? state.fWriteSince
+					: writeLocks == 0 ? state.fReadSince : Math.min(state.fReadSince, state.fWriteSince);
+			result.add(new LockHolder(thread.getName(), readLocks, writeLocks, toMillis(now - since),
+					toLocation(thread.getStackTrace())));
+		}
+		result.sort((a, b) -> Long.compare(b.fHeldFor, a.fHeldFor));
+		return result;
+	}
+
+	@Override
+	public long getReadLockCount() {
+		return fReadWait.fCount.sum();
+	}
+
+	@Override
+	public long getReadLockWaitTime() {
+		return toMillis(fReadWait.fTotal.sum());
+	}
+
+	@Override
+	public long getMaxReadLockWaitTime() {
+		return toMillis(fReadWait.fMax.get());
+	}
+
+	@Override
+	public long getReadLockHoldTime() {
+		return toMillis(fReadHold.fTotal.sum());
+	}
+
+	@Override
+	public long getMaxReadLockHoldTime() {
+		return toMillis(fReadHold.fMax.get());
+	}
+
+	@Override
+	public long getWriteLockCount() {
+		return fWriteWait.fCount.sum();
+	}
+
+	@Override
+	public long getWriteLockWaitTime() {
+		return toMillis(fWriteWait.fTotal.sum());
+	}
+
+	@Override
+	public long getMaxWriteLockWaitTime() {
+		return toMillis(fWriteWait.fMax.get());
+	}
+
+	@Override
+	public long getWriteLockHoldTime() {
+		return toMillis(fWriteHold.fTotal.sum());
+	}
+
+	@Override
+	public long getMaxWriteLockHoldTime() {
+		return toMillis(fWriteHold.fMax.get());
+	}
+
+	@Override
+	public long getWriteLockYieldCount() {
+		return fYields.sum();
+	}
+
+	@Override
+	public int getWaitingReaders() {
+		return fWaitingReaders.get();
+	}
+
+	@Override
+	public int getWaitingWriters() {
+		return fWaitingWriters.get();
+	}
+
+	@Override
+	public String[] getLockHolders() {
+		return getHolders().stream().map(LockHolder::toString).toArray(String[]::new);
+	}
+
+	@Override
+	public String[] getTopBlockingCallSites() {
+		return getCallSites(TOP_CALL_SITES).stream().map(CallSite::toString).toArray(String[]::new);
+	}
+
+	@Override
+	public void reset() {
+		fReadWait.reset();
+		fReadHold.reset();
+		fWriteWait.reset();
+		fWriteHold.reset();
+		fYields.reset();
+		fCallSites.clear();
+	}
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.pdom;
+
+/**
+ * Management interface for the statistics on the locks of the index, registered with the platform
+ * MBean server as {@value IndexLockStatistics#OBJECT_NAME}. Times are reported in milliseconds.
+ */
+public interface IndexLockStatisticsMXBean {
+	long getReadLockCount();
+
+	long getReadLockWaitTime();
+
+	long getMaxReadLockWaitTime();
+
+	long getReadLockHoldTime();
+
+	long getMaxReadLockHoldTime();
+
+	long getWriteLockCount();
+
+	long getWriteLockWaitTime();
+
+	long getMaxWriteLockWaitTime();
+
+	long getWriteLockHoldTime();
+
+	long getMaxWriteLockHoldTime();
+
+	/**
+	 * Returns how often a writer temporarily gave up the write lock in favor of waiting readers.
+	 */
+	long getWriteLockYieldCount();
+
+	int getWaitingReaders();
+
+	int getWaitingWriters();
+
+	/**
+	 * Returns a description of each thread currently holding a lock on the index.
+	 */
+	String[] getLockHolders();
+
+	/**
+	 * Returns the call sites that waited longest for locks on the index, longest first.
+	 */
+	String[] getTopBlockingCallSites();
+
+	/**
+	 * Resets all counters.
+	 */
+	void reset();
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2014 Wind River Systems, Inc. and others.
+ * Copyright (c) 2007, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -26,4 +26,11 @@ public class IndexerStatistics {
 	public int fPreprocessorProblemCount = 0;
 	public int fSyntaxProblemsCount = 0;
 	public int fTooManyTokensCount = 0;
+	public int fParserThreads = 1;
+	// Elapsed time of parsing on multiple threads, fParsingTime contains the sum of the individual parsing times.
+	public int fParallelParsingTime = 0;
+	public int fNameResolutionThreads = 1;
+	// Number of translation units whose names were resolved in partitions on multiple threads.
+	public int fPartitionedASTCount = 0;
+	public int fPartitionCount = 0;
 }
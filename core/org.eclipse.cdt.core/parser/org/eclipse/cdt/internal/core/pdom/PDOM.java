@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 QNX Software Systems and others.
+ * Copyright (c) 2005, 2020 QNX Software Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -32,6 +32,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 import org.eclipse.cdt.core.CCorePlugin;
@@ -75,12 +76,14 @@ import org.eclipse.cdt.internal.core.index.IIndexFragmentFileSet;
 import org.eclipse.cdt.internal.core.index.IIndexFragmentInclude;
 import org.eclipse.cdt.internal.core.index.IIndexFragmentName;
 import org.eclipse.cdt.internal.core.index.IIndexScope;
+import org.eclipse.cdt.internal.core.parser.util.LRUCache;
 import org.eclipse.cdt.internal.core.pdom.db.BTree;
 import org.eclipse.cdt.internal.core.pdom.db.ChunkCache;
 import org.eclipse.cdt.internal.core.pdom.db.DBProperties;
 import org.eclipse.cdt.internal.core.pdom.db.Database;
 import org.eclipse.cdt.internal.core.pdom.db.IBTreeComparator;
 import org.eclipse.cdt.internal.core.pdom.db.IBTreeVisitor;
+import org.eclipse.cdt.internal.core.pdom.db.LongObjectMap;
 import org.eclipse.cdt.internal.core.pdom.dom.BindingCollector;
 import org.eclipse.cdt.internal.core.pdom.dom.CompoundRecordIterator;
 import org.eclipse.cdt.internal.core.pdom.dom.FindBinding;
@@ -89,6 +92,7 @@ import org.eclipse.cdt.internal.core.pdom.dom.IPDOMLinkageFactory;
 import org.eclipse.cdt.internal.core.pdom.dom.IRecordIterator;
 import org.eclipse.cdt.internal.core.pdom.dom.MacroContainerCollector;
 import org.eclipse.cdt.internal.core.pdom.dom.MacroContainerPatternCollector;
+import org.eclipse.cdt.internal.core.pdom.dom.NamedNodeCollector;
 import org.eclipse.cdt.internal.core.pdom.dom.PDOMBinding;
 import org.eclipse.cdt.internal.core.pdom.dom.PDOMFile;
 import org.eclipse.cdt.internal.core.pdom.dom.PDOMInclude;
@@ -115,6 +119,7 @@ public class PDOM extends PlatformObject implements IPDOM {
 	private static final int BLOCKED_WRITE_LOCK_OUTPUT_INTERVAL = 30000;
 	private static final int LONG_WRITE_LOCK_REPORT_THRESHOLD = 1000;
 	private static final int LONG_READ_LOCK_WAIT_REPORT_THRESHOLD = 1000;
+	private static final int PERSISTENT_RESULT_CACHE_SIZE = 10000;
 	static boolean sDEBUG_LOCKS; // Initialized in the PDOMManager, because IBM needs PDOM independent of runtime plugin.
 
 	/**
@@ -308,10 +313,16 @@ public class PDOM extends PlatformObject implements IPDOM {
 	 *  217.0 - Added nodiscard class/struct information, bug 534420
 	 *  218.0 - Added nodiscard enums information, bug 534420
 	 *  219.0 - Fix enums nodiscard information in the index from 8 byte to 1 byte, bug 534420
+	 *
+	 *  CDT 10.0 development (version not supported on the 9.11.x branch)
+	 *  220.0 - Store a hash of the declarations of each file.
+	 *  221.0 - Index of the types and namespaces of each linkage.
+	 *  222.0 - Store a trigram filter of the text of each file.
+	 *  223.0 - Store larger trigram filters with several hash functions, in segments.
 	 */
-	private static final int MIN_SUPPORTED_VERSION = version(219, 0);
-	private static final int MAX_SUPPORTED_VERSION = version(219, Short.MAX_VALUE);
-	private static final int DEFAULT_VERSION = version(219, 0);
+	private static final int MIN_SUPPORTED_VERSION = version(223, 0);
+	private static final int MAX_SUPPORTED_VERSION = version(223, Short.MAX_VALUE);
+	private static final int DEFAULT_VERSION = version(223, 0);
 
 	private static int version(int major, int minor) {
 		return (major << 16) + minor;
@@ -417,7 +428,12 @@ public class PDOM extends PlatformObject implements IPDOM {
 	private final IIndexLocationConverter locationConverter;
 	private final Map<String, IPDOMLinkageFactory> fPDOMLinkageFactoryCache;
 	private final HashMap<Object, Object> fResultCache = new HashMap<>();
-	private final Map<Long, WeakReference<IValue>> fVariableResultCache = new HashMap<>();
+	/**
+	 * Results that do not refer to objects of an AST, such that they can be kept when locks are released.
+	 * They are dropped when the contents of files in the index is replaced.
+	 */
+	private final LRUCache<Long, Object> fPersistentResultCache = new LRUCache<>(PERSISTENT_RESULT_CACHE_SIZE);
+	private final LongObjectMap<WeakReference<IValue>> fVariableResultCache = new LongObjectMap<>();
 	private List<IListener> listeners;
 	protected ChangeEvent fEvent = new ChangeEvent();
 
@@ -1005,29 +1021,39 @@ public class PDOM extends PlatformObject implements IPDOM {
 	private long lastWriteAccess = 0;
 	private long lastReadAccess = 0;
 	private long timeWriteLockAcquired;
+	private final IndexLockStatistics fLockStatistics = IndexLockStatistics.getInstance();
 
 	@Override
 	public void acquireReadLock() throws InterruptedException {
-		long t = sDEBUG_LOCKS ? System.nanoTime() : 0;
+		final long start = System.nanoTime();
+		long waitTime = 0;
 		synchronized (mutex) {
 			++waitingReaders;
+			final boolean wait = lockCount < 0;
+			if (wait)
+				fLockStatistics.waitStarted(false);
 			try {
 				while (lockCount < 0)
 					mutex.wait();
 			} finally {
 				--waitingReaders;
+				if (wait)
+					fLockStatistics.waitEnded(false);
 			}
 			++lockCount;
 			db.setLocked(true);
 
+			if (wait)
+				waitTime = System.nanoTime() - start;
 			if (sDEBUG_LOCKS) {
-				t = (System.nanoTime() - t) / 1000000;
+				long t = waitTime / 1000000;
 				if (t >= LONG_READ_LOCK_WAIT_REPORT_THRESHOLD) {
 					System.out.println("Acquired index read lock after " + t + " ms wait."); //$NON-NLS-1$//$NON-NLS-2$
 				}
 				incReadLock(fLockDebugging);
 			}
 		}
+		fLockStatistics.readLockAcquired(waitTime);
 	}
 
 	@Override
@@ -1044,6 +1070,7 @@ public class PDOM extends PlatformObject implements IPDOM {
 			mutex.notifyAll();
 			db.setLocked(lockCount != 0);
 		}
+		fLockStatistics.readLockReleased();
 		// A lock release probably means that some AST is going away. The result cache has to be
 		// cleared since it may contain objects belonging to the AST that is going away. A failure
 		// to release an AST object would cause a memory leak since the whole AST would remain
@@ -1070,6 +1097,7 @@ public class PDOM extends PlatformObject implements IPDOM {
 	 */
 	public void acquireWriteLock(int giveupReadLocks, IProgressMonitor monitor) throws InterruptedException {
 		assert !isPermanentlyReadOnly();
+		long waitTime;
 		synchronized (mutex) {
 			if (sDEBUG_LOCKS) {
 				incWriteLock(giveupReadLocks);
@@ -1087,25 +1115,36 @@ public class PDOM extends PlatformObject implements IPDOM {
 
 			// Let the readers go first
 			long start = sDEBUG_LOCKS ? System.currentTimeMillis() : 0;
-			int count = 0;
-			while (lockCount > giveupReadLocks || waitingReaders > 0) {
-				mutex.wait(CANCELLATION_CHECK_INTERVAL);
-				if (monitor != null && monitor.isCanceled()) {
-					throw new OperationCanceledException();
-				}
-				count++;
-				if (monitor != null && count == LONG_WRITE_LOCK_REPORT_THRESHOLD / CANCELLATION_CHECK_INTERVAL) {
-					monitor.subTask(Messages.PDOM_waitingForWriteLock);
-				}
-				if (sDEBUG_LOCKS) {
-					start = reportBlockedWriteLock(start, giveupReadLocks);
+			final long waitStart = System.nanoTime();
+			final boolean wait = lockCount > giveupReadLocks || waitingReaders > 0;
+			if (wait)
+				fLockStatistics.waitStarted(true);
+			try {
+				int count = 0;
+				while (lockCount > giveupReadLocks || waitingReaders > 0) {
+					mutex.wait(CANCELLATION_CHECK_INTERVAL);
+					if (monitor != null && monitor.isCanceled()) {
+						throw new OperationCanceledException();
+					}
+					count++;
+					if (monitor != null && count == LONG_WRITE_LOCK_REPORT_THRESHOLD / CANCELLATION_CHECK_INTERVAL) {
+						monitor.subTask(Messages.PDOM_waitingForWriteLock);
+					}
+					if (sDEBUG_LOCKS) {
+						start = reportBlockedWriteLock(start, giveupReadLocks);
+					}
 				}
+			} finally {
+				if (wait)
+					fLockStatistics.waitEnded(true);
 			}
+			waitTime = wait ? System.nanoTime() - waitStart : 0;
 			lockCount = -1;
 			if (sDEBUG_LOCKS)
 				timeWriteLockAcquired = System.currentTimeMillis();
 			db.setExclusiveLock();
 		}
+		fLockStatistics.writeLockAcquired(waitTime, giveupReadLocks);
 		if (monitor != null)
 			monitor.subTask(""); //$NON-NLS-1$
 	}
@@ -1130,6 +1169,9 @@ public class PDOM extends PlatformObject implements IPDOM {
 			lastWriteAccess = System.currentTimeMillis();
 		final ChangeEvent event = fEvent;
 		fEvent = new ChangeEvent();
+		if (event.isCleared() || event.isReloaded() || !event.fClearedFiles.isEmpty()) {
+			clearPersistentResultCache();
+		}
 		synchronized (mutex) {
 			if (sDEBUG_LOCKS) {
 				long timeHeld = lastWriteAccess - timeWriteLockAcquired;
@@ -1144,6 +1186,7 @@ public class PDOM extends PlatformObject implements IPDOM {
 			mutex.notifyAll();
 			db.setLocked(lockCount != 0);
 		}
+		fLockStatistics.writeLockReleased(establishReadLocks);
 		fireChange(event);
 	}
 
@@ -1363,6 +1406,35 @@ public class PDOM extends PlatformObject implements IPDOM {
 		return findBindingsForPrefixOrContentAssist(prefix, filescope, false, caseSensitive, filter, monitor);
 	}
 
+	@Override
+	public void visitTypeBindings(char[] prefix, final IndexFilter filter,
+			final Predicate<IIndexFragmentBinding> visitor, IProgressMonitor monitor) throws CoreException {
+		for (PDOMLinkage linkage : getLinkageList()) {
+			if (filter.acceptLinkage(linkage)) {
+				final boolean[] stopped = { false };
+				NamedNodeCollector collector = new NamedNodeCollector(linkage, prefix, true, false, false) {
+					@Override
+					protected boolean addNode(PDOMNamedNode node) throws CoreException {
+						if (node instanceof PDOMBinding && filter.acceptBinding((IBinding) node)
+								&& !visitor.test((PDOMBinding) node)) {
+							stopped[0] = true;
+							return false;
+						}
+						return true;
+					}
+				};
+				collector.setMonitor(monitor);
+				try {
+					linkage.getTypesIndex().accept(collector);
+				} catch (OperationCanceledException e) {
+					return;
+				}
+				if (stopped[0])
+					return;
+			}
+		}
+	}
+
 	@Override
 	public IIndexFragmentBinding[] findBindingsForContentAssist(char[] prefix, boolean filescope, IndexFilter filter,
 			IProgressMonitor monitor) throws CoreException {
@@ -1515,6 +1587,7 @@ public class PDOM extends PlatformObject implements IPDOM {
 		indexOfFiledWithUnresolvedIncludes = null;
 		fLinkageIDCache.clear();
 		clearResultCache();
+		clearPersistentResultCache();
 	}
 
 	@Override
@@ -1575,7 +1648,36 @@ public class PDOM extends PlatformObject implements IPDOM {
 		}
 	}
 
-	public IValue getCachedVariableResult(Long key) {
+	public Object getPersistentCachedResult(long key) {
+		synchronized (fPersistentResultCache) {
+			return fPersistentResultCache.get(key);
+		}
+	}
+
+	/**
+	 * Stores a result that is independent of any AST. If there is a result for the key already, the
+	 * existing result is returned and kept.
+	 */
+	public Object putPersistentCachedResult(long key, Object result) {
+		synchronized (fPersistentResultCache) {
+			Object old = fPersistentResultCache.putIfAbsent(key, result);
+			return old != null ? old : result;
+		}
+	}
+
+	public void removePersistentCachedResult(long key) {
+		synchronized (fPersistentResultCache) {
+			fPersistentResultCache.remove(key);
+		}
+	}
+
+	public void clearPersistentResultCache() {
+		synchronized (fPersistentResultCache) {
+			fPersistentResultCache.clear();
+		}
+	}
+
+	public IValue getCachedVariableResult(long key) {
 		synchronized (fVariableResultCache) {
 			WeakReference<IValue> variableResult = fVariableResultCache.get(key);
 			if (variableResult != null) {
@@ -1585,13 +1687,13 @@ public class PDOM extends PlatformObject implements IPDOM {
 		}
 	}
 
-	public void removeCachedVariableResult(Long key) {
+	public void removeCachedVariableResult(long key) {
 		synchronized (fVariableResultCache) {
 			fVariableResultCache.remove(key);
 		}
 	}
 
-	public void putCachedVariableResult(Long key, IValue result) {
+	public void putCachedVariableResult(long key, IValue result) {
 		synchronized (fVariableResultCache) {
 			fVariableResultCache.put(key, new WeakReference<>(result));
 		}
@@ -79,6 +79,7 @@ import org.eclipse.cdt.internal.core.index.IndexFactory;
 import org.eclipse.cdt.internal.core.index.IndexFileSet;
 import org.eclipse.cdt.internal.core.index.IndexerStateEvent;
 import org.eclipse.cdt.internal.core.index.provider.IndexProviderManager;
+import org.eclipse.cdt.internal.core.parser.scanner.FileCharArray;
 import org.eclipse.cdt.internal.core.pdom.PDOM.IListener;
 import org.eclipse.cdt.internal.core.pdom.db.ChunkCache;
 import org.eclipse.cdt.internal.core.pdom.dom.IPDOMLinkageFactory;
@@ -243,6 +244,7 @@ public class PDOMManager implements IWritableIndexManager, IListener {
 		Job.getJobManager().addJobChangeListener(fJobChangeListener);
 		adjustCacheSize();
 		updatePathCanonicalizationStrategy();
+		updateFileMapping();
 		fIndexProviderManager.startup();
 
 		fTraceIndexerSetup = String.valueOf(true).equals(Platform.getDebugOption(TRACE_INDEXER_SETUP));
@@ -300,6 +302,8 @@ public class PDOMManager implements IWritableIndexManager, IListener {
 		} else if (prop.equals(CCorePreferenceConstants.FILE_PATH_CANONICALIZATION)) {
 			updatePathCanonicalizationStrategy();
 			reindexAll();
+		} else if (prop.equals(CCorePreferenceConstants.MEMORY_MAP_LARGE_FILES)) {
+			updateFileMapping();
 		}
 	}
 
@@ -322,6 +326,13 @@ public class PDOMManager implements IWritableIndexManager, IListener {
 		PathCanonicalizationStrategy.setPathCanonicalization(canonicalize);
 	}
 
+	private void updateFileMapping() {
+		IPreferencesService prefs = Platform.getPreferencesService();
+		boolean map = prefs.getBoolean(CCorePlugin.PLUGIN_ID, CCorePreferenceConstants.MEMORY_MAP_LARGE_FILES,
+				CCorePreferenceConstants.DEFAULT_MEMORY_MAP_LARGE_FILES, null);
+		FileCharArray.setMappingThreshold(map ? FileCharArray.DEFAULT_MAPPING_THRESHOLD : Long.MAX_VALUE);
+	}
+
 	public IndexProviderManager getIndexProviderManager() {
 		return fIndexProviderManager;
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 Wind River Systems, Inc. and others.
+ * Copyright (c) 2007, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,10 +24,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.dom.ILinkage;
 import org.eclipse.cdt.core.dom.ast.IASTDeclSpecifier;
+import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
 import org.eclipse.cdt.core.dom.ast.IASTFileLocation;
 import org.eclipse.cdt.core.dom.ast.IASTName;
 import org.eclipse.cdt.core.dom.ast.IASTNode;
@@ -65,6 +68,7 @@ import org.eclipse.cdt.core.parser.IProblem;
 import org.eclipse.cdt.core.parser.ISignificantMacros;
 import org.eclipse.cdt.core.parser.util.CharArrayUtils;
 import org.eclipse.cdt.internal.core.dom.parser.ASTInternal;
+import org.eclipse.cdt.internal.core.dom.parser.ParallelDeclarationProcessor;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.ICPPInternalDeclaredVariable;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.ICPPUnknownBinding;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.semantics.CPPSemantics;
@@ -72,6 +76,10 @@ import org.eclipse.cdt.internal.core.index.FileContentKey;
 import org.eclipse.cdt.internal.core.index.IIndexFragmentFile;
 import org.eclipse.cdt.internal.core.index.IWritableIndex;
 import org.eclipse.cdt.internal.core.index.IWritableIndex.IncludeInformation;
+import org.eclipse.cdt.internal.core.index.TrigramFilter;
+import org.eclipse.cdt.internal.core.parser.scanner.AbstractCharArray;
+import org.eclipse.cdt.internal.core.parser.scanner.ILocationResolver;
+import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContent;
 import org.eclipse.cdt.internal.core.parser.scanner.LocationMap;
 import org.eclipse.cdt.internal.core.pdom.dom.PDOMASTAdapter;
 import org.eclipse.cdt.internal.core.pdom.indexer.IndexerASTVisitor;
@@ -101,6 +109,7 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 		final long contentsHash;
 		final long sourceReadTime;
 		final boolean hasError;
+		final AbstractCharArray source;
 
 		public FileInAST(IASTPreprocessorIncludeStatement includeStmt, FileContentKey key) {
 			includeStatement = includeStmt;
@@ -110,6 +119,7 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 			contentsHash = includeStmt.getIncludedFileContentsHash();
 			sourceReadTime = includeStmt.getIncludedFileReadTime();
 			hasError = includeStmt.isErrorInIncludedFile();
+			source = null;
 		}
 
 		public FileInAST(FileContentKey key, FileContent codeReader) {
@@ -120,6 +130,7 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 			contentsHash = codeReader.getContentsHash();
 			sourceReadTime = codeReader.getReadTime();
 			hasError = codeReader.hasError();
+			source = codeReader instanceof InternalFileContent ? ((InternalFileContent) codeReader).getSource() : null;
 		}
 
 		@Override
@@ -147,10 +158,16 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 	public static int SKIP_IMPLICIT_REFERENCES = 4;
 	public static int SKIP_NO_REFERENCES = 0;
 
+	// Below this length of the declarations of a partition, the cost of copying the AST outweighs the
+	// time saved by resolving names in parallel.
+	private static final int MIN_NAME_RESOLUTION_PARTITION_LENGTH = 256 * 1024;
+
 	private static class Symbols {
 		final ArrayList<IASTName[]> fNames = new ArrayList<>();
 		final ArrayList<IASTPreprocessorStatement> fMacros = new ArrayList<>();
 		final ArrayList<IASTPreprocessorIncludeStatement> fIncludes = new ArrayList<>();
+		// Number of names at the beginning of fNames that have already been resolved.
+		int fResolvedNames;
 	}
 
 	protected static class Data implements IIndexSymbols {
@@ -161,6 +178,7 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 		final Set<IASTPreprocessorIncludeStatement> fContextIncludes = new HashSet<>();
 		final List<IStatus> fStatuses = new ArrayList<>();
 		Map<String, String> fReplacementHeaders; // Replacement headers keyed by file paths.
+		Map<IASTPreprocessorIncludeStatement, Long> fDeclarationsHashes;
 
 		public Data(IASTTranslationUnit ast, FileInAST[] selectedFiles, IWritableIndex index) {
 			fAST = ast;
@@ -218,6 +236,8 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 	protected final ICanceler fCancelState = new Canceler();
 
 	private int fSkipReferences = SKIP_NO_REFERENCES;
+	private int fNameResolutionThreads = 1;
+	private ForkJoinPool fNameResolutionPool;
 
 	public PDOMWriter(IndexerInputAdapter resolver) {
 		fStatistics = new IndexerStatistics();
@@ -261,6 +281,26 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 		return fSkipReferences;
 	}
 
+	/**
+	 * Sets the number of threads used for collecting and resolving the names of a translation unit.
+	 * With more than one thread, the declarations of large translation units are split into partitions
+	 * that are processed in parallel on copies of the AST.
+	 */
+	public void setNameResolutionThreads(int threads) {
+		fNameResolutionThreads = Math.max(1, threads);
+	}
+
+	/**
+	 * Shuts down the threads used for resolving names, if they have been started. To be called when
+	 * the writer has finished adding symbols.
+	 */
+	protected void shutdownNameResolutionThreads() {
+		if (fNameResolutionPool != null) {
+			fNameResolutionPool.shutdown();
+			fNameResolutionPool = null;
+		}
+	}
+
 	/**
 	 * Extracts symbols from the given AST and adds them to the index.  Ignores Data maps that are
 	 * empty and ones where storageLinkageID == {@link ILinkage#NO_LINKAGE_ID}.
@@ -312,6 +352,9 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 	private void storeSymbolsInIndex(final Data data, int storageLinkageID, FileContext ctx, IProgressMonitor monitor)
 			throws InterruptedException, CoreException {
 		final IIndexFragmentFile newFile = ctx == null ? null : ctx.fNewFile;
+		if (isTrackingDeclarationChanges()) {
+			data.fDeclarationsHashes = DeclarationsHasher.computeHashes(data.fAST, data.fSymbolMap.keySet());
+		}
 		SubMonitor progress = SubMonitor.convert(monitor, data.fSelectedFiles.length * 10);
 		for (int i = 0; i < data.fSelectedFiles.length; i++) {
 			final FileInAST fileInAST = data.fSelectedFiles[i];
@@ -365,15 +408,29 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 
 	private void resolveNames(Data data, IProgressMonitor monitor) {
 		long start = System.currentTimeMillis();
+		List<IProblemBinding> problemBindings = new ArrayList<>();
+		resolveNames(data, fStatistics, problemBindings, monitor);
+		for (IProblemBinding problemBinding : problemBindings) {
+			reportProblem(problemBinding);
+		}
+		fStatistics.fResolutionTime += System.currentTimeMillis() - start;
+	}
+
+	/**
+	 * Resolves the names collected in the data, problem bindings to be reported are added to the
+	 * given list. Does not access state shared with other threads.
+	 */
+	private void resolveNames(Data data, IndexerStatistics statistics, List<IProblemBinding> problemBindings,
+			IProgressMonitor monitor) {
 		Set<ICPPInternalDeclaredVariable> variables = new HashSet<>();
 		SubMonitor progress = SubMonitor.convert(monitor, data.fSelectedFiles.length);
 		for (FileInAST file : data.fSelectedFiles) {
 			Symbols symbols = data.fSymbolMap.get(file.includeStatement);
 
 			final ArrayList<IASTName[]> names = symbols.fNames;
-			SubMonitor progress2 = SubMonitor.convert(progress, names.size());
+			SubMonitor progress2 = SubMonitor.convert(progress, names.size() - symbols.fResolvedNames);
 			boolean reported = false;
-			for (Iterator<IASTName[]> j = names.iterator(); j.hasNext();) {
+			for (Iterator<IASTName[]> j = names.listIterator(symbols.fResolvedNames); j.hasNext();) {
 				final IASTName[] na = j.next();
 				final IASTName name = na[0];
 				progress2.split(1);
@@ -394,9 +451,9 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 							IProblemBinding problemBinding = (IProblemBinding) binding;
 							if (REPORT_UNKNOWN_BUILTINS || problemBinding.getID() != IProblemBinding.BINDING_NOT_FOUND
 									|| !CharArrayUtils.startsWith(problemBinding.getNameCharArray(), "__builtin_")) { //$NON-NLS-1$
-								fStatistics.fProblemBindingCount++;
+								statistics.fProblemBindingCount++;
 								if (fShowProblems) {
-									reportProblem(problemBinding);
+									problemBindings.add(problemBinding);
 								}
 							}
 						} else if (name.isReference()) {
@@ -406,13 +463,13 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 								if (!isRequiredReference(name)) {
 									na[0] = null;
 								} else {
-									fStatistics.fReferenceCount++;
+									statistics.fReferenceCount++;
 								}
 							} else {
-								fStatistics.fReferenceCount++;
+								statistics.fReferenceCount++;
 							}
 						} else {
-							fStatistics.fDeclarationCount++;
+							statistics.fDeclarationCount++;
 						}
 					} catch (RuntimeException | StackOverflowError e) {
 						if (!reported) {
@@ -444,8 +501,6 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 				}
 			}
 		}
-
-		fStatistics.fResolutionTime += System.currentTimeMillis() - start;
 	}
 
 	private boolean isVariableIndexed(ICPPVariable variable) {
@@ -503,7 +558,65 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 		}
 
 		// Names.
-		final IndexerASTVisitor visitor = new IndexerASTVisitor((fSkipReferences & SKIP_IMPLICIT_REFERENCES) == 0) {
+		final List<IndexerASTVisitor.Definition> definitionTrees = new ArrayList<>();
+		final List<IASTProblem> problems = new ArrayList<>();
+		if (fNameResolutionThreads > 1) {
+			collectAndResolveNamesInParallel(data, definitionTrees, problems);
+		} else {
+			IndexerASTVisitor visitor = createNameCollector(symbols);
+			CPPSemantics.pushLookupPoint(ast);
+			try {
+				ast.accept(visitor);
+			} finally {
+				CPPSemantics.popLookupPoint();
+			}
+			definitionTrees.add(visitor.getDefinitionTree());
+			problems.addAll(visitor.getProblems());
+		}
+
+		if ((fSkipReferences & SKIP_MACRO_REFERENCES) == 0) {
+
+			// Get the trees of definitions built by IndexerASTVisitor during its traversal.
+			// These are used to find enclosing definitions for macro references.
+			LocationMap lm = ast.getAdapter(LocationMap.class);
+			if (lm != null) {
+				IASTName[] refs = lm.getMacroReferences();
+				for (IASTName name : refs) {
+					IASTFileLocation nameLoc = name.getFileLocation();
+					if (nameLoc != null) {
+						IASTPreprocessorIncludeStatement owner = nameLoc.getContextInclusionStatement();
+						IASTName enclosingDefinition = findEnclosingDefinition(definitionTrees, nameLoc);
+						symbols.add(owner, name, enclosingDefinition);
+					}
+				}
+			}
+		}
+
+		fStatistics.fUnresolvedIncludesCount += unresolvedIncludes;
+		fStatistics.fPreprocessorProblemCount += ast.getPreprocessorProblemsCount() - unresolvedIncludes;
+		if (fShowScannerProblems || fShowInclusionProblems) {
+			final boolean reportAll = fShowScannerProblems && fShowInclusionProblems;
+			IASTProblem[] scannerProblems = ast.getPreprocessorProblems();
+			for (IASTProblem problem : scannerProblems) {
+				if (reportAll
+						|| (problem.getID() == IProblem.PREPROCESSOR_INCLUSION_NOT_FOUND) == fShowInclusionProblems) {
+					reportProblem(problem);
+				}
+			}
+		}
+
+		fStatistics.fSyntaxProblemsCount += problems.size();
+		if (fShowSyntaxProblems) {
+			for (IASTProblem problem : problems) {
+				reportProblem(problem);
+			}
+		}
+
+		return ast.getLinkage().getLinkageID();
+	}
+
+	private IndexerASTVisitor createNameCollector(final IIndexSymbols symbols) {
+		return new IndexerASTVisitor((fSkipReferences & SKIP_IMPLICIT_REFERENCES) == 0) {
 			private int cancelationCheckThrottler;
 
 			@Override
@@ -539,56 +652,92 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 				}
 			}
 		};
-		CPPSemantics.pushLookupPoint(ast);
-		try {
-			ast.accept(visitor);
-		} finally {
-			CPPSemantics.popLookupPoint();
-		}
-
-		if ((fSkipReferences & SKIP_MACRO_REFERENCES) == 0) {
+	}
 
-			// Get a tree of definitions built by IndexerASTVisitor during its traversal.
-			// This is used to find enclosing definitions for macro references.
-			IndexerASTVisitor.Definition definitionTree = visitor.getDefinitionTree();
+	private static IASTName findEnclosingDefinition(List<IndexerASTVisitor.Definition> definitionTrees,
+			IASTFileLocation location) {
+		for (IndexerASTVisitor.Definition tree : definitionTrees) {
+			IASTName definition = tree.search(location.getNodeOffset(), location.getNodeLength());
+			if (definition != null)
+				return definition;
+		}
+		return null;
+	}
 
-			LocationMap lm = ast.getAdapter(LocationMap.class);
-			if (lm != null) {
-				IASTName[] refs = lm.getMacroReferences();
-				for (IASTName name : refs) {
-					IASTFileLocation nameLoc = name.getFileLocation();
-					if (nameLoc != null) {
-						IASTPreprocessorIncludeStatement owner = nameLoc.getContextInclusionStatement();
-						IASTName enclosingDefinition = definitionTree.search(nameLoc.getNodeOffset(),
-								nameLoc.getNodeLength());
-						symbols.add(owner, name, enclosingDefinition);
-					}
-				}
+	/**
+	 * Collects and resolves the names of the AST, splitting its declarations into partitions that are
+	 * processed on separate threads, each one on its own copy of the AST. The names are added to the
+	 * data in the order of the declarations, as if collected by a single traversal of the AST.
+	 */
+	private void collectAndResolveNamesInParallel(Data data, List<IndexerASTVisitor.Definition> definitionTrees,
+			List<IASTProblem> problems) {
+		long start = System.currentTimeMillis();
+		if (fNameResolutionPool == null) {
+			// Shared by all translation units of the writer, see shutdownNameResolutionThreads().
+			fNameResolutionPool = new ForkJoinPool(fNameResolutionThreads - 1, owner -> {
+				ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(owner);
+				thread.setName("Indexer Name Resolution " + thread.getPoolIndex()); //$NON-NLS-1$
+				return thread;
+			}, null, false);
+		}
+		List<PartitionResult> results = ParallelDeclarationProcessor.process(data.fAST, fNameResolutionPool,
+				fNameResolutionThreads, MIN_NAME_RESOLUTION_PARTITION_LENGTH,
+				(ast, declarations) -> processPartition(data, ast, declarations));
+
+		List<IProblemBinding> problemBindings = new ArrayList<>();
+		for (PartitionResult result : results) {
+			for (Map.Entry<IASTPreprocessorIncludeStatement, Symbols> entry : result.fData.fSymbolMap.entrySet()) {
+				Symbols symbols = data.fSymbolMap.get(entry.getKey());
+				symbols.fNames.addAll(entry.getValue().fNames);
+				symbols.fResolvedNames = symbols.fNames.size();
 			}
+			data.fStatuses.addAll(result.fData.fStatuses);
+			definitionTrees.add(result.fDefinitionTree);
+			problems.addAll(result.fProblems);
+			problemBindings.addAll(result.fProblemBindings);
+			fStatistics.fReferenceCount += result.fStatistics.fReferenceCount;
+			fStatistics.fDeclarationCount += result.fStatistics.fDeclarationCount;
+			fStatistics.fProblemBindingCount += result.fStatistics.fProblemBindingCount;
+		}
+		for (IProblemBinding problemBinding : problemBindings) {
+			reportProblem(problemBinding);
 		}
+		fStatistics.fNameResolutionThreads = fNameResolutionThreads;
+		if (results.size() > 1) {
+			fStatistics.fPartitionedASTCount++;
+			fStatistics.fPartitionCount += results.size();
+		}
+		fStatistics.fResolutionTime += System.currentTimeMillis() - start;
+	}
 
-		fStatistics.fUnresolvedIncludesCount += unresolvedIncludes;
-		fStatistics.fPreprocessorProblemCount += ast.getPreprocessorProblemsCount() - unresolvedIncludes;
-		if (fShowScannerProblems || fShowInclusionProblems) {
-			final boolean reportAll = fShowScannerProblems && fShowInclusionProblems;
-			IASTProblem[] scannerProblems = ast.getPreprocessorProblems();
-			for (IASTProblem problem : scannerProblems) {
-				if (reportAll
-						|| (problem.getID() == IProblem.PREPROCESSOR_INCLUSION_NOT_FOUND) == fShowInclusionProblems) {
-					reportProblem(problem);
-				}
-			}
+	private static class PartitionResult {
+		final Data fData;
+		final IndexerStatistics fStatistics = new IndexerStatistics();
+		final List<IProblemBinding> fProblemBindings = new ArrayList<>();
+		IndexerASTVisitor.Definition fDefinitionTree;
+		List<IASTProblem> fProblems;
+
+		PartitionResult(Data data) {
+			fData = data;
 		}
+	}
 
-		final List<IASTProblem> problems = visitor.getProblems();
-		fStatistics.fSyntaxProblemsCount += problems.size();
-		if (fShowSyntaxProblems) {
-			for (IASTProblem problem : problems) {
-				reportProblem(problem);
+	private PartitionResult processPartition(Data data, IASTTranslationUnit ast, IASTDeclaration[] declarations) {
+		PartitionResult result = new PartitionResult(new Data(ast, data.fSelectedFiles, data.fIndex));
+		IndexerASTVisitor visitor = createNameCollector(result.fData);
+		CPPSemantics.pushLookupPoint(ast);
+		try {
+			for (IASTDeclaration declaration : declarations) {
+				if (!ParallelDeclarationProcessor.accept(declaration, visitor))
+					break;
 			}
+		} finally {
+			CPPSemantics.popLookupPoint();
 		}
-
-		return ast.getLinkage().getLinkageID();
+		result.fDefinitionTree = visitor.getDefinitionTree();
+		result.fProblems = visitor.getProblems();
+		resolveNames(result.fData, result.fStatistics, result.fProblemBindings, null);
+		return result;
 	}
 
 	protected final boolean isRequiredReference(IASTName name) {
@@ -682,6 +831,14 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 			file.setSourceReadTime(astFile.sourceReadTime);
 			file.setSizeAndEncodingHashcode(computeFileSizeAndEncodingHashcode(astFile.fileSize, location));
 			file.setContentsHash(astFile.contentsHash);
+			file.setTextFilter(createTextFilter(data.fAST, astFile));
+			Long declarationsHash = data.fDeclarationsHashes == null ? null : data.fDeclarationsHashes.get(owner);
+			if (declarationsHash != null) {
+				file.setDeclarationsHash(declarationsHash);
+				if (oldFile != null && oldFile.getDeclarationsHash() != declarationsHash) {
+					reportDeclarationsChanged(astFile);
+				}
+			}
 			file = index.commitUncommittedFile();
 		} finally {
 			index.clearUncommittedFile();
@@ -689,6 +846,18 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 		return file;
 	}
 
+	private static byte[] createTextFilter(IASTTranslationUnit ast, FileInAST astFile) {
+		AbstractCharArray source = astFile.source;
+		if (source == null && astFile.includeStatement != null) {
+			ILocationResolver resolver = ast.getAdapter(ILocationResolver.class);
+			if (resolver != null)
+				source = resolver.getIncludedFileSource(astFile.includeStatement);
+		}
+		if (source == null || astFile.hasError)
+			return null;
+		return TrigramFilter.create(source);
+	}
+
 	protected int computeFileSizeAndEncodingHashcode(IIndexFileLocation location) {
 		return computeFileSizeAndEncodingHashcode((int) fResolver.getFileSize(location), location);
 	}
@@ -713,6 +882,21 @@ public abstract class PDOMWriter implements IPDOMASTProcessor {
 	 */
 	protected abstract void reportFileWrittenToIndex(FileInAST file, IIndexFragmentFile iFile) throws CoreException;
 
+	/**
+	 * Informs the subclass that the declarations of a file differ from the ones previously stored
+	 * in the index, such that the files including it may need to be updated.
+	 */
+	protected void reportDeclarationsChanged(FileInAST file) {
+	}
+
+	/**
+	 * Returns whether the hashes of the declarations of a file are computed, such that changes can be
+	 * reported via {@link #reportDeclarationsChanged(FileInAST)}.
+	 */
+	protected boolean isTrackingDeclarationChanges() {
+		return false;
+	}
+
 	private String getLocationInfo(String filename, int lineNumber) {
 		return " at " + filename + "(" + lineNumber + ")"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 	}
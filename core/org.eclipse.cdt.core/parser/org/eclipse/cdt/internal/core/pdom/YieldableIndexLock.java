@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2014 Google, Inc and others.
+ * Copyright (c) 2010, 2020 Google, Inc and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -62,6 +62,7 @@ public class YieldableIndexLock {
 	 */
 	public void yield() throws InterruptedException {
 		if (index.hasWaitingReaders()) {
+			IndexLockStatistics.getInstance().writeLockYielded();
 			index.releaseWriteLock(false);
 			cumulativeLockTime += System.currentTimeMillis() - lastLockTime;
 			lastLockTime = 0;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2014 Wind River Systems, Inc. and others.
+ * Copyright (c) 2007, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,15 @@
  *******************************************************************************/
 package org.eclipse.cdt.internal.core.pdom.db;
 
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Page table shared by databases, evicting chunks with the CLOCK algorithm.
+ * <p>
+ * Modifications of the page table are protected by the monitor of the cache, which databases also
+ * use to protect their tables of chunks. Accesses to chunks that are already cached only set the
+ * reference flag and are done without entering the monitor, see {@link Database#getChunk(long)}.
+ */
 public final class ChunkCache {
 	private static ChunkCache sSharedInstance = new ChunkCache();
 
@@ -20,6 +29,11 @@ public final class ChunkCache {
 	private boolean fTableIsFull;
 	private int fPointer;
 
+	// Contention metrics.
+	private final LongAdder fLockFreeHits = new LongAdder();
+	private final LongAdder fLockAcquisitions = new LongAdder();
+	private final LongAdder fLockWaitNanos = new LongAdder();
+
 	public static ChunkCache getSharedInstance() {
 		return sSharedInstance;
 	}
@@ -135,6 +149,43 @@ public final class ChunkCache {
 		}
 	}
 
+	void recordLockFreeHit() {
+		fLockFreeHits.increment();
+	}
+
+	void recordLockAcquisition(long waitNanos) {
+		fLockAcquisitions.increment();
+		fLockWaitNanos.add(waitNanos);
+	}
+
+	/**
+	 * Returns the number of chunk accesses that were served without entering the monitor of the cache.
+	 */
+	public long getLockFreeHits() {
+		return fLockFreeHits.sum();
+	}
+
+	/**
+	 * Returns the number of chunk accesses that had to enter the monitor of the cache.
+	 */
+	public long getLockAcquisitions() {
+		return fLockAcquisitions.sum();
+	}
+
+	/**
+	 * Returns the total time in nanoseconds threads spent waiting for the monitor of the cache
+	 * when accessing chunks.
+	 */
+	public long getLockWaitTime() {
+		return fLockWaitNanos.sum();
+	}
+
+	public void resetContentionCounters() {
+		fLockFreeHits.reset();
+		fLockAcquisitions.reset();
+		fLockWaitNanos.reset();
+	}
+
 	private int computeLength(long maxSize) {
 		long maxLength = Math.min(maxSize / Database.CHUNK_SIZE, Integer.MAX_VALUE);
 		return Math.max(1, (int) maxLength);
@@ -22,17 +22,20 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.core.runtime.CoreException;
@@ -99,23 +102,39 @@ public class Database {
 	private static final int BLOCK_PREV_OFFSET = BLOCK_HEADER_SIZE;
 	private static final int BLOCK_NEXT_OFFSET = BLOCK_HEADER_SIZE + INT_SIZE;
 
+	/**
+	 * Whether permanently read-only databases are memory-mapped by default. Memory-mapping avoids copying
+	 * chunks into the heap, but the mappings are released only when garbage collected, which on some
+	 * platforms prevents the file from being deleted or replaced in the meantime.
+	 */
+	private static final boolean MEMORY_MAP_READ_ONLY = Boolean
+			.getBoolean("org.eclipse.cdt.core.parser.pdom.mmap"); //$NON-NLS-1$
+	// Size of the individually mapped regions of the file, must be a multiple of CHUNK_SIZE.
+	private static final int MAPPED_REGION_SIZE = 64 * 1024 * 1024;
+	private static final int CHUNKS_PER_MAPPED_REGION = MAPPED_REGION_SIZE / CHUNK_SIZE;
+
+	// Allows for reading the table of chunks outside of the monitor of the cache.
+	private static final VarHandle CHUNKS = MethodHandles.arrayElementVarHandle(Chunk[].class);
+
 	private final File fLocation;
 	private final boolean fReadOnly;
 	private RandomAccessFile fFile;
 	private boolean fExclusiveLock; // Necessary for any write operation.
 	private boolean fLocked; // Necessary for any operation.
 	private boolean fIsMarkedIncomplete;
+	private final boolean fMemoryMapped;
+	private MappedByteBuffer[] fMappedRegions;
 
 	private int fVersion;
 	private final Chunk fHeaderChunk;
-	private Chunk[] fChunks;
+	private volatile Chunk[] fChunks;
 	private int fChunksUsed;
 	private int fChunksAllocated;
 	private ChunkCache fCache;
 
 	private long malloced;
 	private long freed;
-	private long cacheHits;
+	private final LongAdder cacheHits = new LongAdder();
 	private long cacheMisses;
 
 	/** Soft reference wrapper to keep track of the record for disposed strings. */
@@ -132,8 +151,10 @@ public class Database {
 		}
 	}
 
-	// a cache for strings which is used for btree lookups; soft refs ensure garbage collection
-	private final Map<Long, Reference<IString>> stringCache = new ConcurrentHashMap<>();
+	// a cache for strings which is used for btree lookups; soft refs ensure garbage collection.
+	// The cache is striped by record, each stripe is guarded by its own monitor.
+	private static final int STRING_CACHE_STRIPES = 16;
+	private final LongObjectMap<Reference<IString>>[] stringCache = createStringCache();
 	private final ReferenceQueue<IString> stringDisposal = new ReferenceQueue<>();
 
 	/**
@@ -145,13 +166,33 @@ public class Database {
 	 * @throws CoreException
 	 */
 	public Database(File location, ChunkCache cache, int version, boolean openReadOnly) throws CoreException {
+		this(location, cache, version, openReadOnly, openReadOnly && MEMORY_MAP_READ_ONLY);
+	}
+
+	/**
+	 * Construct a new Database object, creating a backing file if necessary.
+	 * @param location the local file path for the database
+	 * @param cache the cache to be used optimization
+	 * @param version the version number to store in the database (only applicable for new databases)
+	 * @param openReadOnly whether this Database object will ever need writing to
+	 * @param memoryMapped whether the chunks of the database shall directly address a memory-mapped
+	 *     view of the file rather than copies of its content, only supported for read-only databases
+	 * @throws CoreException
+	 */
+	public Database(File location, ChunkCache cache, int version, boolean openReadOnly, boolean memoryMapped)
+			throws CoreException {
 		try {
 			fLocation = location;
 			fReadOnly = openReadOnly;
+			fMemoryMapped = memoryMapped && openReadOnly;
 			fCache = cache;
 			openFile();
 
 			int nChunksOnDisk = (int) (fFile.length() / CHUNK_SIZE);
+			if (fMemoryMapped) {
+				fMappedRegions = new MappedByteBuffer[(nChunksOnDisk + CHUNKS_PER_MAPPED_REGION - 1)
+						/ CHUNKS_PER_MAPPED_REGION];
+			}
 			fHeaderChunk = new Chunk(this, 0);
 			fHeaderChunk.fLocked = true; // Never makes it into the cache, needed to satisfy assertions.
 			if (nChunksOnDisk <= 0) {
@@ -207,6 +248,34 @@ public class Database {
 		openFile();
 	}
 
+	/**
+	 * Returns a view of the memory-mapped file content of the chunk with the given index.
+	 * Regions of the file are mapped lazily, protected by {@link #fCache}.
+	 */
+	private ByteBuffer getMappedView(int chunkIndex) throws IOException {
+		assert Thread.holdsLock(fCache);
+		final int regionIndex = chunkIndex / CHUNKS_PER_MAPPED_REGION;
+		MappedByteBuffer region = fMappedRegions[regionIndex];
+		if (region == null) {
+			final long position = (long) regionIndex * MAPPED_REGION_SIZE;
+			final long size = Math.min(MAPPED_REGION_SIZE, fFile.length() - position);
+			region = fFile.getChannel().map(MapMode.READ_ONLY, position, size);
+			fMappedRegions[regionIndex] = region;
+		}
+		final ByteBuffer view = region.duplicate();
+		final int start = (chunkIndex % CHUNKS_PER_MAPPED_REGION) * CHUNK_SIZE;
+		view.position(start);
+		view.limit(start + CHUNK_SIZE);
+		return view.slice();
+	}
+
+	/**
+	 * Returns whether the chunks of this database directly address a memory-mapped view of the file.
+	 */
+	public boolean isMemoryMapped() {
+		return fMemoryMapped;
+	}
+
 	public void transferTo(FileChannel target) throws IOException {
 		assert fLocked;
 		final FileChannel from = fFile.getChannel();
@@ -287,6 +356,10 @@ public class Database {
 
 	/**
 	 * Return the Chunk that contains the given offset.
+	 * <p>
+	 * Readers are served without entering the monitor of the cache as long as the chunk is
+	 * present in the cache. This is safe because chunks that are not locked are never dirty,
+	 * such that a chunk concurrently evicted by another thread still has valid content.
 	 * @throws CoreException
 	 */
 	public Chunk getChunk(long offset) throws CoreException {
@@ -295,22 +368,46 @@ public class Database {
 		}
 		long long_index = offset / CHUNK_SIZE;
 		assert long_index < Integer.MAX_VALUE;
+		final int index = (int) long_index;
+
+		if (!fExclusiveLock) {
+			final Chunk[] chunks = fChunks;
+			if (index >= 0 && index < chunks.length) {
+				final Chunk chunk = (Chunk) CHUNKS.getAcquire(chunks, index);
+				if (chunk != null && chunk.fCacheIndex >= 0) {
+					// Same as ChunkCache.add() for a cached chunk: set the reference flag of the CLOCK.
+					chunk.fCacheHitFlag = true;
+					cacheHits.increment();
+					fCache.recordLockFreeHit();
+					return chunk;
+				}
+			}
+		}
 
+		final long waitStart = System.nanoTime();
 		synchronized (fCache) {
+			fCache.recordLockAcquisition(System.nanoTime() - waitStart);
 			assert fLocked;
-			final int index = (int) long_index;
 			if (index < 0 || index >= fChunks.length) {
 				databaseCorruptionDetected();
 			}
 			Chunk chunk = fChunks[index];
 			if (chunk == null) {
 				cacheMisses++;
-				chunk = new Chunk(this, index);
-				chunk.read();
+				if (fMemoryMapped) {
+					try {
+						chunk = new Chunk(this, index, getMappedView(index));
+					} catch (IOException e) {
+						throw new CoreException(new DBStatus(e));
+					}
+				} else {
+					chunk = new Chunk(this, index);
+					chunk.read();
+				}
 				// Put the chunk in fChunks after it was read successfully.
-				fChunks[index] = chunk;
+				CHUNKS.setRelease(fChunks, index, chunk);
 			} else {
-				cacheHits++;
+				cacheHits.increment();
 			}
 			fCache.add(chunk, fExclusiveLock);
 			return chunk;
@@ -391,7 +488,7 @@ public class Database {
 				fChunksAllocated += increment;
 			}
 			fChunksUsed += 1;
-			fChunks[newChunkIndex] = chunk;
+			CHUNKS.setRelease(fChunks, newChunkIndex, chunk);
 
 			fCache.add(chunk, true);
 			long address = (long) newChunkIndex * CHUNK_SIZE;
@@ -491,7 +588,7 @@ public class Database {
 		}
 		addBlock(chunk, blocksize, block);
 		freed += blocksize;
-		stringCache.remove(offset); // also remove record from string cache (if it exists)
+		removeCachedString(offset); // also remove record from string cache (if it exists)
 	}
 
 	public void putByte(long offset, byte value) throws CoreException {
@@ -608,7 +705,11 @@ public class Database {
 	}
 
 	public IString getString(long offset) throws CoreException {
-		final Reference<IString> cachedStringReference = stringCache.get(offset);
+		final LongObjectMap<Reference<IString>> stripe = getStringCacheStripe(offset);
+		final Reference<IString> cachedStringReference;
+		synchronized (stripe) {
+			cachedStringReference = stripe.get(offset);
+		}
 		if (cachedStringReference != null) {
 			final IString cachedString = cachedStringReference.get();
 			if (cachedString != null) {
@@ -625,18 +726,50 @@ public class Database {
 
 	private IString addStringToCache(IString string) {
 		// add string to cache
-		stringCache.put(string.getRecord(), new SoftStringRef(string, stringDisposal));
+		final long record = string.getRecord();
+		final LongObjectMap<Reference<IString>> stripe = getStringCacheStripe(record);
+		synchronized (stripe) {
+			stripe.put(record, new SoftStringRef(string, stringDisposal));
+		}
 		// also remove keys from cache list upon garbage collection
 		if (stringDisposal != null) {
 			Reference<? extends IString> disposedRef = stringDisposal.poll();
 			while (disposedRef instanceof SoftStringRef) {
-				stringCache.remove(((SoftStringRef) disposedRef).getRecord());
+				long disposedRecord = ((SoftStringRef) disposedRef).getRecord();
+				final LongObjectMap<Reference<IString>> disposedStripe = getStringCacheStripe(disposedRecord);
+				synchronized (disposedStripe) {
+					// The record may have been cached again in the meantime.
+					if (disposedStripe.get(disposedRecord) == disposedRef) {
+						disposedStripe.remove(disposedRecord);
+					}
+				}
 				disposedRef = stringDisposal.poll();
 			}
 		}
 		return string;
 	}
 
+	@SuppressWarnings("unchecked")
+	private static LongObjectMap<Reference<IString>>[] createStringCache() {
+		LongObjectMap<Reference<IString>>[] stripes = new LongObjectMap[STRING_CACHE_STRIPES];
+		for (int i = 0; i < stripes.length; i++) {
+			stripes[i] = new LongObjectMap<>();
+		}
+		return stripes;
+	}
+
+	private LongObjectMap<Reference<IString>> getStringCacheStripe(long record) {
+		// Records are aligned to the block size.
+		return stringCache[(int) (record >>> BLOCK_SIZE_DELTA_BITS) & (STRING_CACHE_STRIPES - 1)];
+	}
+
+	private void removeCachedString(long record) {
+		final LongObjectMap<Reference<IString>> stripe = getStringCacheStripe(record);
+		synchronized (stripe) {
+			stripe.remove(record);
+		}
+	}
+
 	/**
 	 * For debugging purposes, only.
 	 */
@@ -674,6 +807,8 @@ public class Database {
 		fHeaderChunk.fDirty = false;
 		fChunks = new Chunk[] { null };
 		fChunksUsed = fChunksAllocated = fChunks.length;
+		// The mappings are released when the buffers are garbage collected.
+		fMappedRegions = null;
 		try {
 			fFile.close();
 		} catch (IOException e) {
@@ -788,7 +923,11 @@ public class Database {
 	}
 
 	private void clearStringCache() {
-		stringCache.clear();
+		for (LongObjectMap<Reference<IString>> stripe : stringCache) {
+			synchronized (stripe) {
+				stripe.clear();
+			}
+		}
 		while (stringDisposal.poll() != null) {
 		}
 	}
@@ -841,11 +980,12 @@ public class Database {
 	}
 
 	public void resetCacheCounters() {
-		cacheHits = cacheMisses = 0;
+		cacheHits.reset();
+		cacheMisses = 0;
 	}
 
 	public long getCacheHits() {
-		return cacheHits;
+		return cacheHits.sum();
 	}
 
 	public long getCacheMisses() {
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.pdom.db;
+
+import java.util.Arrays;
+
+/**
+ * Map from long keys, typically database records, to objects. The keys are kept in an open
+ * addressing table with linear probing, such that neither the keys are boxed nor an entry
+ * object is allocated per mapping. Not thread-safe.
+ */
+public final class LongObjectMap<V> {
+	private long[] fKeys;
+	/** Values by slot, the additional last slot holds the value for key {@code 0}. */
+	private Object[] fValues;
+	private boolean fHasZeroKey;
+	private int fSize;
+	private int fThreshold;
+
+	public LongObjectMap() {
+		this(0);
+	}
+
+	public LongObjectMap(int expectedSize) {
+		allocate(LongSet.capacityFor(expectedSize));
+	}
+
+	private void allocate(int capacity) {
+		fKeys = new long[capacity];
+		fValues = new Object[capacity + 1];
+		fThreshold = capacity - (capacity >>> 2);
+	}
+
+	public int size() {
+		return fHasZeroKey ? fSize + 1 : fSize;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public boolean containsKey(long key) {
+		return slotOf(key) >= 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		int slot = slotOf(key);
+		return slot < 0 ? null : (V) fValues[slot];
+	}
+
+	/**
+	 * Associates the value with the key and returns the value previously associated with it,
+	 * or {@code null}.
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value) {
+		if (key == 0) {
+			Object old = fValues[fKeys.length];
+			fValues[fKeys.length] = value;
+			fHasZeroKey = true;
+			return (V) old;
+		}
+		final int mask = fKeys.length - 1;
+		for (int i = LongSet.hash(key) & mask;; i = (i + 1) & mask) {
+			long k = fKeys[i];
+			if (k == key) {
+				Object old = fValues[i];
+				fValues[i] = value;
+				return (V) old;
+			}
+			if (k == 0) {
+				fKeys[i] = key;
+				fValues[i] = value;
+				if (++fSize > fThreshold) {
+					rehash(fKeys.length * 2);
+				}
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Removes the mapping for the key and returns the value that was associated with it, or {@code null}.
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long key) {
+		int slot = slotOf(key);
+		if (slot < 0)
+			return null;
+
+		Object old = fValues[slot];
+		if (key == 0) {
+			fValues[slot] = null;
+			fHasZeroKey = false;
+			return (V) old;
+		}
+		// Shift back the entries of the probe sequence that follows, no tombstones are needed.
+		final int mask = fKeys.length - 1;
+		int gap = slot;
+		for (int i = (slot + 1) & mask;; i = (i + 1) & mask) {
+			long k = fKeys[i];
+			if (k == 0)
+				break;
+			int home = LongSet.hash(k) & mask;
+			if (((i - home) & mask) >= ((i - gap) & mask)) {
+				fKeys[gap] = k;
+				fValues[gap] = fValues[i];
+				gap = i;
+			}
+		}
+		fKeys[gap] = 0;
+		fValues[gap] = null;
+		fSize--;
+		return (V) old;
+	}
+
+	public void clear() {
+		Arrays.fill(fKeys, 0);
+		Arrays.fill(fValues, null);
+		fHasZeroKey = false;
+		fSize = 0;
+	}
+
+	private int slotOf(long key) {
+		if (key == 0)
+			return fHasZeroKey ? fKeys.length : -1;
+
+		final int mask = fKeys.length - 1;
+		for (int i = LongSet.hash(key) & mask;; i = (i + 1) & mask) {
+			long k = fKeys[i];
+			if (k == key)
+				return i;
+			if (k == 0)
+				return -1;
+		}
+	}
+
+	private void rehash(int capacity) {
+		final long[] oldKeys = fKeys;
+		final Object[] oldValues = fValues;
+		allocate(capacity);
+		fValues[capacity] = oldValues[oldKeys.length];
+
+		final int mask = capacity - 1;
+		for (int j = 0; j < oldKeys.length; j++) {
+			long key = oldKeys[j];
+			if (key != 0) {
+				int i = LongSet.hash(key) & mask;
+				while (fKeys[i] != 0) {
+					i = (i + 1) & mask;
+				}
+				fKeys[i] = key;
+				fValues[i] = oldValues[j];
+			}
+		}
+	}
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.pdom.db;
+
+import java.util.Arrays;
+
+/**
+ * Set of long values, typically database records, kept in an open addressing table with linear
+ * probing. Unlike a {@code HashSet<Long>} it neither boxes the values nor allocates an entry per
+ * element. Not thread-safe.
+ */
+public final class LongSet {
+	private static final int MIN_CAPACITY = 16;
+
+	private long[] fKeys;
+	private boolean fHasZero;
+	private int fSize;
+	private int fThreshold;
+
+	public LongSet() {
+		this(0);
+	}
+
+	public LongSet(int expectedSize) {
+		allocate(capacityFor(expectedSize));
+	}
+
+	private void allocate(int capacity) {
+		fKeys = new long[capacity];
+		fThreshold = capacity - (capacity >>> 2);
+	}
+
+	/**
+	 * Returns the power of two table size that holds the given number of elements at a load
+	 * factor of at most three quarters.
+	 */
+	static int capacityFor(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity - (capacity >>> 2) < expectedSize) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	/**
+	 * Spreads the bits of a key, records are aligned and would otherwise cluster.
+	 */
+	static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	public int size() {
+		return fHasZero ? fSize + 1 : fSize;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public boolean contains(long value) {
+		if (value == 0)
+			return fHasZero;
+
+		final int mask = fKeys.length - 1;
+		for (int i = hash(value) & mask;; i = (i + 1) & mask) {
+			long k = fKeys[i];
+			if (k == value)
+				return true;
+			if (k == 0)
+				return false;
+		}
+	}
+
+	/**
+	 * Adds the value to the set, returns {@code false} if it was already contained.
+	 */
+	public boolean add(long value) {
+		if (value == 0) {
+			boolean added = !fHasZero;
+			fHasZero = true;
+			return added;
+		}
+		final int mask = fKeys.length - 1;
+		for (int i = hash(value) & mask;; i = (i + 1) & mask) {
+			long k = fKeys[i];
+			if (k == value)
+				return false;
+			if (k == 0) {
+				fKeys[i] = value;
+				if (++fSize > fThreshold) {
+					rehash(fKeys.length * 2);
+				}
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Removes the value from the set, returns {@code false} if it was not contained.
+	 */
+	public boolean remove(long value) {
+		if (value == 0) {
+			boolean removed = fHasZero;
+			fHasZero = false;
+			return removed;
+		}
+		final int mask = fKeys.length - 1;
+		int gap = hash(value) & mask;
+		while (fKeys[gap] != value) {
+			if (fKeys[gap] == 0)
+				return false;
+			gap = (gap + 1) & mask;
+		}
+		// Shift back the entries of the probe sequence that follows, no tombstones are needed.
+		for (int i = (gap + 1) & mask;; i = (i + 1) & mask) {
+			long k = fKeys[i];
+			if (k == 0)
+				break;
+			int home = hash(k) & mask;
+			if (((i - home) & mask) >= ((i - gap) & mask)) {
+				fKeys[gap] = k;
+				gap = i;
+			}
+		}
+		fKeys[gap] = 0;
+		fSize--;
+		return true;
+	}
+
+	public void clear() {
+		Arrays.fill(fKeys, 0);
+		fHasZero = false;
+		fSize = 0;
+	}
+
+	private void rehash(int capacity) {
+		final long[] oldKeys = fKeys;
+		allocate(capacity);
+		final int mask = capacity - 1;
+		for (long key : oldKeys) {
+			if (key != 0) {
+				int i = hash(key) & mask;
+				while (fKeys[i] != 0) {
+					i = (i + 1) & mask;
+				}
+				fKeys[i] = key;
+			}
+		}
+	}
+}
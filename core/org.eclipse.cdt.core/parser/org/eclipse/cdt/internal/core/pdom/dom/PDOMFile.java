@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 QNX Software Systems and others.
+ * Copyright (c) 2005, 2020 QNX Software Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -46,6 +46,7 @@ import org.eclipse.cdt.internal.core.index.IIndexFragmentName;
 import org.eclipse.cdt.internal.core.index.IWritableIndex.IncludeInformation;
 import org.eclipse.cdt.internal.core.index.IWritableIndexFragment;
 import org.eclipse.cdt.internal.core.index.IndexFileLocation;
+import org.eclipse.cdt.internal.core.index.TrigramFilter;
 import org.eclipse.cdt.internal.core.parser.scanner.SignificantMacros;
 import org.eclipse.cdt.internal.core.pdom.PDOM;
 import org.eclipse.cdt.internal.core.pdom.YieldableIndexLock;
@@ -84,10 +85,17 @@ public class PDOMFile implements IIndexFragmentFile {
 	private static final int FIRST_MACRO_REFERENCE = LAST_USING_DIRECTIVE + Database.PTR_SIZE;
 	private static final int SIGNIFICANT_MACROS = FIRST_MACRO_REFERENCE + Database.PTR_SIZE;
 	private static final int REPLACEMENT_HEADER = SIGNIFICANT_MACROS + Database.PTR_SIZE;
-	private static final int RECORD_SIZE = REPLACEMENT_HEADER + Database.PTR_SIZE; // 9*PTR_SIZE + 3+1+8+8+8+4 = 68
+	private static final int DECLARATIONS_HASH = REPLACEMENT_HEADER + Database.PTR_SIZE; // long
+	private static final int TEXT_FILTER = DECLARATIONS_HASH + 8;
+	private static final int RECORD_SIZE = TEXT_FILTER + Database.PTR_SIZE; // 10*PTR_SIZE + 3+1+8+8+8+4+8 = 80
 
 	private static final int FLAG_PRAGMA_ONCE_SEMANTICS = 0x01;
 
+	// The text filter is stored as its size followed by pointers to its segments.
+	private static final int TEXT_FILTER_SIZE = 0; // int
+	private static final int TEXT_FILTER_SEGMENTS = TEXT_FILTER_SIZE + 4;
+	private static final int TEXT_FILTER_SEGMENT_SIZE = 2048; // a power of two, at most Database.MAX_MALLOC_SIZE
+
 	public static class Comparator implements IBTreeComparator {
 		private Database db;
 
@@ -216,6 +224,7 @@ public class PDOMFile implements IIndexFragmentFile {
 		setSourceReadTime(sourceFile.getSourceReadTime());
 		setSizeAndEncodingHashcode(sourceFile.getSizeAndEncodingHashcode());
 		setContentsHash(sourceFile.getContentsHash());
+		setDeclarationsHash(sourceFile.getDeclarationsHash());
 
 		// Transfer the flags.
 		Database db = fLinkage.getDB();
@@ -225,6 +234,10 @@ public class PDOMFile implements IIndexFragmentFile {
 		db.putRecPtr(record + REPLACEMENT_HEADER, db.getRecPtr(sourceFile.record + REPLACEMENT_HEADER));
 		db.putRecPtr(sourceFile.record + REPLACEMENT_HEADER, 0);
 
+		// Transfer the text filter.
+		db.putRecPtr(record + TEXT_FILTER, db.getRecPtr(sourceFile.record + TEXT_FILTER));
+		db.putRecPtr(sourceFile.record + TEXT_FILTER, 0);
+
 		// Delete the source file
 		sourceFile.delete();
 	}
@@ -346,6 +359,68 @@ public class PDOMFile implements IIndexFragmentFile {
 		db.putLong(record + CONTENT_HASH, hash);
 	}
 
+	@Override
+	public long getDeclarationsHash() throws CoreException {
+		Database db = fLinkage.getDB();
+		return db.getLong(record + DECLARATIONS_HASH);
+	}
+
+	@Override
+	public void setDeclarationsHash(long hash) throws CoreException {
+		Database db = fLinkage.getDB();
+		db.putLong(record + DECLARATIONS_HASH, hash);
+	}
+
+	@Override
+	public void setTextFilter(byte[] filter) throws CoreException {
+		Database db = fLinkage.getDB();
+		deleteTextFilter(db, db.getRecPtr(record + TEXT_FILTER));
+		long newRecord = 0;
+		if (filter != null) {
+			int segmentSize = Math.min(filter.length, TEXT_FILTER_SEGMENT_SIZE);
+			int segmentCount = filter.length / segmentSize;
+			newRecord = db.malloc(TEXT_FILTER_SEGMENTS + segmentCount * Database.PTR_SIZE);
+			db.putInt(newRecord + TEXT_FILTER_SIZE, filter.length);
+			for (int i = 0; i < segmentCount; i++) {
+				long segment = db.malloc(segmentSize);
+				db.putBytes(segment, filter, i * segmentSize, segmentSize);
+				db.putRecPtr(newRecord + TEXT_FILTER_SEGMENTS + i * Database.PTR_SIZE, segment);
+			}
+		}
+		db.putRecPtr(record + TEXT_FILTER, newRecord);
+	}
+
+	private static void deleteTextFilter(Database db, long filterRecord) throws CoreException {
+		if (filterRecord == 0)
+			return;
+		int size = db.getInt(filterRecord + TEXT_FILTER_SIZE);
+		int segmentCount = size / Math.min(size, TEXT_FILTER_SEGMENT_SIZE);
+		for (int i = 0; i < segmentCount; i++) {
+			db.free(db.getRecPtr(filterRecord + TEXT_FILTER_SEGMENTS + i * Database.PTR_SIZE));
+		}
+		db.free(filterRecord);
+	}
+
+	@Override
+	public boolean mayContainText(int[] trigramHashes) throws CoreException {
+		Database db = fLinkage.getDB();
+		long rec = db.getRecPtr(record + TEXT_FILTER);
+		if (rec == 0)
+			return true; // The text of the file is not known.
+		int size = db.getInt(rec + TEXT_FILTER_SIZE);
+		int segmentSize = Math.min(size, TEXT_FILTER_SEGMENT_SIZE);
+		for (int hash : trigramHashes) {
+			for (int function = 0; function < TrigramFilter.HASH_FUNCTIONS; function++) {
+				int bit = TrigramFilter.getBitIndex(hash, function, size);
+				int offset = bit >>> 3;
+				long segment = db.getRecPtr(rec + TEXT_FILTER_SEGMENTS + (offset / segmentSize) * Database.PTR_SIZE);
+				if ((db.getByte(segment + offset % segmentSize) & (1 << (bit & 7))) == 0)
+					return false;
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public int getScannerConfigurationHashcode() throws CoreException {
 		return 0;
@@ -616,6 +691,7 @@ public class PDOMFile implements IIndexFragmentFile {
 			m.delete();
 		}
 		setFirstMacroReference(null);
+		setTextFilter(null);
 		setSourceReadTime(0);
 		setTimestamp(-1);
 	}
@@ -636,6 +712,7 @@ public class PDOMFile implements IIndexFragmentFile {
 		locRecord = db.getRecPtr(record + REPLACEMENT_HEADER);
 		if (locRecord != 0)
 			db.getString(locRecord).delete();
+		deleteTextFilter(db, db.getRecPtr(record + TEXT_FILTER));
 
 		db.free(record);
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 QNX Software Systems and others.
+ * Copyright (c) 2005, 2020 QNX Software Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,8 +20,6 @@ package org.eclipse.cdt.internal.core.pdom.dom;
 
 import java.lang.ref.Reference;
 import java.lang.ref.SoftReference;
-import java.util.HashSet;
-import java.util.Set;
 
 import org.eclipse.cdt.core.dom.IPDOMVisitor;
 import org.eclipse.cdt.core.dom.ast.IASTDeclSpecifier;
@@ -39,6 +37,8 @@ import org.eclipse.cdt.core.dom.ast.IType;
 import org.eclipse.cdt.core.dom.ast.ITypedef;
 import org.eclipse.cdt.core.dom.ast.IValue;
 import org.eclipse.cdt.core.dom.ast.IVariable;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPAliasTemplate;
+import org.eclipse.cdt.core.dom.ast.cpp.ICPPNamespace;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateArgument;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPUsingDirective;
 import org.eclipse.cdt.core.index.IIndexLinkage;
@@ -58,6 +58,7 @@ import org.eclipse.cdt.internal.core.pdom.db.Database;
 import org.eclipse.cdt.internal.core.pdom.db.IBTreeComparator;
 import org.eclipse.cdt.internal.core.pdom.db.IBTreeVisitor;
 import org.eclipse.cdt.internal.core.pdom.db.IString;
+import org.eclipse.cdt.internal.core.pdom.db.LongSet;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 
@@ -74,9 +75,10 @@ public abstract class PDOMLinkage extends PDOMNamedNode implements IIndexLinkage
 	private static final int INDEX_OFFSET = PDOMNamedNode.RECORD_SIZE + 8;
 	private static final int NESTED_BINDINGS_INDEX = PDOMNamedNode.RECORD_SIZE + 12;
 	private static final int MACRO_BTREE = PDOMNamedNode.RECORD_SIZE + 16;
+	private static final int TYPES_INDEX = PDOMNamedNode.RECORD_SIZE + 20;
 
 	@SuppressWarnings("hiding")
-	protected static final int RECORD_SIZE = PDOMNamedNode.RECORD_SIZE + 20;
+	protected static final int RECORD_SIZE = PDOMNamedNode.RECORD_SIZE + 24;
 	protected static final long[] FILE_LOCAL_REC_DUMMY = new long[] { 0 };
 
 	private BTree fMacroIndex = null; // No need for volatile, all fields of BTree are final.
@@ -87,10 +89,10 @@ public abstract class PDOMLinkage extends PDOMNamedNode implements IIndexLinkage
 	 * The set of types currently being loaded from the index on each thread, represented as record numbers.
 	 * This is used to guard against infinite recursion while loading types.
 	 */
-	private static final ThreadLocal<Set<Long>> fLoadTypeInProgress = new ThreadLocal<Set<Long>>() {
+	private static final ThreadLocal<LongSet> fLoadTypeInProgress = new ThreadLocal<LongSet>() {
 		@Override
-		protected Set<Long> initialValue() {
-			return new HashSet<>();
+		protected LongSet initialValue() {
+			return new LongSet();
 		}
 	};
 
@@ -161,6 +163,14 @@ public abstract class PDOMLinkage extends PDOMNamedNode implements IIndexLinkage
 		return new BTree(fDatabase, record + NESTED_BINDINGS_INDEX, getNestedBindingsComparator());
 	}
 
+	/**
+	 * Returns the BTree for the bindings of types and namespaces, at any nesting level, sorted by
+	 * their names. See {@link #isIndexedType(IBinding)}.
+	 */
+	public BTree getTypesIndex() throws CoreException {
+		return new BTree(fDatabase, record + TYPES_INDEX, getNestedBindingsComparator());
+	}
+
 	@Override
 	public void accept(final IPDOMVisitor visitor) throws CoreException {
 		if (visitor instanceof IBTreeVisitor) {
@@ -342,6 +352,24 @@ public abstract class PDOMLinkage extends PDOMNamedNode implements IIndexLinkage
 		}
 	}
 
+	/**
+	 * Returns whether the binding is stored in the index of types, i.e. whether it is a class, struct,
+	 * union, enumeration, typedef, alias template or namespace.
+	 */
+	public static boolean isIndexedType(IBinding binding) {
+		return binding instanceof ICompositeType || binding instanceof IEnumeration || binding instanceof ITypedef
+				|| binding instanceof ICPPAliasTemplate || binding instanceof ICPPNamespace;
+	}
+
+	/**
+	 * Callback informing the linkage that a binding has been added. Used to index types.
+	 */
+	protected final void insertIntoTypesIndex(PDOMBinding pdomBinding) throws CoreException {
+		if (isIndexedType(pdomBinding)) {
+			getTypesIndex().insert(pdomBinding.getRecord());
+		}
+	}
+
 	/**
 	 * Call-back informing the linkage that a binding is about to be removed. Used to index nested bindings.
 	 * @param pdomBinding
@@ -352,6 +380,9 @@ public abstract class PDOMLinkage extends PDOMNamedNode implements IIndexLinkage
 		if (pdomBinding.getParentNodeRec() != record) {
 			getNestedBindingsIndex().delete(pdomBinding.getRecord());
 		}
+		if (isIndexedType(pdomBinding)) {
+			getTypesIndex().delete(pdomBinding.getRecord());
+		}
 	}
 
 	public ICPPUsingDirective[] getUsingDirectives(PDOMFile file) throws CoreException {
@@ -574,7 +605,7 @@ public abstract class PDOMLinkage extends PDOMNamedNode implements IIndexLinkage
 	}
 
 	public IType loadType(long offset) throws CoreException {
-		Set<Long> recursionProtectionSet = fLoadTypeInProgress.get();
+		LongSet recursionProtectionSet = fLoadTypeInProgress.get();
 		if (!recursionProtectionSet.add(offset)) {
 			return ProblemType.NOT_PERSISTED;
 		}
@@ -696,8 +727,7 @@ public abstract class PDOMLinkage extends PDOMNamedNode implements IIndexLinkage
 	}
 
 	public IValue loadValue(long offset) throws CoreException {
-		Long cacheKey = Long.valueOf(offset);
-		IValue value = fPDOM.getCachedVariableResult(cacheKey);
+		IValue value = fPDOM.getCachedVariableResult(offset);
 		if (value != null)
 			return value;
 		TypeMarshalBuffer buffer = loadBuffer(offset, Database.VALUE_SIZE);
@@ -705,7 +735,7 @@ public abstract class PDOMLinkage extends PDOMNamedNode implements IIndexLinkage
 			return null;
 		value = buffer.unmarshalValue();
 		if (value != null)
-			fPDOM.putCachedVariableResult(cacheKey, value);
+			fPDOM.putCachedVariableResult(offset, value);
 		return value;
 	}
 
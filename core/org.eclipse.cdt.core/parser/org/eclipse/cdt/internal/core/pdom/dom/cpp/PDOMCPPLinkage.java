@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 QNX Software Systems and others.
+ * Copyright (c) 2005, 2020 QNX Software Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -876,6 +876,7 @@ class PDOMCPPLinkage extends PDOMLinkage implements IIndexCPPBindingConstants {
 				return null;
 			pdomBinding = new PDOMCPPAliasTemplateInstance(this, parent, pdomTemplate,
 					(ICPPAliasTemplateInstance) binding);
+			PDOMInstanceCache.invalidate(pdomTemplate);
 		} else if (binding instanceof ITypedef) {
 			pdomBinding = new PDOMCPPTypedef(this, parent, (ITypedef) binding);
 		}
@@ -889,6 +890,7 @@ class PDOMCPPLinkage extends PDOMLinkage implements IIndexCPPBindingConstants {
 			if (parent != this && parent2 != this) {
 				insertIntoNestedBindingsIndex(pdomBinding);
 			}
+			insertIntoTypesIndex(pdomBinding);
 		}
 
 		return pdomBinding;
@@ -970,6 +972,10 @@ class PDOMCPPLinkage extends PDOMLinkage implements IIndexCPPBindingConstants {
 			} else if (special instanceof ICPPAliasTemplateInstance && orig instanceof ICPPAliasTemplate) {
 				result = new PDOMCPPAliasTemplateInstance(this, parent, orig, (ICPPAliasTemplateInstance) special);
 			}
+			if (result != null) {
+				// The cached instances of the template do not contain the new one.
+				PDOMInstanceCache.invalidate(orig);
+			}
 		} else if (special instanceof ICPPField) {
 			result = new PDOMCPPFieldSpecialization(this, parent, (ICPPField) special, orig);
 		} else if (special instanceof ICPPFunctionTemplate) {
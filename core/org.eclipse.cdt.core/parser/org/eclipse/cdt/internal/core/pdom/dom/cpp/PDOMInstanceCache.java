@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2014 Wind River Systems, Inc. and others.
+ * Copyright (c) 2008, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,13 +13,18 @@
  *******************************************************************************/
 package org.eclipse.cdt.internal.core.pdom.dom.cpp;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.dom.ast.DOMException;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateArgument;
 import org.eclipse.cdt.core.dom.ast.cpp.ICPPTemplateInstance;
 import org.eclipse.cdt.internal.core.dom.parser.cpp.ICPPDeferredClassInstance;
+import org.eclipse.cdt.internal.core.index.IIndexFragmentBinding;
 import org.eclipse.cdt.internal.core.index.IndexCPPSignatureUtil;
 import org.eclipse.cdt.internal.core.pdom.PDOM;
 import org.eclipse.cdt.internal.core.pdom.dom.NamedNodeCollector;
@@ -28,39 +33,78 @@ import org.eclipse.cdt.internal.core.pdom.dom.PDOMNamedNode;
 import org.eclipse.cdt.internal.core.pdom.dom.PDOMNode;
 import org.eclipse.core.runtime.CoreException;
 
+/**
+ * Instances of a template in the index. The instances stored in the index are kept across
+ * read locks, such that they are shared by all ASTs using the index. Instances created while
+ * resolving bindings of an AST may refer to the AST, they are visible to the thread that
+ * created them only and are dropped when the results cached in the PDOM are cleared.
+ */
 public class PDOMInstanceCache {
+	private static final LongAdder sHits = new LongAdder();
+	private static final LongAdder sMisses = new LongAdder();
 
 	public static PDOMInstanceCache getCache(PDOMBinding binding) {
 		final PDOM pdom = binding.getPDOM();
-		final long record = binding.getRecord();
-		final Long key = record + PDOMCPPLinkage.CACHE_INSTANCES;
-		Object cache = pdom.getCachedResult(key);
+		final long key = binding.getRecord() + PDOMCPPLinkage.CACHE_INSTANCES;
+		Object cache = pdom.getPersistentCachedResult(key);
 		if (cache instanceof PDOMInstanceCache) {
 			return (PDOMInstanceCache) cache;
 		}
 
-		PDOMInstanceCache newCache = new PDOMInstanceCache();
+		PDOMInstanceCache newCache = new PDOMInstanceCache(pdom);
 		try {
 			newCache.populate(binding);
 		} catch (CoreException e) {
 			CCorePlugin.log(e);
 		}
 
-		newCache = (PDOMInstanceCache) pdom.putCachedResult(key, newCache, false);
-		return newCache;
+		return (PDOMInstanceCache) pdom.putPersistentCachedResult(key, newCache);
 	}
 
+	/**
+	 * Discards the cached instances of the template, such that instances added to the index are found.
+	 */
+	static void invalidate(PDOMBinding template) {
+		template.getPDOM().removePersistentCachedResult(template.getRecord() + PDOMCPPLinkage.CACHE_INSTANCES);
+	}
+
+	/**
+	 * Returns how often an instance was found in the caches since the last reset.
+	 */
+	public static long getHitCount() {
+		return sHits.sum();
+	}
+
+	/**
+	 * Returns how often an instance was not found in the caches and had to be computed since the last reset.
+	 */
+	public static long getMissCount() {
+		return sMisses.sum();
+	}
+
+	public static void resetCounters() {
+		sHits.reset();
+		sMisses.reset();
+	}
+
+	private final PDOM fPDOM;
+	/** Instances stored in the index. */
 	private final HashMap<String, ICPPTemplateInstance> fMap;
 	private ICPPDeferredClassInstance fDeferredInstance;
 
-	public PDOMInstanceCache() {
+	private PDOMInstanceCache(PDOM pdom) {
+		fPDOM = pdom;
 		fMap = new HashMap<>();
 	}
 
 	synchronized public final void addInstance(ICPPTemplateArgument[] arguments, ICPPTemplateInstance instance) {
 		try {
 			String key = IndexCPPSignatureUtil.getTemplateArgString(arguments, true);
-			fMap.put(key, instance);
+			if (instance instanceof IIndexFragmentBinding) {
+				fMap.put(key, instance);
+			} else {
+				getTransientMap(true).put(key, instance);
+			}
 		} catch (CoreException e) {
 			CCorePlugin.log(e);
 		} catch (DOMException e) {
@@ -70,7 +114,14 @@ public class PDOMInstanceCache {
 	synchronized public final ICPPTemplateInstance getInstance(ICPPTemplateArgument[] arguments) {
 		try {
 			String key = IndexCPPSignatureUtil.getTemplateArgString(arguments, true);
-			return fMap.get(key);
+			ICPPTemplateInstance result = fMap.get(key);
+			if (result == null) {
+				HashMap<String, ICPPTemplateInstance> transientMap = getTransientMap(false);
+				if (transientMap != null)
+					result = transientMap.get(key);
+			}
+			(result != null ? sHits : sMisses).increment();
+			return result;
 		} catch (CoreException e) {
 			CCorePlugin.log(e);
 		} catch (DOMException e) {
@@ -78,6 +129,22 @@ public class PDOMInstanceCache {
 		return null;
 	}
 
+	/**
+	 * Returns the instances created for ASTs by the current thread. They are kept in the result
+	 * cache of the PDOM, which is cleared when a read lock is released, such that they do not pin
+	 * the ASTs to memory.
+	 */
+	@SuppressWarnings("unchecked")
+	private HashMap<String, ICPPTemplateInstance> getTransientMap(boolean create) {
+		final Object key = List.of(this, Thread.currentThread().getId());
+		HashMap<String, ICPPTemplateInstance> map = (HashMap<String, ICPPTemplateInstance>) fPDOM
+				.getCachedResult(key);
+		if (map == null && create) {
+			map = (HashMap<String, ICPPTemplateInstance>) fPDOM.putCachedResult(key, new HashMap<>(), false);
+		}
+		return map;
+	}
+
 	private void populate(PDOMBinding binding) throws CoreException {
 		PDOMNode parent = binding.getParentNode();
 		if (parent == null) {
@@ -98,7 +165,16 @@ public class PDOMInstanceCache {
 	}
 
 	synchronized public ICPPTemplateInstance[] getAllInstances() {
-		return fMap.values().toArray(new ICPPTemplateInstance[fMap.size()]);
+		HashMap<String, ICPPTemplateInstance> transientMap = getTransientMap(false);
+		if (transientMap == null)
+			return fMap.values().toArray(new ICPPTemplateInstance[fMap.size()]);
+
+		List<ICPPTemplateInstance> result = new ArrayList<>(fMap.values());
+		for (Map.Entry<String, ICPPTemplateInstance> entry : transientMap.entrySet()) {
+			if (!fMap.containsKey(entry.getKey()))
+				result.add(entry.getValue());
+		}
+		return result.toArray(new ICPPTemplateInstance[result.size()]);
 	}
 
 	public ICPPDeferredClassInstance getDeferredInstance() {
@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.pdom.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.cdt.core.dom.ast.gnu.c.GCCLanguage;
+import org.eclipse.cdt.core.dom.ast.gnu.cpp.GPPLanguage;
+import org.eclipse.cdt.core.model.ILanguage;
+import org.eclipse.cdt.core.parser.ExtendedScannerInfo;
+import org.eclipse.cdt.core.parser.IScannerInfo;
+import org.eclipse.cdt.internal.core.indexer.ILanguageMapper;
+import org.eclipse.cdt.internal.core.indexer.IStandaloneScannerInfoProvider;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * The content of a compile_commands.json file, providing the scanner info and the language of
+ * each of the source files listed in it.
+ * <p>
+ * Only the compiler options relevant for parsing are interpreted: {@code -D}, {@code -U},
+ * {@code -I}, {@code -isystem}, {@code -iquote}, {@code -include}, {@code -imacros} and
+ * {@code -x}. When a source file is listed more than once, the first command is used.
+ */
+public class CompilationDatabase implements IStandaloneScannerInfoProvider, ILanguageMapper {
+	private static final IScannerInfo EMPTY_SCANNER_INFO = new ExtendedScannerInfo();
+	private static final String[] ATTACHABLE_OPTIONS = { "-D", "-U", "-I", "-isystem", "-iquote", "-x" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+	private static final String[] SEPARATE_OPTIONS = { "-include", "-imacros" }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * An entry of a compile_commands.json file, as read by gson.
+	 */
+	private static class CommandEntry {
+		String directory;
+		String file;
+		String command;
+		String[] arguments;
+	}
+
+	private static class SourceFile {
+		final IScannerInfo fScannerInfo;
+		final boolean fIsCpp;
+
+		SourceFile(IScannerInfo scannerInfo, boolean isCpp) {
+			fScannerInfo = scannerInfo;
+			fIsCpp = isCpp;
+		}
+	}
+
+	private final Map<String, SourceFile> fSourceFiles = new LinkedHashMap<>();
+
+	/**
+	 * Reads the given compile_commands.json file.
+	 * @throws IOException if the file cannot be read or is not a valid compilation database.
+	 */
+	public static CompilationDatabase read(File file) throws IOException {
+		CommandEntry[] entries;
+		try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			entries = new Gson().fromJson(reader, CommandEntry[].class);
+		} catch (JsonParseException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+		CompilationDatabase result = new CompilationDatabase();
+		if (entries != null) {
+			for (CommandEntry entry : entries) {
+				result.add(entry);
+			}
+		}
+		return result;
+	}
+
+	private void add(CommandEntry entry) throws IOException {
+		if (entry == null || entry.file == null)
+			return;
+		File directory = entry.directory == null ? null : new File(entry.directory);
+		String path = resolve(directory, entry.file);
+		if (fSourceFiles.containsKey(path))
+			return;
+
+		List<String> args;
+		if (entry.arguments != null) {
+			args = new ArrayList<>();
+			Collections.addAll(args, entry.arguments);
+		} else if (entry.command != null) {
+			args = splitCommandLine(entry.command);
+		} else {
+			args = Collections.emptyList();
+		}
+
+		Map<String, String> definedSymbols = new HashMap<>();
+		List<String> includePaths = new ArrayList<>();
+		List<String> localIncludePaths = new ArrayList<>();
+		List<String> includeFiles = new ArrayList<>();
+		List<String> macroFiles = new ArrayList<>();
+		Boolean isCpp = null;
+		// The first argument is the compiler.
+		for (int i = 1; i < args.size(); i++) {
+			String arg = args.get(i);
+			String option = getOption(arg);
+			if (option == null)
+				continue;
+			String value;
+			if (arg.length() > option.length()) {
+				value = arg.substring(option.length());
+			} else if (i + 1 < args.size()) {
+				value = args.get(++i);
+			} else {
+				break;
+			}
+			switch (option) {
+			case "-D": //$NON-NLS-1$
+				int eq = value.indexOf('=');
+				if (eq < 0) {
+					definedSymbols.put(value, "1"); //$NON-NLS-1$
+				} else {
+					definedSymbols.put(value.substring(0, eq), value.substring(eq + 1));
+				}
+				break;
+			case "-U": //$NON-NLS-1$
+				definedSymbols.remove(value);
+				break;
+			case "-I": //$NON-NLS-1$
+			case "-isystem": //$NON-NLS-1$
+				includePaths.add(resolve(directory, value));
+				break;
+			case "-iquote": //$NON-NLS-1$
+				localIncludePaths.add(resolve(directory, value));
+				break;
+			case "-include": //$NON-NLS-1$
+				includeFiles.add(resolve(directory, value));
+				break;
+			case "-imacros": //$NON-NLS-1$
+				macroFiles.add(resolve(directory, value));
+				break;
+			case "-x": //$NON-NLS-1$
+				isCpp = value.startsWith("c++"); //$NON-NLS-1$
+				break;
+			}
+		}
+		if (isCpp == null) {
+			isCpp = !path.endsWith(".c"); //$NON-NLS-1$
+		}
+		IScannerInfo scannerInfo = new ExtendedScannerInfo(definedSymbols, toArray(includePaths),
+				toArray(macroFiles), toArray(includeFiles), toArray(localIncludePaths));
+		fSourceFiles.put(path, new SourceFile(scannerInfo, isCpp));
+	}
+
+	/**
+	 * Returns the interpreted option the given argument starts with, or {@code null}. The value
+	 * of the option is either attached to it or the next argument.
+	 */
+	private static String getOption(String arg) {
+		for (String option : ATTACHABLE_OPTIONS) {
+			if (arg.startsWith(option))
+				return option;
+		}
+		for (String option : SEPARATE_OPTIONS) {
+			// These options are never attached to their value, so -includefile is not -include.
+			if (arg.equals(option))
+				return option;
+		}
+		return null;
+	}
+
+	private static String resolve(File directory, String path) throws IOException {
+		File file = new File(path);
+		if (!file.isAbsolute() && directory != null) {
+			file = new File(directory, path);
+		}
+		return file.getCanonicalPath();
+	}
+
+	private static String[] toArray(List<String> list) {
+		return list.toArray(new String[list.size()]);
+	}
+
+	/**
+	 * Splits a command line the way a POSIX shell would, honoring quotes. A backslash escapes
+	 * a quote, another backslash or, outside of quotes, white space as in {@code a\ b.c}. Any
+	 * other backslash is kept, such that Windows paths like {@code C:\src\a.c} are not mangled.
+	 */
+	public static List<String> splitCommandLine(String command) {
+		List<String> result = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		boolean inArgument = false;
+		char quote = 0;
+		for (int i = 0; i < command.length(); i++) {
+			char c = command.charAt(i);
+			if (quote == '\'') {
+				if (c == '\'') {
+					quote = 0;
+				} else {
+					current.append(c);
+				}
+			} else if (c == '\\' && i + 1 < command.length() && isEscapable(command.charAt(i + 1), quote)) {
+				current.append(command.charAt(++i));
+				inArgument = true;
+			} else if (quote == '"') {
+				if (c == '"') {
+					quote = 0;
+				} else {
+					current.append(c);
+				}
+			} else if (c == '"' || c == '\'') {
+				quote = c;
+				inArgument = true;
+			} else if (Character.isWhitespace(c)) {
+				if (inArgument) {
+					result.add(current.toString());
+					current.setLength(0);
+					inArgument = false;
+				}
+			} else {
+				current.append(c);
+				inArgument = true;
+			}
+		}
+		if (inArgument) {
+			result.add(current.toString());
+		}
+		return result;
+	}
+
+	private static boolean isEscapable(char c, char quote) {
+		return c == '\\' || c == '"' || (quote == 0 && (c == '\'' || Character.isWhitespace(c)));
+	}
+
+	/**
+	 * Returns the canonical paths of the source files, in the order of the compilation database.
+	 */
+	public List<String> getSourceFiles() {
+		return new ArrayList<>(fSourceFiles.keySet());
+	}
+
+	@Override
+	public IScannerInfo getScannerInformation(String path) {
+		SourceFile sourceFile = fSourceFiles.get(path);
+		return sourceFile != null ? sourceFile.fScannerInfo : EMPTY_SCANNER_INFO;
+	}
+
+	@Override
+	public IScannerInfo getDefaultScannerInformation(int linkageID) {
+		return EMPTY_SCANNER_INFO;
+	}
+
+	@Override
+	public ILanguage getLanguage(String file) {
+		SourceFile sourceFile = fSourceFiles.get(file);
+		boolean isCpp = sourceFile != null ? sourceFile.fIsCpp : !file.endsWith(".c"); //$NON-NLS-1$
+		return isCpp ? GPPLanguage.getDefault() : GCCLanguage.getDefault();
+	}
+}
@@ -52,6 +52,20 @@ public class GeneratePDOMApplication implements IApplication {
 	public static final String OPT_TARGET = "-target"; //$NON-NLS-1$
 	public static final String OPT_QUIET = "-quiet"; //$NON-NLS-1$
 	public static final String OPT_INDEXER_ID = "-indexer"; //$NON-NLS-1$
+	/**
+	 * Generates the PDOM from a compile_commands.json file rather than from a project.
+	 */
+	public static final String OPT_COMPILATION_DATABASE = "-compdb"; //$NON-NLS-1$
+	/**
+	 * The directory the locations in a PDOM generated from a compilation database are relative to,
+	 * defaults to the directory of the compilation database.
+	 */
+	public static final String OPT_BASE = "-base"; //$NON-NLS-1$
+	/**
+	 * The number of parser threads used for a compilation database, defaults to the number of
+	 * available processors.
+	 */
+	public static final String OPT_THREADS = "-threads"; //$NON-NLS-1$
 
 	/**
 	 * Applications needing to fail in an expected way (without stack dump), should throw
@@ -88,6 +102,10 @@ public class GeneratePDOMApplication implements IApplication {
 
 		setupCLIProgressProvider();
 
+		if (arguments.containsKey(OPT_COMPILATION_DATABASE)) {
+			return startCompilationDatabase(arguments);
+		}
+
 		String pproviderFQN;
 		if (!arguments.containsKey(OPT_PROJECTPROVIDER)) {
 			output(MessageFormat.format(Messages.GeneratePDOMApplication_UsingDefaultProjectProvider,
@@ -144,6 +162,43 @@ public class GeneratePDOMApplication implements IApplication {
 		return null;
 	}
 
+	private Object startCompilationDatabase(Map<String, List<String>> arguments) throws CoreException {
+		File compilationDatabase = new File(CLIUtil.getArg(arguments, OPT_COMPILATION_DATABASE, 1).get(0));
+		File target = new File(CLIUtil.getArg(arguments, OPT_TARGET, 1).get(0));
+		String fragmentId = CLIUtil.getArg(arguments, ExternalExportProjectProvider.OPT_FRAGMENT_ID, 1).get(0);
+		boolean quiet = arguments.get(OPT_QUIET) != null;
+
+		File base = compilationDatabase.getAbsoluteFile().getParentFile();
+		if (arguments.containsKey(OPT_BASE)) {
+			base = new File(CLIUtil.getArg(arguments, OPT_BASE, 1).get(0));
+		}
+
+		int threads = Runtime.getRuntime().availableProcessors();
+		if (arguments.containsKey(OPT_THREADS)) {
+			String value = CLIUtil.getArg(arguments, OPT_THREADS, 1).get(0);
+			try {
+				threads = Integer.parseInt(value);
+			} catch (NumberFormatException e) {
+				threads = 0;
+			}
+			if (threads < 1) {
+				fail(MessageFormat.format(Messages.GeneratePDOMApplication_InvalidThreadCount,
+						new Object[] { OPT_THREADS }));
+			}
+		}
+
+		GeneratePDOMFromCompilationDatabase generate = new GeneratePDOMFromCompilationDatabase(compilationDatabase,
+				target, base, fragmentId, threads);
+		generate.setQuiet(quiet);
+		output(Messages.GeneratePDOMApplication_GenerationStarts);
+		IStatus status = generate.run(); // CoreException handled in start method
+		if (!status.isOK()) {
+			output(status.getMessage());
+		}
+		output(Messages.GeneratePDOMApplication_GenerationEnds);
+		return null;
+	}
+
 	private void restoreSystemProperty(String key, String value) {
 		if (value == null) {
 			System.clearProperty(key);
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core.pdom.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.eclipse.cdt.core.CCorePlugin;
+import org.eclipse.cdt.core.index.IIndexFileLocation;
+import org.eclipse.cdt.core.index.IIndexLocationConverter;
+import org.eclipse.cdt.core.index.URIRelativeLocationConverter;
+import org.eclipse.cdt.core.model.LanguageManager;
+import org.eclipse.cdt.core.parser.IParserLogService;
+import org.eclipse.cdt.core.parser.NullLogService;
+import org.eclipse.cdt.internal.core.index.IIndexFragment;
+import org.eclipse.cdt.internal.core.index.IndexFileLocation;
+import org.eclipse.cdt.internal.core.indexer.StandaloneFastIndexer;
+import org.eclipse.cdt.internal.core.indexer.StdoutLogService;
+import org.eclipse.cdt.internal.core.pdom.WritablePDOM;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+
+/**
+ * Generates a PDOM from a compile_commands.json file without creating a project in the workspace.
+ * <ul>
+ * <li>Indexes the source files of the compilation database with the stand-alone indexer
+ * <li>Rewrites the locations of the indexed files relative to a base directory, files outside of
+ * it are removed
+ * <li>Writes the fragment id to the PDOM
+ * </ul>
+ */
+public class GeneratePDOMFromCompilationDatabase {
+	private static final String[] SOURCE_EXTENSIONS = { "c", "cc", "cpp", "cxx", "c++", "C" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+
+	/**
+	 * Stores absolute locations while indexing, they are made relative before the export.
+	 */
+	private static class AbsoluteLocationConverter implements IIndexLocationConverter {
+		@Override
+		public IIndexFileLocation fromInternalFormat(String raw) {
+			return new IndexFileLocation(URI.create(raw), null);
+		}
+
+		@Override
+		public String toInternalFormat(IIndexFileLocation location) {
+			return location.getURI().toString();
+		}
+	}
+
+	protected File compilationDatabase;
+	protected File targetLocation;
+	protected File baseDirectory;
+	protected String fragmentId;
+	protected int parserThreads;
+	protected boolean quiet;
+
+	/**
+	 * Runnable to generate a PDOM from a compilation database.
+	 * @param compilationDatabase the compile_commands.json file
+	 * @param targetLocation the PDOM file to create
+	 * @param baseDirectory the directory the locations in the PDOM are relative to
+	 * @param fragmentId the id of the generated index fragment
+	 * @param parserThreads the number of threads used for parsing
+	 */
+	public GeneratePDOMFromCompilationDatabase(File compilationDatabase, File targetLocation, File baseDirectory,
+			String fragmentId, int parserThreads) {
+		this.compilationDatabase = compilationDatabase;
+		this.targetLocation = targetLocation;
+		this.baseDirectory = baseDirectory;
+		this.fragmentId = fragmentId;
+		this.parserThreads = parserThreads;
+	}
+
+	/**
+	 * When set, no activity, problems or statistics of the indexer are reported.
+	 */
+	public void setQuiet(boolean quiet) {
+		this.quiet = quiet;
+	}
+
+	/**
+	 * Executes the PDOM generation
+	 * @return {@link IStatus#OK} if the PDOM has been generated
+	 * @throws CoreException if an internal or invalid configuration error occurs
+	 */
+	public final IStatus run() throws CoreException {
+		CompilationDatabase database = null;
+		URI baseURI = null;
+		try {
+			database = CompilationDatabase.read(compilationDatabase);
+			baseURI = baseDirectory.getCanonicalFile().toURI();
+		} catch (IOException e) {
+			fail(MessageFormat.format(Messages.GeneratePDOM_CannotReadCompilationDatabase,
+					new Object[] { compilationDatabase, e.getMessage() }));
+		}
+		if (database.getSourceFiles().isEmpty()) {
+			fail(MessageFormat.format(Messages.GeneratePDOM_NoSourceFiles, new Object[] { compilationDatabase }));
+		}
+		if (targetLocation.exists() && !targetLocation.delete()) {
+			fail(MessageFormat.format(Messages.GeneratePDOM_GenericGenerationFailed,
+					new Object[] { targetLocation }));
+		}
+
+		IParserLogService log = quiet ? new NullLogService() : new StdoutLogService();
+		StandaloneFastIndexer indexer = new StandaloneFastIndexer(targetLocation, new AbsoluteLocationConverter(),
+				LanguageManager.getInstance().getPDOMLinkageFactoryMappings(), database, null, database, log);
+		indexer.setValidSourceUnitNames(new HashSet<>(Arrays.asList(SOURCE_EXTENSIONS)));
+		indexer.setParserThreads(parserThreads);
+		indexer.setShowActivity(!quiet);
+		indexer.setShowProblems(!quiet);
+		indexer.setTraceStatistics(!quiet);
+
+		WritablePDOM pdom = (WritablePDOM) indexer.getIndex().getWritableFragment();
+		try {
+			indexer.rebuild(database.getSourceFiles(), new NullProgressMonitor());
+
+			// Make the locations relative, to allow for moving the PDOM to another machine.
+			pdom.acquireWriteLock(null);
+			try {
+				pdom.rewriteLocations(new URIRelativeLocationConverter(baseURI));
+				pdom.setProperty(IIndexFragment.PROPERTY_FRAGMENT_ID, fragmentId);
+				pdom.close();
+			} finally {
+				pdom.releaseWriteLock();
+			}
+		} catch (IOException | InterruptedException e) {
+			String msg = MessageFormat.format(Messages.GeneratePDOM_GenericGenerationFailed,
+					new Object[] { e.getMessage() });
+			throw new CoreException(CCorePlugin.createStatus(msg, e));
+		}
+
+		return new Status(IStatus.OK, CCorePlugin.PLUGIN_ID, Messages.GeneratePDOM_Success);
+	}
+
+	private void fail(String message) throws CoreException {
+		GeneratePDOMApplication.fail(message);
+	}
+}
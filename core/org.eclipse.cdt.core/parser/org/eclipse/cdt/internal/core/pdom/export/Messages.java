@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2014 Symbian Software Systems and others.
+ * Copyright (c) 2007, 2020 Symbian Software Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,8 +16,10 @@ package org.eclipse.cdt.internal.core.pdom.export;
 import org.eclipse.osgi.util.NLS;
 
 public class Messages extends NLS {
+	public static String GeneratePDOM_CannotReadCompilationDatabase;
 	public static String GeneratePDOM_GenericGenerationFailed;
 	public static String GeneratePDOM_Incomplete;
+	public static String GeneratePDOM_NoSourceFiles;
 	public static String GeneratePDOM_NullLocationConverter;
 	public static String GeneratePDOM_ProjectProviderReturnedNullCProject;
 	public static String GeneratePDOM_Success;
@@ -26,6 +28,7 @@ public class Messages extends NLS {
 	public static String GeneratePDOMApplication_GenerationStarts;
 	public static String GeneratePDOMApplication_Initializing;
 	public static String GeneratePDOMApplication_InvalidIndexerID;
+	public static String GeneratePDOMApplication_InvalidThreadCount;
 	public static String GeneratePDOMApplication_UsingDefaultProjectProvider;
 
 	static {
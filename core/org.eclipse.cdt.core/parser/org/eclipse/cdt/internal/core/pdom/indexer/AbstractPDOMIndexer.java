@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2014 Wind River Systems, Inc. and others.
+ * Copyright (c) 2007, 2020 Wind River Systems, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -37,6 +37,11 @@ public abstract class AbstractPDOMIndexer implements IPDOMIndexer {
 				String.valueOf(IndexerPreferences.DEFAULT_FILE_SIZE_LIMIT_MB));
 		fProperties.put(IndexerPreferences.KEY_SKIP_INCLUDED_FILES_LARGER_THAN_MB,
 				String.valueOf(IndexerPreferences.DEFAULT_INCLUDED_FILE_SIZE_LIMIT_MB));
+		fProperties.put(IndexerPreferences.KEY_PARSER_THREADS,
+				String.valueOf(IndexerPreferences.DEFAULT_PARSER_THREADS));
+		fProperties.put(IndexerPreferences.KEY_NAME_RESOLUTION_THREADS,
+				String.valueOf(IndexerPreferences.DEFAULT_NAME_RESOLUTION_THREADS));
+		fProperties.put(IndexerPreferences.KEY_UPDATE_INCLUDERS_OF_CHANGED_DECLARATIONS, String.valueOf(false));
 		fProperties.put(IndexerPreferences.KEY_SKIP_ALL_REFERENCES, String.valueOf(false));
 		fProperties.put(IndexerPreferences.KEY_SKIP_IMPLICIT_REFERENCES, String.valueOf(false));
 		fProperties.put(IndexerPreferences.KEY_SKIP_TYPE_REFERENCES, String.valueOf(false));
@@ -66,7 +71,11 @@ public abstract class AbstractPDOMIndexer implements IPDOMIndexer {
 			String key = (String) entry.getKey();
 			String val = (String) entry.getValue();
 
-			if (val != null) { // relevant property
+			// The numbers of parser and name resolution threads and the policy for updating includers
+			// do not affect the content of the index.
+			if (val != null && !IndexerPreferences.KEY_PARSER_THREADS.equals(key)
+					&& !IndexerPreferences.KEY_NAME_RESOLUTION_THREADS.equals(key)
+					&& !IndexerPreferences.KEY_UPDATE_INCLUDERS_OF_CHANGED_DECLARATIONS.equals(key)) { // relevant property
 				String v2 = (String) props.get(key);
 				if (v2 != null && !val.equals(v2)) {
 					return true;
@@ -41,6 +41,7 @@ import org.eclipse.cdt.internal.core.pdom.AbstractIndexerTask;
 import org.eclipse.cdt.internal.core.pdom.ITodoTaskUpdater;
 import org.eclipse.cdt.internal.core.pdom.IndexerProgress;
 import org.eclipse.cdt.internal.core.pdom.db.ChunkCache;
+import org.eclipse.cdt.internal.core.pdom.dom.cpp.PDOMInstanceCache;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -73,6 +74,10 @@ public abstract class PDOMIndexerTask extends AbstractIndexerTask implements IPD
 		setFileSizeLimits(fileLimit * 1024 * 1024, includedFileLimit * 1024 * 1024);
 		setIndexAllHeaderVersions(checkProperty(IndexerPreferences.KEY_INDEX_ALL_HEADER_VERSIONS));
 		setHeadersToIndexAllVersions(getStringSet(IndexerPreferences.KEY_INDEX_ALL_VERSIONS_SPECIFIC_HEADERS));
+		setParserThreads(getIntProperty(IndexerPreferences.KEY_PARSER_THREADS, 1));
+		setNameResolutionThreads(getIntProperty(IndexerPreferences.KEY_NAME_RESOLUTION_THREADS, 1));
+		setUpdateIncludersOfChangedDeclarations(
+				checkProperty(IndexerPreferences.KEY_UPDATE_INCLUDERS_OF_CHANGED_DECLARATIONS));
 		if (checkProperty(IndexerPreferences.KEY_SKIP_ALL_REFERENCES)) {
 			setSkipReferences(SKIP_ALL_REFERENCES);
 		} else {
@@ -292,6 +297,17 @@ public abstract class PDOMIndexerTask extends AbstractIndexerTask implements IPD
 					+ fStatistics.fParsingTime + " parser, " //$NON-NLS-1$
 					+ fStatistics.fResolutionTime + " resolution, " //$NON-NLS-1$
 					+ fStatistics.fAddToIndexTime + " index update."); //$NON-NLS-1$
+			if (fStatistics.fParserThreads > 1 && fStatistics.fParallelParsingTime > 0) {
+				System.out.println(indent + " Parallel parsing: " //$NON-NLS-1$
+						+ fStatistics.fParserThreads + " threads, " //$NON-NLS-1$
+						+ fStatistics.fParallelParsingTime + " elapsed."); //$NON-NLS-1$
+			}
+			if (fStatistics.fNameResolutionThreads > 1 && fStatistics.fPartitionedASTCount > 0) {
+				System.out.println(indent + " Parallel name resolution: " //$NON-NLS-1$
+						+ fStatistics.fNameResolutionThreads + " threads, " //$NON-NLS-1$
+						+ fStatistics.fPartitionedASTCount + " files split into " //$NON-NLS-1$
+						+ fStatistics.fPartitionCount + " partitions."); //$NON-NLS-1$
+			}
 			System.out.println(indent + " Errors: " //$NON-NLS-1$
 					+ fStatistics.fErrorCount + " internal, " //$NON-NLS-1$
 					+ fStatistics.fUnresolvedIncludesCount + " include, " //$NON-NLS-1$
@@ -317,6 +333,18 @@ public abstract class PDOMIndexerTask extends AbstractIndexerTask implements IPD
 					+ ChunkCache.getSharedInstance().getMaxSize() / 1024 / 1024 + "MB]: " + //$NON-NLS-1$
 					+hits + " hits, " //$NON-NLS-1$
 					+ misses + "(" + nfPercent.format(missPct) + ") misses."); //$NON-NLS-1$ //$NON-NLS-2$
+			long instanceMisses = PDOMInstanceCache.getMissCount();
+			long instanceHits = PDOMInstanceCache.getHitCount();
+			long instanceTries = instanceMisses + instanceHits;
+			double instanceMissPct = instanceTries == 0 ? 0.0 : (double) instanceMisses / (double) instanceTries;
+			System.out.println(indent + " Template instances: " //$NON-NLS-1$
+					+ instanceHits + " hits, " //$NON-NLS-1$
+					+ instanceMisses + "(" + nfPercent.format(instanceMissPct) + ") misses."); //$NON-NLS-1$ //$NON-NLS-2$
+			ChunkCache cache = ChunkCache.getSharedInstance();
+			System.out.println(indent + " Cache lock: " //$NON-NLS-1$
+					+ cache.getLockFreeHits() + " lock-free hits, " //$NON-NLS-1$
+					+ cache.getLockAcquisitions() + " acquisitions, " //$NON-NLS-1$
+					+ cache.getLockWaitTime() / 1000000 + "ms waiting."); //$NON-NLS-1$
 
 			if (Boolean.parseBoolean(System.getProperty("SHOW_COMPRESSED_INDEXER_INFO"))) { //$NON-NLS-1$
 				Calendar cal = Calendar.getInstance();
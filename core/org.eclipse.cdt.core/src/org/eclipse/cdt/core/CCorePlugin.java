@@ -58,6 +58,8 @@ import org.eclipse.cdt.internal.core.CDTLogWriter;
 import org.eclipse.cdt.internal.core.CdtVarPathEntryVariableManager;
 import org.eclipse.cdt.internal.core.ICConsole;
 import org.eclipse.cdt.internal.core.PositionTrackerManager;
+import org.eclipse.cdt.internal.core.ProblemMarkerStatistics;
+import org.eclipse.cdt.internal.core.StatisticsMBean;
 import org.eclipse.cdt.internal.core.build.CBuildConfigurationManager;
 import org.eclipse.cdt.internal.core.build.ToolChainManager;
 import org.eclipse.cdt.internal.core.cdtvariables.CdtVariableManager;
@@ -67,6 +69,7 @@ import org.eclipse.cdt.internal.core.envvar.EnvironmentVariableManager;
 import org.eclipse.cdt.internal.core.language.settings.providers.LanguageSettingsScannerInfoProvider;
 import org.eclipse.cdt.internal.core.model.CModelManager;
 import org.eclipse.cdt.internal.core.model.Util;
+import org.eclipse.cdt.internal.core.pdom.IndexLockStatistics;
 import org.eclipse.cdt.internal.core.pdom.PDOMManager;
 import org.eclipse.cdt.internal.core.resources.ResourceLookup;
 import org.eclipse.cdt.internal.core.settings.model.CProjectDescriptionManager;
@@ -364,6 +367,7 @@ public class CCorePlugin extends Plugin {
 	public void stop(BundleContext context) throws Exception {
 		try {
 			pdomManager.shutdown();
+			StatisticsMBean.unregisterAll(CCorePlugin::log, getStatistics());
 
 			PositionTrackerManager.getInstance().uninstall();
 
@@ -395,6 +399,13 @@ public class CCorePlugin extends Plugin {
 		}
 	}
 
+	/**
+	 * Returns the statistics made available with the platform MBean server while the plug-in is active.
+	 */
+	private static StatisticsMBean[] getStatistics() {
+		return new StatisticsMBean[] { ProblemMarkerStatistics.getInstance(), IndexLockStatistics.getInstance() };
+	}
+
 	/**
 	 * @see Plugin#startup
 	 */
@@ -407,6 +418,7 @@ public class CCorePlugin extends Plugin {
 		configurePluginDebugOptions();
 		PositionTrackerManager.getInstance().install();
 		ResourceLookup.startup();
+		StatisticsMBean.registerAll(CCorePlugin::log, getStatistics());
 
 		ToolChainManager toolChainManager = new ToolChainManager();
 		context.registerService(IToolChainManager.class, toolChainManager, null);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 QNX Software Systems and others.
+ * Copyright (c) 2000, 2020 QNX Software Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -141,6 +141,20 @@ public class CCorePreferenceConstants {
 	 */
 	public static final String FILE_PATH_CANONICALIZATION = CCorePlugin.PLUGIN_ID + ".path_canonicalization"; //$NON-NLS-1$
 
+	/**
+	 * Boolean preference controlling whether large source files are memory-mapped while they are
+	 * parsed. Mapping saves copying the content, however on some platforms a mapped file is locked
+	 * and cannot be modified or deleted until the mapping is garbage collected.
+	 * @since 7.0
+	 */
+	public static final String MEMORY_MAP_LARGE_FILES = CCorePlugin.PLUGIN_ID + ".memoryMapLargeFiles"; //$NON-NLS-1$
+
+	/**
+	 * Default value for {@link #MEMORY_MAP_LARGE_FILES}.
+	 * @since 7.0
+	 */
+	public static final boolean DEFAULT_MEMORY_MAP_LARGE_FILES = false;
+
 	/**
 	 * Workspace-wide language mappings.
 	 */
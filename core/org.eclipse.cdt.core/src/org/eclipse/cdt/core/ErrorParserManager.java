@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2005, 2017 IBM Corporation and others.
+ *  Copyright (c) 2005, 2020 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -28,15 +28,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.Vector;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 import org.eclipse.cdt.core.errorparsers.ErrorParserNamedWrapper;
+import org.eclipse.cdt.core.errorparsers.RegexErrorParser;
 import org.eclipse.cdt.core.language.settings.providers.IWorkingDirectoryTracker;
 import org.eclipse.cdt.core.resources.ACBuilder;
 import org.eclipse.cdt.internal.core.Cygwin;
 import org.eclipse.cdt.internal.core.IErrorMarkeredOutputStream;
+import org.eclipse.cdt.internal.core.ProblemMarkerBatch;
 import org.eclipse.cdt.internal.core.ProblemMarkerFilterManager;
 import org.eclipse.cdt.internal.core.resources.ResourceLookup;
 import org.eclipse.cdt.internal.errorparsers.ErrorParserExtensionManager;
+import org.eclipse.cdt.internal.errorparsers.RegexPatternMatcher;
 import org.eclipse.cdt.utils.EFSExtensionManager;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -79,6 +83,10 @@ public class ErrorParserManager extends OutputStream implements IConsoleParser,
 	public static final String BUILD_CONTEXT = "build"; //$NON-NLS-1$
 
 	private static final Pattern ANSI_ESCAPE_RE = Pattern.compile("\\e\\[[\\d;]*[^\\d;]"); //$NON-NLS-1$
+	/** Longer lines are not given to the error parsers, unless they ask for them. */
+	private static final int MAX_LINE_LENGTH = 1000;
+	/** The minimum number of lines written at once for matching them in parallel. */
+	private static final int PARALLEL_THRESHOLD = 64;
 
 	private int nOpens;
 	private int lineCounter = 0;
@@ -88,8 +96,12 @@ public class ErrorParserManager extends OutputStream implements IConsoleParser,
 
 	private final IProject fProject;
 	private final IMarkerGenerator fMarkerGenerator;
+	/** Collects the markers for the marker generator of a build, {@code null} if markers are passed on immediately. */
+	private ProblemMarkerBatch fMarkerBatch;
 
 	private Map<String, IErrorParser[]> fErrorParsers;
+	private RegexErrorParser[] fRegexErrorParsers;
+	private RegexPatternMatcher[] fRegexMatchers;
 	private final List<ProblemMarkerInfo> fErrors;
 
 	private final Vector<URI> fDirectoryStack;
@@ -170,6 +182,7 @@ public class ErrorParserManager extends OutputStream implements IConsoleParser,
 			String[] parsersIDs) {
 		fProject = project;
 		fMarkerGenerator = markerGenerator;
+		startBatchingMarkers();
 		fDirectoryStack = new Vector<>();
 		fErrors = new ArrayList<>();
 		enableErrorParsers(parsersIDs);
@@ -329,11 +342,23 @@ public class ErrorParserManager extends OutputStream implements IConsoleParser,
 	 */
 	@Override
 	public boolean processLine(String line) {
+		return processLine(line, stripLine(line));
+	}
+
+	/**
+	 * Removes the ANSI escape sequences and the surrounding whitespace from a line of output.
+	 */
+	private static String stripLine(String line) {
 		/*
 		 * If the tool outputs colored text, it will contain ANSI escape
 		 * sequences. Remove them, since they can confuse the error parsers.
 		 */
-		String lineTrimmed = ANSI_ESCAPE_RE.matcher(line).replaceAll("").trim(); //$NON-NLS-1$
+		if (line.indexOf('\u001b') >= 0)
+			line = ANSI_ESCAPE_RE.matcher(line).replaceAll(""); //$NON-NLS-1$
+		return line.trim();
+	}
+
+	private boolean processLine(String line, String lineTrimmed) {
 		lineCounter++;
 
 		ProblemMarkerInfo marker = null;
@@ -350,7 +375,7 @@ public class ErrorParserManager extends OutputStream implements IConsoleParser,
 				}
 				if ((types & IErrorParser2.KEEP_LONGLINES) == 0) {
 					// long lines are not given to parsers, unless it wants it
-					if (lineTrimmed.length() > 1000) {
+					if (lineTrimmed.length() > MAX_LINE_LENGTH) {
 						continue;
 					}
 				}
@@ -390,6 +415,9 @@ public class ErrorParserManager extends OutputStream implements IConsoleParser,
 			}
 		}
 		outputLine(line, marker);
+		if (fMarkerBatch != null) {
+			fMarkerBatch.flushIfDue();
+		}
 
 		return false;
 	}
@@ -610,7 +638,11 @@ public class ErrorParserManager extends OutputStream implements IConsoleParser,
 			return;
 		fErrors.add(problemMarkerInfo);
 		problemMarkerInfo.setDeferDeDuplication(deferDeDuplication);
-		fMarkerGenerator.addMarker(problemMarkerInfo);
+		if (fMarkerBatch != null) {
+			fMarkerBatch.add(problemMarkerInfo);
+		} else {
+			fMarkerGenerator.addMarker(problemMarkerInfo);
+		}
 		if (problemMarkerInfo.severity == IMarkerGenerator.SEVERITY_ERROR_RESOURCE
 				|| problemMarkerInfo.severity == IMarkerGenerator.SEVERITY_ERROR_BUILD) {
 			hasErrors = true;
@@ -645,7 +677,9 @@ public class ErrorParserManager extends OutputStream implements IConsoleParser,
 	 * @return OutputStream
 	 */
 	public OutputStream getOutputStream() {
-		nOpens++;
+		if (nOpens++ == 0) {
+			startBatchingMarkers();
+		}
 		return this;
 	}
 
@@ -659,6 +693,7 @@ public class ErrorParserManager extends OutputStream implements IConsoleParser,
 		if (nOpens > 0 && --nOpens == 0) {
 			checkLine(true);
 			fDirectoryStack.removeAllElements();
+			stopBatchingMarkers();
 		}
 	}
 
@@ -700,26 +735,86 @@ public class ErrorParserManager extends OutputStream implements IConsoleParser,
 	// If flush is true rest of line is checked by error parsers.
 	private void checkLine(boolean flush) {
 		String buffer = currentLine.toString();
-		int i = 0;
-		while ((i = buffer.indexOf('\n')) != -1) {
-			String line = buffer.substring(0, i);
+		List<String> lines = new ArrayList<>();
+		int start = 0;
+		int i;
+		while ((i = buffer.indexOf('\n', start)) != -1) {
 			// get rid of any trailing '\r'
-			if (line.endsWith("\r")) { //$NON-NLS-1$
-				line = line.substring(0, line.length() - 1);
+			int end = i > start && buffer.charAt(i - 1) == '\r' ? i - 1 : i;
+			lines.add(buffer.substring(start, end));
+			start = i + 1; // skip the \n and advance
+		}
+		String rest = buffer.substring(start);
+		if (flush && rest.length() > 0) {
+			lines.add(rest);
+		}
+		processLines(lines);
+		currentLine.setLength(0);
+		if (!flush) {
+			currentLine.append(rest);
+		}
+	}
+
+	private void processLines(List<String> lines) {
+		if (lines.size() < PARALLEL_THRESHOLD) {
+			for (String line : lines) {
+				processLine(line);
+				previousLine = line;
+			}
+			return;
+		}
+
+		// Stripping the lines and matching them against the patterns of the regular expression
+		// error parsers does not depend on the state of the manager and is done in parallel. The
+		// error parsers are called in the order of the lines, by the writing thread, because they
+		// track the working directory and create the markers.
+		RegexErrorParser[] parsers = getRegexErrorParsers();
+		RegexPatternMatcher[] matchers = fRegexMatchers;
+		String[] trimmed = new String[lines.size()];
+		RegexPatternMatcher.Result[][] matches = new RegexPatternMatcher.Result[lines.size()][];
+		IntStream.range(0, lines.size()).parallel().forEach(n -> {
+			trimmed[n] = stripLine(lines.get(n));
+			if (parsers.length > 0 && trimmed[n].length() <= MAX_LINE_LENGTH) {
+				matches[n] = new RegexPatternMatcher.Result[parsers.length];
+				for (int j = 0; j < parsers.length; j++) {
+					matches[n][j] = matchers[j].match(trimmed[n]);
+				}
+			}
+		});
+		for (int n = 0; n < trimmed.length; n++) {
+			String line = lines.get(n);
+			if (matches[n] != null) {
+				RegexPatternMatcher.setPreparedMatches(trimmed[n], parsers, matchers, matches[n]);
+			}
+			try {
+				processLine(line, trimmed[n]);
+			} finally {
+				RegexPatternMatcher.clearPreparedMatches();
 			}
-			processLine(line);
 			previousLine = line;
-			buffer = buffer.substring(i + 1); // skip the \n and advance
 		}
-		currentLine.setLength(0);
-		if (flush) {
-			if (buffer.length() > 0) {
-				processLine(buffer);
-				previousLine = buffer;
+	}
+
+	private RegexErrorParser[] getRegexErrorParsers() {
+		if (fRegexErrorParsers == null) {
+			List<RegexErrorParser> parsers = new ArrayList<>();
+			for (IErrorParser[] errorParsers : fErrorParsers.values()) {
+				for (IErrorParser parser : errorParsers) {
+					if (parser instanceof ErrorParserNamedWrapper) {
+						parser = ((ErrorParserNamedWrapper) parser).getErrorParser();
+					}
+					if (parser instanceof RegexErrorParser) {
+						parsers.add((RegexErrorParser) parser);
+					}
+				}
 			}
-		} else {
-			currentLine.append(buffer);
+			fRegexMatchers = new RegexPatternMatcher[parsers.size()];
+			for (int i = 0; i < fRegexMatchers.length; i++) {
+				fRegexMatchers[i] = new RegexPatternMatcher(parsers.get(i).getPatterns());
+			}
+			fRegexErrorParsers = parsers.toArray(new RegexErrorParser[parsers.size()]);
 		}
+		return fRegexErrorParsers;
 	}
 
 	/**
@@ -911,6 +1006,28 @@ public class ErrorParserManager extends OutputStream implements IConsoleParser,
 				}
 			}
 		}
+		stopBatchingMarkers();
+	}
+
+	/**
+	 * Collects the markers reported by the error parsers of a builder, such that they are created
+	 * in batches, until {@link #stopBatchingMarkers()} is called.
+	 */
+	private void startBatchingMarkers() {
+		if (fMarkerBatch == null && fMarkerGenerator instanceof ACBuilder) {
+			fMarkerBatch = new ProblemMarkerBatch(fMarkerGenerator);
+		}
+	}
+
+	/**
+	 * Creates the markers collected so far and passes the markers reported afterwards to the
+	 * marker generator immediately, until the output is opened again.
+	 */
+	private void stopBatchingMarkers() {
+		if (fMarkerBatch != null) {
+			fMarkerBatch.flush();
+			fMarkerBatch = null;
+		}
 	}
 
 	/**
@@ -946,6 +1063,9 @@ public class ErrorParserManager extends OutputStream implements IConsoleParser,
 	 * @since 6.3
 	 */
 	public void deDuplicate() {
+		if (fMarkerBatch != null) {
+			fMarkerBatch.flush();
+		}
 		if (deferDeDuplication) {
 			deferDeDuplication = false;
 			((ACBuilder) fMarkerGenerator).deDuplicate();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2011 Andrew Gvozdev (Quoin Inc.) and others.
+ * Copyright (c) 2009, 2020 Andrew Gvozdev (Quoin Inc.) and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,11 +16,13 @@ package org.eclipse.cdt.core.errorparsers;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.ErrorParserManager;
 import org.eclipse.cdt.core.IErrorParser;
 import org.eclipse.cdt.core.IErrorParserNamed;
+import org.eclipse.cdt.internal.errorparsers.RegexPatternMatcher;
 
 /**
  * {@code RegexerrorParser} is an error parser designed to use regular expressions in order
@@ -38,6 +40,7 @@ public class RegexErrorParser implements IErrorParserNamed {
 	private String fId;
 	private String fName;
 	private final List<RegexErrorPattern> fPatterns = new ArrayList<>();
+	private RegexPatternMatcher fMatcher;
 
 	/**
 	 * Default constructor will initialize the error parser with the name of the class
@@ -145,18 +148,41 @@ public class RegexErrorParser implements IErrorParserNamed {
 	 */
 	@Override
 	public boolean processLine(String line, ErrorParserManager epManager) {
-		for (RegexErrorPattern pattern : fPatterns)
+		// The patterns that cannot match the line are skipped and the matchers of the ones that match
+		// are reused, the matches may have been computed ahead by the error parser manager.
+		RegexPatternMatcher.Result matches = RegexPatternMatcher.getPreparedMatches(this, line, fPatterns);
+		if (matches == null)
+			matches = getMatcher().match(line);
+		for (int i = 0; i < fPatterns.size(); i++) {
+			RegexErrorPattern pattern = fPatterns.get(i);
 			try {
-				if (pattern.processLine(line, epManager))
-					return true;
+				if (!matches.isExamined(i)) {
+					if (pattern.processLine(line, epManager))
+						return true;
+				} else {
+					Matcher matcher = matches.getMatcher(i);
+					if (matcher != null) {
+						// Same as RegexErrorPattern.processLine(), without matching the line again.
+						pattern.recordError(matcher, epManager);
+						if (pattern.isEatProcessedLine())
+							return true;
+					}
+				}
 			} catch (Exception e) {
 				String message = "Error parsing line [" + line + "]"; //$NON-NLS-1$//$NON-NLS-2$
 				CCorePlugin.log(message, e);
 			}
+		}
 
 		return false;
 	}
 
+	private RegexPatternMatcher getMatcher() {
+		if (fMatcher == null || !fMatcher.isFor(fPatterns))
+			fMatcher = new RegexPatternMatcher(getPatterns());
+		return fMatcher;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (o instanceof RegexErrorParser) {
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.cdt.core.CCorePlugin;
+import org.eclipse.cdt.core.IMarkerGenerator;
+import org.eclipse.cdt.core.ProblemMarkerInfo;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Collects the problem markers of a build and passes them to the marker generator in batches,
+ * each within a single workspace operation. Creating each marker in an operation of its own
+ * acquires the workspace lock and notifies the resource change listeners for every marker, which
+ * for builds with many problems blocks the workbench for a long time.
+ * <p>
+ * The markers are created in the order they are reported. A batch is created when
+ * {@value #MAX_BATCH_SIZE} markers are pending or when the first pending marker has been waiting
+ * for {@value #FLUSH_INTERVAL} ms, the pending markers have to be created with {@link #flush()} at
+ * the end of the build. A marker that is identical to one reported before is dropped.
+ * <p>
+ * The batches are created by the thread reporting the markers, the class is not thread-safe.
+ */
+public final class ProblemMarkerBatch {
+	private static final int MAX_BATCH_SIZE = 1000;
+	private static final long FLUSH_INTERVAL = 250;
+
+	private final IMarkerGenerator fGenerator;
+	private final List<ProblemMarkerInfo> fPending = new ArrayList<>();
+	private final Set<List<Object>> fReported = new HashSet<>();
+	private long fFirstPendingTime;
+
+	public ProblemMarkerBatch(IMarkerGenerator generator) {
+		fGenerator = generator;
+	}
+
+	/**
+	 * Adds a marker to the batch. The batch is created if it is full or due.
+	 */
+	public void add(ProblemMarkerInfo info) {
+		if (!fReported.add(getKey(info))) {
+			ProblemMarkerStatistics.getInstance().duplicateDropped();
+			return;
+		}
+		if (fPending.isEmpty())
+			fFirstPendingTime = System.nanoTime();
+		fPending.add(info);
+		if (fPending.size() >= MAX_BATCH_SIZE) {
+			flush();
+		} else {
+			flushIfDue();
+		}
+	}
+
+	/**
+	 * Creates the pending markers if the first of them has been waiting for longer than the
+	 * flush interval.
+	 */
+	public void flushIfDue() {
+		if (!fPending.isEmpty()
+				&& System.nanoTime() - fFirstPendingTime >= TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL)) {
+			flush();
+		}
+	}
+
+	/**
+	 * Creates the pending markers.
+	 */
+	public void flush() {
+		if (fPending.isEmpty())
+			return;
+		final ProblemMarkerInfo[] batch = fPending.toArray(new ProblemMarkerInfo[fPending.size()]);
+		final long firstPendingTime = fFirstPendingTime;
+		fPending.clear();
+
+		long start = System.nanoTime();
+		IWorkspaceRunnable runnable = monitor -> {
+			for (ProblemMarkerInfo info : batch) {
+				fGenerator.addMarker(info);
+			}
+		};
+		try {
+			// Markers do not require a scheduling rule.
+			ResourcesPlugin.getWorkspace().run(runnable, null, IWorkspace.AVOID_UPDATE, null);
+		} catch (CoreException e) {
+			CCorePlugin.log(e.getStatus());
+		}
+		long end = System.nanoTime();
+		ProblemMarkerStatistics.getInstance().flushed(batch.length, end - start, end - firstPendingTime);
+	}
+
+	private static List<Object> getKey(ProblemMarkerInfo info) {
+		return Arrays.asList(info.file, info.externalPath, info.lineNumber, info.startChar, info.endChar,
+				info.description, info.severity, info.variableName, info.getType(), info.getAttributes());
+	}
+}
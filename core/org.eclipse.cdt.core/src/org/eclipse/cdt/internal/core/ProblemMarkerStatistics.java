@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics on the batches of build problem markers created by {@link ProblemMarkerBatch}, for
+ * all builds since the start of the workbench or the last reset.
+ */
+public final class ProblemMarkerStatistics extends StatisticsMBean implements ProblemMarkerStatisticsMXBean {
+	public static final String OBJECT_NAME = "org.eclipse.cdt.core:type=ProblemMarkerStatistics"; //$NON-NLS-1$
+
+	private static final ProblemMarkerStatistics INSTANCE = new ProblemMarkerStatistics();
+
+	public static ProblemMarkerStatistics getInstance() {
+		return INSTANCE;
+	}
+
+	private final LongAdder fFlushes = new LongAdder();
+	private final LongAdder fMarkers = new LongAdder();
+	private final LongAdder fDuplicates = new LongAdder();
+	private final LongAdder fFlushTime = new LongAdder();
+	private final AtomicLong fMaxFlushTime = new AtomicLong();
+	private final AtomicLong fMaxLatency = new AtomicLong();
+
+	private ProblemMarkerStatistics() {
+		super(OBJECT_NAME);
+	}
+
+	void flushed(int markers, long flushTime, long latency) {
+		fFlushes.increment();
+		fMarkers.add(markers);
+		fFlushTime.add(flushTime);
+		updateMax(fMaxFlushTime, flushTime);
+		updateMax(fMaxLatency, latency);
+	}
+
+	void duplicateDropped() {
+		fDuplicates.increment();
+	}
+
+	private static void updateMax(AtomicLong max, long value) {
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	private static long toMillis(long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+
+	@Override
+	public long getFlushCount() {
+		return fFlushes.sum();
+	}
+
+	@Override
+	public long getMarkerCount() {
+		return fMarkers.sum();
+	}
+
+	@Override
+	public long getDuplicateCount() {
+		return fDuplicates.sum();
+	}
+
+	@Override
+	public long getFlushTime() {
+		return toMillis(fFlushTime.sum());
+	}
+
+	@Override
+	public long getMaxFlushTime() {
+		return toMillis(fMaxFlushTime.get());
+	}
+
+	@Override
+	public long getMaxLatency() {
+		return toMillis(fMaxLatency.get());
+	}
+
+	@Override
+	public void reset() {
+		fFlushes.reset();
+		fMarkers.reset();
+		fDuplicates.reset();
+		fFlushTime.reset();
+		fMaxFlushTime.set(0);
+		fMaxLatency.set(0);
+	}
+}
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core;
+
+/**
+ * Management interface for the statistics on the creation of build problem markers, registered
+ * with the platform MBean server as {@value ProblemMarkerStatistics#OBJECT_NAME}. Times are
+ * reported in milliseconds.
+ */
+public interface ProblemMarkerStatisticsMXBean {
+	/**
+	 * Returns the number of batches of markers that were created.
+	 */
+	long getFlushCount();
+
+	/**
+	 * Returns the number of markers that were created in batches.
+	 */
+	long getMarkerCount();
+
+	/**
+	 * Returns the number of markers that were dropped because they duplicated another marker of
+	 * the same build.
+	 */
+	long getDuplicateCount();
+
+	long getFlushTime();
+
+	long getMaxFlushTime();
+
+	/**
+	 * Returns the longest time a marker was waiting for its batch to be created.
+	 */
+	long getMaxLatency();
+
+	/**
+	 * Resets all counters.
+	 */
+	void reset();
+}
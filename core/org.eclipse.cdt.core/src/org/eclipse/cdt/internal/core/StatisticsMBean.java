@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Consumer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Base class of the statistics the CDT plug-ins make available with the platform MBean server.
+ * The plug-ins register their statistics when they start and remove them when they stop.
+ */
+public abstract class StatisticsMBean {
+	private final String fObjectName;
+
+	protected StatisticsMBean(String objectName) {
+		fObjectName = objectName;
+	}
+
+	/**
+	 * Returns the name the statistics are registered with.
+	 */
+	public final String getObjectName() {
+		return fObjectName;
+	}
+
+	/**
+	 * Registers the given statistics with the platform MBean server, unless they are registered
+	 * already. Failures are passed to the given log, they do not stop the registration of the
+	 * other statistics.
+	 */
+	public static void registerAll(Consumer<Throwable> log, StatisticsMBean... beans) {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (StatisticsMBean bean : beans) {
+			try {
+				ObjectName name = new ObjectName(bean.fObjectName);
+				if (!server.isRegistered(name))
+					server.registerMBean(bean, name);
+			} catch (JMException e) {
+				log.accept(e);
+			}
+		}
+	}
+
+	/**
+	 * Removes the given statistics from the platform MBean server. Failures are passed to the given
+	 * log, they do not stop the removal of the other statistics.
+	 */
+	public static void unregisterAll(Consumer<Throwable> log, StatisticsMBean... beans) {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (StatisticsMBean bean : beans) {
+			try {
+				ObjectName name = new ObjectName(bean.fObjectName);
+				if (server.isRegistered(name))
+					server.unregisterMBean(name);
+			} catch (JMException e) {
+				log.accept(e);
+			}
+		}
+	}
+}
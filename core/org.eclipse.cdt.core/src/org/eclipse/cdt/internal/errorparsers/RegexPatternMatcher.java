@@ -0,0 +1,317 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.errorparsers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.cdt.core.ErrorParserManager;
+import org.eclipse.cdt.core.errorparsers.RegexErrorParser;
+import org.eclipse.cdt.core.errorparsers.RegexErrorPattern;
+import org.eclipse.cdt.internal.core.RegexLiterals;
+
+/**
+ * Determines which patterns of a {@link RegexErrorParser} match a line of build output. The
+ * literal strings required by the patterns are searched for in a single pass over the line, with
+ * an Aho-Corasick automaton, and only the patterns whose literals are all present are run.
+ * Case-insensitive patterns are always run. The patterns are run in order, up to the first one
+ * that matches and consumes the line.
+ * <p>
+ * Matching does not depend on the {@link ErrorParserManager}, so it may run in any thread. The
+ * {@link ErrorParserManager} does that for chunks of build output and hands the results to the
+ * error parsers with {@link #setPreparedMatches}.
+ */
+public final class RegexPatternMatcher {
+	private static final ThreadLocal<PreparedMatches> PREPARED = new ThreadLocal<>();
+
+	private static class PreparedMatches {
+		final String fLine;
+		final RegexErrorParser[] fParsers;
+		final RegexPatternMatcher[] fMatchers;
+		final Result[] fResults;
+
+		PreparedMatches(String line, RegexErrorParser[] parsers, RegexPatternMatcher[] matchers, Result[] results) {
+			fLine = line;
+			fParsers = parsers;
+			fMatchers = matchers;
+			fResults = results;
+		}
+	}
+
+	/**
+	 * The outcome of matching a line against the patterns.
+	 */
+	public static final class Result {
+		private final Matcher[] fMatchers;
+		private final boolean[] fExamined;
+
+		Result(int patternCount) {
+			fMatchers = new Matcher[patternCount];
+			fExamined = new boolean[patternCount];
+		}
+
+		/**
+		 * Returns whether the pattern with the given index has been examined. Patterns overriding
+		 * {@link RegexErrorPattern#processLine} and the ones after a pattern consuming the line
+		 * are not examined.
+		 */
+		public boolean isExamined(int index) {
+			return fExamined[index];
+		}
+
+		/**
+		 * Returns the matcher of the examined pattern with the given index, positioned on the
+		 * match of the entire line, or {@code null} if the pattern does not match the line.
+		 */
+		public Matcher getMatcher(int index) {
+			return fMatchers[index];
+		}
+	}
+
+	private final RegexErrorPattern[] fPatterns;
+	private final String[] fRegexes;
+	private final boolean[] fEatProcessedLine;
+	/** The compiled expressions, {@code null} for the patterns that are not examined. */
+	private final Pattern[] fCompiled;
+	/** The ids of the literals each pattern requires. */
+	private final int[][] fRequiredLiterals;
+	private final LiteralAutomaton fAutomaton;
+
+	public RegexPatternMatcher(RegexErrorPattern[] patterns) {
+		fPatterns = patterns.clone();
+		fRegexes = new String[patterns.length];
+		fEatProcessedLine = new boolean[patterns.length];
+		fCompiled = new Pattern[patterns.length];
+		fRequiredLiterals = new int[patterns.length][];
+		Map<String, Integer> literalIds = new HashMap<>();
+		for (int i = 0; i < patterns.length; i++) {
+			fRegexes[i] = patterns[i].getPattern();
+			fEatProcessedLine[i] = patterns[i].isEatProcessedLine();
+			fRequiredLiterals[i] = new int[0];
+			if (!usesDefaultMatching(patterns[i]))
+				continue;
+			fCompiled[i] = Pattern.compile(fRegexes[i]);
+			// The automaton compares characters exactly.
+			if (RegexLiterals.isCaseInsensitive(fCompiled[i]))
+				continue;
+			String[] literals = RegexLiterals.getRequiredLiterals(fCompiled[i]);
+			int[] ids = new int[literals.length];
+			for (int j = 0; j < literals.length; j++) {
+				Integer id = literalIds.get(literals[j]);
+				if (id == null) {
+					id = literalIds.size();
+					literalIds.put(literals[j], id);
+				}
+				ids[j] = id;
+			}
+			fRequiredLiterals[i] = ids;
+		}
+		String[] literals = new String[literalIds.size()];
+		for (Map.Entry<String, Integer> entry : literalIds.entrySet()) {
+			literals[entry.getValue()] = entry.getKey();
+		}
+		fAutomaton = new LiteralAutomaton(literals);
+	}
+
+	/**
+	 * Returns whether the matcher was created for the given patterns and none of them was
+	 * modified since.
+	 */
+	public boolean isFor(List<RegexErrorPattern> patterns) {
+		if (patterns.size() != fPatterns.length)
+			return false;
+		for (int i = 0; i < fPatterns.length; i++) {
+			RegexErrorPattern pattern = patterns.get(i);
+			if (pattern != fPatterns[i] || !fRegexes[i].equals(pattern.getPattern())
+					|| fEatProcessedLine[i] != pattern.isEatProcessedLine())
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Matches the given line against the patterns, in order. Patterns that match the entire line
+	 * report their matcher. The patterns after the first one that matches and consumes the line
+	 * are not examined, since the error parser stops there.
+	 */
+	public Result match(String line) {
+		boolean[] found = fAutomaton.find(line);
+		Result result = new Result(fCompiled.length);
+		patterns: for (int i = 0; i < fCompiled.length; i++) {
+			if (fCompiled[i] == null)
+				continue;
+			result.fExamined[i] = true;
+			for (int id : fRequiredLiterals[i]) {
+				if (!found[id])
+					continue patterns;
+			}
+			Matcher matcher = fCompiled[i].matcher(line);
+			if (matcher.matches()) {
+				result.fMatchers[i] = matcher;
+				if (fEatProcessedLine[i])
+					break;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Makes the results of {@link #match(String)} for the given line available to the error parsers
+	 * called by the current thread, until {@link #clearPreparedMatches()} is called.
+	 */
+	public static void setPreparedMatches(String line, RegexErrorParser[] parsers, RegexPatternMatcher[] matchers,
+			Result[] results) {
+		PREPARED.set(new PreparedMatches(line, parsers, matchers, results));
+	}
+
+	public static void clearPreparedMatches() {
+		PREPARED.remove();
+	}
+
+	/**
+	 * Returns the result prepared for the given error parser and line, or {@code null} if there
+	 * is none or the patterns of the parser have changed since it was computed.
+	 */
+	public static Result getPreparedMatches(RegexErrorParser parser, String line, List<RegexErrorPattern> patterns) {
+		PreparedMatches prepared = PREPARED.get();
+		if (prepared == null || prepared.fLine != line)
+			return null;
+		for (int i = 0; i < prepared.fParsers.length; i++) {
+			if (prepared.fParsers[i] == parser)
+				return prepared.fMatchers[i].isFor(patterns) ? prepared.fResults[i] : null;
+		}
+		return null;
+	}
+
+	private static boolean usesDefaultMatching(RegexErrorPattern pattern) {
+		try {
+			return pattern.getClass().getMethod("processLine", String.class, ErrorParserManager.class) //$NON-NLS-1$
+					.getDeclaringClass() == RegexErrorPattern.class;
+		} catch (NoSuchMethodException | SecurityException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * An Aho-Corasick automaton finding all occurrences of a set of strings in a single pass.
+	 */
+	private static final class LiteralAutomaton {
+		private final int fLiteralCount;
+		/** The characters of the transitions of each state, sorted. */
+		private final char[][] fTransitionChars;
+		private final int[][] fTransitionTargets;
+		private final int[] fFailure;
+		/** The ids of the literals ending in each state, including those of the failure states. */
+		private final int[][] fOutputs;
+
+		LiteralAutomaton(String[] literals) {
+			fLiteralCount = literals.length;
+			List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+			List<int[]> outputs = new ArrayList<>();
+			trie.add(new TreeMap<>());
+			outputs.add(new int[0]);
+			for (int id = 0; id < literals.length; id++) {
+				int state = 0;
+				for (int i = 0; i < literals[id].length(); i++) {
+					Integer next = trie.get(state).get(literals[id].charAt(i));
+					if (next == null) {
+						next = trie.size();
+						trie.get(state).put(literals[id].charAt(i), next);
+						trie.add(new TreeMap<>());
+						outputs.add(new int[0]);
+					}
+					state = next;
+				}
+				int[] output = outputs.get(state);
+				output = Arrays.copyOf(output, output.length + 1);
+				output[output.length - 1] = id;
+				outputs.set(state, output);
+			}
+
+			int stateCount = trie.size();
+			fTransitionChars = new char[stateCount][];
+			fTransitionTargets = new int[stateCount][];
+			for (int state = 0; state < stateCount; state++) {
+				TreeMap<Character, Integer> transitions = trie.get(state);
+				fTransitionChars[state] = new char[transitions.size()];
+				fTransitionTargets[state] = new int[transitions.size()];
+				int i = 0;
+				for (Map.Entry<Character, Integer> entry : transitions.entrySet()) {
+					fTransitionChars[state][i] = entry.getKey();
+					fTransitionTargets[state][i++] = entry.getValue();
+				}
+			}
+
+			// Breadth first, such that the failure state of a state is computed before its own.
+			fFailure = new int[stateCount];
+			fOutputs = new int[stateCount][];
+			fOutputs[0] = outputs.get(0);
+			ArrayDeque<Integer> queue = new ArrayDeque<>();
+			for (int target : fTransitionTargets[0]) {
+				fOutputs[target] = outputs.get(target);
+				queue.add(target);
+			}
+			while (!queue.isEmpty()) {
+				int state = queue.remove();
+				for (int i = 0; i < fTransitionChars[state].length; i++) {
+					char c = fTransitionChars[state][i];
+					int target = fTransitionTargets[state][i];
+					int failure = fFailure[state];
+					int next;
+					while ((next = transition(failure, c)) < 0 && failure != 0) {
+						failure = fFailure[failure];
+					}
+					fFailure[target] = next >= 0 ? next : 0;
+					int[] own = outputs.get(target);
+					int[] inherited = fOutputs[fFailure[target]];
+					int[] merged = Arrays.copyOf(own, own.length + inherited.length);
+					System.arraycopy(inherited, 0, merged, own.length, inherited.length);
+					fOutputs[target] = merged;
+					queue.add(target);
+				}
+			}
+		}
+
+		/**
+		 * Returns for each literal whether it occurs in the given text.
+		 */
+		boolean[] find(String text) {
+			boolean[] found = new boolean[fLiteralCount];
+			if (fLiteralCount == 0)
+				return found;
+			int state = 0;
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				int next;
+				while ((next = transition(state, c)) < 0 && state != 0) {
+					state = fFailure[state];
+				}
+				state = next >= 0 ? next : 0;
+				for (int id : fOutputs[state]) {
+					found[id] = true;
+				}
+			}
+			return found;
+		}
+
+		private int transition(int state, char c) {
+			int i = Arrays.binarySearch(fTransitionChars[state], c);
+			return i >= 0 ? fTransitionTargets[state][i] : -1;
+		}
+	}
+}
@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts the literal strings that every match of a regular expression contains. Such strings
+ * allow to rule out the input that cannot match without running the expression.
+ */
+public final class RegexLiterals {
+	private static final Pattern INLINE_COMMENTS_FLAG = Pattern.compile("\\(\\?[a-zA-Z]*x"); //$NON-NLS-1$
+	private static final Pattern INLINE_CASE_INSENSITIVE_FLAG = Pattern.compile("\\(\\?[a-zA-Z]*i"); //$NON-NLS-1$
+
+	private RegexLiterals() {
+	}
+
+	/**
+	 * Returns strings that every match of the regular expression contains. The expression is
+	 * examined conservatively: literal characters inside of groups, quantified characters and
+	 * expressions with alternatives at the top level do not contribute any strings. The matches
+	 * of a {@link #isCaseInsensitive case-insensitive} expression contain the strings ignoring case.
+	 */
+	public static String[] getRequiredLiterals(Pattern pattern) {
+		final String regex = pattern.pattern();
+		final int flags = pattern.flags();
+		if ((flags & Pattern.LITERAL) != 0)
+			return new String[] { regex };
+		if ((flags & Pattern.COMMENTS) != 0 || INLINE_COMMENTS_FLAG.matcher(regex).find())
+			return new String[0];
+
+		List<String> result = new ArrayList<>();
+		StringBuilder literal = new StringBuilder();
+		int depth = 0;
+		int i = 0;
+		while (i < regex.length()) {
+			char c = regex.charAt(i++);
+			// The number of characters appended for the atom at hand, or -1 if it is not a literal.
+			int appended = -1;
+			switch (c) {
+			case '|':
+				if (depth == 0)
+					return new String[0];
+				break;
+			case '(':
+				depth++;
+				break;
+			case ')':
+				depth--;
+				break;
+			case '[':
+				i = skipCharacterClass(regex, i);
+				break;
+			case '.':
+			case '^':
+			case '$':
+				break;
+			case '\\':
+				if (i >= regex.length())
+					break;
+				char e = regex.charAt(i++);
+				if (e == 'Q') {
+					int end = regex.indexOf("\\E", i); //$NON-NLS-1$
+					if (end < 0)
+						end = regex.length();
+					if (depth == 0) {
+						literal.append(regex, i, end);
+						appended = end - i;
+					}
+					i = Math.min(end + 2, regex.length());
+				} else if (Character.isLetterOrDigit(e)) {
+					// Character classes, boundaries, back references and characters given by their
+					// code interrupt the literal.
+					i = skipEscapeOperand(regex, e, i);
+				} else if (depth == 0) {
+					literal.append(e);
+					appended = 1;
+				}
+				break;
+			case '{':
+				int close = regex.indexOf('}', i);
+				i = close < 0 ? regex.length() : close + 1;
+				break;
+			case '?':
+			case '*':
+			case '+':
+				// Quantifiers are handled after the atom they belong to.
+				break;
+			default:
+				if (depth == 0) {
+					literal.append(c);
+					appended = 1;
+				}
+				break;
+			}
+
+			if (appended < 0) {
+				addLiteral(literal, result);
+				continue;
+			}
+			if (i < regex.length()) {
+				char quantifier = regex.charAt(i);
+				if (quantifier == '?' || quantifier == '*' || quantifier == '{') {
+					// The last character is optional.
+					if (appended > 0)
+						literal.setLength(literal.length() - 1);
+					addLiteral(literal, result);
+				} else if (quantifier == '+') {
+					addLiteral(literal, result);
+				}
+			}
+		}
+		addLiteral(literal, result);
+		return result.toArray(new String[result.size()]);
+	}
+
+	/**
+	 * Returns whether the regular expression ignores case, at least in parts.
+	 */
+	public static boolean isCaseInsensitive(Pattern pattern) {
+		return (pattern.flags() & Pattern.CASE_INSENSITIVE) != 0
+				|| INLINE_CASE_INSENSITIVE_FLAG.matcher(pattern.pattern()).find();
+	}
+
+	private static void addLiteral(StringBuilder literal, List<String> result) {
+		if (literal.length() > 0) {
+			result.add(literal.toString());
+			literal.setLength(0);
+		}
+	}
+
+	/**
+	 * Returns the index after the operand of the escape sequence with the given letter or digit,
+	 * which starts at the given index.
+	 */
+	private static int skipEscapeOperand(String regex, char escape, int i) {
+		switch (escape) {
+		case 'x':
+			if (i < regex.length() && regex.charAt(i) == '{')
+				return skipPast(regex, '}', i);
+			return Math.min(i + 2, regex.length());
+		case 'u':
+			return Math.min(i + 4, regex.length());
+		case 'c':
+			return Math.min(i + 1, regex.length());
+		case '0':
+			for (int end = Math.min(i + 3, regex.length()); i < end && isOctalDigit(regex.charAt(i));) {
+				i++;
+			}
+			return i;
+		case 'k':
+			if (i < regex.length() && regex.charAt(i) == '<')
+				return skipPast(regex, '>', i);
+			return i;
+		case 'p':
+		case 'P':
+		case 'N':
+			if (i < regex.length() && regex.charAt(i) == '{')
+				return skipPast(regex, '}', i);
+			return escape == 'N' ? i : Math.min(i + 1, regex.length());
+		default:
+			if (escape >= '1' && escape <= '9') {
+				// A back reference, with as many digits as there are groups.
+				while (i < regex.length() && Character.isDigit(regex.charAt(i))) {
+					i++;
+				}
+			}
+			return i;
+		}
+	}
+
+	private static int skipPast(String regex, char c, int i) {
+		int end = regex.indexOf(c, i);
+		return end < 0 ? regex.length() : end + 1;
+	}
+
+	private static boolean isOctalDigit(char c) {
+		return c >= '0' && c <= '7';
+	}
+
+	/**
+	 * Returns the index after the end of the character class starting at the given index, which
+	 * is the one after the opening bracket.
+	 */
+	private static int skipCharacterClass(String regex, int i) {
+		int depth = 1;
+		if (i < regex.length() && regex.charAt(i) == '^')
+			i++;
+		if (i < regex.length() && regex.charAt(i) == ']')
+			i++;
+		while (i < regex.length()) {
+			char c = regex.charAt(i++);
+			if (c == '\\') {
+				i++;
+			} else if (c == '[') {
+				depth++;
+			} else if (c == ']' && --depth == 0) {
+				break;
+			}
+		}
+		return i;
+	}
+}
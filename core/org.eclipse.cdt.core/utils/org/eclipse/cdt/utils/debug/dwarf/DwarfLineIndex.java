@@ -0,0 +1,528 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.utils.debug.dwarf;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.cdt.core.CCorePlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+
+/**
+ * An index of the line tables in the .debug_line section of a binary. It maps addresses to source
+ * lines and source files to the compilation units using them. The index is built in a single pass
+ * over the line tables, and can be written to and read from a stream to avoid building it again.
+ * <p>
+ * Lookups by address are binary searches, lookups by file are hash lookups.
+ *
+ * @noinstantiate This class is not intended to be instantiated by clients.
+ * @since 7.0
+ */
+public final class DwarfLineIndex {
+	private static final int MAGIC = 0x44574c49; // DWLI
+	private static final int FORMAT_VERSION = 1;
+	/** Number of line tables from which on the tables are parsed in parallel. */
+	private static final int PARALLEL_THRESHOLD = 64;
+	private static final String[] NO_STRINGS = {};
+
+	/** The rows of the line tables, sorted by address. A file index of -1 marks the end of a sequence. */
+	private final long[] fAddresses;
+	private final int[] fRowFiles;
+	private final int[] fLines;
+	private final String[] fFiles;
+	/** The name of the compilation unit of each line table, or {@code null}. */
+	private final String[] fCompileUnits;
+	/** The indices of the line tables using each file. */
+	private final int[][] fFileLineTables;
+	private final Map<String, Integer> fFileIndices;
+
+	private DwarfLineIndex(long[] addresses, int[] rowFiles, int[] lines, String[] files, String[] compileUnits,
+			int[][] fileLineTables) {
+		fAddresses = addresses;
+		fRowFiles = rowFiles;
+		fLines = lines;
+		fFiles = files;
+		fCompileUnits = compileUnits;
+		fFileLineTables = fileLineTables;
+		fFileIndices = new HashMap<>();
+		for (int i = 0; i < files.length; i++) {
+			fFileIndices.put(files[i], i);
+		}
+	}
+
+	/**
+	 * Returns the number of rows, including the ones marking the end of an address range.
+	 */
+	public int getRowCount() {
+		return fAddresses.length;
+	}
+
+	/**
+	 * Returns the source files referenced by the line tables.
+	 */
+	public String[] getFiles() {
+		return fFiles.clone();
+	}
+
+	/**
+	 * Returns the source file of the code at the given address, or {@code null} if the address is
+	 * not covered by a line table.
+	 */
+	public String getFile(long address) {
+		int row = findRow(address);
+		return row < 0 ? null : fFiles[fRowFiles[row]];
+	}
+
+	/**
+	 * Returns the source line of the code at the given address, or {@code 0} if the address is not
+	 * covered by a line table.
+	 */
+	public int getLine(long address) {
+		int row = findRow(address);
+		return row < 0 ? 0 : fLines[row];
+	}
+
+	/**
+	 * Returns the names of the compilation units whose line tables reference the given file.
+	 */
+	public String[] getCompileUnits(String file) {
+		Integer index = fFileIndices.get(file);
+		if (index == null)
+			return NO_STRINGS;
+		Set<String> result = new LinkedHashSet<>();
+		for (int table : fFileLineTables[index]) {
+			if (fCompileUnits[table] != null)
+				result.add(fCompileUnits[table]);
+		}
+		return result.toArray(new String[result.size()]);
+	}
+
+	/**
+	 * Returns the last row with an address that is not greater than the given one, or -1 if there is
+	 * no such row or if it ends an address range.
+	 */
+	private int findRow(long address) {
+		int low = 0;
+		int high = fAddresses.length - 1;
+		int result = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (Long.compareUnsigned(fAddresses[mid], address) <= 0) {
+				result = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return result < 0 || fRowFiles[result] < 0 ? -1 : result;
+	}
+
+	/**
+	 * Writes the index to the given output, it can be read back with {@link #read(DataInput)}.
+	 */
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(FORMAT_VERSION);
+		out.writeInt(fFiles.length);
+		for (String file : fFiles) {
+			out.writeUTF(file);
+		}
+		out.writeInt(fCompileUnits.length);
+		for (String compileUnit : fCompileUnits) {
+			out.writeBoolean(compileUnit != null);
+			if (compileUnit != null)
+				out.writeUTF(compileUnit);
+		}
+		for (int[] tables : fFileLineTables) {
+			out.writeInt(tables.length);
+			for (int table : tables) {
+				out.writeInt(table);
+			}
+		}
+		out.writeInt(fAddresses.length);
+		for (int i = 0; i < fAddresses.length; i++) {
+			out.writeLong(fAddresses[i]);
+			out.writeInt(fRowFiles[i]);
+			out.writeInt(fLines[i]);
+		}
+	}
+
+	/**
+	 * Reads an index written by {@link #write(DataOutput)}.
+	 *
+	 * @throws IOException if the input does not contain an index in the current format.
+	 */
+	public static DwarfLineIndex read(DataInput in) throws IOException {
+		if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION)
+			throw new IOException("Unsupported line index format"); //$NON-NLS-1$
+		String[] files = new String[in.readInt()];
+		for (int i = 0; i < files.length; i++) {
+			files[i] = in.readUTF();
+		}
+		String[] compileUnits = new String[in.readInt()];
+		for (int i = 0; i < compileUnits.length; i++) {
+			if (in.readBoolean())
+				compileUnits[i] = in.readUTF();
+		}
+		int[][] fileLineTables = new int[files.length][];
+		for (int i = 0; i < files.length; i++) {
+			int[] tables = new int[in.readInt()];
+			for (int j = 0; j < tables.length; j++) {
+				tables[j] = in.readInt();
+			}
+			fileLineTables[i] = tables;
+		}
+		int rows = in.readInt();
+		long[] addresses = new long[rows];
+		int[] rowFiles = new int[rows];
+		int[] lines = new int[rows];
+		for (int i = 0; i < rows; i++) {
+			addresses[i] = in.readLong();
+			rowFiles[i] = in.readInt();
+			lines[i] = in.readInt();
+		}
+		return new DwarfLineIndex(addresses, rowFiles, lines, files, compileUnits, fileLineTables);
+	}
+
+	/**
+	 * Builds the index for the given .debug_line section. The line tables are parsed in parallel
+	 * when there are many of them.
+	 *
+	 * @param reader the reader the section belongs to, for decoding its data.
+	 * @param data the .debug_line section.
+	 * @param compDirs the compilation directories of the compile units, by the offsets of their
+	 *     line tables.
+	 * @param compileUnits the names of the compile units, by the offsets of their line tables.
+	 */
+	static DwarfLineIndex build(DwarfReader reader, ByteBuffer data, Map<Long, String> compDirs,
+			Map<Long, String> compileUnits) {
+		Set<Long> offsets = new TreeSet<>(compDirs.keySet());
+		collectLineTableOffsets(reader, data, offsets);
+
+		Stream<Long> stream = offsets.size() >= PARALLEL_THRESHOLD ? offsets.parallelStream() : offsets.stream();
+		List<LineTable> tables = stream.map(offset -> {
+			String compDir = compDirs.get(offset);
+			return parseLineTable(reader, data.duplicate(), offset, compDir == null ? "" : compDir); //$NON-NLS-1$
+		}).filter(Objects::nonNull).collect(Collectors.toList());
+
+		// Assign indices to the files and concatenate the rows of all tables.
+		Map<String, Integer> fileIndices = new HashMap<>();
+		List<String> files = new ArrayList<>();
+		List<List<Integer>> fileLineTables = new ArrayList<>();
+		String[] names = new String[tables.size()];
+		int rowCount = 0;
+		for (LineTable table : tables) {
+			rowCount += table.fRowCount;
+		}
+		long[] addresses = new long[rowCount];
+		int[] rowFiles = new int[rowCount];
+		int[] lines = new int[rowCount];
+		int row = 0;
+		for (int t = 0; t < tables.size(); t++) {
+			LineTable table = tables.get(t);
+			names[t] = compileUnits.get(table.fOffset);
+			int[] globalFiles = new int[table.fFiles.length];
+			for (int i = 0; i < globalFiles.length; i++) {
+				Integer index = fileIndices.get(table.fFiles[i]);
+				if (index == null) {
+					index = files.size();
+					fileIndices.put(table.fFiles[i], index);
+					files.add(table.fFiles[i]);
+					fileLineTables.add(new ArrayList<>());
+				}
+				List<Integer> lineTables = fileLineTables.get(index);
+				if (lineTables.isEmpty() || lineTables.get(lineTables.size() - 1) != t)
+					lineTables.add(t);
+				globalFiles[i] = index;
+			}
+			for (int i = 0; i < table.fRowCount; i++, row++) {
+				addresses[row] = table.fAddresses[i];
+				int file = table.fRowFiles[i];
+				rowFiles[row] = file < 0 ? -1 : globalFiles[file];
+				lines[row] = table.fLines[i];
+			}
+		}
+
+		int[] order = new int[rowCount];
+		for (int i = 0; i < rowCount; i++) {
+			order[i] = i;
+		}
+		sortRows(order, new int[rowCount], 0, rowCount, addresses, rowFiles);
+		long[] sortedAddresses = new long[rowCount];
+		int[] sortedFiles = new int[rowCount];
+		int[] sortedLines = new int[rowCount];
+		for (int i = 0; i < rowCount; i++) {
+			sortedAddresses[i] = addresses[order[i]];
+			sortedFiles[i] = rowFiles[order[i]];
+			sortedLines[i] = lines[order[i]];
+		}
+
+		int[][] lineTablesOfFiles = new int[files.size()][];
+		for (int i = 0; i < lineTablesOfFiles.length; i++) {
+			lineTablesOfFiles[i] = fileLineTables.get(i).stream().mapToInt(Integer::intValue).toArray();
+		}
+		return new DwarfLineIndex(sortedAddresses, sortedFiles, sortedLines, files.toArray(new String[files.size()]),
+				names, lineTablesOfFiles);
+	}
+
+	/**
+	 * Adds the offsets of the line tables found by walking the section from its start. The walk
+	 * stops at the first table with an implausible header, the tables referenced by the compile
+	 * units are known anyway.
+	 */
+	private static void collectLineTableOffsets(DwarfReader reader, ByteBuffer section, Set<Long> offsets) {
+		ByteBuffer data = section.duplicate();
+		int minHeaderSize = 16;
+		int start = 0;
+		try {
+			while (start < data.capacity() - minHeaderSize) {
+				data.position(start);
+				Dwarf.InitialLengthValue length = reader.readInitialLengthField(data);
+				long next = data.position() + length.length;
+				int version = reader.read_2_bytes(data);
+				if (length.length < minHeaderSize || next > data.capacity() || version < 2 || version > 4)
+					break;
+				offsets.add((long) start);
+				start = (int) next;
+			}
+		} catch (IOException e) {
+			// Stop at the corrupt table.
+		}
+	}
+
+	/**
+	 * Runs the line number program of the table at the given offset, or returns {@code null} if the
+	 * table cannot be read.
+	 */
+	private static LineTable parseLineTable(DwarfReader reader, ByteBuffer data, long offset, String compDir) {
+		try {
+			data.position((int) offset);
+			Dwarf.InitialLengthValue length = reader.readInitialLengthField(data);
+			boolean dwarf64Bit = length.offsetSize == 8;
+			long end = data.position() + length.length;
+			if (end > data.capacity())
+				return null;
+			int version = reader.read_2_bytes(data);
+			if (version < 2 || version > 4)
+				return null;
+			long headerLength = dwarf64Bit ? reader.read_8_bytes(data) : reader.read_4_bytes(data) & 0xffffffffL;
+			long programStart = data.position() + headerLength;
+			int minInstructionLength = data.get() & 0xff;
+			if (version >= 4)
+				data.get(); // maximum_operations_per_instruction
+			data.get(); // default_is_stmt
+			int lineBase = data.get();
+			int lineRange = data.get() & 0xff;
+			int opcodeBase = data.get() & 0xff;
+			if (lineRange == 0 || opcodeBase == 0)
+				return null;
+			int[] opcodeLengths = new int[opcodeBase];
+			for (int i = 1; i < opcodeBase; i++) {
+				opcodeLengths[i] = data.get() & 0xff;
+			}
+
+			// The compilation directory is the directory with index 0.
+			List<String> dirs = new ArrayList<>();
+			dirs.add(compDir);
+			while (true) {
+				String dir = reader.readString(data);
+				if (dir.isEmpty())
+					break;
+				IPath path = new Path(dir);
+				dirs.add(path.isAbsolute() ? dir : new Path(compDir).append(dir).toString());
+			}
+			List<String> files = new ArrayList<>();
+			while (true) {
+				String name = reader.readString(data);
+				if (name.isEmpty())
+					break;
+				files.add(getFullName(dirs, reader.read_unsigned_leb128(data), name));
+				reader.read_unsigned_leb128(data); // modification time
+				reader.read_unsigned_leb128(data); // file size
+			}
+
+			LineTable table = new LineTable(offset);
+			data.position((int) programStart);
+			long address = 0;
+			int file = 1;
+			int line = 1;
+			while (data.position() < end) {
+				int opcode = data.get() & 0xff;
+				if (opcode >= opcodeBase) {
+					int adjusted = opcode - opcodeBase;
+					address += (adjusted / lineRange) * minInstructionLength;
+					line += lineBase + adjusted % lineRange;
+					table.addRow(address, file - 1, line, files.size());
+					continue;
+				}
+				switch (opcode) {
+				case 0: {
+					int size = (int) reader.read_unsigned_leb128(data);
+					int next = data.position() + size;
+					int extendedOpcode = size > 0 ? data.get() & 0xff : 0;
+					switch (extendedOpcode) {
+					case DwarfConstants.DW_LNE_end_sequence:
+						table.addEndOfSequence(address);
+						address = 0;
+						file = 1;
+						line = 1;
+						break;
+					case DwarfConstants.DW_LNE_set_address:
+						address = readAddress(data, size - 1, reader.isLE);
+						break;
+					case DwarfConstants.DW_LNE_define_file:
+						String name = reader.readString(data);
+						files.add(getFullName(dirs, reader.read_unsigned_leb128(data), name));
+						break;
+					default:
+						break;
+					}
+					data.position(next);
+					break;
+				}
+				case DwarfConstants.DW_LNS_copy:
+					table.addRow(address, file - 1, line, files.size());
+					break;
+				case DwarfConstants.DW_LNS_advance_pc:
+					address += reader.read_unsigned_leb128(data) * minInstructionLength;
+					break;
+				case DwarfConstants.DW_LNS_advance_line:
+					line += (int) reader.read_signed_leb128(data);
+					break;
+				case DwarfConstants.DW_LNS_set_file:
+					file = (int) reader.read_unsigned_leb128(data);
+					break;
+				case DwarfConstants.DW_LNS_const_add_pc:
+					address += ((255 - opcodeBase) / lineRange) * minInstructionLength;
+					break;
+				case DwarfConstants.DW_LNS_fixed_advance_pc:
+					address += reader.read_2_bytes(data) & 0xffff;
+					break;
+				default:
+					// Skip the operands of the remaining standard opcodes, they don't affect the rows.
+					for (int i = 0; i < opcodeLengths[opcode]; i++) {
+						reader.read_unsigned_leb128(data);
+					}
+					break;
+				}
+			}
+			table.fFiles = files.toArray(new String[files.size()]);
+			return table;
+		} catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+			CCorePlugin.log(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Reads an unsigned address of the given size.
+	 */
+	private static long readAddress(ByteBuffer data, int size, boolean isLE) {
+		long result = 0;
+		for (int i = 0; i < size; i++) {
+			long b = data.get() & 0xffL;
+			result = isLE ? result | (b << (8 * i)) : (result << 8) | b;
+		}
+		return result;
+	}
+
+	private static String getFullName(List<String> dirs, long dirIndex, String name) {
+		String dir = dirIndex >= 0 && dirIndex < dirs.size() ? dirs.get((int) dirIndex) : ""; //$NON-NLS-1$
+		IPath path = new Path(name);
+		if (!path.isAbsolute() && !dir.isEmpty())
+			path = new Path(dir).append(path);
+		return path.toOSString();
+	}
+
+	/**
+	 * Sorts the range of {@code order} by address. At the same address a row ending a sequence
+	 * comes first, otherwise the order of the rows is kept.
+	 */
+	private static void sortRows(int[] order, int[] tmp, int from, int to, long[] addresses, int[] files) {
+		if (to - from < 2)
+			return;
+		int mid = (from + to) >>> 1;
+		sortRows(order, tmp, from, mid, addresses, files);
+		sortRows(order, tmp, mid, to, addresses, files);
+		if (compareRows(order[mid - 1], order[mid], addresses, files) <= 0)
+			return;
+		System.arraycopy(order, from, tmp, from, to - from);
+		int i = from, j = mid;
+		for (int k = from; k < to; k++) {
+			if (j >= to || (i < mid && compareRows(tmp[i], tmp[j], addresses, files) <= 0)) {
+				order[k] = tmp[i++];
+			} else {
+				order[k] = tmp[j++];
+			}
+		}
+	}
+
+	private static int compareRows(int a, int b, long[] addresses, int[] files) {
+		int cmp = Long.compareUnsigned(addresses[a], addresses[b]);
+		if (cmp != 0)
+			return cmp;
+		return Boolean.compare(files[a] >= 0, files[b] >= 0);
+	}
+
+	/**
+	 * The rows of a single line table, the file indices refer to the files of the table.
+	 */
+	private static final class LineTable {
+		final long fOffset;
+		String[] fFiles;
+		long[] fAddresses = new long[16];
+		int[] fRowFiles = new int[16];
+		int[] fLines = new int[16];
+		int fRowCount;
+
+		LineTable(long offset) {
+			fOffset = offset;
+		}
+
+		void addRow(long address, int file, int line, int fileCount) {
+			// Rows referring to undefined files are ignored.
+			if (file >= 0 && file < fileCount)
+				add(address, file, line);
+		}
+
+		void addEndOfSequence(long address) {
+			add(address, -1, 0);
+		}
+
+		private void add(long address, int file, int line) {
+			if (fRowCount == fAddresses.length) {
+				int capacity = fRowCount * 2;
+				fAddresses = Arrays.copyOf(fAddresses, capacity);
+				fRowFiles = Arrays.copyOf(fRowFiles, capacity);
+				fLines = Arrays.copyOf(fLines, capacity);
+			}
+			fAddresses[fRowCount] = address;
+			fRowFiles[fRowCount] = file;
+			fLines[fRowCount] = line;
+			fRowCount++;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2019 Nokia and others.
+ * Copyright (c) 2007, 2020 Nokia and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -58,12 +58,14 @@ public class DwarfReader extends Dwarf implements ISymbolReader, ICompileOptions
 
 	private final Collection<String> m_fileCollection = new HashSet<>();
 	private final Map<Long, String> m_stmtFileMap = new HashMap<>();
+	private final Map<Long, String> m_stmtCompDirMap = new HashMap<>();
 	private final Map<String, ArrayList<String>> m_compileOptionsMap = new HashMap<>();
 	private String[] m_fileNames = null;
 	private boolean m_parsed = false;
 	private boolean m_macros_parsed = false;
-	private final ArrayList<Integer> m_parsedLineTableOffsets = new ArrayList<>();
+	private final Set<Integer> m_parsedLineTableOffsets = new HashSet<>();
 	private long m_parsedLineTableSize = 0;
+	private DwarfLineIndex m_lineIndex = null;
 
 	public DwarfReader(String file) throws IOException {
 		super(file);
@@ -642,8 +644,30 @@ public class DwarfReader extends Dwarf implements ISymbolReader, ICompileOptions
 		}
 
 		addSourceFileWithStmt(cuCompDir, cuName, stmtList);
-		if (stmtList > -1) // this CU has "stmt_list" attribute
+		if (stmtList > -1) { // this CU has "stmt_list" attribute
+			m_stmtCompDirMap.put(Long.valueOf(stmtList), cuCompDir);
 			parseSourceInCULineInfo(cuCompDir, stmtList);
+		}
+	}
+
+	/**
+	 * Returns the index of the line tables in the .debug_line section, which maps addresses to
+	 * source lines and source files to compile units. The index is built on the first call, later
+	 * calls return the same index.
+	 *
+	 * @return the index, or {@code null} if there is no .debug_line section.
+	 * @since 7.0
+	 */
+	public synchronized DwarfLineIndex getLineIndex() {
+		if (m_lineIndex == null) {
+			ByteBuffer data = dwarfSections.get(DWARF_DEBUG_LINE);
+			if (data == null)
+				return null;
+			// The compile units provide the compilation directories of the line tables.
+			getSourceFiles();
+			m_lineIndex = DwarfLineIndex.build(this, data, m_stmtCompDirMap, m_stmtFileMap);
+		}
+		return m_lineIndex;
 	}
 
 	/**
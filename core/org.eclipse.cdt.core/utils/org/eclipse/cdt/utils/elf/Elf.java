@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 QNX Software Systems and others.
+ * Copyright (c) 2000, 2020 QNX Software Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -445,7 +445,7 @@ public class Elf implements AutoCloseable {
 		public short st_other;
 		public short st_shndx;
 
-		private String name = null;
+		String name = null;
 
 		private final Section sym_section;
 
@@ -1234,6 +1234,49 @@ public class Elf implements AutoCloseable {
 		}
 	}
 
+	/**
+	 * Maps the symbol table of the file, the one of the .symtab section or, if there is none, the one
+	 * of the .dynsym section. Unlike {@link #loadSymbols()} this does not decode the symbols up front.
+	 *
+	 * @return the symbol table, or {@code null} if the file has no symbol table.
+	 * @throws IOException If the file is corrupt
+	 * @since 7.0
+	 */
+	public ElfSymbolTable mapSymbolTable() throws IOException {
+		Section[] section = getSections(Section.SHT_SYMTAB);
+		if (section.length == 0) {
+			section = getSections(Section.SHT_DYNSYM);
+			if (section.length == 0)
+				return null;
+		}
+		return mapSymbolTable(section[0]);
+	}
+
+	/**
+	 * Maps the symbol table of the given section, which has to be of type
+	 * {@link Section#SHT_SYMTAB} or {@link Section#SHT_DYNSYM}.
+	 *
+	 * @throws IOException If the file is corrupt
+	 * @since 7.0
+	 */
+	public ElfSymbolTable mapSymbolTable(Section section) throws IOException {
+		Section[] sections = getSections();
+		if (section.sh_link < 0 || section.sh_link >= sections.length)
+			throw new IOException("Invalid string table index " + section.sh_link + " of " + section); //$NON-NLS-1$ //$NON-NLS-2$
+		return new ElfSymbolTable(this, section, mapSection(section), mapSection(sections[(int) section.sh_link]),
+				ehdr.e_ident[ELFhdr.EI_CLASS] == ELFhdr.ELFCLASS64);
+	}
+
+	private ByteBuffer mapSection(Section section) throws IOException {
+		section.makeSureNotCompressed();
+		if (section.sh_size > Integer.MAX_VALUE || elfOffset + section.sh_offset + section.sh_size > efile.length())
+			throw new IOException("Section out of range: " + section); //$NON-NLS-1$
+		areSectionsMapped = true;
+		// The mapping is relative to the start of the file, the ELF may be a member of an archive.
+		return efile.getChannel().map(MapMode.READ_ONLY, elfOffset + section.sh_offset, section.sh_size)
+				.order(efile.order());
+	}
+
 	public Symbol[] getSymbols() {
 		return symbols;
 	}
@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.utils.elf;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.eclipse.cdt.utils.Addr32;
+import org.eclipse.cdt.utils.Addr64;
+import org.eclipse.cdt.utils.elf.Elf.Section;
+import org.eclipse.cdt.utils.elf.Elf.Symbol;
+
+/**
+ * A symbol table of an ELF file, read from the memory mapped symbol table section and its string
+ * table. The entries are decoded when they are accessed by their index, no objects are created for
+ * the entries that are not accessed.
+ * <p>
+ * An instance is obtained with {@link Elf#mapSymbolTable()} and is valid until the {@link Elf} it
+ * was obtained from is disposed.
+ *
+ * @noinstantiate This class is not intended to be instantiated by clients.
+ * @since 7.0
+ */
+public final class ElfSymbolTable implements Iterable<Symbol> {
+	private static final int ELF32_SYM_SIZE = 16;
+	private static final int ELF64_SYM_SIZE = 24;
+
+	private final Elf fElf;
+	private final Section fSection;
+	private final ByteBuffer fSymbols;
+	private final ByteBuffer fStrings;
+	private final boolean fIs64;
+	private final int fEntrySize;
+	private final int fCount;
+	/** Indices of the symbols with type or binding information, sorted by address. */
+	private int[] fAddressIndex;
+
+	ElfSymbolTable(Elf elf, Section section, ByteBuffer symbols, ByteBuffer strings, boolean is64) {
+		fElf = elf;
+		fSection = section;
+		fSymbols = symbols;
+		fStrings = strings;
+		fIs64 = is64;
+		int minSize = is64 ? ELF64_SYM_SIZE : ELF32_SYM_SIZE;
+		fEntrySize = section.sh_entsize >= minSize && section.sh_entsize <= Integer.MAX_VALUE
+				? (int) section.sh_entsize
+				: minSize;
+		fCount = symbols.capacity() / fEntrySize;
+	}
+
+	/**
+	 * Returns the section the symbols are read from.
+	 */
+	public Section getSection() {
+		return fSection;
+	}
+
+	/**
+	 * Returns the number of entries in the table, including the undefined entry at index 0.
+	 */
+	public int size() {
+		return fCount;
+	}
+
+	/**
+	 * Returns the name of the symbol with the given index.
+	 */
+	public String getName(int index) {
+		int offset = fSymbols.getInt(entryOffset(index));
+		int limit = fStrings.limit();
+		if (offset < 0 || offset >= limit)
+			return ""; //$NON-NLS-1$
+		int end = offset;
+		while (end < limit && fStrings.get(end) != 0) {
+			end++;
+		}
+		byte[] bytes = new byte[end - offset];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = fStrings.get(offset + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the value, usually the address, of the symbol with the given index. The value has to
+	 * be treated as an unsigned number.
+	 */
+	public long getValue(int index) {
+		int offset = entryOffset(index);
+		return fIs64 ? fSymbols.getLong(offset + 8) : fSymbols.getInt(offset + 4) & 0xffffffffL;
+	}
+
+	/**
+	 * Returns the size of the symbol with the given index.
+	 */
+	public long getSize(int index) {
+		int offset = entryOffset(index);
+		return fIs64 ? fSymbols.getLong(offset + 16) : fSymbols.getInt(offset + 8) & 0xffffffffL;
+	}
+
+	/**
+	 * Returns the type and binding information of the symbol with the given index.
+	 */
+	public int getInfo(int index) {
+		return fSymbols.get(entryOffset(index) + (fIs64 ? 4 : 12)) & 0xff;
+	}
+
+	/**
+	 * Returns the type of the symbol with the given index, one of the {@code STT_} constants of
+	 * {@link Symbol}.
+	 */
+	public int getType(int index) {
+		return getInfo(index) & 0xf;
+	}
+
+	/**
+	 * Returns the binding of the symbol with the given index, one of the {@code STB_} constants of
+	 * {@link Symbol}.
+	 */
+	public int getBind(int index) {
+		return (getInfo(index) >> 4) & 0xf;
+	}
+
+	/**
+	 * Returns the index of the section the symbol with the given index is defined in.
+	 */
+	public short getSectionIndex(int index) {
+		return fSymbols.getShort(entryOffset(index) + (fIs64 ? 6 : 14));
+	}
+
+	/**
+	 * Decodes the symbol with the given index.
+	 */
+	public Symbol getSymbol(int index) {
+		int offset = entryOffset(index);
+		Symbol symbol = fElf.new Symbol(fSection);
+		symbol.st_name = fSymbols.getInt(offset) & 0xffffffffL;
+		if (fIs64) {
+			symbol.st_info = (short) (fSymbols.get(offset + 4) & 0xff);
+			symbol.st_other = (short) (fSymbols.get(offset + 5) & 0xff);
+			symbol.st_shndx = fSymbols.getShort(offset + 6);
+			symbol.st_value = new Addr64(fSymbols.getLong(offset + 8));
+			symbol.st_size = fSymbols.getLong(offset + 16);
+		} else {
+			symbol.st_value = new Addr32(fSymbols.getInt(offset + 4) & 0xffffffffL);
+			symbol.st_size = fSymbols.getInt(offset + 8) & 0xffffffffL;
+			symbol.st_info = (short) (fSymbols.get(offset + 12) & 0xff);
+			symbol.st_other = (short) (fSymbols.get(offset + 13) & 0xff);
+			symbol.st_shndx = fSymbols.getShort(offset + 14);
+		}
+		symbol.name = getName(index);
+		return symbol;
+	}
+
+	/**
+	 * Returns the index of the symbol with the highest address that is not greater than the given
+	 * one, or {@code -1} if there is no such symbol. Symbols without type and binding information
+	 * are not considered, like in {@link Elf#getSymbol(org.eclipse.cdt.core.IAddress)}.
+	 * <p>
+	 * The first lookup sorts the symbols by address, the following lookups are binary searches.
+	 */
+	public int findSymbol(long address) {
+		int[] addressIndex = getAddressIndex();
+		int low = 0;
+		int high = addressIndex.length - 1;
+		int result = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (Long.compareUnsigned(getValue(addressIndex[mid]), address) <= 0) {
+				result = addressIndex[mid];
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the indices of the symbols with type or binding information, sorted by address.
+	 * Symbols with the same address are in the order of the table. The returned array must not be
+	 * modified.
+	 */
+	public synchronized int[] getAddressIndex() {
+		if (fAddressIndex == null) {
+			int count = 0;
+			int[] indices = new int[fCount];
+			for (int i = 0; i < fCount; i++) {
+				if (getInfo(i) != 0)
+					indices[count++] = i;
+			}
+			// Flipping the sign bit lets signed comparisons order the addresses as unsigned numbers.
+			long[] keys = new long[fCount];
+			for (int i = 0; i < count; i++) {
+				keys[indices[i]] = getValue(indices[i]) ^ Long.MIN_VALUE;
+			}
+			int[] sorted = new int[count];
+			System.arraycopy(indices, 0, sorted, 0, count);
+			mergeSort(sorted, indices, 0, count, keys);
+			fAddressIndex = sorted;
+		}
+		return fAddressIndex;
+	}
+
+	/**
+	 * Sorts the range of {@code a} by the keys of its elements, using {@code tmp} as scratch space.
+	 * The sort is stable.
+	 */
+	private static void mergeSort(int[] a, int[] tmp, int from, int to, long[] keys) {
+		if (to - from < 2)
+			return;
+		int mid = (from + to) >>> 1;
+		mergeSort(a, tmp, from, mid, keys);
+		mergeSort(a, tmp, mid, to, keys);
+		if (keys[a[mid - 1]] <= keys[a[mid]])
+			return;
+		System.arraycopy(a, from, tmp, from, to - from);
+		int i = from, j = mid;
+		for (int k = from; k < to; k++) {
+			if (j >= to || (i < mid && keys[tmp[i]] <= keys[tmp[j]])) {
+				a[k] = tmp[i++];
+			} else {
+				a[k] = tmp[j++];
+			}
+		}
+	}
+
+	/**
+	 * Returns an iterator over all entries of the table. The symbols are decoded as the iteration
+	 * proceeds and are not retained by the table.
+	 */
+	@Override
+	public Iterator<Symbol> iterator() {
+		return new Iterator<Symbol>() {
+			private int fNext;
+
+			@Override
+			public boolean hasNext() {
+				return fNext < fCount;
+			}
+
+			@Override
+			public Symbol next() {
+				if (fNext >= fCount)
+					throw new NoSuchElementException();
+				return getSymbol(fNext++);
+			}
+		};
+	}
+
+	private int entryOffset(int index) {
+		if (index < 0 || index >= fCount)
+			throw new IndexOutOfBoundsException("Symbol index " + index + " out of range " + fCount); //$NON-NLS-1$ //$NON-NLS-2$
+		return index * fEntrySize;
+	}
+}
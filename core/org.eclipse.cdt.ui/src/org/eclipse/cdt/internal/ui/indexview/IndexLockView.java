@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.internal.ui.indexview;
+
+import org.eclipse.cdt.internal.core.pdom.IndexLockStatistics;
+import org.eclipse.cdt.internal.core.pdom.IndexLockStatistics.CallSite;
+import org.eclipse.cdt.internal.core.pdom.IndexLockStatistics.LockHolder;
+import org.eclipse.cdt.ui.CUIPlugin;
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IToolBarManager;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.SashForm;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
+import org.eclipse.ui.part.ViewPart;
+
+/**
+ * Shows the contention on the locks of the index, refreshed periodically while the view is open.
+ */
+public class IndexLockView extends ViewPart {
+	private static final int REFRESH_INTERVAL = 1000;
+	private static final int MAX_CALL_SITES = 50;
+
+	private final IndexLockStatistics fStatistics = IndexLockStatistics.getInstance();
+	private SashForm fSash;
+	private Table fSummary;
+	private Table fHolders;
+	private Table fCallSites;
+
+	private final Runnable fRefresher = new Runnable() {
+		@Override
+		public void run() {
+			if (fSash == null || fSash.isDisposed())
+				return;
+			if (fSash.isVisible())
+				refresh();
+			fSash.getDisplay().timerExec(REFRESH_INTERVAL, this);
+		}
+	};
+
+	@Override
+	public void createPartControl(Composite parent) {
+		fSash = new SashForm(parent, SWT.VERTICAL);
+		fSummary = createTable(fSash, "IndexLockView.metric", "IndexLockView.read", "IndexLockView.write"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		fHolders = createTable(fSash, "IndexLockView.thread", "IndexLockView.readLocks", //$NON-NLS-1$ //$NON-NLS-2$
+				"IndexLockView.writeLocks", "IndexLockView.heldFor", "IndexLockView.location"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		fCallSites = createTable(fSash, "IndexLockView.callSite", "IndexLockView.waits", "IndexLockView.waitTime"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		fSash.setWeights(new int[] { 2, 2, 3 });
+
+		IToolBarManager toolBar = getViewSite().getActionBars().getToolBarManager();
+		toolBar.add(new Action(CUIPlugin.getResourceString("IndexLockView.reset.name")) { //$NON-NLS-1$
+			@Override
+			public void run() {
+				fStatistics.reset();
+				refresh();
+			}
+		});
+
+		refresh();
+		for (Table table : new Table[] { fSummary, fHolders, fCallSites }) {
+			for (TableColumn column : table.getColumns()) {
+				column.pack();
+			}
+		}
+		Display.getCurrent().timerExec(REFRESH_INTERVAL, fRefresher);
+	}
+
+	private static Table createTable(Composite parent, String... columnKeys) {
+		Table table = new Table(parent, SWT.FULL_SELECTION | SWT.BORDER | SWT.V_SCROLL | SWT.H_SCROLL);
+		table.setHeaderVisible(true);
+		table.setLinesVisible(true);
+		for (int i = 0; i < columnKeys.length; i++) {
+			TableColumn column = new TableColumn(table, i == 0 ? SWT.LEFT : SWT.RIGHT);
+			column.setText(CUIPlugin.getResourceString(columnKeys[i]));
+		}
+		return table;
+	}
+
+	private void refresh() {
+		fSummary.removeAll();
+		addRow(fSummary, "IndexLockView.count", fStatistics.getReadLockCount(), fStatistics.getWriteLockCount()); //$NON-NLS-1$
+		addRow(fSummary, "IndexLockView.totalWait", fStatistics.getReadLockWaitTime(), //$NON-NLS-1$
+				fStatistics.getWriteLockWaitTime());
+		addRow(fSummary, "IndexLockView.maxWait", fStatistics.getMaxReadLockWaitTime(), //$NON-NLS-1$
+				fStatistics.getMaxWriteLockWaitTime());
+		addRow(fSummary, "IndexLockView.totalHold", fStatistics.getReadLockHoldTime(), //$NON-NLS-1$
+				fStatistics.getWriteLockHoldTime());
+		addRow(fSummary, "IndexLockView.maxHold", fStatistics.getMaxReadLockHoldTime(), //$NON-NLS-1$
+				fStatistics.getMaxWriteLockHoldTime());
+		addRow(fSummary, "IndexLockView.waiting", fStatistics.getWaitingReaders(), fStatistics.getWaitingWriters()); //$NON-NLS-1$
+		TableItem yields = new TableItem(fSummary, SWT.NONE);
+		yields.setText(new String[] { CUIPlugin.getResourceString("IndexLockView.yields"), "", //$NON-NLS-1$ //$NON-NLS-2$
+				String.valueOf(fStatistics.getWriteLockYieldCount()) });
+
+		fHolders.removeAll();
+		for (LockHolder holder : fStatistics.getHolders()) {
+			TableItem item = new TableItem(fHolders, SWT.NONE);
+			item.setText(new String[] { holder.getThreadName(), String.valueOf(holder.getReadLocks()),
+					String.valueOf(holder.getWriteLocks()), String.valueOf(holder.getHeldFor()),
+					holder.getLocation() });
+		}
+
+		fCallSites.removeAll();
+		for (CallSite site : fStatistics.getCallSites(MAX_CALL_SITES)) {
+			TableItem item = new TableItem(fCallSites, SWT.NONE);
+			item.setText(new String[] { site.getLocation(), String.valueOf(site.getCount()),
+					String.valueOf(site.getWaitTime()) });
+		}
+	}
+
+	private static void addRow(Table table, String key, long read, long write) {
+		TableItem item = new TableItem(table, SWT.NONE);
+		item.setText(new String[] { CUIPlugin.getResourceString(key), String.valueOf(read), String.valueOf(write) });
+	}
+
+	@Override
+	public void setFocus() {
+		fSummary.setFocus();
+	}
+}
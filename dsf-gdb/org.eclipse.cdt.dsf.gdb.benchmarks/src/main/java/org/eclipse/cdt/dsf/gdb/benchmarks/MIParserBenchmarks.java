@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.gdb.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.cdt.dsf.mi.service.command.output.MIConst;
+import org.eclipse.cdt.dsf.mi.service.command.output.MIList;
+import org.eclipse.cdt.dsf.mi.service.command.output.MIParser;
+import org.eclipse.cdt.dsf.mi.service.command.output.MIResult;
+import org.eclipse.cdt.dsf.mi.service.command.output.MIResultRecord;
+import org.eclipse.cdt.dsf.mi.service.command.output.MITuple;
+import org.eclipse.cdt.dsf.mi.service.command.output.MIValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link MIParser} on the output of a GDB session, line by line as the receiving
+ * thread of the MI control parses it. By default a short recorded session is parsed together with
+ * the large responses of deep stacks, many threads and memory reads. A transcript of another
+ * session, for example the output of {@code gdb --interpreter=mi2} saved with {@code tee}, is
+ * passed with
+ * <pre>
+ * java -jar benchmarks.jar MIParserBenchmarks -p transcript=/path/to/session.mi
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" }) //$NON-NLS-1$ //$NON-NLS-2$
+public class MIParserBenchmarks {
+	private static final int FRAMES = 5000;
+	private static final int THREADS = 2000;
+	private static final int MEMORY_BYTES = 64 * 1024;
+
+	@Param({ "" })
+	public String transcript;
+
+	private String[] lines;
+
+	@Setup
+	public void setUp() throws IOException {
+		List<String> list = new ArrayList<>();
+		if (transcript.isEmpty()) {
+			try (InputStream in = MIParserBenchmarks.class.getResourceAsStream("mi/session.mi")) { //$NON-NLS-1$
+				if (in == null)
+					throw new IOException("Missing transcript session.mi"); //$NON-NLS-1$
+				for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")) { //$NON-NLS-1$
+					list.add(line);
+				}
+			}
+			list.add(createStack());
+			list.add(createThreads());
+			list.add(createMemory());
+		} else {
+			list.addAll(Files.readAllLines(Paths.get(transcript), StandardCharsets.UTF_8));
+		}
+		lines = list.toArray(new String[list.size()]);
+	}
+
+	/**
+	 * Parses all lines of the transcript.
+	 */
+	@Benchmark
+	public int parse() {
+		MIParser parser = new MIParser();
+		int count = 0;
+		for (String line : lines) {
+			if (parse(parser, line) != null)
+				count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Parses all lines of the transcript and visits every value of the results, like a command
+	 * that reads all of the output.
+	 */
+	@Benchmark
+	public int parseAndVisit() {
+		MIParser parser = new MIParser();
+		int count = 0;
+		for (String line : lines) {
+			Object record = parse(parser, line);
+			if (record instanceof MIResultRecord) {
+				for (MIResult result : ((MIResultRecord) record).getMIResults()) {
+					count += visit(result.getMIValue());
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Parses all lines of the transcript and reads a single field of each result record, like a
+	 * command that only needs the first entry of a long list.
+	 */
+	@Benchmark
+	public int parseAndReadFirst() {
+		MIParser parser = new MIParser();
+		int count = 0;
+		for (String line : lines) {
+			Object record = parse(parser, line);
+			if (record instanceof MIResultRecord) {
+				MIResult[] results = ((MIResultRecord) record).getMIResults();
+				if (results.length > 0 && visitFirst(results[0].getMIValue()) != null)
+					count++;
+			}
+		}
+		return count;
+	}
+
+	private static Object parse(MIParser parser, String line) {
+		switch (parser.getRecordType(line)) {
+		case ResultRecord:
+			return parser.parseMIResultRecord(line);
+		case OOBRecord:
+			return parser.parseMIOOBRecord(line);
+		default:
+			return null;
+		}
+	}
+
+	private static int visit(MIValue value) {
+		int count = 1;
+		if (value instanceof MITuple) {
+			for (MIResult result : ((MITuple) value).getMIResults()) {
+				count += visit(result.getMIValue());
+			}
+		} else if (value instanceof MIList) {
+			for (MIResult result : ((MIList) value).getMIResults()) {
+				count += visit(result.getMIValue());
+			}
+			for (MIValue element : ((MIList) value).getMIValues()) {
+				count += visit(element);
+			}
+		}
+		return count;
+	}
+
+	private static String visitFirst(MIValue value) {
+		if (value instanceof MIConst)
+			return ((MIConst) value).getCString();
+		if (value instanceof MITuple) {
+			MIResult[] results = ((MITuple) value).getMIResults();
+			return results.length > 0 ? visitFirst(results[0].getMIValue()) : null;
+		}
+		if (value instanceof MIList) {
+			MIResult[] results = ((MIList) value).getMIResults();
+			if (results.length > 0)
+				return visitFirst(results[0].getMIValue());
+			MIValue[] values = ((MIList) value).getMIValues();
+			return values.length > 0 ? visitFirst(values[0]) : null;
+		}
+		return null;
+	}
+
+	private static String createStack() {
+		StringBuilder line = new StringBuilder("100^done,stack=["); //$NON-NLS-1$
+		for (int i = 0; i < FRAMES; i++) {
+			if (i > 0)
+				line.append(',');
+			line.append("frame={level=\"").append(i) //$NON-NLS-1$
+					.append("\",addr=\"0x0000555555555").append(Integer.toHexString(0x100 + i % 0xe00)) //$NON-NLS-1$
+					.append("\",func=\"visit_node\",file=\"../src/tree.c\",fullname=\"/home/user/project/src/tree.c\",line=\"") //$NON-NLS-1$
+					.append(40 + i % 7).append("\",arch=\"i386:x86-64\"}"); //$NON-NLS-1$
+		}
+		return line.append(']').toString();
+	}
+
+	private static String createThreads() {
+		StringBuilder line = new StringBuilder("101^done,threads=["); //$NON-NLS-1$
+		for (int i = 1; i <= THREADS; i++) {
+			if (i > 1)
+				line.append(',');
+			line.append("{id=\"").append(i).append("\",target-id=\"Thread 0x7ffff7d8").append(Integer.toHexString(i)) //$NON-NLS-1$ //$NON-NLS-2$
+					.append(" (LWP ").append(25123 + i).append(")\",name=\"worker-").append(i) //$NON-NLS-1$ //$NON-NLS-2$
+					.append("\",frame={level=\"0\",addr=\"0x00007ffff7e9a3bf\",func=\"__GI___poll\",args=[{name=\"fds\",value=\"0x7ffff0000b60\"},{name=\"nfds\",value=\"1\"},{name=\"timeout\",value=\"-1\"}],file=\"../sysdeps/unix/sysv/linux/poll.c\",line=\"29\",arch=\"i386:x86-64\"},state=\"stopped\",core=\"") //$NON-NLS-1$
+					.append(i % 8).append("\"}"); //$NON-NLS-1$
+		}
+		return line.append("],current-thread-id=\"1\"").toString(); //$NON-NLS-1$
+	}
+
+	private static String createMemory() {
+		StringBuilder line = new StringBuilder(
+				"102^done,memory=[{begin=\"0x00007ffff7fd0100\",offset=\"0x0000000000000000\",end=\"0x00007ffff7fe0100\",contents=\""); //$NON-NLS-1$
+		for (int i = 0; i < MEMORY_BYTES; i++) {
+			line.append(Character.forDigit((i * 7 >> 4) & 0xf, 16)).append(Character.forDigit(i * 13 & 0xf, 16));
+		}
+		return line.append("\"}]").toString(); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.gdb.internal.service;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.cdt.dsf.datamodel.AbstractDMEvent;
+import org.eclipse.cdt.dsf.datamodel.DMContexts;
+import org.eclipse.cdt.dsf.datamodel.IDMContext;
+import org.eclipse.cdt.dsf.debug.service.IProcesses.IProcessDMContext;
+import org.eclipse.cdt.dsf.debug.service.IRunControl.IExitedDMEvent;
+import org.eclipse.cdt.dsf.debug.service.IRunControl.IResumedDMEvent;
+import org.eclipse.cdt.dsf.debug.service.IRunControl.IStartedDMEvent;
+import org.eclipse.cdt.dsf.debug.service.IRunControl.StateChangeReason;
+import org.eclipse.cdt.dsf.gdb.service.CommonDsfTest;
+import org.eclipse.cdt.dsf.mi.service.IMIContainerDMContext;
+import org.eclipse.cdt.dsf.mi.service.IMIExecutionDMContext;
+import org.eclipse.cdt.dsf.mi.service.MIProcesses;
+import org.eclipse.cdt.dsf.mi.service.command.MIControlDMContext;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests which thread events the launch view model skips with {@link ThreadEventCoalescing}.
+ */
+public class ThreadEventCoalescingTest extends CommonDsfTest {
+
+	private static class StartedEvent extends AbstractDMEvent<IDMContext> implements IStartedDMEvent {
+		StartedEvent(IDMContext context) {
+			super(context);
+		}
+	}
+
+	private static class ExitedEvent extends AbstractDMEvent<IDMContext> implements IExitedDMEvent {
+		ExitedEvent(IDMContext context) {
+			super(context);
+		}
+	}
+
+	private static class ResumedEvent extends AbstractDMEvent<IDMContext> implements IResumedDMEvent {
+		ResumedEvent(IDMContext context) {
+			super(context);
+		}
+
+		@Override
+		public StateChangeReason getReason() {
+			return StateChangeReason.USER_REQUEST;
+		}
+	}
+
+	private MIProcesses fProcesses;
+	private IMIContainerDMContext fContainerA;
+	private IMIContainerDMContext fContainerB;
+
+	@Before
+	public void createContexts() {
+		fProcesses = new MIProcesses(fSession);
+		MIControlDMContext controlDmc = new MIControlDMContext(fSession.getId(), "TestControl");
+		IProcessDMContext processA = fProcesses.createProcessContext(controlDmc, "1");
+		IProcessDMContext processB = fProcesses.createProcessContext(controlDmc, "2");
+		fContainerA = fProcesses.createContainerContext(processA, "i1");
+		fContainerB = fProcesses.createContainerContext(processB, "i2");
+	}
+
+	private IMIExecutionDMContext thread(IMIContainerDMContext container, String threadId) {
+		IProcessDMContext process = DMContexts.getAncestorOfType(container, IProcessDMContext.class);
+		return fProcesses.createExecutionContext(container, fProcesses.createThreadContext(process, threadId),
+				threadId);
+	}
+
+	@Test
+	public void testStartedThreadSkippedForLaterThreadEvent() throws Exception {
+		StartedEvent started = new StartedEvent(thread(fContainerA, "1"));
+		assertTrue(ThreadEventCoalescing.canSkipHandlingEvent(new StartedEvent(thread(fContainerA, "2")), started));
+		assertTrue(ThreadEventCoalescing.canSkipHandlingEvent(new ExitedEvent(thread(fContainerA, "1")), started));
+	}
+
+	@Test
+	public void testExitedThreadNeverSkipped() throws Exception {
+		ExitedEvent exited = new ExitedEvent(thread(fContainerA, "1"));
+		assertFalse(ThreadEventCoalescing.canSkipHandlingEvent(new StartedEvent(thread(fContainerA, "2")), exited));
+		assertFalse(ThreadEventCoalescing.canSkipHandlingEvent(new ExitedEvent(thread(fContainerA, "2")), exited));
+	}
+
+	@Test
+	public void testOtherProcessNotSkipped() throws Exception {
+		StartedEvent started = new StartedEvent(thread(fContainerA, "1"));
+		assertFalse(ThreadEventCoalescing.canSkipHandlingEvent(new StartedEvent(thread(fContainerB, "2")), started));
+	}
+
+	@Test
+	public void testProcessEventsNotSkipped() throws Exception {
+		StartedEvent started = new StartedEvent(thread(fContainerA, "1"));
+		assertFalse(ThreadEventCoalescing.canSkipHandlingEvent(new StartedEvent(fContainerA), started));
+		assertFalse(ThreadEventCoalescing.canSkipHandlingEvent(new StartedEvent(thread(fContainerA, "2")),
+				new StartedEvent(fContainerA)));
+		assertFalse(ThreadEventCoalescing.canSkipHandlingEvent(new ResumedEvent(thread(fContainerA, "2")), started));
+	}
+}
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.mi.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.cdt.core.IAddress;
+import org.eclipse.cdt.dsf.concurrent.DataRequestMonitor;
+import org.eclipse.cdt.dsf.concurrent.Query;
+import org.eclipse.cdt.dsf.datamodel.AbstractDMContext;
+import org.eclipse.cdt.dsf.datamodel.IDMContext;
+import org.eclipse.cdt.dsf.debug.service.IMemory.IMemoryDMContext;
+import org.eclipse.cdt.dsf.gdb.service.CommonDsfTest;
+import org.eclipse.cdt.dsf.service.DsfSession;
+import org.eclipse.cdt.utils.Addr64;
+import org.eclipse.debug.core.model.MemoryByte;
+import org.junit.Test;
+
+/**
+ * Tests the memory cache of {@link MIMemory} against a target whose byte at each address is the
+ * low byte of the address, and whose memory can only be read up to a given address.
+ */
+public class MIMemoryCacheTest extends CommonDsfTest {
+	private static final long TIMEOUT = 10;
+
+	private static class TestMemoryDMContext extends AbstractDMContext implements IMemoryDMContext {
+		TestMemoryDMContext(String sessionId) {
+			super(sessionId, new IDMContext[0]);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return baseEquals(obj);
+		}
+
+		@Override
+		public int hashCode() {
+			return baseHashCode();
+		}
+	}
+
+	private static class TestMemory extends MIMemory {
+		private final int fCachePages;
+		private final int fReadAheadPages;
+		/** The address and length of each read from the target. */
+		final List<String> fReads = new ArrayList<>();
+		/** The first address that cannot be read. */
+		long fUnreadableFrom = Long.MAX_VALUE;
+
+		TestMemory(DsfSession session, int cachePages, int readAheadPages) {
+			super(session);
+			fCachePages = cachePages;
+			fReadAheadPages = readAheadPages;
+		}
+
+		@Override
+		protected int getMemoryCachePages() {
+			return fCachePages;
+		}
+
+		@Override
+		protected int getMemoryReadAheadPages() {
+			return fReadAheadPages;
+		}
+
+		@Override
+		protected void readMemoryBlock(IDMContext dmc, IAddress address, long offset, int wordSize, int wordCount,
+				DataRequestMonitor<MemoryByte[]> drm) {
+			long start = address.getValue().longValue() + offset;
+			fReads.add(Long.toHexString(start) + ":" + Integer.toHexString(wordCount));
+			MemoryByte[] block = new MemoryByte[wordCount];
+			for (int i = 0; i < block.length; i++) {
+				if (start + i < fUnreadableFrom) {
+					block[i] = new MemoryByte((byte) (start + i));
+				} else {
+					block[i] = new MemoryByte((byte) 0, (byte) 0);
+				}
+			}
+			drm.done(block);
+		}
+	}
+
+	private TestMemory fMemory;
+	private IMemoryDMContext fContext;
+
+	private void start(int cachePages, int readAheadPages) {
+		fMemory = new TestMemory(fSession, cachePages, readAheadPages);
+		fContext = new TestMemoryDMContext(fSession.getId());
+	}
+
+	/**
+	 * Reads the given ranges in a single dispatch cycle and checks the content read.
+	 */
+	private void read(long... ranges) throws Exception {
+		Query<Object> query = new Query<Object>() {
+			@Override
+			protected void execute(DataRequestMonitor<Object> rm) {
+				final int[] pending = { ranges.length / 2 };
+				for (int i = 0; i < ranges.length; i += 2) {
+					final long start = ranges[i];
+					final int count = (int) ranges[i + 1];
+					fMemory.getMemory(fContext, new Addr64(start), 0, 1, count,
+							new DataRequestMonitor<MemoryByte[]>(fSession.getExecutor(), rm) {
+								@Override
+								protected void handleSuccess() {
+									assertEquals(count, getData().length);
+									for (int j = 0; j < count; j++) {
+										assertEquals((byte) (start + j), getData()[j].getValue());
+									}
+									if (--pending[0] == 0) {
+										rm.done();
+									}
+								}
+							});
+				}
+			}
+		};
+		fSession.getExecutor().execute(query);
+		query.get(TIMEOUT, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void testPagesCoalesced() throws Exception {
+		start(16, 0);
+		read(0x1010, 0x10);
+		// The cached page is not read again, the two following pages are read at once.
+		read(0x1000, 0xb00);
+		read(0x1200, 0x800);
+		assertEquals(Arrays.asList("1000:400", "1400:800"), fMemory.fReads);
+	}
+
+	@Test
+	public void testConcurrentRequestsShareRead() throws Exception {
+		start(16, 0);
+		read(0x2000, 0x100, 0x2300, 0x200);
+		assertEquals(Arrays.asList("2000:400", "2400:400"), fMemory.fReads);
+	}
+
+	@Test
+	public void testLeastRecentlyUsedPageEvicted() throws Exception {
+		start(2, 0);
+		read(0x0, 0x10);
+		read(0x400, 0x10);
+		read(0x0, 0x10);
+		read(0x800, 0x10);
+		read(0x0, 0x10);
+		read(0x400, 0x10);
+		assertEquals(Arrays.asList("0:400", "400:400", "800:400", "400:400"), fMemory.fReads);
+	}
+
+	@Test
+	public void testReadAhead() throws Exception {
+		start(16, 2);
+		read(0x1000, 0x100);
+		// Scrolling forward reads the two following pages.
+		read(0x1080, 0x100);
+		read(0x1400, 0x100);
+		// A request elsewhere does not read ahead.
+		read(0xc00, 0x100);
+		// Scrolling backward reads the two preceding pages.
+		read(0xb80, 0x100);
+		assertEquals(Arrays.asList("1000:400", "1400:800", "1c00:400", "c00:400", "800:400", "0:800"),
+				fMemory.fReads);
+	}
+
+	@Test
+	public void testRequestLargerThanCache() throws Exception {
+		start(2, 0);
+		read(0x10, 0xc00);
+		assertEquals(Arrays.asList("10:c00"), fMemory.fReads);
+	}
+
+	@Test
+	public void testCacheDisabled() throws Exception {
+		start(0, 2);
+		read(0x1000, 0x100);
+		read(0x1080, 0x100);
+		read(0x1080, 0x100);
+		// Every request is read exactly, nothing is read ahead or cached.
+		assertEquals(Arrays.asList("1000:100", "1080:100", "1080:100"), fMemory.fReads);
+	}
+
+	@Test
+	public void testUnreadablePageReadExactly() throws Exception {
+		start(16, 0);
+		fMemory.fUnreadableFrom = 0x3300;
+		read(0x3000, 0x100);
+		// The page with unreadable memory is not cached.
+		read(0x3000, 0x100);
+		read(0x2c00, 0x100);
+		read(0x2c00, 0x100);
+		assertEquals(Arrays.asList("3000:400", "3000:100", "3000:400", "3000:100", "2c00:400"), fMemory.fReads);
+	}
+}
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.mi.service.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.cdt.dsf.concurrent.DataRequestMonitor;
+import org.eclipse.cdt.dsf.debug.service.command.ICommandControlService.ICommandControlDMContext;
+import org.eclipse.cdt.dsf.gdb.internal.GdbPlugin;
+import org.eclipse.cdt.dsf.gdb.service.CommonDsfTest;
+import org.eclipse.cdt.dsf.mi.service.command.commands.MICommand;
+import org.eclipse.cdt.dsf.mi.service.command.output.MIInfo;
+import org.eclipse.cdt.dsf.service.DsfSession;
+import org.junit.After;
+import org.junit.Test;
+import org.osgi.framework.BundleContext;
+
+/**
+ * Tests the pipelining of commands by {@link AbstractMIControl} against a fake GDB that answers
+ * every command with {@code ^done}.
+ */
+public class MIControlPipelineTest extends CommonDsfTest {
+	private static final long TIMEOUT = 10;
+
+	private static class TestControl extends AbstractMIControl {
+		private final int fMaxOutstandingCommands;
+		private final MIControlDMContext fControlDmc;
+
+		TestControl(DsfSession session, int maxOutstandingCommands) {
+			super(session, false, true, new CommandFactory());
+			fMaxOutstandingCommands = maxOutstandingCommands;
+			fControlDmc = new MIControlDMContext(session.getId(), getId());
+		}
+
+		@Override
+		protected int getMaxOutstandingCommands() {
+			return fMaxOutstandingCommands;
+		}
+
+		@Override
+		protected BundleContext getBundleContext() {
+			return GdbPlugin.getBundleContext();
+		}
+
+		@Deprecated
+		@Override
+		public MIControlDMContext getControlDMContext() {
+			return fControlDmc;
+		}
+
+		@Override
+		public ICommandControlDMContext getContext() {
+			return fControlDmc;
+		}
+
+		@Override
+		public String getId() {
+			return "TestControl";
+		}
+
+		void start(InputStream in, OutputStream out) {
+			startCommandProcessing(in, out);
+		}
+
+		void stop() {
+			stopCommandProcessing();
+		}
+	}
+
+	/**
+	 * Answers the commands in the order received, once the given number of commands has arrived or
+	 * no more commands arrive for a while.
+	 */
+	private static class FakeGdb extends Thread {
+		private final BufferedReader fIn;
+		private final OutputStream fOut;
+		private final int fHold;
+		final List<String> fOperations = Collections.synchronizedList(new ArrayList<>());
+		/** The largest number of commands that were waiting for their answer. */
+		volatile int fMaxPending;
+
+		FakeGdb(InputStream in, OutputStream out, int hold) {
+			super("Fake GDB");
+			fIn = new BufferedReader(new InputStreamReader(in));
+			fOut = out;
+			fHold = hold;
+		}
+
+		@Override
+		public void run() {
+			List<String> tokens = new ArrayList<>();
+			try {
+				String line;
+				while ((line = fIn.readLine()) != null) {
+					int i = 0;
+					while (i < line.length() && Character.isDigit(line.charAt(i))) {
+						i++;
+					}
+					fOperations.add(line.substring(i));
+					tokens.add(line.substring(0, i));
+					fMaxPending = Math.max(fMaxPending, tokens.size());
+					if (tokens.size() >= fHold || !awaitInput()) {
+						for (String token : tokens) {
+							fOut.write((token + "^done\n").getBytes());
+						}
+						fOut.flush();
+						tokens.clear();
+					}
+				}
+				fOut.close();
+			} catch (IOException | InterruptedException e) {
+				// The control was stopped.
+			}
+		}
+
+		private boolean awaitInput() throws IOException, InterruptedException {
+			if (fIn.ready())
+				return true;
+			Thread.sleep(100);
+			return fIn.ready();
+		}
+	}
+
+	private TestControl fControl;
+	private FakeGdb fGdb;
+
+	private void start(int maxOutstandingCommands, int hold) throws IOException {
+		PipedInputStream commands = new PipedInputStream();
+		PipedInputStream results = new PipedInputStream();
+		fControl = new TestControl(fSession, maxOutstandingCommands);
+		fGdb = new FakeGdb(commands, new PipedOutputStream(results), hold);
+		fGdb.start();
+		fControl.start(results, new PipedOutputStream(commands));
+	}
+
+	@After
+	public void stop() throws Exception {
+		if (fControl != null) {
+			fSession.getExecutor().submit(() -> fControl.stop()).get();
+			fGdb.join(TimeUnit.SECONDS.toMillis(TIMEOUT));
+			fControl = null;
+		}
+	}
+
+	/**
+	 * Queues commands with the given operations in a single dispatch cycle, a {@code -bg} prefix
+	 * marks background commands. Returns the number of successful commands.
+	 */
+	private int queue(String... operations) throws Exception {
+		CountDownLatch done = new CountDownLatch(operations.length);
+		AtomicInteger succeeded = new AtomicInteger();
+		fSession.getExecutor().execute(() -> {
+			for (String operation : operations) {
+				MICommand<MIInfo> command = new MICommand<>(fControl.getContext(), operation);
+				DataRequestMonitor<MIInfo> rm = new DataRequestMonitor<MIInfo>(fSession.getExecutor(), null) {
+					@Override
+					protected void handleCompleted() {
+						if (isSuccess())
+							succeeded.incrementAndGet();
+						done.countDown();
+					}
+				};
+				if (operation.startsWith("-bg")) {
+					fControl.queueBackgroundCommand(command, rm);
+				} else {
+					fControl.queueCommand(command, rm);
+				}
+			}
+		});
+		assertTrue("Commands did not complete", done.await(TIMEOUT, TimeUnit.SECONDS));
+		return succeeded.get();
+	}
+
+	@Test
+	public void testCommandsPipelined() throws Exception {
+		// GDB answers only after all commands were sent.
+		start(8, 8);
+		assertEquals(8, queue("-a", "-b", "-c", "-d", "-e", "-f", "-g", "-h"));
+		assertEquals(Arrays.asList("-a", "-b", "-c", "-d", "-e", "-f", "-g", "-h"), fGdb.fOperations);
+	}
+
+	@Test
+	public void testOutstandingCommandsLimited() throws Exception {
+		// GDB answers only when no more commands arrive.
+		start(2, Integer.MAX_VALUE);
+		assertEquals(10, queue("-a", "-b", "-c", "-d", "-e", "-f", "-g", "-h", "-i", "-j"));
+		assertTrue("Window exceeded: " + fGdb.fMaxPending, fGdb.fMaxPending <= 2);
+	}
+
+	@Test
+	public void testBackgroundCommandsOvertaken() throws Exception {
+		start(1, 1);
+		assertEquals(4, queue("-bg1", "-bg2", "-a", "-b"));
+		assertEquals(Arrays.asList("-a", "-b", "-bg1", "-bg2"), fGdb.fOperations);
+	}
+}
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.mi.service.command.output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class MIParserTests {
+	private final MIParser parser = new MIParser();
+
+	@Test
+	public void testResultRecord() {
+		String line = "12^done,bkpt={number=\"1\",type=\"breakpoint\",thread-groups=[\"i1\"],line=\"7\"}";
+		assertEquals(MIParser.RecordType.ResultRecord, parser.getRecordType(line));
+		MIResultRecord rr = parser.parseMIResultRecord(line);
+		assertEquals(12, rr.getToken());
+		assertEquals(MIResultRecord.DONE, rr.getResultClass());
+		MITuple bkpt = (MITuple) rr.getField("bkpt");
+		assertEquals("1", ((MIConst) bkpt.getField("number")).getCString());
+		MIList groups = (MIList) bkpt.getField("thread-groups");
+		assertEquals(1, groups.getMIValues().length);
+		assertEquals("i1", ((MIConst) groups.getMIValues()[0]).getCString());
+	}
+
+	@Test
+	public void testEscapes() {
+		MIResultRecord rr = parser.parseMIResultRecord("^error,msg=\"No symbol \\\"x\\\" in \\\\ context.\\n\"");
+		assertEquals(MIResultRecord.ERROR, rr.getResultClass());
+		assertEquals("No symbol \"x\" in \\ context.\\n", ((MIConst) rr.getField("msg")).getCString());
+
+		// Backslashes of stream records are not escaped.
+		MIOOBRecord oob = parser.parseMIOOBRecord("~\"C:\\\\dir\\n\"");
+		assertTrue(oob instanceof MIConsoleStreamOutput);
+		assertEquals("C:\\\\dir\\n", ((MIStreamRecord) oob).getCString());
+	}
+
+	@Test
+	public void testAsyncRecord() {
+		MIOOBRecord oob = parser.parseMIOOBRecord("*running,thread-id=\"all\"");
+		assertTrue(oob instanceof MIExecAsyncOutput);
+		MIAsyncRecord async = (MIAsyncRecord) oob;
+		assertEquals("running", async.getAsyncClass());
+		assertEquals(1, async.getMIResults().length);
+		assertEquals("thread-id", async.getMIResults()[0].getVariable());
+		assertEquals("all", ((MIConst) async.getMIResults()[0].getMIValue()).getCString());
+	}
+
+	@Test
+	public void testLargeList() {
+		StringBuilder line = new StringBuilder("^done,stack=[");
+		for (int i = 0; i < 1000; i++) {
+			if (i > 0)
+				line.append(',');
+			line.append("frame={level=\"").append(i).append("\",addr=\"0x").append(Integer.toHexString(0x400000 + i))
+					.append("\",func=\"recurse\",args=[{name=\"s\",value=\"\\\"]}\\\"\"}],file=\"r.c\",line=\"")
+					.append(i + 1).append("\"}");
+		}
+		line.append("],next=\"x\"");
+		MIResultRecord rr = parser.parseMIResultRecord(line.toString());
+		assertEquals("x", ((MIConst) rr.getField("next")).getCString());
+		MIList stack = (MIList) rr.getField("stack");
+		MIResult[] frames = stack.getMIResults();
+		assertEquals(1000, frames.length);
+		MITuple frame = (MITuple) frames[999].getMIValue();
+		assertEquals("999", ((MIConst) frame.getField("level")).getCString());
+		assertEquals("1000", ((MIConst) frame.getField("line")).getCString());
+		MITuple arg = (MITuple) ((MIList) frame.getField("args")).getMIValues()[0];
+		assertEquals("\"]}\"", ((MIConst) arg.getField("value")).getCString());
+	}
+
+	@Test
+	public void testVariableNamesShared() {
+		MIResultRecord rr1 = parser.parseMIResultRecord("^done,value=\"1\"");
+		MIResultRecord rr2 = parser.parseMIResultRecord("^done,value=\"2\"");
+		assertSame(rr1.getMIResults()[0].getVariable(), rr2.getMIResults()[0].getVariable());
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 Ericsson and others.
+ * Copyright (c) 2009, 2020 Ericsson and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -67,6 +67,64 @@ public interface IGdbDebugPreferenceConstants {
 	 */
 	public static final int MAX_MI_OUTPUT_LINES_DEFAULT = 5;
 
+	/**
+	 * The maximum number of MI commands sent to GDB whose results have not been received yet.
+	 * A larger window lets more commands be written to GDB at once, which reduces the number of
+	 * round trips to a remote target. Default is {@value #MAX_OUTSTANDING_MI_COMMANDS_DEFAULT}.
+	 * @since 6.0
+	 */
+	public static final String PREF_MAX_OUTSTANDING_MI_COMMANDS = "maxOutstandingMiCommands"; //$NON-NLS-1$
+
+	/**
+	 * The default maximum number of MI commands sent to GDB whose results have not been received yet.
+	 * @since 6.0
+	 */
+	public static final int MAX_OUTSTANDING_MI_COMMANDS_DEFAULT = 3;
+
+	/**
+	 * The maximum number of pages of target memory cached for each memory context. A page holds
+	 * 1024 addressable units and starts at an address that is a multiple of the page size, the
+	 * least recently used pages are evicted. With 0 pages the memory is read exactly as requested,
+	 * for targets where reading memory has side effects. Default is
+	 * {@value #MEMORY_CACHE_PAGES_DEFAULT}.
+	 * @since 6.0
+	 */
+	public static final String PREF_MEMORY_CACHE_PAGES = "memoryCachePages"; //$NON-NLS-1$
+
+	/**
+	 * The default maximum number of pages of target memory cached for each memory context.
+	 * @since 6.0
+	 */
+	public static final int MEMORY_CACHE_PAGES_DEFAULT = 1024;
+
+	/**
+	 * The number of pages of target memory read ahead when memory is read sequentially, for
+	 * example while scrolling a memory view. Zero disables reading ahead. Default is
+	 * {@value #MEMORY_READ_AHEAD_PAGES_DEFAULT}.
+	 * @since 6.0
+	 */
+	public static final String PREF_MEMORY_READ_AHEAD_PAGES = "memoryReadAheadPages"; //$NON-NLS-1$
+
+	/**
+	 * The default number of pages of target memory read ahead when memory is read sequentially.
+	 * @since 6.0
+	 */
+	public static final int MEMORY_READ_AHEAD_PAGES_DEFAULT = 4;
+
+	/**
+	 * The maximum number of GDB variable objects kept for the expressions of a debug session. The
+	 * least recently used variable objects are deleted in GDB once the limit is exceeded. Default
+	 * is {@value #MAX_VARIABLE_OBJECTS_DEFAULT}.
+	 * @since 6.0
+	 */
+	public static final String PREF_MAX_VARIABLE_OBJECTS = "maxVariableObjects"; //$NON-NLS-1$
+
+	/**
+	 * The default maximum number of GDB variable objects kept for the expressions of a debug session.
+	 * @since 6.0
+	 */
+	public static final int MAX_VARIABLE_OBJECTS_DEFAULT = 1000;
+
 	/**
 	 * Boolean preference whether to automatically terminate GDB when the inferior exists. Default is <code>true</code>.
 	 */
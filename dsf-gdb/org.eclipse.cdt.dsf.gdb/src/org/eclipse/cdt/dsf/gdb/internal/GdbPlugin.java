@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2014 Wind River Systems and others.
+ * Copyright (c) 2006, 2020 Wind River Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,6 +27,7 @@ import org.eclipse.cdt.dsf.concurrent.Query;
 import org.eclipse.cdt.dsf.datamodel.IDMContext;
 import org.eclipse.cdt.dsf.debug.internal.provisional.model.MemoryBlockRetrievalFactory;
 import org.eclipse.cdt.dsf.gdb.launching.GdbLaunch;
+import org.eclipse.cdt.internal.core.StatisticsMBean;
 import org.eclipse.core.runtime.IAdapterFactory;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
@@ -68,6 +69,17 @@ public class GdbPlugin extends Plugin {
 
 		fMemoryRetrievalFactory = new MemoryBlockRetrievalFactory();
 		Platform.getAdapterManager().registerAdapters(fMemoryRetrievalFactory, IDMContext.class);
+
+		StatisticsMBean.registerAll(GdbPlugin::log, getStatistics());
+	}
+
+	/**
+	 * Returns the statistics of the debug sessions, made available with the platform MBean server
+	 * while the plug-in is active.
+	 */
+	private static StatisticsMBean[] getStatistics() {
+		return new StatisticsMBean[] { MICommandStatistics.getInstance(), MemoryCacheStatistics.getInstance(),
+				VariableObjectStatistics.getInstance() };
 	}
 
 	@Override
@@ -75,6 +87,8 @@ public class GdbPlugin extends Plugin {
 		shutdownActiveLaunches();
 		plugin = null;
 
+		StatisticsMBean.unregisterAll(GdbPlugin::log, getStatistics());
+
 		if (fMemoryRetrievalFactory != null) {
 			Platform.getAdapterManager().unregisterAdapters(fMemoryRetrievalFactory, IDMContext.class);
 		}
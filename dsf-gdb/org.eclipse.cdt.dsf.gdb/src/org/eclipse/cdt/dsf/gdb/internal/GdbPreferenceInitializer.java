@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 Ericsson and others.
+ * Copyright (c) 2009, 2020 Ericsson and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -39,6 +39,14 @@ public class GdbPreferenceInitializer extends AbstractPreferenceInitializer {
 				IGdbDebugPreferenceConstants.MAX_MI_OUTPUT_LINES_ENABLE_DEFAULT);
 		node.putInt(IGdbDebugPreferenceConstants.PREF_MAX_MI_OUTPUT_LINES,
 				IGdbDebugPreferenceConstants.MAX_MI_OUTPUT_LINES_DEFAULT);
+		node.putInt(IGdbDebugPreferenceConstants.PREF_MAX_OUTSTANDING_MI_COMMANDS,
+				IGdbDebugPreferenceConstants.MAX_OUTSTANDING_MI_COMMANDS_DEFAULT);
+		node.putInt(IGdbDebugPreferenceConstants.PREF_MEMORY_CACHE_PAGES,
+				IGdbDebugPreferenceConstants.MEMORY_CACHE_PAGES_DEFAULT);
+		node.putInt(IGdbDebugPreferenceConstants.PREF_MEMORY_READ_AHEAD_PAGES,
+				IGdbDebugPreferenceConstants.MEMORY_READ_AHEAD_PAGES_DEFAULT);
+		node.putInt(IGdbDebugPreferenceConstants.PREF_MAX_VARIABLE_OBJECTS,
+				IGdbDebugPreferenceConstants.MAX_VARIABLE_OBJECTS_DEFAULT);
 		node.putBoolean(IGdbDebugPreferenceConstants.PREF_AUTO_TERMINATE_GDB, true);
 		node.putBoolean(IGdbDebugPreferenceConstants.PREF_USE_INSPECTOR_HOVER, true);
 		node.putBoolean(IGdbDebugPreferenceConstants.PREF_ENABLE_PRETTY_PRINTING, true);
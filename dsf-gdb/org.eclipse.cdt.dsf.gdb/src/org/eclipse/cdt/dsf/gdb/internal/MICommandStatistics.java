@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.gdb.internal;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.cdt.internal.core.StatisticsMBean;
+
+/**
+ * Statistics on the MI commands sent to GDB by all debug sessions since the start of the
+ * workbench or the last reset.
+ */
+public final class MICommandStatistics extends StatisticsMBean implements MICommandStatisticsMXBean {
+	public static final String OBJECT_NAME = "org.eclipse.cdt.dsf.gdb:type=MICommandStatistics"; //$NON-NLS-1$
+
+	private static final MICommandStatistics INSTANCE = new MICommandStatistics();
+
+	public static MICommandStatistics getInstance() {
+		return INSTANCE;
+	}
+
+	private static class OperationStatistics {
+		final LongAdder fCount = new LongAdder();
+		final LongAdder fLatency = new LongAdder();
+		final AtomicLong fMaxLatency = new AtomicLong();
+		final LongAdder fRoundTripTime = new LongAdder();
+	}
+
+	private final Map<String, OperationStatistics> fOperations = new ConcurrentHashMap<>();
+	private final LongAdder fWrites = new LongAdder();
+	private final AtomicLong fMaxCommandsPerWrite = new AtomicLong();
+
+	private MICommandStatistics() {
+		super(OBJECT_NAME);
+	}
+
+	/**
+	 * Records a write of the given number of commands to GDB.
+	 */
+	public void commandsWritten(int count) {
+		fWrites.increment();
+		updateMax(fMaxCommandsPerWrite, count);
+	}
+
+	/**
+	 * Records the result of a command.
+	 *
+	 * @param operation the MI operation of the command, CLI commands are recorded by their first word
+	 * @param latency the time in nanoseconds from queuing the command to receiving its result
+	 * @param roundTripTime the time in nanoseconds from writing the command to receiving its result
+	 */
+	public void commandDone(String operation, long latency, long roundTripTime) {
+		int space = operation.indexOf(' ');
+		String key = space > 0 ? operation.substring(0, space) : operation.trim();
+		OperationStatistics statistics = fOperations.computeIfAbsent(key, k -> new OperationStatistics());
+		statistics.fCount.increment();
+		statistics.fLatency.add(latency);
+		statistics.fRoundTripTime.add(roundTripTime);
+		updateMax(statistics.fMaxLatency, latency);
+	}
+
+	private static void updateMax(AtomicLong max, long value) {
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	private Map<String, Long> collect(ToLongFunction<OperationStatistics> value) {
+		Map<String, Long> result = new TreeMap<>();
+		for (Map.Entry<String, OperationStatistics> entry : fOperations.entrySet()) {
+			result.put(entry.getKey(), value.applyAsLong(entry.getValue()));
+		}
+		return result;
+	}
+
+	private static long average(LongAdder total, LongAdder count) {
+		long n = count.sum();
+		return n == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(total.sum() / n);
+	}
+
+	@Override
+	public long getCommandCount() {
+		long count = 0;
+		for (OperationStatistics statistics : fOperations.values()) {
+			count += statistics.fCount.sum();
+		}
+		return count;
+	}
+
+	@Override
+	public long getWriteCount() {
+		return fWrites.sum();
+	}
+
+	@Override
+	public long getMaxCommandsPerWrite() {
+		return fMaxCommandsPerWrite.get();
+	}
+
+	@Override
+	public Map<String, Long> getCommandCounts() {
+		return collect(s -> s.fCount.sum());
+	}
+
+	@Override
+	public Map<String, Long> getAverageLatencies() {
+		return collect(s -> average(s.fLatency, s.fCount));
+	}
+
+	@Override
+	public Map<String, Long> getMaxLatencies() {
+		return collect(s -> TimeUnit.NANOSECONDS.toMicros(s.fMaxLatency.get()));
+	}
+
+	@Override
+	public Map<String, Long> getAverageRoundTripTimes() {
+		return collect(s -> average(s.fRoundTripTime, s.fCount));
+	}
+
+	@Override
+	public void reset() {
+		fOperations.clear();
+		fWrites.reset();
+		fMaxCommandsPerWrite.set(0);
+	}
+}
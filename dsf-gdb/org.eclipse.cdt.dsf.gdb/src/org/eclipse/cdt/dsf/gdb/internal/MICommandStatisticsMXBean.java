@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.gdb.internal;
+
+import java.util.Map;
+
+/**
+ * Management interface for the statistics on the MI commands sent to GDB, registered with the
+ * platform MBean server as {@value MICommandStatistics#OBJECT_NAME}. Times are reported in
+ * microseconds, the maps are keyed by the MI operation, for example {@code -stack-list-frames}.
+ */
+public interface MICommandStatisticsMXBean {
+	/**
+	 * Returns the number of commands whose results were received.
+	 */
+	long getCommandCount();
+
+	/**
+	 * Returns the number of writes to GDB, each of which sends one or more commands.
+	 */
+	long getWriteCount();
+
+	/**
+	 * Returns the largest number of commands sent with a single write.
+	 */
+	long getMaxCommandsPerWrite();
+
+	Map<String, Long> getCommandCounts();
+
+	/**
+	 * Returns the average time from queuing a command to receiving its result.
+	 */
+	Map<String, Long> getAverageLatencies();
+
+	/**
+	 * Returns the longest time from queuing a command to receiving its result.
+	 */
+	Map<String, Long> getMaxLatencies();
+
+	/**
+	 * Returns the average time from writing a command to GDB to receiving its result.
+	 */
+	Map<String, Long> getAverageRoundTripTimes();
+
+	/**
+	 * Resets all counters.
+	 */
+	void reset();
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.gdb.internal;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.cdt.internal.core.StatisticsMBean;
+
+/**
+ * Statistics of the target memory caches of all debug sessions since the start of the workbench
+ * or the last reset.
+ */
+public final class MemoryCacheStatistics extends StatisticsMBean implements MemoryCacheStatisticsMXBean {
+	public static final String OBJECT_NAME = "org.eclipse.cdt.dsf.gdb:type=MemoryCacheStatistics"; //$NON-NLS-1$
+
+	private static final MemoryCacheStatistics INSTANCE = new MemoryCacheStatistics();
+
+	public static MemoryCacheStatistics getInstance() {
+		return INSTANCE;
+	}
+
+	private final LongAdder fRequests = new LongAdder();
+	private final LongAdder fHits = new LongAdder();
+	private final LongAdder fPageHits = new LongAdder();
+	private final LongAdder fPageMisses = new LongAdder();
+	private final LongAdder fReads = new LongAdder();
+	private final LongAdder fReadAheadPages = new LongAdder();
+	private final LongAdder fReadAheadHits = new LongAdder();
+	private final LongAdder fEvictedPages = new LongAdder();
+
+	private MemoryCacheStatistics() {
+		super(OBJECT_NAME);
+	}
+
+	/**
+	 * Records a memory request.
+	 *
+	 * @param pageHits the number of requested pages found in the cache
+	 * @param pageMisses the number of requested pages to read from the target
+	 */
+	public void requested(int pageHits, int pageMisses) {
+		fRequests.increment();
+		if (pageMisses == 0)
+			fHits.increment();
+		fPageHits.add(pageHits);
+		fPageMisses.add(pageMisses);
+	}
+
+	/**
+	 * Records a memory read command.
+	 */
+	public void read() {
+		fReads.increment();
+	}
+
+	public void readAhead(int pages) {
+		fReadAheadPages.add(pages);
+	}
+
+	public void readAheadHit() {
+		fReadAheadHits.increment();
+	}
+
+	public void evicted() {
+		fEvictedPages.increment();
+	}
+
+	@Override
+	public long getRequestCount() {
+		return fRequests.sum();
+	}
+
+	@Override
+	public long getHitCount() {
+		return fHits.sum();
+	}
+
+	@Override
+	public long getPageHitCount() {
+		return fPageHits.sum();
+	}
+
+	@Override
+	public long getPageMissCount() {
+		return fPageMisses.sum();
+	}
+
+	@Override
+	public long getReadCount() {
+		return fReads.sum();
+	}
+
+	@Override
+	public long getReadAheadPageCount() {
+		return fReadAheadPages.sum();
+	}
+
+	@Override
+	public long getReadAheadHitCount() {
+		return fReadAheadHits.sum();
+	}
+
+	@Override
+	public long getEvictedPageCount() {
+		return fEvictedPages.sum();
+	}
+
+	@Override
+	public void reset() {
+		fRequests.reset();
+		fHits.reset();
+		fPageHits.reset();
+		fPageMisses.reset();
+		fReads.reset();
+		fReadAheadPages.reset();
+		fReadAheadHits.reset();
+		fEvictedPages.reset();
+	}
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.gdb.internal;
+
+/**
+ * Management interface for the statistics of the target memory caches, registered with the
+ * platform MBean server as {@value MemoryCacheStatistics#OBJECT_NAME}.
+ */
+public interface MemoryCacheStatisticsMXBean {
+	/**
+	 * Returns the number of memory requests.
+	 */
+	long getRequestCount();
+
+	/**
+	 * Returns the number of memory requests served from the cache without reading the target.
+	 */
+	long getHitCount();
+
+	/**
+	 * Returns the number of requested pages found in the cache.
+	 */
+	long getPageHitCount();
+
+	/**
+	 * Returns the number of requested pages that had to be read from the target.
+	 */
+	long getPageMissCount();
+
+	/**
+	 * Returns the number of memory read commands sent to GDB, including those reading ahead.
+	 */
+	long getReadCount();
+
+	/**
+	 * Returns the number of pages read ahead of the requests.
+	 */
+	long getReadAheadPageCount();
+
+	/**
+	 * Returns the number of pages read ahead that were requested afterwards.
+	 */
+	long getReadAheadHitCount();
+
+	/**
+	 * Returns the number of pages evicted because the cache was full.
+	 */
+	long getEvictedPageCount();
+
+	/**
+	 * Resets all counters.
+	 */
+	void reset();
+}
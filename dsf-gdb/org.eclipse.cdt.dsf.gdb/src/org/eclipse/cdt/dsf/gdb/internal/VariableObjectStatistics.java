@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.gdb.internal;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.cdt.internal.core.StatisticsMBean;
+
+/**
+ * Statistics of the GDB variable objects of all debug sessions since the start of the workbench
+ * or the last reset.
+ */
+public final class VariableObjectStatistics extends StatisticsMBean implements VariableObjectStatisticsMXBean {
+	public static final String OBJECT_NAME = "org.eclipse.cdt.dsf.gdb:type=VariableObjectStatistics"; //$NON-NLS-1$
+
+	private static final VariableObjectStatistics INSTANCE = new VariableObjectStatistics();
+
+	public static VariableObjectStatistics getInstance() {
+		return INSTANCE;
+	}
+
+	private final LongAdder fRequests = new LongAdder();
+	private final LongAdder fReused = new LongAdder();
+	private final LongAdder fCreated = new LongAdder();
+	private final LongAdder fEvicted = new LongAdder();
+	private final LongAdder fUpdates = new LongAdder();
+	private final LongAdder fBatchedUpdates = new LongAdder();
+	private final LongAdder fBatchedRoots = new LongAdder();
+
+	private VariableObjectStatistics() {
+		super(OBJECT_NAME);
+	}
+
+	/**
+	 * Records the request of a variable object.
+	 *
+	 * @param reused whether the variable object already existed
+	 */
+	public void requested(boolean reused) {
+		fRequests.increment();
+		if (reused)
+			fReused.increment();
+	}
+
+	public void created() {
+		fCreated.increment();
+	}
+
+	public void evicted() {
+		fEvicted.increment();
+	}
+
+	public void updated() {
+		fUpdates.increment();
+	}
+
+	/**
+	 * Records a {@code -var-update *} command.
+	 *
+	 * @param roots the number of roots updated by the command
+	 */
+	public void batchUpdated(int roots) {
+		fBatchedUpdates.increment();
+		fBatchedRoots.add(roots);
+	}
+
+	@Override
+	public long getRequestCount() {
+		return fRequests.sum();
+	}
+
+	@Override
+	public long getReuseCount() {
+		return fReused.sum();
+	}
+
+	@Override
+	public long getCreateCount() {
+		return fCreated.sum();
+	}
+
+	@Override
+	public long getEvictedCount() {
+		return fEvicted.sum();
+	}
+
+	@Override
+	public long getUpdateCount() {
+		return fUpdates.sum();
+	}
+
+	@Override
+	public long getBatchedUpdateCount() {
+		return fBatchedUpdates.sum();
+	}
+
+	@Override
+	public long getBatchedRootCount() {
+		return fBatchedRoots.sum();
+	}
+
+	@Override
+	public long getSavedUpdateCount() {
+		return fBatchedRoots.sum() - fBatchedUpdates.sum();
+	}
+
+	@Override
+	public void reset() {
+		fRequests.reset();
+		fReused.reset();
+		fCreated.reset();
+		fEvicted.reset();
+		fUpdates.reset();
+		fBatchedUpdates.reset();
+		fBatchedRoots.reset();
+	}
+}
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.gdb.internal;
+
+/**
+ * Management interface for the statistics of the GDB variable objects, registered with the
+ * platform MBean server as {@value VariableObjectStatistics#OBJECT_NAME}.
+ */
+public interface VariableObjectStatisticsMXBean {
+	/**
+	 * Returns the number of variable objects requested for an expression.
+	 */
+	long getRequestCount();
+
+	/**
+	 * Returns the number of requested variable objects that already existed and did not have to
+	 * be created with {@code -var-create}.
+	 */
+	long getReuseCount();
+
+	/**
+	 * Returns the number of root variable objects created with {@code -var-create}.
+	 */
+	long getCreateCount();
+
+	/**
+	 * Returns the number of variable objects deleted because the maximum number of variable
+	 * objects was exceeded.
+	 */
+	long getEvictedCount();
+
+	/**
+	 * Returns the number of {@code -var-update} commands sent for a single root.
+	 */
+	long getUpdateCount();
+
+	/**
+	 * Returns the number of {@code -var-update *} commands updating all roots at once.
+	 */
+	long getBatchedUpdateCount();
+
+	/**
+	 * Returns the number of roots updated by {@code -var-update *} commands.
+	 */
+	long getBatchedRootCount();
+
+	/**
+	 * Returns the number of {@code -var-update} commands saved by updating all roots at once.
+	 */
+	long getSavedUpdateCount();
+
+	/**
+	 * Resets all counters.
+	 */
+	void reset();
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Eclipse CDT contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.cdt.dsf.gdb.internal.service;
+
+import org.eclipse.cdt.dsf.datamodel.DMContexts;
+import org.eclipse.cdt.dsf.datamodel.IDMEvent;
+import org.eclipse.cdt.dsf.debug.service.IRunControl.IContainerDMContext;
+import org.eclipse.cdt.dsf.debug.service.IRunControl.IExitedDMEvent;
+import org.eclipse.cdt.dsf.debug.service.IRunControl.IStartedDMEvent;
+
+/**
+ * Decides which thread events the views of a launch may skip when a later event arrives before
+ * they were handled.
+ */
+public class ThreadEventCoalescing {
+
+	private ThreadEventCoalescing() {
+	}
+
+	/**
+	 * Returns whether the given pending event can be skipped because of the given new event.
+	 * <p>
+	 * A thread starting and any later thread event of the same process both refresh the threads
+	 * of that process, when a program creates many threads only the last event of a burst needs
+	 * handling. Exited events are never skipped, the views clean up the state of the thread on
+	 * them.
+	 */
+	public static boolean canSkipHandlingEvent(Object newEvent, Object eventToSkip) {
+		if (!(eventToSkip instanceof IStartedDMEvent) || !isThreadEvent(eventToSkip)) {
+			return false;
+		}
+		if (!(newEvent instanceof IStartedDMEvent || newEvent instanceof IExitedDMEvent) || !isThreadEvent(newEvent)) {
+			return false;
+		}
+		IContainerDMContext container = DMContexts.getAncestorOfType(((IDMEvent<?>) eventToSkip).getDMContext(),
+				IContainerDMContext.class);
+		return container != null && container.equals(
+				DMContexts.getAncestorOfType(((IDMEvent<?>) newEvent).getDMContext(), IContainerDMContext.class));
+	}
+
+	private static boolean isThreadEvent(Object event) {
+		return !(((IDMEvent<?>) event).getDMContext() instanceof IContainerDMContext);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2016 Ericsson and others.
+ * Copyright (c) 2008, 2020 Ericsson and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -25,11 +25,13 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -580,6 +582,48 @@ public class GDBProcesses_7_0 extends AbstractDsfService implements IGDBProcesse
 		}
 	}
 
+	/**
+	 * The ids of the threads of a thread group, in the order in which GDB lists them.
+	 */
+	private static class ThreadIdList {
+		/** The ids in the order in which the threads were created. */
+		private final Set<String> fIds = new LinkedHashSet<>();
+		/** Whether GDB lists the most recently created thread first, as older versions do. */
+		private final boolean fNewestFirst;
+
+		ThreadIdList(MIThread[] threads) {
+			fNewestFirst = threads.length > 1
+					&& compareIds(threads[0].getThreadId(), threads[threads.length - 1].getThreadId()) > 0;
+			for (int i = 0; i < threads.length; i++) {
+				fIds.add(threads[fNewestFirst ? threads.length - 1 - i : i].getThreadId());
+			}
+		}
+
+		private static int compareIds(String id1, String id2) {
+			try {
+				return Integer.compare(Integer.parseInt(id1), Integer.parseInt(id2));
+			} catch (NumberFormatException e) {
+				return 0;
+			}
+		}
+
+		void add(String id) {
+			fIds.add(id);
+		}
+
+		void remove(String id) {
+			fIds.remove(id);
+		}
+
+		String[] toArray() {
+			String[] ids = fIds.toArray(new String[fIds.size()]);
+			if (fNewestFirst) {
+				Collections.reverse(Arrays.asList(ids));
+			}
+			return ids;
+		}
+	}
+
 	/**
 	 * Event indicating that an container (debugged process) has started.  This event
 	 * implements the {@link IStartedMDEvent} from the IRunControl service.
@@ -630,6 +674,18 @@ public class GDBProcesses_7_0 extends AbstractDsfService implements IGDBProcesse
 	//A cache for commands about the threads
 	private CommandCache fThreadCommandCache;
 
+	/**
+	 * The ids of the threads of each thread group. The list of a group is filled when its threads
+	 * are first requested and is then kept up to date with the thread started and exited events.
+	 * Listing the threads again after every event is very slow for processes with thousands of
+	 * threads, since GDB reports the top frame of each thread.
+	 */
+	private final Map<String, ThreadIdList> fThreadIds = new HashMap<>();
+	/** The number of thread started and exited events, to detect lists that are outdated when they arrive. */
+	private int fThreadEventCount;
+	/** Whether threads started or exited since the last suspension. */
+	private boolean fThreadsChanged;
+
 	// A temporary cache to avoid using -list-thread-groups --available more than once at the same time.
 	// We cannot cache this command because it lists all available processes, which can
 	// change at any time.  However, it is inefficient to send more than one of this command at
@@ -1463,11 +1519,28 @@ public class GDBProcesses_7_0 extends AbstractDsfService implements IGDBProcesse
 				return;
 			}
 
+			ThreadIdList threadIds = fThreadIds.get(containerDmc.getGroupId());
+			if (threadIds != null) {
+				rm.done(makeExecutionDMCs(containerDmc, threadIds.toArray()));
+				return;
+			}
+
+			final int threadEventCount = fThreadEventCount;
 			fThreadCommandCache.execute(fCommandFactory.createMIListThreadGroups(controlDmc, containerDmc.getGroupId()),
 					new DataRequestMonitor<MIListThreadGroupsInfo>(getExecutor(), rm) {
 						@Override
 						protected void handleSuccess() {
-							rm.setData(makeExecutionDMCs(containerDmc, getData().getThreadInfo().getThreadList()));
+							MIThread[] threads = getData().getThreadInfo().getThreadList();
+							ThreadIdList threadIds = new ThreadIdList(threads);
+							// Threads that started or exited after the list was requested
+							// may be missing from it, or may still be in it.  The command cache
+							// keeps such a list even if it was reset in the meantime.
+							if (threadEventCount != fThreadEventCount) {
+								fThreadCommandCache.reset();
+							} else if (threads.length != 0) {
+								fThreadIds.put(containerDmc.getGroupId(), threadIds);
+							}
+							rm.setData(makeExecutionDMCs(containerDmc, threadIds.toArray()));
 							rm.done();
 						}
 					});
@@ -1516,10 +1589,10 @@ public class GDBProcesses_7_0 extends AbstractDsfService implements IGDBProcesse
 		}
 	}
 
-	private IExecutionDMContext[] makeExecutionDMCs(IContainerDMContext containerDmc, MIThread[] threadInfos) {
+	private IExecutionDMContext[] makeExecutionDMCs(IContainerDMContext containerDmc, String[] threadIds) {
 		final IProcessDMContext procDmc = DMContexts.getAncestorOfType(containerDmc, IProcessDMContext.class);
 
-		if (threadInfos.length == 0) {
+		if (threadIds.length == 0) {
 			// Main thread always exist even if it is not reported by GDB.
 			// So create thread-id = 0 when no thread is reported.
 			// This hack is necessary to prevent AbstractMIControl from issuing a thread-select
@@ -1527,9 +1600,9 @@ public class GDBProcesses_7_0 extends AbstractDsfService implements IGDBProcesse
 			return new IMIExecutionDMContext[] { createExecutionContext(containerDmc,
 					createThreadContext(procDmc, FAKE_THREAD_ID), FAKE_THREAD_ID) };
 		} else {
-			IExecutionDMContext[] executionDmcs = new IMIExecutionDMContext[threadInfos.length];
-			for (int i = 0; i < threadInfos.length; i++) {
-				String threadId = threadInfos[i].getThreadId();
+			IExecutionDMContext[] executionDmcs = new IMIExecutionDMContext[threadIds.length];
+			for (int i = 0; i < threadIds.length; i++) {
+				String threadId = threadIds[i];
 				executionDmcs[i] = createExecutionContext(containerDmc, createThreadContext(procDmc, threadId),
 						threadId);
 			}
@@ -1959,9 +2032,17 @@ public class GDBProcesses_7_0 extends AbstractDsfService implements IGDBProcesse
 				ICommandControlDMContext controlDmc = DMContexts.getAncestorOfType(e.getDMContext(),
 						ICommandControlDMContext.class);
 				fThreadCommandCache.reset(controlDmc);
+				fThreadIds.clear();
 			}
 		} catch (CoreException exc) {
 		}
+
+		// The names and details of the threads may have changed along with the list of threads.
+		// They are fetched again on demand, for the threads that are shown.
+		if (fThreadsChanged) {
+			fThreadsChanged = false;
+			fThreadCommandCache.reset();
+		}
 	}
 
 	// Event handler when a thread or threadGroup starts
@@ -1975,9 +2056,10 @@ public class GDBProcesses_7_0 extends AbstractDsfService implements IGDBProcesse
 			}
 
 			fContainerCommandCache.reset();
+			fThreadIds.remove(groupId);
 			fNumConnected++;
 		} else {
-			fThreadCommandCache.reset();
+			threadsChanged(e.getDMContext(), true);
 		}
 	}
 
@@ -1986,6 +2068,7 @@ public class GDBProcesses_7_0 extends AbstractDsfService implements IGDBProcesse
 	public void eventDispatched(IExitedDMEvent e) {
 		if (e.getDMContext() instanceof IMIContainerDMContext) {
 			fExitedGroupId.add(((IMIContainerDMContext) e.getDMContext()).getGroupId());
+			fThreadIds.remove(((IMIContainerDMContext) e.getDMContext()).getGroupId());
 
 			fContainerCommandCache.reset();
 
@@ -2010,6 +2093,32 @@ public class GDBProcesses_7_0 extends AbstractDsfService implements IGDBProcesse
 				}, 500, TimeUnit.MILLISECONDS);
 			}
 		} else {
+			threadsChanged(e.getDMContext(), false);
+		}
+	}
+
+	/**
+	 * Updates the list of threads of the group of the given thread, if it is known. Otherwise the
+	 * threads have to be listed again.
+	 */
+	private void threadsChanged(IDMContext threadDmc, boolean started) {
+		fThreadEventCount++;
+		IMIContainerDMContext containerDmc = DMContexts.getAncestorOfType(threadDmc, IMIContainerDMContext.class);
+		ThreadIdList threadIds = containerDmc != null ? fThreadIds.get(containerDmc.getGroupId()) : null;
+		if (threadIds != null && threadDmc instanceof IMIExecutionDMContext) {
+			String threadId = ((IMIExecutionDMContext) threadDmc).getThreadId();
+			if (started) {
+				threadIds.add(threadId);
+			} else {
+				threadIds.remove(threadId);
+			}
+			fThreadsChanged = true;
+		} else {
+			if (containerDmc != null) {
+				fThreadIds.remove(containerDmc.getGroupId());
+			} else {
+				fThreadIds.clear();
+			}
 			fThreadCommandCache.reset();
 		}
 	}
@@ -2037,6 +2146,7 @@ public class GDBProcesses_7_0 extends AbstractDsfService implements IGDBProcesse
 	public void flushCache(IDMContext context) {
 		fContainerCommandCache.reset(context);
 		fThreadCommandCache.reset(context);
+		fThreadIds.clear();
 		// Not technically needed since we are supposed to have
 		// cleared this cache as soon as the it gets the answer
 		// from GDB; but to be more future-proof, might as well
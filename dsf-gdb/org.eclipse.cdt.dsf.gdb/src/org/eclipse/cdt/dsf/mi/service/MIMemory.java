@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 Wind River Systems and others.
+ * Copyright (c) 2007, 2020 Wind River Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,18 +21,21 @@
  *******************************************************************************/
 package org.eclipse.cdt.dsf.mi.service;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Hashtable;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 
 import org.eclipse.cdt.core.IAddress;
 import org.eclipse.cdt.dsf.concurrent.CountingRequestMonitor;
 import org.eclipse.cdt.dsf.concurrent.DataRequestMonitor;
 import org.eclipse.cdt.dsf.concurrent.IDsfStatusConstants;
+import org.eclipse.cdt.dsf.concurrent.ImmediateExecutor;
 import org.eclipse.cdt.dsf.concurrent.ImmediateRequestMonitor;
 import org.eclipse.cdt.dsf.concurrent.RequestMonitor;
 import org.eclipse.cdt.dsf.datamodel.AbstractDMEvent;
@@ -51,9 +54,13 @@ import org.eclipse.cdt.dsf.debug.service.IRunControl.ISuspendedDMEvent;
 import org.eclipse.cdt.dsf.debug.service.IRunControl.StateChangeReason;
 import org.eclipse.cdt.dsf.debug.service.command.BufferedCommandControl;
 import org.eclipse.cdt.dsf.debug.service.command.CommandCache;
+import org.eclipse.cdt.dsf.debug.service.command.ICommand;
+import org.eclipse.cdt.dsf.gdb.IGdbDebugPreferenceConstants;
 import org.eclipse.cdt.dsf.gdb.internal.GdbPlugin;
+import org.eclipse.cdt.dsf.gdb.internal.MemoryCacheStatistics;
 import org.eclipse.cdt.dsf.gdb.service.command.IGDBControl;
 import org.eclipse.cdt.dsf.mi.service.MIExpressions.ExpressionChangedEvent;
+import org.eclipse.cdt.dsf.mi.service.command.AbstractMIControl;
 import org.eclipse.cdt.dsf.mi.service.command.CommandFactory;
 import org.eclipse.cdt.dsf.mi.service.command.output.MIDataReadMemoryBytesInfo;
 import org.eclipse.cdt.dsf.mi.service.command.output.MIDataReadMemoryInfo;
@@ -64,6 +71,7 @@ import org.eclipse.cdt.dsf.service.DsfServiceEventHandler;
 import org.eclipse.cdt.dsf.service.DsfSession;
 import org.eclipse.cdt.utils.Addr64;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.debug.core.model.MemoryByte;
 import org.osgi.framework.BundleContext;
@@ -76,6 +84,9 @@ public class MIMemory extends AbstractDsfService implements IMemory, ICachingSer
 	private static final String READ_MEMORY_BYTES_FEATURE = "data-read-memory-bytes"; //$NON-NLS-1$
 	//data-read-memory write is deprecated, its description could be ambiguous for e.g. 16 bit addressable systems
 	private static final String DATA_WRITE_MEMORY_16_NOT_SUPPORTED = "data-write-memory with word-size != 1 not supported"; //$NON-NLS-1$
+	// The number of addressable units of a page of the memory cache
+	private static final int PAGE_SIZE = 1024;
+	private static final BigInteger PAGE_SIZE_VALUE = BigInteger.valueOf(PAGE_SIZE);
 
 	public class MemoryChangedEvent extends AbstractDMEvent<IMemoryDMContext> implements IMemoryChangedEvent {
 		private IAddress[] fAddresses;
@@ -94,9 +105,12 @@ public class MIMemory extends AbstractDsfService implements IMemory, ICachingSer
 	// Back-end commands cache
 	private CommandCache fCommandCache;
 	private CommandFactory fCommandFactory;
+	private IGDBControl fCommandControl;
+	// Whether the memory being read is read ahead of the requests
+	private boolean fReadingAhead;
 
 	// Map of memory caches
-	private Map<IMemoryDMContext, MIMemoryCache> fMemoryCaches;
+	private final Map<IMemoryDMContext, MIMemoryCache> fMemoryCaches = new HashMap<>();
 
 	/** @since 4.2 */
 	protected MIMemoryCache getMemoryCache(IMemoryDMContext memoryDMC) {
@@ -138,6 +152,7 @@ public class MIMemory extends AbstractDsfService implements IMemory, ICachingSer
 
 	private void doInitialize(final RequestMonitor requestMonitor) {
 		IGDBControl commandControl = getServicesTracker().getService(IGDBControl.class);
+		fCommandControl = commandControl;
 		BufferedCommandControl bufferedCommandControl = new BufferedCommandControl(commandControl, getExecutor(), 2);
 
 		fDataReadMemoryBytes = commandControl.getFeatures().contains(READ_MEMORY_BYTES_FEATURE);
@@ -157,8 +172,6 @@ public class MIMemory extends AbstractDsfService implements IMemory, ICachingSer
 
 		register(new String[] { MIMemory.class.getName(), IMemory.class.getName() }, new Hashtable<String, String>());
 
-		fMemoryCaches = new HashMap<>();
-
 		getSession().addServiceEventListener(this, null);
 
 		requestMonitor.done();
@@ -320,7 +333,7 @@ public class MIMemory extends AbstractDsfService implements IMemory, ICachingSer
 	protected void readMemoryBlock(IDMContext dmc, IAddress address, final long offset, final int wordSize,
 			final int wordCount, final DataRequestMonitor<MemoryByte[]> drm) {
 		if (fDataReadMemoryBytes) {
-			fCommandCache.execute(
+			executeRead(
 					fCommandFactory.createMIDataReadMemoryBytes(dmc, address.toString(), offset, wordCount, wordSize),
 					new DataRequestMonitor<MIDataReadMemoryBytesInfo>(getExecutor(), drm) {
 						@Override
@@ -356,24 +369,35 @@ public class MIMemory extends AbstractDsfService implements IMemory, ICachingSer
 			int nbCols = wordCount;
 			Character asChar = null;
 
-			fCommandCache
-					.execute(
-							fCommandFactory.createMIDataReadMemory(dmc, offset, address.toString(), mode, wordSize,
-									nbRows, nbCols, asChar),
-							new DataRequestMonitor<MIDataReadMemoryInfo>(getExecutor(), drm) {
-								@Override
-								protected void handleSuccess() {
-									// Retrieve the memory block
-									drm.setData(getData().getMIMemoryBlock());
-									drm.done();
-								}
+			executeRead(
+					fCommandFactory.createMIDataReadMemory(dmc, offset, address.toString(), mode, wordSize, nbRows,
+							nbCols, asChar),
+					new DataRequestMonitor<MIDataReadMemoryInfo>(getExecutor(), drm) {
+						@Override
+						protected void handleSuccess() {
+							// Retrieve the memory block
+							drm.setData(getData().getMIMemoryBlock());
+							drm.done();
+						}
 
-								@Override
-								protected void handleFailure() {
-									drm.setData(createInvalidBlock(wordSize * wordCount));
-									drm.done();
-								}
-							});
+						@Override
+						protected void handleFailure() {
+							drm.setData(createInvalidBlock(wordSize * wordCount));
+							drm.done();
+						}
+					});
+		}
+	}
+
+	/**
+	 * Sends a memory read command. The reads ahead of the requests are sent after the other
+	 * commands, such that they do not delay the memory that is shown.
+	 */
+	private <V extends MIInfo> void executeRead(ICommand<V> command, DataRequestMonitor<V> rm) {
+		if (fReadingAhead && fCommandControl instanceof AbstractMIControl) {
+			((AbstractMIControl) fCommandControl).queueBackgroundCommand(command, rm);
+		} else {
+			fCommandCache.execute(command, rm);
 		}
 	}
 
@@ -532,361 +556,273 @@ public class MIMemory extends AbstractDsfService implements IMemory, ICachingSer
 	}
 
 	///////////////////////////////////////////////////////////////////////////
-	// SortedLinkedlist
+	// MIMemoryCache
 	///////////////////////////////////////////////////////////////////////////
 
-	// This class is really the equivalent of a C struct (old habits die hard...)
-	// For simplicity, everything is public.
-	private static class MemoryBlock {
-		public IAddress fAddress;
-		public long fLengthInAddressableUnits;
-		public long fLengthInOctets;
-		public MemoryByte[] fBlock;
-
-		public MemoryBlock(IAddress address, long lengthInOctets, long lengthInAddressableUnits, MemoryByte[] block) {
-			// A memory block is expected to be populated with the contents of a defined range of addresses
-			// therefore the number of octets shall be divisible by the number of addresses
-			assert (lengthInOctets % lengthInAddressableUnits == 0);
-			fAddress = address;
-			fLengthInAddressableUnits = lengthInAddressableUnits;
-			fLengthInOctets = lengthInOctets;
-			fBlock = block;
-		}
+	/**
+	 * Returns the maximum number of pages cached for each memory context, 0 to read exactly the
+	 * requested memory without caching it. By default the value of the
+	 * {@link IGdbDebugPreferenceConstants#PREF_MEMORY_CACHE_PAGES} preference is returned.
+	 *
+	 * @since 6.0
+	 */
+	protected int getMemoryCachePages() {
+		return Platform.getPreferencesService().getInt(GdbPlugin.PLUGIN_ID,
+				IGdbDebugPreferenceConstants.PREF_MEMORY_CACHE_PAGES,
+				IGdbDebugPreferenceConstants.MEMORY_CACHE_PAGES_DEFAULT, null);
 	}
 
-	// Address-ordered data structure to cache the memory blocks.
-	// Contiguous blocks are merged if possible.
-	@SuppressWarnings("serial")
-	private static class SortedMemoryBlockList extends LinkedList<MemoryBlock> {
-
-		public SortedMemoryBlockList() {
-			super();
-		}
-
-		// Insert the block in the sorted linked list and merge contiguous
-		// blocks if necessary
-		@Override
-		public boolean add(MemoryBlock block) {
-
-			// If the list is empty, just store the block
-			if (isEmpty()) {
-				addFirst(block);
-				return true;
-			}
+	/**
+	 * Returns the number of pages read ahead when memory is read sequentially. By default the value
+	 * of the {@link IGdbDebugPreferenceConstants#PREF_MEMORY_READ_AHEAD_PAGES} preference is
+	 * returned.
+	 *
+	 * @since 6.0
+	 */
+	protected int getMemoryReadAheadPages() {
+		return Platform.getPreferencesService().getInt(GdbPlugin.PLUGIN_ID,
+				IGdbDebugPreferenceConstants.PREF_MEMORY_READ_AHEAD_PAGES,
+				IGdbDebugPreferenceConstants.MEMORY_READ_AHEAD_PAGES_DEFAULT, null);
+	}
 
-			// Insert the block at the correct location and then
-			// merge the blocks if possible
-			ListIterator<MemoryBlock> it = listIterator();
-			while (it.hasNext()) {
-				int index = it.nextIndex();
-				MemoryBlock item = it.next();
-				if (block.fAddress.compareTo(item.fAddress) < 0) {
-					add(index, block);
-					compact(index);
-					return true;
-				}
-			}
+	// A page of cached memory
+	private static class MemoryPage {
+		final MemoryByte[] fBytes;
+		// Whether the page was read ahead and has not been requested since
+		boolean fReadAhead;
 
-			// Put at the end of the list and merge if necessary
-			addLast(block);
-			compact(size() - 1);
-			return true;
+		MemoryPage(MemoryByte[] bytes, boolean readAhead) {
+			fBytes = bytes;
+			fReadAhead = readAhead;
 		}
+	}
 
-		// Merge this block with its contiguous neighbors (if any)
-		// Note: Merge is not performed if resulting block size would exceed MAXINT
-		private void compact(int index) {
-
-			MemoryBlock newBlock = get(index);
-
-			// Case where the block is to be merged with the previous block
-			if (index > 0) {
-				MemoryBlock prevBlock = get(index - 1);
-				IAddress endOfPreviousBlock = prevBlock.fAddress.add(prevBlock.fLengthInAddressableUnits);
-				if (endOfPreviousBlock.distanceTo(newBlock.fAddress).longValue() == 0) {
-					long newLengthInOctets = prevBlock.fLengthInOctets + newBlock.fLengthInOctets;
-					long newLengthInAddressableUnits = prevBlock.fLengthInAddressableUnits
-							+ newBlock.fLengthInAddressableUnits;
-					if (newLengthInOctets <= Integer.MAX_VALUE) {
-						MemoryByte[] block = new MemoryByte[(int) newLengthInOctets];
-						System.arraycopy(prevBlock.fBlock, 0, block, 0, (int) prevBlock.fLengthInOctets);
-						System.arraycopy(newBlock.fBlock, 0, block, (int) prevBlock.fLengthInOctets,
-								(int) newBlock.fLengthInOctets);
-						newBlock = new MemoryBlock(prevBlock.fAddress, newLengthInOctets, newLengthInAddressableUnits,
-								block);
-						remove(index);
-						index -= 1;
-						set(index, newBlock);
-					}
-				}
-			}
-
-			// Case where the block is to be merged with the following block
-			int lastIndex = size() - 1;
-			if (index < lastIndex) {
-				MemoryBlock nextBlock = get(index + 1);
-				IAddress endOfNewBlock = newBlock.fAddress.add(newBlock.fLengthInAddressableUnits);
-				if (endOfNewBlock.distanceTo(nextBlock.fAddress).longValue() == 0) {
-					long newLength = newBlock.fLengthInOctets + nextBlock.fLengthInOctets;
-					long newAddressesLength = newBlock.fLengthInAddressableUnits + nextBlock.fLengthInAddressableUnits;
-					if (newLength <= Integer.MAX_VALUE) {
-						MemoryByte[] block = new MemoryByte[(int) newLength];
-						System.arraycopy(newBlock.fBlock, 0, block, 0, (int) newBlock.fLengthInOctets);
-						System.arraycopy(nextBlock.fBlock, 0, block, (int) newBlock.fLengthInOctets,
-								(int) nextBlock.fLengthInOctets);
-						newBlock = new MemoryBlock(newBlock.fAddress, newLength, newAddressesLength, block);
-						set(index, newBlock);
-						remove(index + 1);
-					}
-				}
-			}
+	// A read of consecutive pages, and the requests waiting for it
+	private static class PageRead {
+		final BigInteger fFirstPage;
+		final int fPageCount;
+		final boolean fReadAhead;
+		final List<DataRequestMonitor<MemoryPage[]>> fWaiters = new ArrayList<>();
+
+		PageRead(BigInteger firstPage, int pageCount, boolean readAhead) {
+			fFirstPage = firstPage;
+			fPageCount = pageCount;
+			fReadAhead = readAhead;
 		}
 	}
 
-	///////////////////////////////////////////////////////////////////////////
-	// MIMemoryCache
-	///////////////////////////////////////////////////////////////////////////
-
-	/** @since 4.2 */
+	/**
+	 * The memory cache of a memory context.
+	 * <p>
+	 * The memory is cached in pages of 1024 addressable units that start at a multiple of the
+	 * page size, the least recently used pages are evicted once {@link #getMemoryCachePages()}
+	 * pages are cached. The missing pages of a request are read with one command for each run of
+	 * consecutive pages, and pages that are already being read for another request are not read
+	 * again. When the requests move through the memory in one direction, as when scrolling a
+	 * memory view, {@link #getMemoryReadAheadPages()} pages in that direction are read ahead once
+	 * the request is sent. Pages with unreadable memory are not cached, the requests that include
+	 * them are read again exactly as requested.
+	 *
+	 * @since 4.2
+	 */
 	protected class MIMemoryCache {
-		// The memory cache data structure
-		private SortedMemoryBlockList fMemoryBlockList;
+		// The cached pages by page number, in the order of their last use
+		private final LinkedHashMap<BigInteger, MemoryPage> fPages;
+		// The reads in progress by page number
+		private final Map<BigInteger, PageRead> fPendingReads = new HashMap<>();
+		private final int fCapacity;
+		private final int fReadAheadPages;
+		// The addressable size of the cached pages, in octets
+		private int fWordSize = 1;
+		// Incremented on reset, to drop the reads that complete afterwards
+		private int fGeneration;
+		// The range of the previous request, to detect sequential requests
+		private BigInteger fLastStart;
+		private BigInteger fLastEnd;
 
 		public MIMemoryCache() {
-			// Create the memory block cache
-			fMemoryBlockList = new SortedMemoryBlockList();
+			fCapacity = Math.max(0, getMemoryCachePages());
+			fReadAheadPages = Math.max(0, Math.min(getMemoryReadAheadPages(), fCapacity / 2));
+			fPages = new LinkedHashMap<BigInteger, MemoryPage>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<BigInteger, MemoryPage> eldest) {
+					if (size() > fCapacity) {
+						MemoryCacheStatistics.getInstance().evicted();
+						return true;
+					}
+					return false;
+				}
+			};
 		}
 
 		public void reset() {
 			// Clear the memory cache
-			fMemoryBlockList.clear();
+			fPages.clear();
+			discardPendingReads();
+			fLastStart = null;
+			fLastEnd = null;
 		}
 
 		/**
-		 *  This function walks the address-sorted memory block list to identify
-		 *  the 'missing' blocks (i.e. the holes) that need to be fetched on the target.
-		 *
-		 *  The idea is fairly simple but an illustration could perhaps help.
-		 *  Assume the cache holds a number of cached memory blocks with gaps i.e.
-		 *  there is un-cached memory areas between blocks A, B and C:
-		 *
-		 *        +---------+      +---------+      +---------+
-		 *        +    A    +      +    B    +      +    C    +
-		 *        +---------+      +---------+      +---------+
-		 *        :         :      :         :      :         :
-		 *   [a]  :         :  [b] :         :  [c] :         :  [d]
-		 *        :         :      :         :      :         :
-		 *   [e---+--]      :  [f--+---------+--]   :         :
-		 *   [g---+---------+------+---------+------+---------+----]
-		 *        :         :      :         :      :         :
-		 *        :   [h]   :      :   [i----+--]   :         :
-		 *
-		 *
-		 *  We have the following cases to consider.The requested block [a-i] either:
-		 *
-		 *  [1] Fits entirely before A, in one of the gaps, or after C
-		 *      with no overlap and no contiguousness (e.g. [a], [b], [c] and [d])
-		 *      -> Add the requested block to the list of blocks to fetch
-		 *
-		 *  [2] Starts before an existing block but overlaps part of it, possibly
-		 *      spilling in the gap following the cached block (e.g. [e], [f] and [g])
-		 *      -> Determine the length of the missing part (< count)
-		 *      -> Add a request to fill the gap before the existing block
-		 *      -> Update the requested block for the next iteration:
-		 *         - Start address to point just after the end of the cached block
-		 *         - Count reduced by cached block length (possibly becoming negative, e.g. [e])
-		 *      At this point, the updated requested block starts just beyond the cached block
-		 *      for the next iteration.
-		 *
-		 *  [3] Starts at or into an existing block and overlaps part of it ([h] and [i])
-		 *      -> Update the requested block for the next iteration:
-		 *         - Start address to point just after the end of the cached block
-		 *         - Count reduced by length to end of cached block (possibly becoming negative, e.g. [h])
-		 *      At this point, the updated requested block starts just beyond the cached block
-		 *      for the next iteration.
-		 *
-		 *  We iterate over the cached blocks list until there is no entry left or until
-		 *  the remaining requested block count is <= 0, meaning the result list contains
-		 *  only the sub-blocks needed to fill the gap(s), if any.
-		 *
-		 *  (As is often the case, it takes much more typing to explain it than to just do it :-)
-		 *
-		 *  What is missing is a parameter that indicates the minimal block size that is worth fetching.
-		 *  This is target-specific and straight in the realm of the coalescing function...
-		 *
-		 * @param reqBlockStart The address of the requested block
-		 * @param count Its length
-		 * @return A list of the sub-blocks to fetch in order to fill enough gaps in the memory cache
-		 * to service the request
+		 * Keeps the reads in progress from adding their pages to the cache.
 		 */
-		private List<MemoryBlock> getListOfMissingBlocks(IAddress reqBlockStart, int wordCount, int wordSize) {
-			int octetCount = wordCount * wordSize;
-
-			LinkedList<MemoryBlock> list = new LinkedList<>();
-			ListIterator<MemoryBlock> it = fMemoryBlockList.listIterator();
-
-			// Look for holes in the list of memory blocks
-			while (it.hasNext() && octetCount > 0) {
-				MemoryBlock cachedBlock = it.next();
-				IAddress cachedBlockStart = cachedBlock.fAddress;
-				IAddress cachedBlockEnd = cachedBlock.fAddress.add(cachedBlock.fLengthInAddressableUnits);
-
-				// Case where we miss a block before the cached block
-				if (reqBlockStart.distanceTo(cachedBlockStart).longValue() >= 0) {
-					int lengthInOctets = (int) Math
-							.min(reqBlockStart.distanceTo(cachedBlockStart).longValue() * wordSize, octetCount);
-					// If both blocks start at the same location, no need to create a new cached block
-					if (lengthInOctets > 0) {
-						int lengthInAddressableUnits = lengthInOctets / wordSize;
-						MemoryBlock newBlock = new MemoryBlock(reqBlockStart, lengthInOctets, lengthInAddressableUnits,
-								new MemoryByte[0]);
-						list.add(newBlock);
-					}
-					// Adjust request block start and length for the next iteration
-					reqBlockStart = cachedBlockEnd;
-					octetCount -= lengthInOctets + cachedBlock.fLengthInOctets;
-				}
-
-				// Case where the requested block starts somewhere in the cached block
-				else if (cachedBlockStart.distanceTo(reqBlockStart).longValue() > 0
-						&& reqBlockStart.distanceTo(cachedBlockEnd).longValue() >= 0) {
-					// Start of the requested block already in cache
-					// Adjust request block start and length for the next iteration
-					octetCount -= reqBlockStart.distanceTo(cachedBlockEnd).longValue() * wordSize;
-					reqBlockStart = cachedBlockEnd;
-				}
-			}
+		private void discardPendingReads() {
+			fPendingReads.clear();
+			fGeneration++;
+		}
 
-			// Case where we miss a block at the end of the cache
-			if (octetCount > 0) {
-				int addressesLength = octetCount / wordSize;
-				MemoryBlock newBlock = new MemoryBlock(reqBlockStart, octetCount, addressesLength, new MemoryByte[0]);
-				list.add(newBlock);
-			}
+		private BigInteger getPage(BigInteger address) {
+			return address.divide(PAGE_SIZE_VALUE);
+		}
 
-			return list;
+		/**
+		 * Returns the offset in octets of the given address in its page.
+		 */
+		private int getOffsetInPage(BigInteger address) {
+			return address.mod(PAGE_SIZE_VALUE).intValue() * fWordSize;
 		}
 
 		/**
-		 *  This function walks the address-sorted memory block list to get the
-		 *  cached memory bytes (possibly from multiple contiguous blocks).
-		 *  This function is called *after* the missing blocks have been read from
-		 *  the back end i.e. the requested memory is all cached.
+		 * Creates the reads of the given pages that are neither cached nor being read, one for
+		 * each run of consecutive pages.
 		 *
-		 *  Again, this is fairly simple. As we loop over the address-ordered list,
-		 *  There are really only 2 cases:
-		 *
-		 *  [1] The requested block fits entirely in the cached block ([a] or [b])
-		 *  [2] The requested block starts in a cached block and ends in the
-		 *      following (contiguous) one ([c]) in which case it is treated
-		 *      as 2 contiguous requests ([c'] and [c"])
-		 *
-		 *       +--------------+--------------+
-		 *       +       A      +      B       +
-		 *       +--------------+--------------+
-		 *       :  [a----]     :   [b-----]   :
-		 *       :              :              :
-		 *       :       [c-----+------]       :
-		 *       :       [c'---]+[c"---]       :
-		 *
-		 * @param reqBlockStart The address of the requested block
-		 * @param count Its length
-		 * @return The cached memory content
+		 * @param reads receives the reads in progress the given pages are part of, if not {@code null}
+		 * @return the new reads, to be started with {@link #startRead}
 		 */
-		private MemoryByte[] getMemoryBlockFromCache(IAddress reqBlockStart, int wordCount, int wordSize) {
-			int count = wordCount * wordSize;
-
-			IAddress reqBlockEnd = reqBlockStart.add(wordCount);
-			MemoryByte[] resultBlock = new MemoryByte[count];
-			ListIterator<MemoryBlock> iter = fMemoryBlockList.listIterator();
-
-			while (iter.hasNext()) {
-				MemoryBlock cachedBlock = iter.next();
-				IAddress cachedBlockStart = cachedBlock.fAddress;
-				IAddress cachedBlockEnd = cachedBlock.fAddress.add(cachedBlock.fLengthInAddressableUnits);
-
-				// Case where the cached block overlaps completely the requested memory block
-				if (cachedBlockStart.distanceTo(reqBlockStart).longValue() >= 0
-						&& reqBlockEnd.distanceTo(cachedBlockEnd).longValue() >= 0) {
-					int pos = (int) cachedBlockStart.distanceTo(reqBlockStart).longValue() * wordSize;
-					System.arraycopy(cachedBlock.fBlock, pos, resultBlock, 0, count);
-				}
-
-				// Case where the beginning of the cached block is within the requested memory block
-				else if (reqBlockStart.distanceTo(cachedBlockStart).longValue() >= 0
-						&& cachedBlockStart.distanceTo(reqBlockEnd).longValue() > 0) {
-					int pos = (int) reqBlockStart.distanceTo(cachedBlockStart).longValue() * wordSize;
-					int length = (int) Math.min(cachedBlock.fLengthInOctets, count - pos);
-					System.arraycopy(cachedBlock.fBlock, 0, resultBlock, pos, length);
+		private List<PageRead> createReads(BigInteger firstPage, int pageCount, boolean readAhead,
+				List<PageRead> reads) {
+			List<PageRead> newReads = new ArrayList<>();
+			BigInteger runStart = null;
+			int runLength = 0;
+			for (int i = 0; i <= pageCount; i++) {
+				BigInteger page = firstPage.add(BigInteger.valueOf(i));
+				boolean missing = false;
+				if (i < pageCount && !fPages.containsKey(page)) {
+					PageRead pending = fPendingReads.get(page);
+					if (pending == null) {
+						missing = true;
+					} else if (reads != null && !reads.contains(pending)) {
+						reads.add(pending);
+					}
 				}
-
-				// Case where the end of the cached block is within the requested memory block
-				else if (cachedBlockStart.distanceTo(reqBlockStart).longValue() >= 0
-						&& reqBlockStart.distanceTo(cachedBlockEnd).longValue() > 0) {
-					int pos = (int) cachedBlockStart.distanceTo(reqBlockStart).longValue() * wordSize;
-					int length = (int) Math.min(cachedBlock.fLengthInOctets - pos, count);
-					System.arraycopy(cachedBlock.fBlock, pos, resultBlock, 0, length);
+				if (missing) {
+					if (runStart == null) {
+						runStart = page;
+					}
+					runLength++;
+				} else if (runStart != null) {
+					PageRead read = new PageRead(runStart, runLength, readAhead);
+					for (int j = 0; j < runLength; j++) {
+						fPendingReads.put(runStart.add(BigInteger.valueOf(j)), read);
+					}
+					newReads.add(read);
+					runStart = null;
+					runLength = 0;
 				}
 			}
-			return resultBlock;
+			return newReads;
+		}
+
+		private void startRead(IMemoryDMContext memoryDMC, IAddress address, final PageRead read) {
+			final int generation = fGeneration;
+			final int pageOctets = PAGE_SIZE * fWordSize;
+			IAddress readAddress = address.add(read.fFirstPage.multiply(PAGE_SIZE_VALUE).subtract(address.getValue()));
+			MemoryCacheStatistics.getInstance().read();
+			readMemoryBlock(memoryDMC, readAddress, 0, fWordSize, read.fPageCount * PAGE_SIZE,
+					new DataRequestMonitor<MemoryByte[]>(getExecutor(), null) {
+						@Override
+						protected void handleCompleted() {
+							MemoryPage[] pages = null;
+							if (isSuccess()) {
+								MemoryByte[] block = getData();
+								pages = new MemoryPage[read.fPageCount];
+								for (int i = 0; i < pages.length; i++) {
+									MemoryByte[] bytes = new MemoryByte[pageOctets];
+									int length = Math.max(0, Math.min(pageOctets, block.length - i * pageOctets));
+									System.arraycopy(block, i * pageOctets, bytes, 0, length);
+									for (int j = length; j < bytes.length; j++) {
+										bytes[j] = new MemoryByte((byte) 0, (byte) 0);
+									}
+									pages[i] = new MemoryPage(bytes, read.fReadAhead);
+								}
+							}
+
+							for (int i = 0; i < read.fPageCount; i++) {
+								BigInteger page = read.fFirstPage.add(BigInteger.valueOf(i));
+								if (fPendingReads.get(page) == read) {
+									fPendingReads.remove(page);
+								}
+								if (pages != null && generation == fGeneration && isReadable(pages[i].fBytes)) {
+									fPages.put(page, pages[i]);
+								}
+							}
+
+							for (DataRequestMonitor<MemoryPage[]> waiter : read.fWaiters) {
+								if (pages != null) {
+									waiter.setData(pages);
+								} else {
+									waiter.setStatus(getStatus());
+								}
+								waiter.done();
+							}
+						}
+					});
 		}
 
 		/**
-		 *  This function walks the address-sorted memory block list and updates
-		 *  the content with the actual memory just read from the target.
-		 *
-		 * @param modBlockStart
-		 * @param wordCount - Number of addressable units
-		 * @param modBlock
-		 * @param wordSize - Number of octets per addressable unit
+		 * Reads ahead of the given request if it continues the previous one in either direction.
 		 */
-		private void updateMemoryCache(IAddress modBlockStart, int wordCount, MemoryByte[] modBlock, int wordSize) {
-			IAddress modBlockEnd = modBlockStart.add(wordCount);
-			ListIterator<MemoryBlock> iter = fMemoryBlockList.listIterator();
-			int count = wordCount * wordSize;
-
-			while (iter.hasNext()) {
-				MemoryBlock cachedBlock = iter.next();
-				IAddress cachedBlockStart = cachedBlock.fAddress;
-				IAddress cachedBlockEnd = cachedBlock.fAddress.add(cachedBlock.fLengthInAddressableUnits);
-
-				// For now, we only bother to update bytes already cached.
-				// Note: In a better implementation (v1.1), we would augment
-				// the cache with the missing memory blocks since we went
-				// through the pains of reading them in the first place.
-				// (this is left as an exercise to the reader :-)
-
-				// Case where the modified block is completely included in the cached block
-				if (cachedBlockStart.distanceTo(modBlockStart).longValue() >= 0
-						&& modBlockEnd.distanceTo(cachedBlockEnd).longValue() >= 0) {
-					int pos = (int) cachedBlockStart.distanceTo(modBlockStart).longValue() * wordSize;
-					System.arraycopy(modBlock, 0, cachedBlock.fBlock, pos, count);
-				}
+		private void readAhead(IMemoryDMContext memoryDMC, IAddress address, BigInteger start, BigInteger end,
+				int pageCount) {
+			BigInteger lastStart = fLastStart;
+			BigInteger lastEnd = fLastEnd;
+			fLastStart = start;
+			fLastEnd = end;
+
+			int count = Math.min(fReadAheadPages, fCapacity - pageCount);
+			if (count <= 0 || lastStart == null) {
+				return;
+			}
 
-				// Case where the cached block is completely included in the modified block
-				else if (modBlockStart.distanceTo(cachedBlockStart).longValue() >= 0
-						&& cachedBlockEnd.distanceTo(modBlockEnd).longValue() >= 0) {
-					int pos = (int) modBlockStart.distanceTo(cachedBlockStart).longValue() * wordSize;
-					System.arraycopy(modBlock, pos, cachedBlock.fBlock, 0, (int) cachedBlock.fLengthInOctets);
+			// A request continues the previous one if it starts or ends within a page of it
+			BigInteger firstPage;
+			if (start.compareTo(lastStart) > 0 && start.compareTo(lastEnd.add(PAGE_SIZE_VALUE)) <= 0) {
+				// Moving forward
+				firstPage = getPage(end.subtract(BigInteger.ONE)).add(BigInteger.ONE);
+				BigInteger maxPage = getPage(address.getMaxOffset());
+				if (firstPage.compareTo(maxPage) > 0) {
+					return;
 				}
+				count = maxPage.subtract(firstPage).add(BigInteger.ONE).min(BigInteger.valueOf(count)).intValue();
+			} else if (end.compareTo(lastEnd) < 0 && end.compareTo(lastStart.subtract(PAGE_SIZE_VALUE)) >= 0) {
+				// Moving backward
+				BigInteger startPage = getPage(start);
+				count = startPage.min(BigInteger.valueOf(count)).intValue();
+				firstPage = startPage.subtract(BigInteger.valueOf(count));
+			} else {
+				return;
+			}
 
-				// Case where the beginning of the modified block is within the cached block
-				else if (cachedBlockStart.distanceTo(modBlockStart).longValue() >= 0
-						&& modBlockStart.distanceTo(cachedBlockEnd).longValue() > 0) {
-					int pos = (int) cachedBlockStart.distanceTo(modBlockStart).longValue() * wordSize;
-					int length = (int) modBlockStart.distanceTo(cachedBlockEnd).longValue() * wordSize;
-					System.arraycopy(modBlock, 0, cachedBlock.fBlock, pos, length);
+			for (PageRead read : createReads(firstPage, count, true, null)) {
+				MemoryCacheStatistics.getInstance().readAhead(read.fPageCount);
+				fReadingAhead = true;
+				try {
+					startRead(memoryDMC, address, read);
+				} finally {
+					fReadingAhead = false;
 				}
+			}
+		}
 
-				// Case where the end of the modified block is within the cached block
-				else if (cachedBlockStart.distanceTo(modBlockEnd).longValue() > 0
-						&& modBlockEnd.distanceTo(cachedBlockEnd).longValue() >= 0) {
-					int pos = (int) modBlockStart.distanceTo(cachedBlockStart).longValue() * wordSize;
-					int length = (int) cachedBlockStart.distanceTo(modBlockEnd).longValue() * wordSize;
-					System.arraycopy(modBlock, pos, cachedBlock.fBlock, 0, length);
+		private boolean isReadable(MemoryByte[] bytes) {
+			for (MemoryByte b : bytes) {
+				if (!b.isReadable()) {
+					return false;
 				}
 			}
-			return;
+			return true;
 		}
 
 		/**
@@ -896,42 +832,164 @@ public class MIMemory extends AbstractDsfService implements IMemory, ICachingSer
 		 * @param wordCount the number of addressable units to read
 		 * @param drm		the asynchronous data request monitor
 		 */
-		public void getMemory(IMemoryDMContext memoryDMC, final IAddress address, final int wordSize,
+		public void getMemory(final IMemoryDMContext memoryDMC, final IAddress address, final int wordSize,
 				final int wordCount, final DataRequestMonitor<MemoryByte[]> drm) {
-			// Determine the number of read requests to issue
-			List<MemoryBlock> missingBlocks = getListOfMissingBlocks(address, wordCount, wordSize);
-			int numberOfRequests = missingBlocks.size();
+			if (wordSize != fWordSize) {
+				reset();
+				fWordSize = wordSize;
+			}
+
+			if (wordCount == 0) {
+				drm.setData(new MemoryByte[0]);
+				drm.done();
+				return;
+			}
+
+			final BigInteger start = address.getValue();
+			final BigInteger end = start.add(BigInteger.valueOf(wordCount));
+			final BigInteger firstPage = getPage(start);
+			final int pageCount = getPage(end.subtract(BigInteger.ONE)).subtract(firstPage).intValue() + 1;
+
+			// The pages of a request larger than the cache would evict each other, and without
+			// pages the memory is read exactly as requested
+			if (pageCount > fCapacity) {
+				MemoryCacheStatistics.getInstance().requested(0, pageCount);
+				MemoryCacheStatistics.getInstance().read();
+				readMemoryBlock(memoryDMC, address, 0, wordSize, wordCount, drm);
+				return;
+			}
+
+			// Keep the cached pages, they may be evicted before the missing ones are read
+			final MemoryPage[] pages = new MemoryPage[pageCount];
+			int hits = 0;
+			for (int i = 0; i < pageCount; i++) {
+				MemoryPage page = fPages.get(firstPage.add(BigInteger.valueOf(i)));
+				if (page != null) {
+					pages[i] = page;
+					hits++;
+					if (page.fReadAhead) {
+						page.fReadAhead = false;
+						MemoryCacheStatistics.getInstance().readAheadHit();
+					}
+				}
+			}
+			MemoryCacheStatistics.getInstance().requested(hits, pageCount - hits);
+
+			List<PageRead> reads = new ArrayList<>();
+			List<PageRead> newReads = hits < pageCount ? createReads(firstPage, pageCount, false, reads)
+					: Collections.<PageRead> emptyList();
+			reads.addAll(newReads);
 
-			// A read request will be issued for each block needed
-			// so we need to keep track of the count
 			final CountingRequestMonitor countingRM = new CountingRequestMonitor(getExecutor(), drm) {
 				@Override
 				protected void handleSuccess() {
-					// We received everything so read the result from the memory cache
-					drm.setData(getMemoryBlockFromCache(address, wordCount, wordSize));
+					// Memory that cannot be read as whole pages may still be readable in the
+					// requested range, e.g. at the end of a mapped region
+					for (MemoryPage page : pages) {
+						if (!isReadable(page.fBytes)) {
+							MemoryCacheStatistics.getInstance().read();
+							readMemoryBlock(memoryDMC, address, 0, wordSize, wordCount, drm);
+							return;
+						}
+					}
+
+					// All pages are known, copy the requested memory from them
+					MemoryByte[] result = new MemoryByte[wordCount * wordSize];
+					int offset = getOffsetInPage(start);
+					int pos = 0;
+					for (MemoryPage page : pages) {
+						int length = Math.min(page.fBytes.length - offset, result.length - pos);
+						System.arraycopy(page.fBytes, offset, result, pos, length);
+						pos += length;
+						offset = 0;
+					}
+					drm.setData(result);
 					drm.done();
 				}
 			};
-			countingRM.setDoneCount(numberOfRequests);
-
-			// Issue the read requests
-			for (int i = 0; i < numberOfRequests; i++) {
-				MemoryBlock block = missingBlocks.get(i);
-				final IAddress startAddress = block.fAddress;
-				final int length = (int) block.fLengthInAddressableUnits;
-				readMemoryBlock(memoryDMC, startAddress, 0, wordSize, length,
-						new DataRequestMonitor<MemoryByte[]>(getSession().getExecutor(), drm) {
-							@Override
-							protected void handleSuccess() {
-								MemoryByte[] block = getData();
-								int lenghtInaddressableUnits = block.length / wordSize;
-								MemoryBlock memoryBlock = new MemoryBlock(startAddress, block.length,
-										lenghtInaddressableUnits, block);
-								fMemoryBlockList.add(memoryBlock);
-								countingRM.done();
+			countingRM.setDoneCount(reads.size());
+
+			for (final PageRead read : reads) {
+				read.fWaiters.add(new DataRequestMonitor<MemoryPage[]>(ImmediateExecutor.getInstance(), countingRM) {
+					@Override
+					protected void handleSuccess() {
+						BigInteger offset = read.fFirstPage.subtract(firstPage);
+						for (int i = 0; i < read.fPageCount; i++) {
+							int index = offset.intValue() + i;
+							if (index >= 0 && index < pageCount && pages[index] == null) {
+								pages[index] = getData()[i];
+								if (pages[index].fReadAhead) {
+									pages[index].fReadAhead = false;
+									MemoryCacheStatistics.getInstance().readAheadHit();
+								}
 							}
-						});
+						}
+						countingRM.done();
+					}
+				});
+			}
+
+			for (PageRead read : newReads) {
+				startRead(memoryDMC, address, read);
+			}
+
+			readAhead(memoryDMC, address, start, end, pageCount);
+		}
+
+		/**
+		 *  Updates the cached pages with the actual memory just read from the target.
+		 *
+		 * @param modBlockStart
+		 * @param wordCount - Number of addressable units
+		 * @param modBlock
+		 * @param wordSize - Number of octets per addressable unit
+		 * @param compareOnly - Whether to only check if the cached memory differs
+		 * @return whether any cached byte had a different value
+		 */
+		private boolean updateMemoryCache(IAddress modBlockStart, int wordCount, MemoryByte[] modBlock, int wordSize,
+				boolean compareOnly) {
+			if (wordSize != fWordSize) {
+				return false;
+			}
+
+			boolean changed = false;
+			BigInteger page = getPage(modBlockStart.getValue());
+			int offset = getOffsetInPage(modBlockStart.getValue());
+			int count = Math.min(wordCount * wordSize, modBlock.length);
+			for (int pos = 0; pos < count; page = page.add(BigInteger.ONE)) {
+				int length = Math.min(PAGE_SIZE * wordSize - offset, count - pos);
+				MemoryPage cachedPage = fPages.get(page);
+				if (cachedPage != null) {
+					for (int i = 0; i < length && !changed; i++) {
+						MemoryByte cachedByte = cachedPage.fBytes[offset + i];
+						changed = cachedByte.getValue() != modBlock[pos + i].getValue();
+					}
+					if (!compareOnly) {
+						System.arraycopy(modBlock, pos, cachedPage.fBytes, offset, length);
+					}
+				}
+				pos += length;
+				offset = 0;
+			}
+			return changed;
+		}
+
+		/**
+		 * Returns whether any part of the given memory is cached.
+		 */
+		private boolean isCached(IAddress address, int wordCount, int wordSize) {
+			if (wordSize != fWordSize || wordCount <= 0) {
+				return false;
 			}
+
+			BigInteger firstPage = getPage(address.getValue());
+			BigInteger lastPage = getPage(address.getValue().add(BigInteger.valueOf(wordCount - 1)));
+			for (BigInteger page = firstPage; page.compareTo(lastPage) <= 0; page = page.add(BigInteger.ONE)) {
+				if (fPages.containsKey(page)) {
+					return true;
+				}
+			}
+			return false;
 		}
 
 		/**
@@ -952,13 +1010,16 @@ public class MIMemory extends AbstractDsfService implements IMemory, ICachingSer
 							// Clear the command cache (otherwise we can't guarantee
 							// that the subsequent memory read will be correct)
 							fCommandCache.reset();
+							// Pages being read may not contain the new content
+							discardPendingReads();
 
 							// Re-read the modified memory block to asynchronously update of the memory cache
 							readMemoryBlock(memoryDMC, address, offset, wordSize, wordCount,
 									new DataRequestMonitor<MemoryByte[]>(getExecutor(), rm) {
 										@Override
 										protected void handleSuccess() {
-											updateMemoryCache(address.add(offset), wordCount, getData(), wordSize);
+											updateMemoryCache(address.add(offset), wordCount, getData(), wordSize,
+													false);
 											// Send the MemoryChangedEvent
 											IAddress[] addresses = new IAddress[wordCount];
 											for (int i = 0; i < wordCount; i++) {
@@ -986,14 +1047,8 @@ public class MIMemory extends AbstractDsfService implements IMemory, ICachingSer
 				final int wordSize, final int wordCount, final boolean sendMemoryEvent, final RequestMonitor rm) {
 			// Check if we already cache part of this memory area (which means it
 			// is used by a memory service client that will have to be updated)
-			List<MemoryBlock> list = getListOfMissingBlocks(address, wordCount, wordSize);
-			int sizeToRead = 0;
-			for (MemoryBlock block : list) {
-				sizeToRead += block.fLengthInAddressableUnits;
-			}
-
 			// If none of the requested memory is in cache, just get out
-			if (sizeToRead == wordCount) {
+			if (!isCached(address.add(offset), wordCount, wordSize)) {
 				rm.done();
 				return;
 			}
@@ -1004,17 +1059,11 @@ public class MIMemory extends AbstractDsfService implements IMemory, ICachingSer
 					new DataRequestMonitor<MemoryByte[]>(getExecutor(), rm) {
 						@Override
 						protected void handleSuccess() {
-							MemoryByte[] oldBlock = getMemoryBlockFromCache(address, wordCount, wordSize);
 							MemoryByte[] newBlock = getData();
-							boolean blocksDiffer = false;
-							for (int i = 0; i < oldBlock.length; i++) {
-								if (oldBlock[i].getValue() != newBlock[i].getValue()) {
-									blocksDiffer = true;
-									break;
-								}
-							}
+							boolean blocksDiffer = updateMemoryCache(address.add(offset), wordCount, newBlock,
+									wordSize, true);
 							if (blocksDiffer) {
-								updateMemoryCache(address.add(offset), wordCount, newBlock, wordSize);
+								updateMemoryCache(address.add(offset), wordCount, newBlock, wordSize, false);
 								if (sendMemoryEvent) {
 									// Send the MemoryChangedEvent
 									final IAddress[] addresses = new IAddress[wordCount];
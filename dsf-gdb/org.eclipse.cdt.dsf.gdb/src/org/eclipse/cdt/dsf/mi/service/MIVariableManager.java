@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2015 Monta Vista and others.
+ * Copyright (c) 2008, 2020 Monta Vista and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,11 +27,13 @@ package org.eclipse.cdt.dsf.mi.service;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.cdt.dsf.concurrent.CountingRequestMonitor;
 import org.eclipse.cdt.dsf.concurrent.DataRequestMonitor;
@@ -59,7 +61,9 @@ import org.eclipse.cdt.dsf.debug.service.command.ICommandToken;
 import org.eclipse.cdt.dsf.debug.service.command.IEventListener;
 import org.eclipse.cdt.dsf.gdb.GDBTypeParser;
 import org.eclipse.cdt.dsf.gdb.GDBTypeParser.GDBType;
+import org.eclipse.cdt.dsf.gdb.IGdbDebugPreferenceConstants;
 import org.eclipse.cdt.dsf.gdb.internal.GdbPlugin;
+import org.eclipse.cdt.dsf.gdb.internal.VariableObjectStatistics;
 import org.eclipse.cdt.dsf.gdb.service.IGDBTraceControl.ITraceRecordSelectedChangedDMEvent;
 import org.eclipse.cdt.dsf.mi.service.MIExpressions.ExpressionInfo;
 import org.eclipse.cdt.dsf.mi.service.MIExpressions.MIExpressionDMC;
@@ -95,6 +99,7 @@ import org.eclipse.cdt.dsf.service.DsfServiceEventHandler;
 import org.eclipse.cdt.dsf.service.DsfServicesTracker;
 import org.eclipse.cdt.dsf.service.DsfSession;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 
 /**
@@ -2169,6 +2174,9 @@ public class MIVariableManager implements ICommandControl {
 
 		private boolean fOutOfDate = false;
 
+		// The request monitor of the update waiting to be sent or to complete
+		private DataRequestMonitor<Boolean> fUpdateRm = null;
+
 		/**
 		 * A modifiable descendant is any variable object that is a descendant and
 		 * for which the value (leaf variable objects and dynamic variable objects)
@@ -2244,6 +2252,7 @@ public class MIVariableManager implements ICommandControl {
 				currentState = STATE_CREATING;
 				fControlContext = DMContexts.getAncestorOfType(exprCtx, ICommandControlDMContext.class);
 
+				VariableObjectStatistics.getInstance().created();
 				fCommandControl.queueCommand(fCommandFactory.createMIVarCreate(exprCtx, exprCtx.getExpression()),
 						new DataRequestMonitor<MIVarCreateInfo>(fSession.getExecutor(), rm) {
 							@Override
@@ -2314,102 +2323,132 @@ public class MIVariableManager implements ICommandControl {
 				rm.setData(false);
 				rm.done();
 			} else {
-				// Object needs to be updated in the back-end
+				// Object needs to be updated in the back-end.  The update is sent once the
+				// current dispatch cycle is over, together with the updates of the other roots
+				// requested by the views in the meantime.
 				currentState = STATE_UPDATING;
+				fUpdateRm = rm;
+				scheduleRootUpdate(this);
+			}
+		}
 
-				// In GDB, var-update will only report a change if -var-evaluate-expression has
-				// changed -- in the current format--.  This means that situations like
-				// double z = 1.2;
-				// z = 1.4;
-				// Will not report a change if the format is anything else than natural.
-				// This is because 1.2 and 1.4 are both printed as 1, 0x1, etc
-				// Since we cache the values of every format, we must know if -any- format has
-				// changed, not just the current one.
-				// To solve this, we always do an update in the natural format; I am not aware
-				// of any case where the natural format would stay the same, but another format
-				// would change.  However, since a var-update update all children as well,
-				// we must make sure these children are also in the natural format
-				// The simplest way to do this is that whenever we change the format
-				// of a variable object, we immediately set it back to natural with a second
-				// var-set-format command.  This is done in the getValue() method
-				fCommandControl.queueCommand(
-						fCommandFactory.createMIVarUpdate(getRootToUpdate().getControlDMContext(), getGdbName()),
-						new DataRequestMonitor<MIVarUpdateInfo>(fSession.getExecutor(), rm) {
-							@Override
-							protected void handleCompleted() {
-								if (isSuccess()) {
-									setOutOfDate(false);
-
-									MIVarChange[] changes = getData().getMIVarChanges();
-									if (changes.length > 0 && !changes[0].isInScope()) {
-										// Object is out-of-scope
-										currentState = STATE_READY;
-
-										outOfScope = true;
+		/**
+		 * Sends the update of this root alone.
+		 */
+		private void sendUpdate() {
+			// In GDB, var-update will only report a change if -var-evaluate-expression has
+			// changed -- in the current format--.  This means that situations like
+			// double z = 1.2;
+			// z = 1.4;
+			// Will not report a change if the format is anything else than natural.
+			// This is because 1.2 and 1.4 are both printed as 1, 0x1, etc
+			// Since we cache the values of every format, we must know if -any- format has
+			// changed, not just the current one.
+			// To solve this, we always do an update in the natural format; I am not aware
+			// of any case where the natural format would stay the same, but another format
+			// would change.  However, since a var-update update all children as well,
+			// we must make sure these children are also in the natural format
+			// The simplest way to do this is that whenever we change the format
+			// of a variable object, we immediately set it back to natural with a second
+			// var-set-format command.  This is done in the getValue() method
+			VariableObjectStatistics.getInstance().updated();
+			fCommandControl.queueCommand(
+					fCommandFactory.createMIVarUpdate(getRootToUpdate().getControlDMContext(), getGdbName()),
+					new DataRequestMonitor<MIVarUpdateInfo>(fSession.getExecutor(), null) {
+						@Override
+						protected void handleCompleted() {
+							updateDone(isSuccess() ? getData().getMIVarChanges() : null, getStatus());
+						}
+					});
+		}
 
-										// We can delete this root in GDB right away.  This is safe, even
-										// if the root has children, because they are also out-of-scope.
-										// We -must- also remove this entry from our LRU.  If we don't
-										// we can end-up with a race condition that create this object
-										// twice, or have an infinite loop while never re-creating the object.
-										// The can happen if we update a child first then we request
-										// the root later,
-										lruVariableList.remove(getInternalId());
+		/**
+		 * Completes the update of this root.
+		 *
+		 * @param changes
+		 *            The changes of this root and its descendants reported by GDB, or
+		 *            <code>null</code> if the update failed
+		 * @param status
+		 *            The status of the update
+		 */
+		private void updateDone(MIVarChange[] changes, IStatus status) {
+			final DataRequestMonitor<Boolean> rm = fUpdateRm;
+			fUpdateRm = null;
+
+			if (changes != null) {
+				final boolean wasOutOfDate = getOutOfDate();
+				setOutOfDate(false);
+
+				if (changes.length > 0 && !changes[0].isInScope()) {
+					// Object is out-of-scope
+					currentState = STATE_READY;
+
+					outOfScope = true;
+
+					// We can delete this root in GDB right away.  This is safe, even
+					// if the root has children, because they are also out-of-scope.
+					// We -must- also remove this entry from our LRU.  If we don't
+					// we can end-up with a race condition that create this object
+					// twice, or have an infinite loop while never re-creating the object.
+					// The can happen if we update a child first then we request
+					// the root later,
+					lruVariableList.remove(getInternalId());
+
+					rm.setData(true);
+					rm.done();
 
-										rm.setData(true);
-										rm.done();
+					while (!updatesPending.isEmpty()) {
+						DataRequestMonitor<Boolean> pendingRm = updatesPending.poll();
+						pendingRm.setData(false);
+						pendingRm.done();
+					}
+				} else {
+					// The root object is now up-to-date, we must parse the changes, if any.
+					processChanges(changes, new RequestMonitor(fSession.getExecutor(), rm) {
+						@Override
+						protected void handleCompleted() {
+							currentState = STATE_READY;
+
+							// We only mark this root as updated in our list if it is in-scope.
+							// For out-of-scope object, we don't ever need to re-update them so
+							// we don't need to add them to this list.  A root that was already
+							// up-to-date, but was updated together with other roots, is in the
+							// list already.
+							if (wasOutOfDate) {
+								rootVariableUpdated(MIRootVariableObject.this);
+							}
 
-										while (!updatesPending.isEmpty()) {
-											DataRequestMonitor<Boolean> pendingRm = updatesPending.poll();
-											pendingRm.setData(false);
-											pendingRm.done();
-										}
-									} else {
-										// The root object is now up-to-date, we must parse the changes, if any.
-										processChanges(changes, new RequestMonitor(fSession.getExecutor(), rm) {
-											@Override
-											protected void handleCompleted() {
-												currentState = STATE_READY;
-
-												// We only mark this root as updated in our list if it is in-scope.
-												// For out-of-scope object, we don't ever need to re-update them so
-												// we don't need to add them to this list.
-												rootVariableUpdated(MIRootVariableObject.this);
-
-												if (isSuccess()) {
-													rm.setData(false);
-												} else {
-													rm.setStatus(getStatus());
-												}
-												rm.done();
+							if (isSuccess()) {
+								rm.setData(false);
+							} else {
+								rm.setStatus(getStatus());
+							}
+							rm.done();
 
-												while (!updatesPending.isEmpty()) {
-													DataRequestMonitor<Boolean> pendingRm = updatesPending.poll();
-													if (isSuccess()) {
-														pendingRm.setData(false);
-													} else {
-														pendingRm.setStatus(getStatus());
-													}
-													pendingRm.done();
-												}
-											}
-										});
-									}
+							while (!updatesPending.isEmpty()) {
+								DataRequestMonitor<Boolean> pendingRm = updatesPending.poll();
+								if (isSuccess()) {
+									pendingRm.setData(false);
 								} else {
-									// We were not able to update for some reason
-									currentState = STATE_READY;
-
-									rm.setData(false);
-									rm.done();
-
-									while (!updatesPending.isEmpty()) {
-										DataRequestMonitor<Boolean> pendingRm = updatesPending.poll();
-										pendingRm.setStatus(getStatus());
-										pendingRm.done();
-									}
+									pendingRm.setStatus(getStatus());
 								}
+								pendingRm.done();
 							}
-						});
+						}
+					});
+				}
+			} else {
+				// We were not able to update for some reason
+				currentState = STATE_READY;
+
+				rm.setData(false);
+				rm.done();
+
+				while (!updatesPending.isEmpty()) {
+					DataRequestMonitor<Boolean> pendingRm = updatesPending.poll();
+					pendingRm.setStatus(status);
+					pendingRm.done();
+				}
 			}
 		}
 
@@ -2551,17 +2590,22 @@ public class MIVariableManager implements ICommandControl {
 	 * children are always older than their parents, to guarantee the children will
 	 * always be delete before their parents.
 	 *
+	 * Since the id of a variable object includes the depth of its frame, the variable objects
+	 * of a frame are reused whenever the same frame is shown again, as long as they have not
+	 * been removed from the LRU.
+	 *
 	 */
 	private static class LRUVariableCache extends LinkedHashMap<VariableObjectId, MIVariableObject> {
 		public static final long serialVersionUID = 0;
 
 		// Maximum allowed concurrent variables
-		private static final int MAX_VARIABLE_LIST = 1000;
+		private final int fMaxSize;
 
-		public LRUVariableCache() {
+		public LRUVariableCache(int maxSize) {
 			super(0, // Initial load capacity
 					0.75f, // Load factor as defined in JAVA 1.5
 					true); // Order is dictated by access, not insertion
+			fMaxSize = maxSize;
 		}
 
 		// We never remove doing put operations.  Instead, we rely on our get() operations
@@ -2577,12 +2621,13 @@ public class MIVariableManager implements ICommandControl {
 			touchAncestors(varObj);
 
 			// If we're over our max size, attempt to remove eldest entry.
-			if (size() > MAX_VARIABLE_LIST) {
+			if (size() > fMaxSize) {
 				Map.Entry<VariableObjectId, MIVariableObject> eldest = entrySet().iterator().next();
 				// First make sure we are not deleting ourselves!
 				if (!eldest.getValue().equals(varObj)
 						&& eldest.getValue().currentState == MIVariableObject.STATE_READY) {
 					remove(eldest.getKey());
+					VariableObjectStatistics.getInstance().evicted();
 				}
 			}
 			return varObj;
@@ -2642,6 +2687,9 @@ public class MIVariableManager implements ICommandControl {
 	/** The list of root variable objects that have been updated */
 	private final LinkedList<MIRootVariableObject> updatedRootList = new LinkedList<>();
 
+	/** The root variable objects to update once the current dispatch cycle is over */
+	private final List<MIRootVariableObject> fRootsToUpdate = new ArrayList<>();
+
 	/**
 	 * MIVariableManager constructor
 	 *
@@ -2652,7 +2700,7 @@ public class MIVariableManager implements ICommandControl {
 	 */
 	public MIVariableManager(DsfSession session, DsfServicesTracker tracker) {
 		fSession = session;
-		lruVariableList = new LRUVariableCache();
+		lruVariableList = new LRUVariableCache(getMaxVariableObjects());
 		fCommandControl = tracker.getService(ICommandControl.class);
 		fStackService = tracker.getService(IStack.class);
 		fExpressionService = tracker.getService(IExpressions.class);
@@ -2694,6 +2742,131 @@ public class MIVariableManager implements ICommandControl {
 		return lruVariableList;
 	}
 
+	/**
+	 * Returns the maximum number of variable objects kept in the LRU, from the
+	 * {@link IGdbDebugPreferenceConstants#PREF_MAX_VARIABLE_OBJECTS} preference.
+	 */
+	private static int getMaxVariableObjects() {
+		return Platform.getPreferencesService().getInt(GdbPlugin.PLUGIN_ID,
+				IGdbDebugPreferenceConstants.PREF_MAX_VARIABLE_OBJECTS,
+				IGdbDebugPreferenceConstants.MAX_VARIABLE_OBJECTS_DEFAULT, null);
+	}
+
+	/**
+	 * Adds a root to the roots to update once the current dispatch cycle is over.
+	 */
+	private void scheduleRootUpdate(MIRootVariableObject root) {
+		if (fRootsToUpdate.isEmpty()) {
+			fSession.getExecutor().execute(this::updateRoots);
+		}
+		fRootsToUpdate.add(root);
+	}
+
+	/**
+	 * Updates the roots requested during the last dispatch cycle.
+	 *
+	 * After the target stopped, the views request the values of all visible expressions at
+	 * once.  If these roots are the majority of the roots existing in GDB, they are updated
+	 * with a single -var-update *, which updates every variable object in GDB.  The changes
+	 * are then dispatched to their roots by name, since the name of a child is prefixed with
+	 * the name of its root.  Every root existing in GDB must take part in such an update, as
+	 * GDB would otherwise not report the changes of the remaining roots anymore, so this is
+	 * only done when no root is being created or updated on its own.  Otherwise each root is
+	 * updated with a command of its own.
+	 */
+	private void updateRoots() {
+		final List<MIRootVariableObject> roots = new ArrayList<>(fRootsToUpdate);
+		fRootsToUpdate.clear();
+
+		final List<MIRootVariableObject> allRoots = getRootsForBatchedUpdate(roots);
+		if (allRoots == null) {
+			for (MIRootVariableObject root : roots) {
+				root.sendUpdate();
+			}
+			return;
+		}
+
+		for (MIRootVariableObject root : allRoots) {
+			if (root.currentState == MIVariableObject.STATE_READY) {
+				// A root that was not requested, nobody waits for its update
+				root.currentState = MIVariableObject.STATE_UPDATING;
+				root.fUpdateRm = new DataRequestMonitor<>(fSession.getExecutor(), null);
+			}
+		}
+
+		final ICommandControlDMContext controlDmc = roots.get(0).getControlDMContext();
+		fCommandControl.queueCommand(fCommandFactory.createMIVarUpdate(controlDmc, "*"), //$NON-NLS-1$
+				new DataRequestMonitor<MIVarUpdateInfo>(fSession.getExecutor(), null) {
+					@Override
+					protected void handleCompleted() {
+						if (!isSuccess()) {
+							// Let each root report its own problem
+							for (MIRootVariableObject root : allRoots) {
+								root.sendUpdate();
+							}
+							return;
+						}
+
+						VariableObjectStatistics.getInstance().batchUpdated(allRoots.size());
+
+						Map<String, List<MIVarChange>> changesByRoot = new HashMap<>();
+						for (MIVarChange change : getData().getMIVarChanges()) {
+							String name = change.getVarName();
+							int dot = name.indexOf('.');
+							String rootName = dot < 0 ? name : name.substring(0, dot);
+							changesByRoot.computeIfAbsent(rootName, n -> new ArrayList<>()).add(change);
+						}
+
+						for (MIRootVariableObject root : allRoots) {
+							List<MIVarChange> changes = changesByRoot.get(root.getGdbName());
+							root.updateDone(
+									changes == null ? new MIVarChange[0]
+											: changes.toArray(new MIVarChange[changes.size()]),
+									getStatus());
+						}
+					}
+				});
+	}
+
+	/**
+	 * Returns all roots existing in GDB if the given requested roots can be updated together
+	 * with them by a single command, or <code>null</code> if each requested root has to be
+	 * updated on its own.
+	 */
+	private List<MIRootVariableObject> getRootsForBatchedUpdate(List<MIRootVariableObject> roots) {
+		if (roots.size() < 2) {
+			return null;
+		}
+
+		ICommandControlDMContext controlDmc = roots.get(0).getControlDMContext();
+		Set<MIRootVariableObject> requested = new HashSet<>(roots);
+		List<MIRootVariableObject> allRoots = new ArrayList<>();
+		for (MIVariableObject varObj : lruVariableList.values()) {
+			if (!(varObj instanceof MIRootVariableObject) || varObj.getGdbName() == null) {
+				continue;
+			}
+			MIRootVariableObject root = (MIRootVariableObject) varObj;
+			if (root.currentState == MIVariableObject.STATE_UPDATING) {
+				if (!requested.remove(root)) {
+					// Being updated on its own
+					return null;
+				}
+			} else if (root.currentState != MIVariableObject.STATE_READY
+					|| !controlDmc.equals(root.getControlDMContext())) {
+				return null;
+			}
+			allRoots.add(root);
+		}
+
+		if (!requested.isEmpty()) {
+			// A requested root was removed from the LRU in the meantime
+			return null;
+		}
+
+		// Evaluating the roots nobody asked for is not worth the commands saved
+		return roots.size() * 2 >= allRoots.size() ? allRoots : null;
+	}
+
 	private GDBTypeParser getGDBTypeParser() {
 		if (fGDBTypeParser == null) {
 			fGDBTypeParser = createGDBTypeParser();
@@ -2729,6 +2902,7 @@ public class MIVariableManager implements ICommandControl {
 			final DataRequestMonitor<MIVariableObject> rm) {
 
 		final MIVariableObject varObj = lruVariableList.get(id);
+		VariableObjectStatistics.getInstance().requested(varObj != null);
 
 		if (varObj == null) {
 			// We do not have this varObject, so we create it
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2018 Wind River Systems and others.
+ * Copyright (c) 2006, 2020 Wind River Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -35,6 +35,7 @@ import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.cdt.dsf.concurrent.ConfinedToDsfExecutor;
 import org.eclipse.cdt.dsf.concurrent.DataRequestMonitor;
@@ -52,6 +53,7 @@ import org.eclipse.cdt.dsf.debug.service.command.IEventListener;
 import org.eclipse.cdt.dsf.gdb.IGdbDebugPreferenceConstants;
 import org.eclipse.cdt.dsf.gdb.internal.GdbDebugOptions;
 import org.eclipse.cdt.dsf.gdb.internal.GdbPlugin;
+import org.eclipse.cdt.dsf.gdb.internal.MICommandStatistics;
 import org.eclipse.cdt.dsf.mi.service.IMICommandControl;
 import org.eclipse.cdt.dsf.mi.service.IMIContainerDMContext;
 import org.eclipse.cdt.dsf.mi.service.IMIExecutionDMContext;
@@ -70,6 +72,7 @@ import org.eclipse.cdt.dsf.mi.service.command.output.MIValue;
 import org.eclipse.cdt.dsf.service.AbstractDsfService;
 import org.eclipse.cdt.dsf.service.DsfSession;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
@@ -85,7 +88,6 @@ import com.ibm.icu.text.MessageFormat;
  */
 public abstract class AbstractMIControl extends AbstractDsfService implements IMICommandControl {
 	private static final String MI_TRACE_IDENTIFIER = "[MI]"; //$NON-NLS-1$
-	private static final int NUMBER_CONCURRENT_COMMANDS = 3;
 	private static final int DEVELOPMENT_TRACE_LIMIT_CHARS = 5000;
 
 	/*
@@ -108,6 +110,18 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 	// Since GDB.7.1
 	private boolean fUseThreadGroupOption;
 
+	/**
+	 * The maximum number of commands handed to the TX thread whose results have not been received.
+	 */
+	private int fMaxOutstandingCommands = IGdbDebugPreferenceConstants.MAX_OUTSTANDING_MI_COMMANDS_DEFAULT;
+
+	/**
+	 * The number of commands handed to the TX thread whose results have not been received. The
+	 * commands are counted explicitly, a command taken by the TX thread is briefly neither in
+	 * {@link #fTxCommands} nor in {@link #fRxCommands}.
+	 */
+	private final AtomicInteger fOutstandingCommands = new AtomicInteger();
+
 	private final BlockingQueue<CommandHandle> fTxCommands = new LinkedBlockingQueue<>();
 	private final Map<Integer, CommandHandle> fRxCommands = Collections
 			.synchronizedMap(new HashMap<Integer, CommandHandle>());
@@ -128,6 +142,7 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 
 	/**
 	 *   Current command which have not been handed off to the backend yet.
+	 *   The background commands are at the end of the list.
 	 */
 
 	private final List<CommandHandle> fCommandQueue = new ArrayList<>();
@@ -244,6 +259,7 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 	 * @since 4.1
 	 */
 	protected void startCommandProcessing(InputStream inStream, OutputStream outStream, InputStream errorStream) {
+		fMaxOutstandingCommands = Math.max(1, getMaxOutstandingCommands());
 
 		fTxThread = new TxThread(outStream);
 		fRxThread = new RxThread(inStream);
@@ -259,6 +275,21 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 		}
 	}
 
+	/**
+	 * Returns the maximum number of commands that are sent to the back end before their results
+	 * are received. The commands that are ready when the transmit thread writes to the back end
+	 * are written at once, a larger number therefore reduces the number of round trips to a remote
+	 * target. By default the value of the
+	 * {@link IGdbDebugPreferenceConstants#PREF_MAX_OUTSTANDING_MI_COMMANDS} preference is returned.
+	 *
+	 * @since 6.0
+	 */
+	protected int getMaxOutstandingCommands() {
+		return Platform.getPreferencesService().getInt(GdbPlugin.PLUGIN_ID,
+				IGdbDebugPreferenceConstants.PREF_MAX_OUTSTANDING_MI_COMMANDS,
+				IGdbDebugPreferenceConstants.MAX_OUTSTANDING_MI_COMMANDS_DEFAULT, null);
+	}
+
 	/**
 	 *  Stops the threads that process the debugger input/output channels, and notifies the
 	 *  results of the outstanding commands. To be invoked by the shutdown routine of the
@@ -319,6 +350,7 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 			commandHandle.getRequestMonitor().done();
 		}
 		fRxCommands.clear();
+		fOutstandingCommands.set(0);
 	}
 
 	/**
@@ -334,6 +366,24 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 
 	@Override
 	public <V extends ICommandResult> ICommandToken queueCommand(final ICommand<V> command, DataRequestMonitor<V> rm) {
+		return queueCommand(command, rm, false);
+	}
+
+	/**
+	 * Queues the given MI command to be sent to the debugger back end after the commands queued
+	 * with {@link #queueCommand(ICommand, DataRequestMonitor)}. This is meant for commands whose
+	 * results are not waited for by the user, like prefetching data that is not shown yet, such
+	 * that they do not delay the commands of the views.
+	 *
+	 * @since 6.0
+	 */
+	public <V extends ICommandResult> ICommandToken queueBackgroundCommand(final ICommand<V> command,
+			DataRequestMonitor<V> rm) {
+		return queueCommand(command, rm, true);
+	}
+
+	private <V extends ICommandResult> ICommandToken queueCommand(final ICommand<V> command, DataRequestMonitor<V> rm,
+			boolean background) {
 
 		// Cast the command to MI Command type.  This will cause a cast exception to be
 		// thrown if the client did not give an MI command as an argument.
@@ -346,6 +396,7 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 		DataRequestMonitor<MIInfo> miDone = (DataRequestMonitor<MIInfo>) rm;
 
 		final CommandHandle handle = new CommandHandle(miCommand, miDone);
+		handle.fBackground = background;
 
 		// If the command control stopped processing commands, just return an error immediately.
 		if (fStoppedCommandProcessing) {
@@ -353,15 +404,22 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 			rm.done();
 		} else {
 			/*
-			 *  We only allow three outstanding commands to be on the wire to the backend
+			 *  We only allow a few outstanding commands to be on the wire to the backend
 			 *  at any one time. This allows for coalescing as well as canceling
 			 *  existing commands on a state change. So we add it to the waiting list and let
 			 *  the user know they can now work with this item if need be.
+			 *  Other commands overtake the background commands that are still waiting.
 			 */
-			fCommandQueue.add(handle);
+			int index = fCommandQueue.size();
+			if (!background) {
+				while (index > 0 && fCommandQueue.get(index - 1).fBackground) {
+					index--;
+				}
+			}
+			fCommandQueue.add(index, handle);
 			processCommandQueued(handle);
 
-			if (fRxCommands.size() < NUMBER_CONCURRENT_COMMANDS) {
+			if (getOutstandingCommandCount() < fMaxOutstandingCommands) {
 				// In a separate dispatch cycle.  This allows command listeners
 				// to respond to the command queued event.
 				getExecutor().execute(new DsfRunnable() {
@@ -376,8 +434,34 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 		return handle;
 	}
 
+	private int getOutstandingCommandCount() {
+		return fOutstandingCommands.get();
+	}
+
+	/**
+	 * Hands the command to the TX thread. Raw commands do not get a result, they do not count as
+	 * outstanding.
+	 */
+	private void sendCommand(CommandHandle handle) {
+		if (!(handle.getCommand() instanceof RawCommand)) {
+			fOutstandingCommands.incrementAndGet();
+		}
+		fTxCommands.add(handle);
+	}
+
+	/**
+	 * Removes the command with the given token from the ones waiting for their result.
+	 */
+	private CommandHandle removeRxCommand(int tokenId) {
+		CommandHandle handle = fRxCommands.remove(tokenId);
+		if (handle != null) {
+			fOutstandingCommands.decrementAndGet();
+		}
+		return handle;
+	}
+
 	private void processNextQueuedCommand() {
-		if (!fCommandQueue.isEmpty()) {
+		while (!fCommandQueue.isEmpty() && getOutstandingCommandCount() < fMaxOutstandingCommands) {
 			final CommandHandle handle = fCommandQueue.remove(0);
 			if (handle != null) {
 				processCommandSent(handle);
@@ -407,7 +491,7 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 							CommandHandle cmdHandle = new CommandHandle((MICommand<MIInfo>) getCommandFactory()
 									.createMIThreadSelect(targetContext, targetThread), null);
 							cmdHandle.generateTokenId();
-							fTxCommands.add(cmdHandle);
+							sendCommand(cmdHandle);
 						}
 
 						// Before the command is sent, Check the Stack level and send it to
@@ -417,7 +501,7 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 							CommandHandle cmdHandle = new CommandHandle((MICommand<MIInfo>) getCommandFactory()
 									.createMIStackSelectFrame(targetContext, targetFrame), null);
 							cmdHandle.generateTokenId();
-							fTxCommands.add(cmdHandle);
+							sendCommand(cmdHandle);
 						}
 					}
 				}
@@ -428,7 +512,7 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 					// need a token id.  In fact, GDB will fail if we send one in this case.
 					handle.generateTokenId();
 				}
-				fTxCommands.add(handle);
+				sendCommand(handle);
 			}
 		}
 	}
@@ -625,6 +709,9 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 		private MICommand<MIInfo> fCommand;
 		private DataRequestMonitor<MIInfo> fRequestMonitor;
 		private int fTokenId;
+		private boolean fBackground;
+		private final long fQueuedTime = System.nanoTime();
+		private long fSentTime;
 
 		CommandHandle(MICommand<MIInfo> c, DataRequestMonitor<MIInfo> d) {
 			fCommand = c;
@@ -700,68 +787,91 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 
 		@Override
 		public void run() {
+			List<CommandHandle> commandHandles = new ArrayList<>();
 			while (true) {
-				CommandHandle commandHandle = null;
+				commandHandles.clear();
 
 				try {
-					commandHandle = fTxCommands.take();
+					commandHandles.add(fTxCommands.take());
 				} catch (InterruptedException e) {
 					break; // Shutting down.
 				}
 
-				if (commandHandle == fTerminatorHandle) {
-					// There is a small possibility that a new command was inserted
-					// in the fRxCommands map after we cleared that map.
-					// Just to be safe, clear it again.
-					// We do this to avoid synchronizing the handling of fRxCommands
-					// because this is more efficient, as it happens only once at shutdown.
-					cancelRxCommands();
-					break; // Null command is an indicator that we're shutting down.
-				}
-
 				/*
-				 *  We note that this is an outstanding request at this point.
+				 *  The commands queued in the meantime are written together with this one, such
+				 *  that they reach the backend without waiting for a round trip each.
 				 */
-				if (!(commandHandle.getCommand() instanceof RawCommand)) {
-					// RawCommands will not get an answer, so we cannot put them in the receive queue.
-					fRxCommands.put(commandHandle.getTokenId(), commandHandle);
-				}
+				fTxCommands.drainTo(commandHandles);
+
+				StringBuilder batch = new StringBuilder();
+				int count = 0;
+				boolean terminate = false;
+				for (CommandHandle commandHandle : commandHandles) {
+					if (commandHandle == fTerminatorHandle) {
+						terminate = true;
+						break;
+					}
 
-				/*
-				 *   Construct the new command and push this command out the pipeline.
-				 */
+					/*
+					 *  We note that this is an outstanding request at this point.
+					 */
+					commandHandle.fSentTime = System.nanoTime();
+					if (!(commandHandle.getCommand() instanceof RawCommand)) {
+						// RawCommands will not get an answer, so we cannot put them in the receive queue.
+						fRxCommands.put(commandHandle.getTokenId(), commandHandle);
+					}
 
-				final String str;
-				if (commandHandle.getCommand() instanceof RawCommand) {
-					// RawCommands CANNOT have a token id: GDB would read it as part of the RawCommand!
-					str = commandHandle.getCommand().constructCommand();
-				} else if (fUseThreadGroupOption) {
-					// Implies that fUseThreadAndFrameOptions == true
-					str = commandHandle.getTokenId() + commandHandle.getCommand().constructCommand(
-							commandHandle.getGroupId(), commandHandle.getThreadId(), commandHandle.getStackFrameId());
-				} else if (fUseThreadAndFrameOptions) {
-					str = commandHandle.getTokenId() + commandHandle.getCommand()
-							.constructCommand(commandHandle.getThreadId(), commandHandle.getStackFrameId());
-				} else {
-					str = commandHandle.getTokenId() + commandHandle.getCommand().constructCommand();
-				}
+					/*
+					 *   Construct the new command and push this command out the pipeline.
+					 */
 
-				try {
-					if (fOutputStream != null) {
+					final String str;
+					if (commandHandle.getCommand() instanceof RawCommand) {
+						// RawCommands CANNOT have a token id: GDB would read it as part of the RawCommand!
+						str = commandHandle.getCommand().constructCommand();
+					} else if (fUseThreadGroupOption) {
+						// Implies that fUseThreadAndFrameOptions == true
+						str = commandHandle.getTokenId() + commandHandle.getCommand().constructCommand(
+								commandHandle.getGroupId(), commandHandle.getThreadId(),
+								commandHandle.getStackFrameId());
+					} else if (fUseThreadAndFrameOptions) {
+						str = commandHandle.getTokenId() + commandHandle.getCommand()
+								.constructCommand(commandHandle.getThreadId(), commandHandle.getStackFrameId());
+					} else {
+						str = commandHandle.getTokenId() + commandHandle.getCommand().constructCommand();
+					}
 
+					if (fOutputStream != null) {
 						if (GdbDebugOptions.DEBUG) {
 							GdbDebugOptions.trace(
 									String.format("%s %s  %s", GdbPlugin.getDebugTime(), MI_TRACE_IDENTIFIER, str)); //$NON-NLS-1$
 						}
 						writeToTracingStream(true, str);
+					}
+					batch.append(str);
+					count++;
+				}
 
-						fOutputStream.write(str.getBytes());
+				try {
+					if (fOutputStream != null && count > 0) {
+						fOutputStream.write(batch.toString().getBytes());
 						fOutputStream.flush();
+						MICommandStatistics.getInstance().commandsWritten(count);
 					}
 				} catch (IOException e) {
 					// Shutdown thread in case of IO error.
 					break;
 				}
+
+				if (terminate) {
+					// There is a small possibility that a new command was inserted
+					// in the fRxCommands map after we cleared that map.
+					// Just to be safe, clear it again.
+					// We do this to avoid synchronizing the handling of fRxCommands
+					// because this is more efficient, as it happens only once at shutdown.
+					cancelRxCommands();
+					break; // Null command is an indicator that we're shutting down.
+				}
 			}
 			// Must close the stream here to avoid leaking
 			// Bug 345164 and Bug 339379
@@ -964,9 +1074,13 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 				 */
 				int id = rr.getToken();
 
-				final CommandHandle commandHandle = fRxCommands.remove(id);
+				final CommandHandle commandHandle = removeRxCommand(id);
 
 				if (commandHandle != null) {
+					long now = System.nanoTime();
+					MICommandStatistics.getInstance().commandDone(commandHandle.getCommand().getOperation(),
+							now - commandHandle.fQueuedTime, now - commandHandle.fSentTime);
+
 					final MIOutput response = new MIOutput(rr,
 							fAccumulatedOOBRecords.toArray(new MIOOBRecord[fAccumulatedOOBRecords.size()]));
 					fAccumulatedOOBRecords.clear();
@@ -1196,7 +1310,7 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 
 		// If the timeout value is too small a command can be timed out but still processed by RxThread.
 		// To avoid processing it twice we need to remove it from the command list.
-		CommandHandle h = fRxCommands.remove(tokenId);
+		CommandHandle h = removeRxCommand(tokenId);
 		if (h == null)
 			// Command has already been processed by RxThread.
 			return;
@@ -1225,5 +1339,8 @@ public abstract class AbstractMIControl extends AbstractDsfService implements IM
 			 */
 			processCommandDone(commandHandle, info);
 		}
+
+		// The command no longer counts as outstanding.
+		processNextQueuedCommand();
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 QNX Software Systems and others.
+ * Copyright (c) 2000, 2020 QNX Software Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -103,6 +103,15 @@ public class MIParser {
 	public String cliPrompt = primaryPrompt;
 	public String secondaryPrompt = ">"; //$NON-NLS-1$
 
+	private static final String[] RESULT_CLASSES = { MIResultRecord.DONE, MIResultRecord.ERROR, MIResultRecord.EXIT,
+			MIResultRecord.RUNNING, MIResultRecord.CONNECTED };
+	private static final MIResult[] NO_RESULTS = new MIResult[0];
+	private static final MIValue[] NO_VALUES = new MIValue[0];
+	/** Tuples and lists of results with at least this many characters are parsed when they are accessed. */
+	private static final int LAZY_THRESHOLD = 1024;
+	private static final int MAX_INTERNED_LENGTH = 32;
+	private static final String[] NAMES = new String[1024];
+
 	public RecordType getRecordType(String line) {
 		int i = 0;
 		if (Character.isDigit(line.charAt(0))) {
@@ -126,38 +135,26 @@ public class MIParser {
 	 *
 	 */
 	public MIResultRecord parseMIResultRecord(String line) {
-		StringBuffer buffer = new StringBuffer(line);
+		Reader reader = new Reader(line, 0, line.length());
 		// Fetch the Token/Id
-		int id = parseToken(buffer);
+		int id = reader.parseToken();
 		// Consume the '^'
-		buffer.deleteCharAt(0);
+		reader.pos++;
 
 		MIResultRecord rr = new MIResultRecord();
 		rr.setToken(id);
-		if (buffer.toString().startsWith(MIResultRecord.DONE)) {
-			rr.setResultClass(MIResultRecord.DONE);
-			buffer.delete(0, MIResultRecord.DONE.length());
-		} else if (buffer.toString().startsWith(MIResultRecord.ERROR)) {
-			rr.setResultClass(MIResultRecord.ERROR);
-			buffer.delete(0, MIResultRecord.ERROR.length());
-		} else if (buffer.toString().startsWith(MIResultRecord.EXIT)) {
-			rr.setResultClass(MIResultRecord.EXIT);
-			buffer.delete(0, MIResultRecord.EXIT.length());
-		} else if (buffer.toString().startsWith(MIResultRecord.RUNNING)) {
-			rr.setResultClass(MIResultRecord.RUNNING);
-			buffer.delete(0, MIResultRecord.RUNNING.length());
-		} else if (buffer.toString().startsWith(MIResultRecord.CONNECTED)) {
-			rr.setResultClass(MIResultRecord.CONNECTED);
-			buffer.delete(0, MIResultRecord.CONNECTED.length());
-		} else {
-			// Error throw an exception?
+		for (String resultClass : RESULT_CLASSES) {
+			if (line.startsWith(resultClass, reader.pos)) {
+				rr.setResultClass(resultClass);
+				reader.pos += resultClass.length();
+				break;
+			}
 		}
 
 		// Results are separated by commas.
-		if (buffer.length() > 0 && buffer.charAt(0) == ',') {
-			buffer.deleteCharAt(0);
-			MIResult[] res = processMIResults(new FSB(buffer));
-			rr.setMIResults(res);
+		if (reader.peek() == ',') {
+			reader.pos++;
+			rr.setMIResults(reader.processMIResults());
 		}
 		return rr;
 	}
@@ -166,13 +163,13 @@ public class MIParser {
 	 * Find OutOfBand Records depending on the starting token.
 	 */
 	public MIOOBRecord parseMIOOBRecord(String line) {
-		StringBuffer buffer = new StringBuffer(line);
-		int id = parseToken(buffer);
+		Reader reader = new Reader(line, 0, line.length());
+		int id = reader.parseToken();
 		MIOOBRecord oob = null;
-		char c = buffer.length() != 0 ? buffer.charAt(0) : 0;
+		char c = reader.peek();
 		if (c == '*' || c == '+' || c == '=') {
 			// Consume the first char
-			buffer.deleteCharAt(0);
+			reader.pos++;
 			MIAsyncRecord async = null;
 			switch (c) {
 			case '*':
@@ -192,22 +189,20 @@ public class MIParser {
 			}
 			async.setToken(id);
 			// Extract the Async-Class
-			int i = buffer.toString().indexOf(',');
+			int i = line.indexOf(',', reader.pos);
 			if (i != -1) {
-				String asyncClass = buffer.substring(0, i);
-				async.setAsyncClass(asyncClass);
+				async.setAsyncClass(line.substring(reader.pos, i));
 				// Consume the async-class and the comma
-				buffer.delete(0, i + 1);
+				reader.pos = i + 1;
 			} else {
-				async.setAsyncClass(buffer.toString().trim());
-				buffer.setLength(0);
+				async.setAsyncClass(line.substring(reader.pos).trim());
+				reader.pos = reader.end;
 			}
-			MIResult[] res = processMIResults(new FSB(buffer));
-			async.setMIResults(res);
+			async.setMIResults(reader.processMIResults());
 			oob = async;
 		} else if (c == '~' || c == '@' || c == '&') {
 			// Consume the first char
-			buffer.deleteCharAt(0);
+			reader.pos++;
 			MIStreamRecord stream = null;
 			switch (c) {
 			case '~':
@@ -226,12 +221,12 @@ public class MIParser {
 				stream = new MIConsoleStreamOutput();
 			}
 			// translateCString() assumes that the leading " is deleted
-			if (buffer.length() > 0 && buffer.charAt(0) == '"') {
-				buffer.deleteCharAt(0);
+			if (reader.peek() == '"') {
+				reader.pos++;
 			}
 			// Don't parse any backslashes - backslashes within stream records
 			// aren't escaped.
-			stream.setCString(translateCString(new FSB(buffer), false));
+			stream.setCString(reader.translateCString(false));
 			oob = stream;
 		} else {
 			// Badly format MI line, just pass it to the user as target stream
@@ -242,216 +237,391 @@ public class MIParser {
 		return oob;
 	}
 
-	private int parseToken(StringBuffer buffer) {
-		int id = -1;
-		// Fetch the Token/Id
-		if (Character.isDigit(buffer.charAt(0))) {
-			int i = 1;
-			while (i < buffer.length() && Character.isDigit(buffer.charAt(i))) {
-				i++;
-			}
-			String numbers = buffer.substring(0, i);
-			try {
-				id = Integer.parseInt(numbers);
-			} catch (NumberFormatException e) {
-			}
-			// Consume the token.
-			buffer.delete(0, i);
+	/**
+	 * Interns the variable name in the given range of the line. Responses repeat a small set of
+	 * names, sharing them saves a string per result. The table is shared by all parsers, a race
+	 * on a slot only costs a duplicate string.
+	 */
+	private static String internName(String line, int start, int end) {
+		int length = end - start;
+		if (length > MAX_INTERNED_LENGTH)
+			return line.substring(start, end);
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + line.charAt(i);
 		}
-		return id;
+		int slot = (hash ^ (hash >>> 16)) & (NAMES.length - 1);
+		String name = NAMES[slot];
+		if (name == null || name.length() != length || !line.regionMatches(start, name, 0, length)) {
+			name = line.substring(start, end);
+			NAMES[slot] = name;
+		}
+		return name;
 	}
 
 	/**
-	 * Assuming that the usual leading comma was consumed.
-	 * Extract the MI Result comma seperated responses.
+	 * Parses a range of a line, moving forward through it. The values are created without copying
+	 * the line, strings are taken from it directly unless they contain escapes.
 	 */
-	private MIResult[] processMIResults(FSB buffer) {
-		List<MIResult> aList = new ArrayList<>();
-		MIResult result = processMIResult(buffer);
-		if (result != null) {
-			aList.add(result);
-		}
-		while (buffer.length() > 0 && buffer.charAt(0) == ',') {
-			buffer.deleteCharAt(0);
-			result = processMIResult(buffer);
-			if (result != null) {
-				aList.add(result);
+	private static class Reader {
+		final String line;
+		final int end;
+		int pos;
+
+		Reader(String line, int start, int end) {
+			this.line = line;
+			this.pos = start;
+			this.end = end;
+		}
+
+		/**
+		 * Returns the current character, or 0 at the end of the range.
+		 */
+		char peek() {
+			return pos < end ? line.charAt(pos) : 0;
+		}
+
+		int parseToken() {
+			int id = -1;
+			// Fetch the Token/Id
+			if (pos < end && Character.isDigit(line.charAt(pos))) {
+				int i = pos + 1;
+				while (i < end && Character.isDigit(line.charAt(i))) {
+					i++;
+				}
+				try {
+					id = Integer.parseInt(line, pos, i, 10);
+				} catch (NumberFormatException e) {
+				}
+				// Consume the token.
+				pos = i;
 			}
+			return id;
 		}
-		return aList.toArray(new MIResult[aList.size()]);
-	}
 
-	/**
-	 * Construct the DsfMIResult.  Characters will be consume/delete
-	 * moving forward constructing the AST.
-	 */
-	private MIResult processMIResult(FSB buffer) {
-		MIResult result = new MIResult();
-		int equal;
-		if (buffer.length() > 0 && Character.isLetter(buffer.charAt(0)) && (equal = buffer.indexOf('=')) != -1) {
-			// Result is a variable and value
-			String variable = buffer.substring(0, equal);
-			result.setVariable(variable);
-			buffer.delete(0, equal + 1);
-			MIValue value = processMIValue(buffer);
-			result.setMIValue(value);
-		} else {
-			MIValue value = processMIValue(buffer);
-			if (value != null) {
-				// Result is a value only (bug 527419)
-				result.setMIValue(value);
+		/**
+		 * Assuming that the usual leading comma was consumed.
+		 * Extract the MI Result comma seperated responses.
+		 */
+		MIResult[] processMIResults() {
+			List<MIResult> aList = new ArrayList<>();
+			aList.add(processMIResult());
+			while (peek() == ',') {
+				pos++;
+				aList.add(processMIResult());
+			}
+			return aList.toArray(new MIResult[aList.size()]);
+		}
+
+		/**
+		 * Construct the DsfMIResult.  Characters will be consumed
+		 * moving forward constructing the AST.
+		 */
+		MIResult processMIResult() {
+			MIResult result = new MIResult();
+			int equal;
+			if (pos < end && Character.isLetter(line.charAt(pos)) && (equal = indexOf('=')) != -1) {
+				// Result is a variable and value
+				result.setVariable(internName(line, pos, equal));
+				pos = equal + 1;
+				result.setMIValue(processMIValue());
 			} else {
-				result.setVariable(buffer.toString());
-				result.setMIValue(new MIConst()); // Empty string:???
-				buffer.setLength(0);
+				MIValue value = processMIValue();
+				if (value != null) {
+					// Result is a value only (bug 527419)
+					result.setMIValue(value);
+				} else {
+					result.setVariable(line.substring(pos, end));
+					result.setMIValue(new MIConst()); // Empty string:???
+					pos = end;
+				}
 			}
+			return result;
 		}
-		return result;
-	}
 
-	/**
-	 * Find a DsfMIValue implementation or return null.
-	 */
-	private MIValue processMIValue(FSB buffer) {
-		MIValue value = null;
-		if (buffer.length() > 0) {
-			if (buffer.charAt(0) == '{') {
-				buffer.deleteCharAt(0);
-				value = processMITuple(buffer);
-			} else if (buffer.charAt(0) == '[') {
-				buffer.deleteCharAt(0);
-				value = processMIList(buffer);
-			} else if (buffer.charAt(0) == '"') {
-				buffer.deleteCharAt(0);
+		/**
+		 * Find a DsfMIValue implementation or return null.
+		 */
+		MIValue processMIValue() {
+			char c = peek();
+			if (c == '{' || c == '[') {
+				pos++;
+				int close = findClosingBracket(c == '{' ? '}' : ']');
+				if (close - pos >= LAZY_THRESHOLD) {
+					// Large values are parsed when they are accessed.
+					MIValue value = c == '{' ? new LazyMITuple(line, pos, close) : new LazyMIList(line, pos, close);
+					pos = Math.min(close + 1, end);
+					return value;
+				}
+				return c == '{' ? processMITuple() : processMIList();
+			} else if (c == '"') {
+				pos++;
 				MIConst cnst = new MIConst();
 				// Parse backslashes - backslashes within result
 				// and out of band records are escaped.
-				cnst.setCString(translateCString(buffer, true));
-				value = cnst;
+				cnst.setCString(translateCString(true));
+				return cnst;
 			}
+			return null;
 		}
-		return value;
-	}
 
-	/**
-	 * Assuming the starting '{' was deleted form the StringBuffer,
-	 * go to the closing '}' consuming/deleting all the characters.
-	 * This is usually call by processMIvalue();
-	 */
-	private MIValue processMITuple(FSB buffer) {
-		MITuple tuple = new MITuple();
-		List<MIValue> valueList = new ArrayList<>();
-		List<MIResult> resultList = new ArrayList<>();
-		// Catch closing '}'
-		while (buffer.length() > 0 && buffer.charAt(0) != '}') {
-			// Try for the DsfMIValue first
-			MIValue value = processMIValue(buffer);
-			if (value != null) {
-				valueList.add(value);
-			} else {
-				MIResult result = processMIResult(buffer);
-				if (result != null) {
-					resultList.add(result);
+		/**
+		 * Assuming the starting '{' was consumed, go to the closing '}'
+		 * consuming all the characters.
+		 * This is usually call by processMIvalue();
+		 */
+		MITuple processMITuple() {
+			MITuple tuple = new MITuple();
+			processMIValues(tuple, '}');
+			return tuple;
+		}
+
+		/**
+		 * Assuming the leading '[' was consumed, find the closing
+		 * ']' consuming the chars.
+		 */
+		MIList processMIList() {
+			MIList list = new MIList();
+			processMIValues(list, ']');
+			return list;
+		}
+
+		private void processMIValues(MIValue container, char closing) {
+			List<MIValue> valueList = new ArrayList<>();
+			List<MIResult> resultList = new ArrayList<>();
+			// Catch the closing bracket
+			while (pos < end && line.charAt(pos) != closing) {
+				// Try for the DsfMIValue first
+				MIValue value = processMIValue();
+				if (value != null) {
+					valueList.add(value);
+				} else {
+					resultList.add(processMIResult());
+				}
+				if (peek() == ',') {
+					pos++;
 				}
 			}
-			if (buffer.length() > 0 && buffer.charAt(0) == ',') {
-				buffer.deleteCharAt(0);
+			if (peek() == closing) {
+				pos++;
+			}
+			MIValue[] values = valueList.isEmpty() ? NO_VALUES : valueList.toArray(new MIValue[valueList.size()]);
+			MIResult[] res = resultList.isEmpty() ? NO_RESULTS : resultList.toArray(new MIResult[resultList.size()]);
+			if (container instanceof MITuple) {
+				((MITuple) container).setMIValues(values);
+				((MITuple) container).setMIResults(res);
+			} else {
+				((MIList) container).setMIValues(values);
+				((MIList) container).setMIResults(res);
 			}
 		}
-		if (buffer.length() > 0 && buffer.charAt(0) == '}') {
-			buffer.deleteCharAt(0);
-		}
-		MIValue[] values = valueList.toArray(new MIValue[valueList.size()]);
-		MIResult[] res = resultList.toArray(new MIResult[resultList.size()]);
-		tuple.setMIValues(values);
-		tuple.setMIResults(res);
-		return tuple;
-	}
 
-	/**
-	 * Assuming the leading '[' was deleted, find the closing
-	 * ']' consuming/delete chars from the StringBuffer.
-	 */
-	private MIValue processMIList(FSB buffer) {
-		MIList list = new MIList();
-		List<MIValue> valueList = new ArrayList<>();
-		List<MIResult> resultList = new ArrayList<>();
-		// catch closing ']'
-		while (buffer.length() > 0 && buffer.charAt(0) != ']') {
-			// Try for the DsfMIValue first
-			MIValue value = processMIValue(buffer);
-			if (value != null) {
-				valueList.add(value);
-			} else {
-				MIResult result = processMIResult(buffer);
-				if (result != null) {
-					resultList.add(result);
+		/**
+		 * Returns the index of the closing bracket matching the one before the current position,
+		 * or the end of the range if it is missing. C-strings are skipped, brackets inside of them
+		 * do not count.
+		 */
+		private int findClosingBracket(char closing) {
+			int depth = 0;
+			for (int i = pos; i < end; i++) {
+				char c = line.charAt(i);
+				if (c == '"') {
+					// Skip the C-string, up to the next unescaped double quote.
+					for (i++; i < end && line.charAt(i) != '"'; i++) {
+						if (line.charAt(i) == '\\')
+							i++;
+					}
+				} else if (c == '{' || c == '[') {
+					depth++;
+				} else if (c == '}' || c == ']') {
+					if (depth == 0)
+						return c == closing ? i : end;
+					depth--;
 				}
 			}
-			if (buffer.length() > 0 && buffer.charAt(0) == ',') {
-				buffer.deleteCharAt(0);
-			}
+			return end;
 		}
-		if (buffer.length() > 0 && buffer.charAt(0) == ']') {
-			buffer.deleteCharAt(0);
+
+		private int indexOf(char c) {
+			int i = line.indexOf(c, pos);
+			return i < end ? i : -1;
 		}
-		MIValue[] values = valueList.toArray(new MIValue[valueList.size()]);
-		MIResult[] res = resultList.toArray(new MIResult[resultList.size()]);
-		list.setMIValues(values);
-		list.setMIResults(res);
-		return list;
-	}
 
-	/**
-	 * MI C-String rather MIConst values are enclosed in double quotes
-	 * and any double quotes or backslashes in the string are escaped.
-	 * Assuming the starting double quote was removed. This method will
-	 * stop at the closing double quote, remove the extra backslash escaping
-	 * and return the string __without__ the enclosing double quotes. The
-	 * original string buffer will move forward.
-	 * @param buffer The string buffer to read from.
-	 * @param parseBackslashes Defines whether backslashes should be parsed.
-	 * This parameter is necessary to differentiate between records which
-	 * contain escaped backslashes and records which do not.
-	 * @return The translated C string.
-	 */
-	private String translateCString(FSB buffer, boolean parseBackslashes) {
-		boolean escape = false;
-		boolean closingQuotes = false;
+		/**
+		 * MI C-String rather MIConst values are enclosed in double quotes
+		 * and any double quotes or backslashes in the string are escaped.
+		 * Assuming the starting double quote was consumed. This method will
+		 * stop at the closing double quote, remove the extra backslash escaping
+		 * and return the string __without__ the enclosing double quotes. The
+		 * position moves forward.
+		 * @param parseBackslashes Defines whether backslashes should be parsed.
+		 * This parameter is necessary to differentiate between records which
+		 * contain escaped backslashes and records which do not.
+		 * @return The translated C string.
+		 */
+		String translateCString(boolean parseBackslashes) {
+			// Most strings do not contain any escapes and are taken from the line as they are.
+			int index = pos;
+			while (index < end) {
+				char c = line.charAt(index);
+				if (c == '"') {
+					String result = line.substring(pos, index);
+					pos = index + 1;
+					return result;
+				}
+				if (c == '\\')
+					break;
+				index++;
+			}
 
-		StringBuffer sb = new StringBuffer();
+			boolean escape = false;
+			boolean closingQuotes = false;
 
-		int index = 0;
-		for (; index < buffer.length() && !closingQuotes; index++) {
-			char c = buffer.charAt(index);
-			if (c == '\\') {
-				if (escape) {
-					sb.append(c);
-					if (!parseBackslashes) {
+			StringBuilder sb = new StringBuilder(index - pos + 16);
+			sb.append(line, pos, index);
+			for (; index < end && !closingQuotes; index++) {
+				char c = line.charAt(index);
+				if (c == '\\') {
+					if (escape) {
 						sb.append(c);
+						if (!parseBackslashes) {
+							sb.append(c);
+						}
+						escape = false;
+					} else {
+						escape = true;
+					}
+				} else if (c == '"') {
+					if (escape) {
+						sb.append(c);
+						escape = false;
+					} else {
+						// Bail out.
+						closingQuotes = true;
 					}
-					escape = false;
 				} else {
-					escape = true;
-				}
-			} else if (c == '"') {
-				if (escape) {
+					if (escape) {
+						sb.append('\\');
+					}
 					sb.append(c);
 					escape = false;
-				} else {
-					// Bail out.
-					closingQuotes = true;
 				}
-			} else {
-				if (escape) {
-					sb.append('\\');
-				}
-				sb.append(c);
-				escape = false;
 			}
+			pos = index;
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * A tuple that is parsed from its range of the line when its content is first accessed.
+	 */
+	private static class LazyMITuple extends MITuple {
+		private String fLine;
+		private int fStart;
+		private int fEnd;
+
+		LazyMITuple(String line, int start, int end) {
+			fLine = line;
+			fStart = start;
+			fEnd = end;
+		}
+
+		private synchronized void parse() {
+			if (fLine != null) {
+				Reader reader = new Reader(fLine, fStart, fEnd);
+				fLine = null;
+				reader.processMIValues(this, '}');
+			}
+		}
+
+		@Override
+		public MIResult[] getMIResults() {
+			parse();
+			return super.getMIResults();
+		}
+
+		@Override
+		public void setMIResults(MIResult[] res) {
+			parse();
+			super.setMIResults(res);
+		}
+
+		@Override
+		public MIValue[] getMIValues() {
+			parse();
+			return super.getMIValues();
+		}
+
+		@Override
+		public void setMIValues(MIValue[] vals) {
+			parse();
+			super.setMIValues(vals);
+		}
+
+		@Override
+		public MIValue getField(String name) {
+			parse();
+			return super.getField(name);
+		}
+
+		@Override
+		String toString(String start, String end) {
+			parse();
+			return super.toString(start, end);
+		}
+	}
+
+	/**
+	 * A list that is parsed from its range of the line when its content is first accessed.
+	 */
+	private static class LazyMIList extends MIList {
+		private String fLine;
+		private int fStart;
+		private int fEnd;
+
+		LazyMIList(String line, int start, int end) {
+			fLine = line;
+			fStart = start;
+			fEnd = end;
+		}
+
+		private synchronized void parse() {
+			if (fLine != null) {
+				Reader reader = new Reader(fLine, fStart, fEnd);
+				fLine = null;
+				reader.processMIValues(this, ']');
+			}
+		}
+
+		@Override
+		public MIResult[] getMIResults() {
+			parse();
+			return super.getMIResults();
+		}
+
+		@Override
+		public void setMIResults(MIResult[] res) {
+			parse();
+			super.setMIResults(res);
+		}
+
+		@Override
+		public MIValue[] getMIValues() {
+			parse();
+			return super.getMIValues();
+		}
+
+		@Override
+		public void setMIValues(MIValue[] vals) {
+			parse();
+			super.setMIValues(vals);
+		}
+
+		@Override
+		public String toString() {
+			parse();
+			return super.toString();
 		}
-		buffer.delete(0, index);
-		return sb.toString();
 	}
 
 	/**
@@ -485,7 +655,10 @@ public class MIParser {
 	 * with this for large arrays. Use of FSB rather than String
 	 * Buffer makes MIParser N rather than N^2 because FSB can
 	 * delete from the front in constant time.
+	 *
+	 * @deprecated The parser no longer uses this class, it reads the lines in place.
 	 */
+	@Deprecated
 	public class FSB {
 		StringBuffer buf;
 		int pos;
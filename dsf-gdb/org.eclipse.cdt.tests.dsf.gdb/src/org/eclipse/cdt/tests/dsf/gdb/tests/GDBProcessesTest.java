@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 Ericsson and others.
+ * Copyright (c) 2009, 2020 Ericsson and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,21 +15,38 @@
 package org.eclipse.cdt.tests.dsf.gdb.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.eclipse.cdt.debug.core.ICDTLaunchConfigurationConstants;
 import org.eclipse.cdt.dsf.concurrent.DataRequestMonitor;
 import org.eclipse.cdt.dsf.concurrent.Query;
+import org.eclipse.cdt.dsf.datamodel.AbstractDMEvent;
 import org.eclipse.cdt.dsf.datamodel.DMContexts;
+import org.eclipse.cdt.dsf.datamodel.IDMContext;
 import org.eclipse.cdt.dsf.debug.service.IProcesses.IProcessDMContext;
 import org.eclipse.cdt.dsf.debug.service.IProcesses.IThreadDMData;
+import org.eclipse.cdt.dsf.debug.service.IRunControl.IContainerDMContext;
+import org.eclipse.cdt.dsf.debug.service.IRunControl.IExecutionDMContext;
+import org.eclipse.cdt.dsf.debug.service.IRunControl.IExitedDMEvent;
+import org.eclipse.cdt.dsf.debug.service.IRunControl.IStartedDMEvent;
+import org.eclipse.cdt.dsf.debug.service.command.ICommandControlService;
+import org.eclipse.cdt.dsf.debug.service.command.ICommandListener;
+import org.eclipse.cdt.dsf.debug.service.command.ICommandResult;
+import org.eclipse.cdt.dsf.debug.service.command.ICommandToken;
+import org.eclipse.cdt.dsf.gdb.service.GDBProcesses_7_0;
+import org.eclipse.cdt.dsf.mi.service.IMIExecutionDMContext;
 import org.eclipse.cdt.dsf.mi.service.IMIProcesses;
+import org.eclipse.cdt.dsf.mi.service.command.commands.MIListThreadGroups;
 import org.eclipse.cdt.dsf.service.DsfServicesTracker;
 import org.eclipse.cdt.dsf.service.DsfSession;
 import org.eclipse.cdt.tests.dsf.gdb.framework.BaseParametrizedTestCase;
@@ -52,6 +69,44 @@ public class GDBProcessesTest extends BaseParametrizedTestCase {
 	private DsfServicesTracker fServicesTracker;
 
 	private IMIProcesses fProcService;
+	private ICommandControlService fCommandControl;
+
+	/*
+	 * Counts the -list-thread-groups commands sent to GDB.
+	 */
+	private final AtomicInteger fThreadListings = new AtomicInteger();
+	private final ICommandListener fCommandListener = new ICommandListener() {
+		@Override
+		public void commandQueued(ICommandToken token) {
+		}
+
+		@Override
+		public void commandSent(ICommandToken token) {
+			if (token.getCommand() instanceof MIListThreadGroups) {
+				fThreadListings.incrementAndGet();
+			}
+		}
+
+		@Override
+		public void commandRemoved(ICommandToken token) {
+		}
+
+		@Override
+		public void commandDone(ICommandToken token, ICommandResult result) {
+		}
+	};
+
+	private static class ThreadStartedEvent extends AbstractDMEvent<IExecutionDMContext> implements IStartedDMEvent {
+		ThreadStartedEvent(IExecutionDMContext context) {
+			super(context);
+		}
+	}
+
+	private static class ThreadExitedEvent extends AbstractDMEvent<IExecutionDMContext> implements IExitedDMEvent {
+		ThreadExitedEvent(IExecutionDMContext context) {
+			super(context);
+		}
+	}
 
 	@Override
 	public void doBeforeTest() throws Exception {
@@ -63,12 +118,19 @@ public class GDBProcessesTest extends BaseParametrizedTestCase {
 		Runnable runnable = () -> {
 			fServicesTracker = new DsfServicesTracker(TestsPlugin.getBundleContext(), fSession.getId());
 			fProcService = fServicesTracker.getService(IMIProcesses.class);
+			fCommandControl = fServicesTracker.getService(ICommandControlService.class);
+			fCommandControl.addCommandListener(fCommandListener);
 		};
 		fSession.getExecutor().submit(runnable).get();
 	}
 
 	@Override
 	public void doAfterTest() throws Exception {
+		if (fCommandControl != null) {
+			fSession.getExecutor().submit(() -> fCommandControl.removeCommandListener(fCommandListener)).get();
+			fCommandControl = null;
+		}
+
 		super.doAfterTest();
 
 		fProcService = null;
@@ -150,4 +212,109 @@ public class GDBProcessesTest extends BaseParametrizedTestCase {
 			assertEquals("Thread name of thread " + i, expectedName, name);
 		}
 	}
+
+	/*
+	 * Dispatches the given thread events to the processes service.
+	 */
+	private void dispatchThreadEvents(final IContainerDMContext containerDmc, final boolean started,
+			final String... threadIds) {
+		GDBProcesses_7_0 processes = (GDBProcesses_7_0) fProcService;
+		IProcessDMContext processDmc = DMContexts.getAncestorOfType(containerDmc, IProcessDMContext.class);
+		for (String threadId : threadIds) {
+			IMIExecutionDMContext threadDmc = fProcService.createExecutionContext(containerDmc,
+					fProcService.createThreadContext(processDmc, threadId), threadId);
+			if (started) {
+				processes.eventDispatched(new ThreadStartedEvent(threadDmc));
+			} else {
+				processes.eventDispatched(new ThreadExitedEvent(threadDmc));
+			}
+		}
+	}
+
+	/*
+	 * Returns the ids of the threads of the process, dispatching the given thread events while
+	 * they are requested.
+	 */
+	private List<String> getThreadIds(final IContainerDMContext containerDmc, final boolean started,
+			final String... threadIds) throws Exception {
+		Query<IDMContext[]> query = new Query<IDMContext[]>() {
+			@Override
+			protected void execute(DataRequestMonitor<IDMContext[]> rm) {
+				fProcService.getProcessesBeingDebugged(containerDmc, rm);
+				dispatchThreadEvents(containerDmc, started, threadIds);
+			}
+		};
+		fProcService.getExecutor().execute(query);
+
+		List<String> ids = new ArrayList<>();
+		for (IDMContext threadDmc : query.get(TestsPlugin.massageTimeout(2000), TimeUnit.MILLISECONDS)) {
+			ids.add(((IMIExecutionDMContext) threadDmc).getThreadId());
+		}
+		return ids;
+	}
+
+	private List<String> getThreadIds(IContainerDMContext containerDmc) throws Exception {
+		return getThreadIds(containerDmc, true);
+	}
+
+	private void flushCache() throws Exception {
+		fProcService.getExecutor().submit(() -> ((GDBProcesses_7_0) fProcService).flushCache(null)).get();
+		fThreadListings.set(0);
+	}
+
+	/*
+	 * Once the threads are listed, thread events update the list without listing the threads again.
+	 */
+	@Test
+	public void threadListUpdatedByEvents() throws Throwable {
+		assumeGdbVersionAtLeast(ITestConstants.SUFFIX_GDB_7_0);
+		final IContainerDMContext containerDmc = SyncUtil.getContainerContext();
+		flushCache();
+
+		List<String> threadIds = getThreadIds(containerDmc);
+		assertEquals(1, fThreadListings.get());
+
+		fProcService.getExecutor().submit(() -> dispatchThreadEvents(containerDmc, true, "1000", "1001")).get();
+		List<String> expected = new ArrayList<>(threadIds);
+		expected.add("1000");
+		expected.add("1001");
+		assertEquals(expected, getThreadIds(containerDmc));
+
+		fProcService.getExecutor().submit(() -> dispatchThreadEvents(containerDmc, false, "1000")).get();
+		expected.remove("1000");
+		assertEquals(expected, getThreadIds(containerDmc));
+
+		fProcService.getExecutor().submit(() -> dispatchThreadEvents(containerDmc, false, "1001")).get();
+		assertEquals(threadIds, getThreadIds(containerDmc));
+		assertEquals(1, fThreadListings.get());
+	}
+
+	/*
+	 * A list of threads requested before a thread started or exited may be outdated, it is not
+	 * kept and the threads are listed again on the next request.
+	 */
+	@Test
+	public void threadListNotKeptWhenThreadsChange() throws Throwable {
+		assumeGdbVersionAtLeast(ITestConstants.SUFFIX_GDB_7_0);
+		IContainerDMContext containerDmc = SyncUtil.getContainerContext();
+		flushCache();
+
+		// A thread starting while the threads are listed
+		List<String> threadIds = getThreadIds(containerDmc, true, "1000");
+		assertEquals(1, fThreadListings.get());
+		assertFalse(threadIds.contains("1000"));
+		assertEquals(threadIds, getThreadIds(containerDmc));
+		assertEquals(2, fThreadListings.get());
+
+		// A thread exiting while the threads are listed
+		flushCache();
+		assertEquals(threadIds, getThreadIds(containerDmc, false, threadIds.get(0)));
+		assertEquals(1, fThreadListings.get());
+		assertEquals(threadIds, getThreadIds(containerDmc));
+		assertEquals(2, fThreadListings.get());
+
+		// The list received without events in between is kept.
+		assertEquals(threadIds, getThreadIds(containerDmc));
+		assertEquals(2, fThreadListings.get());
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 Ericsson and others.
+ * Copyright (c) 2007, 2020 Ericsson and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -25,9 +25,11 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.cdt.core.IAddress;
 import org.eclipse.cdt.debug.core.ICDTLaunchConfigurationConstants;
+import org.eclipse.cdt.dsf.concurrent.CountingRequestMonitor;
 import org.eclipse.cdt.dsf.concurrent.DataRequestMonitor;
 import org.eclipse.cdt.dsf.concurrent.ImmediateDataRequestMonitor;
 import org.eclipse.cdt.dsf.concurrent.Query;
@@ -49,9 +51,15 @@ import org.eclipse.cdt.dsf.debug.service.IFormattedValues.FormattedValueDMData;
 import org.eclipse.cdt.dsf.debug.service.IRunControl.StepType;
 import org.eclipse.cdt.dsf.debug.service.IStack.IFrameDMContext;
 import org.eclipse.cdt.dsf.debug.service.IStack.IVariableDMData;
+import org.eclipse.cdt.dsf.debug.service.command.ICommand;
+import org.eclipse.cdt.dsf.debug.service.command.ICommandControlService;
+import org.eclipse.cdt.dsf.debug.service.command.ICommandListener;
+import org.eclipse.cdt.dsf.debug.service.command.ICommandResult;
+import org.eclipse.cdt.dsf.debug.service.command.ICommandToken;
 import org.eclipse.cdt.dsf.mi.service.ClassAccessor.MIExpressionDMCAccessor;
 import org.eclipse.cdt.dsf.mi.service.MIExpressions;
 import org.eclipse.cdt.dsf.mi.service.MIExpressions.MIExpressionDMC;
+import org.eclipse.cdt.dsf.mi.service.command.commands.MIVarUpdate;
 import org.eclipse.cdt.dsf.mi.service.command.events.MIStoppedEvent;
 import org.eclipse.cdt.dsf.service.DsfServiceEventHandler;
 import org.eclipse.cdt.dsf.service.DsfServicesTracker;
@@ -81,6 +89,38 @@ public class MIExpressionsTest extends BaseParametrizedTestCase {
 
 	protected IExpressions fExpService;
 
+	private ICommandControlService fCommandControl;
+
+	// The -var-update commands sent for a single root, and for all roots at once
+	private final AtomicInteger fRootUpdates = new AtomicInteger();
+	private final AtomicInteger fBatchedUpdates = new AtomicInteger();
+
+	private final ICommandListener fCommandListener = new ICommandListener() {
+		@Override
+		public void commandQueued(ICommandToken token) {
+		}
+
+		@Override
+		public void commandSent(ICommandToken token) {
+			ICommand<?> command = token.getCommand();
+			if (command instanceof MIVarUpdate) {
+				if (Arrays.asList(((MIVarUpdate) command).getParameters()).contains("*")) {
+					fBatchedUpdates.incrementAndGet();
+				} else {
+					fRootUpdates.incrementAndGet();
+				}
+			}
+		}
+
+		@Override
+		public void commandRemoved(ICommandToken token) {
+		}
+
+		@Override
+		public void commandDone(ICommandToken token, ICommandResult result) {
+		}
+	};
+
 	private int fExprChangedEventCount = 0;
 
 	private IExpressionDMContext fExprChangedCtx = null;
@@ -111,6 +151,8 @@ public class MIExpressionsTest extends BaseParametrizedTestCase {
 			fServicesTracker = new DsfServicesTracker(TestsPlugin.getBundleContext(), fSession.getId());
 
 			fExpService = fServicesTracker.getService(IExpressions.class);
+			fCommandControl = fServicesTracker.getService(ICommandControlService.class);
+			fCommandControl.addCommandListener(fCommandListener);
 			fSession.addServiceEventListener(MIExpressionsTest.this, null);
 			clearExprChangedData();
 		};
@@ -121,8 +163,14 @@ public class MIExpressionsTest extends BaseParametrizedTestCase {
 	public void doAfterTest() throws Exception {
 		super.doAfterTest();
 		if (fSession != null) {
-			fSession.getExecutor().submit(() -> fSession.removeServiceEventListener(MIExpressionsTest.this)).get();
+			fSession.getExecutor().submit(() -> {
+				fSession.removeServiceEventListener(MIExpressionsTest.this);
+				if (fCommandControl != null) {
+					fCommandControl.removeCommandListener(fCommandListener);
+				}
+			}).get();
 		}
+		fCommandControl = null;
 		fExpService = null;
 		if (fServicesTracker != null) {
 			fServicesTracker.dispose();
@@ -1822,6 +1870,110 @@ public class MIExpressionsTest extends BaseParametrizedTestCase {
 		wait.waitReset();
 	}
 
+	/**
+	 * Returns the values of the given expressions, requested in a single dispatch cycle as the
+	 * views do after the target stopped.
+	 */
+	private String[] getValues(final IFrameDMContext frameDmc, final String... expressions) throws Throwable {
+		final String[] values = new String[expressions.length];
+		Query<Object> query = new Query<Object>() {
+			@Override
+			protected void execute(DataRequestMonitor<Object> rm) {
+				final CountingRequestMonitor crm = new CountingRequestMonitor(fExpService.getExecutor(), rm);
+				for (int i = 0; i < expressions.length; i++) {
+					final int index = i;
+					IExpressionDMContext exprDmc = fExpService.createExpression(frameDmc, expressions[i]);
+					fExpService.getFormattedExpressionValue(
+							fExpService.getFormattedValueContext(exprDmc, IFormattedValues.NATURAL_FORMAT),
+							new DataRequestMonitor<FormattedValueDMData>(fExpService.getExecutor(), crm) {
+								@Override
+								protected void handleSuccess() {
+									values[index] = getData().getFormattedValue();
+									crm.done();
+								}
+							});
+				}
+				crm.setDoneCount(expressions.length);
+			}
+		};
+		fExpService.getExecutor().execute(query);
+		query.get(TestsPlugin.massageTimeout(5000), TimeUnit.MILLISECONDS);
+		return values;
+	}
+
+	private void resetUpdateCounts() {
+		fRootUpdates.set(0);
+		fBatchedUpdates.set(0);
+	}
+
+	/**
+	 * This test verifies that the roots requested together after a stop are updated
+	 * with a single -var-update of all variable objects.
+	 */
+	@Test
+	public void testBatchedUpdateOfRoots() throws Throwable {
+		SyncUtil.runToLocation("testUpdateChildren");
+		MIStoppedEvent stoppedEvent = SyncUtil.step(2, StepType.STEP_OVER);
+		IFrameDMContext frameDmc = SyncUtil.getStackFrame(stoppedEvent.getDMContext(), 0);
+		assertEquals(Arrays.asList("10", "11"), Arrays.asList(getValues(frameDmc, "a.z.x", "a.z.y")));
+
+		resetUpdateCounts();
+		stoppedEvent = SyncUtil.step(2, StepType.STEP_OVER);
+		frameDmc = SyncUtil.getStackFrame(stoppedEvent.getDMContext(), 0);
+		assertEquals(Arrays.asList("20", "21"), Arrays.asList(getValues(frameDmc, "a.z.x", "a.z.y")));
+		assertEquals(1, fBatchedUpdates.get());
+		assertEquals(0, fRootUpdates.get());
+	}
+
+	/**
+	 * This test verifies that roots that went out-of-scope are re-created after an update
+	 * of all variable objects.
+	 */
+	@Test
+	public void testBatchedUpdateOfOutOfScopeRoots() throws Throwable {
+		SyncUtil.runToLocation("testUpdateChildren");
+		MIStoppedEvent stoppedEvent = SyncUtil.step(2, StepType.STEP_OVER);
+		IFrameDMContext frameDmc = SyncUtil.getStackFrame(stoppedEvent.getDMContext(), 0);
+		assertEquals(Arrays.asList("10", "11"), Arrays.asList(getValues(frameDmc, "a.z.x", "a.z.y")));
+
+		// The roots have the same id in the frame of another method at the same depth
+		resetUpdateCounts();
+		SyncUtil.runToLocation("testUpdateChildren2");
+		stoppedEvent = SyncUtil.step(2, StepType.STEP_OVER);
+		frameDmc = SyncUtil.getStackFrame(stoppedEvent.getDMContext(), 0);
+		assertEquals(Arrays.asList("210", "211"), Arrays.asList(getValues(frameDmc, "a.z.x", "a.z.y")));
+		assertEquals(1, fBatchedUpdates.get());
+		assertEquals(0, fRootUpdates.get());
+	}
+
+	/**
+	 * This test verifies that roots are updated on their own when only a few of the
+	 * existing roots are requested.
+	 */
+	@Test
+	public void testUpdateOfFewRoots() throws Throwable {
+		SyncUtil.runToLocation("testUpdateChildren");
+		MIStoppedEvent stoppedEvent = SyncUtil.step(2, StepType.STEP_OVER);
+		IFrameDMContext frameDmc = SyncUtil.getStackFrame(stoppedEvent.getDMContext(), 0);
+		assertEquals(Arrays.asList("10", "11", "0", "10", "11"),
+				Arrays.asList(getValues(frameDmc, "a.z.x", "a.z.y", "val", "a.z.x + 0", "a.z.y + 0")));
+
+		resetUpdateCounts();
+		stoppedEvent = SyncUtil.step(2, StepType.STEP_OVER);
+		frameDmc = SyncUtil.getStackFrame(stoppedEvent.getDMContext(), 0);
+		assertEquals(Arrays.asList("20", "21"), Arrays.asList(getValues(frameDmc, "a.z.x", "a.z.y")));
+		assertEquals(0, fBatchedUpdates.get());
+		assertEquals(2, fRootUpdates.get());
+
+		// A single root is never updated together with the others
+		resetUpdateCounts();
+		stoppedEvent = SyncUtil.step(StepType.STEP_OVER);
+		frameDmc = SyncUtil.getStackFrame(stoppedEvent.getDMContext(), 0);
+		assertEquals(Arrays.asList("0"), Arrays.asList(getValues(frameDmc, "val")));
+		assertEquals(0, fBatchedUpdates.get());
+		assertEquals(1, fRootUpdates.get());
+	}
+
 	/**
 	 * This test creates a variable object with children (not an array) and then gets these children
 	 * to be deleted because of a large number of other variable objects being created.